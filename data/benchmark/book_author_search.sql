@@ -0,0 +1,64 @@
+--- Benchmark of the author search on a seeded copy of table book: ---
+--- substring search without index vs. substring search and similarity top-N with trigram index ---
+--- usage: psql -h localhost -U schwarz -d schwarz_db -v rows=10000000 -f ./data/benchmark/book_author_search.sql ---
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+    \set rows 1000000
+\endif
+\timing on
+
+--- create table book in schema 'benchmark', so that the library data stays untouched ---
+CREATE SCHEMA IF NOT EXISTS benchmark;
+DROP TABLE IF EXISTS benchmark.book;
+CREATE TABLE benchmark.book (LIKE library.book);
+
+--- seed the books with generated author names ---
+INSERT INTO benchmark.book (id, author, title, publisher, publishing_year, category_id, created_on)
+SELECT g,
+       (ARRAY['Fjodor', 'Anna', 'Thomas', 'Hermann', 'Agatha', 'Stephen', 'Jane', 'Leo', 'Franz', 'Virginia',
+              'Ernest', 'Astrid', 'Umberto', 'Gabriel', 'Haruki', 'Isabel', 'Paulo', 'Toni', 'Mark', 'Ingrid'])[1 + g % 20]
+           || ' ' ||
+       (ARRAY['Dostojewski', 'Seghers', 'Mann', 'Hesse', 'Christie', 'King', 'Austen', 'Tolstoi', 'Kafka', 'Woolf',
+              'Hemingway', 'Lindgren', 'Eco', 'Marquez', 'Murakami', 'Allende', 'Coelho', 'Morrison', 'Twain', 'Noll',
+              'Fontane', 'Goethe', 'Schiller', 'Brecht', 'Grass', 'Boell', 'Zweig', 'Remarque', 'Frisch', 'Duerrenmatt',
+              'Nesbo', 'Larsson', 'Mankell', 'Adler-Olsen', 'Indridason', 'Rowling', 'Pratchett', 'Gaiman', 'Orwell', 'Huxley',
+              'Bradbury', 'Asimov', 'Lem', 'Herbert', 'Tolkien', 'Lewis', 'Dickens', 'Bronte', 'Wilde', 'Joyce'])[1 + (g / 20) % 50]
+           || ' ' || substr(md5(g::text), 1, 6),
+       'Title ' || g,
+       'Publisher ' || g % 500,
+       make_date(1900 + g % 125, 1, 1),
+       1,
+       now()
+FROM generate_series(1, :rows) g;
+
+ALTER TABLE benchmark.book ADD PRIMARY KEY (id);
+ANALYZE benchmark.book;
+
+--- old query: substring search without trigram index (sequential scan) ---
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.* FROM benchmark.book b WHERE b.author LIKE '%' || 'Dostojewsk' || '%' ORDER BY b.id LIMIT 50;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.* FROM benchmark.book b WHERE b.author LIKE '%' || 'Murakami 4f' || '%' ORDER BY b.id LIMIT 50;
+
+--- create trigram index ---
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX book_author_trgm_idx ON benchmark.book USING GIN (author gin_trgm_ops);
+ANALYZE benchmark.book;
+
+--- old query: substring search with trigram index ---
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.* FROM benchmark.book b WHERE b.author LIKE '%' || 'Murakami 4f' || '%' ORDER BY b.id LIMIT 50;
+
+--- new query: similarity top-N with trigram index, misspelled author ---
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.* FROM benchmark.book b WHERE 'Murakami 4f' <% b.author
+ORDER BY word_similarity('Murakami 4f', b.author) DESC, b.id LIMIT 50;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.* FROM benchmark.book b WHERE 'Dostojewsky' <% b.author
+ORDER BY word_similarity('Dostojewsky', b.author) DESC, b.id LIMIT 50;
+
+--- cleanup ---
+DROP SCHEMA benchmark CASCADE;
@@ -3,22 +3,123 @@ CREATE ROLE schwarz CREATEDB LOGIN PASSWORD '12345678!';
 --- create schema 'library' ---
 CREATE SCHEMA library AUTHORIZATION schwarz;
 
+--- create extension for trigram indexes ---
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 --- create table category in database 'schwarz_db' ---
 CREATE TABLE library.category
 (
     id          BIGSERIAL PRIMARY KEY,
     description VARCHAR(100) NOT NULL,
+    parent_id   INT8 NULL,
     created_on  TIMESTAMP NOT NULL DEFAULT now(),
     updated_on  TIMESTAMP NULL,
-    CONSTRAINT description_uk UNIQUE (description)
+    CONSTRAINT description_uk UNIQUE (description),
+    CONSTRAINT category_parent_fk FOREIGN KEY (parent_id) REFERENCES library.category(id)
 );
 
 --- create comments on columns ---
 COMMENT ON COLUMN library.category.id IS 'Primary key.';
 COMMENT ON COLUMN library.category.description IS 'The description of the category.';
+COMMENT ON COLUMN library.category.parent_id IS 'The ID of the parent category, NULL for a top level category.';
 COMMENT ON COLUMN library.category.created_on IS 'The creation time of the entry.';
 COMMENT ON COLUMN library.category.updated_on IS 'The update time of the entry.';
 
+--- create search key of table category, ignoring case, accents and the transcription of umlauts ---
+CREATE FUNCTION library.category_search_key(description TEXT) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+    RETURN regexp_replace(regexp_replace(regexp_replace(lower(normalize(description, NFD)), '([aou])\u0308', '\1e', 'g'), '[\u0300-\u036f]', '', 'g'), '[ßẞ]', 'ss', 'g');
+
+COMMENT ON FUNCTION library.category_search_key(TEXT) IS 'Lower case, ä/ö/ü as ae/oe/ue, other diacritics stripped, ß as ss: Märchen, MÄRCHEN and Maerchen have the same key, Poetry keeps its oe. Same as CategorySearchKey of the application.';
+
+ALTER TABLE library.category ADD COLUMN search_key TEXT GENERATED ALWAYS AS (library.category_search_key(description)) STORED;
+
+COMMENT ON COLUMN library.category.search_key IS 'The normalized description, for strict and substring search of categories.';
+
+CREATE UNIQUE INDEX category_search_key_uk ON library.category (search_key text_pattern_ops);
+CREATE INDEX category_search_key_trgm_idx ON library.category USING GIN (search_key gin_trgm_ops);
+
+COMMENT ON INDEX library.category_search_key_uk IS 'Strict and prefix search of categories, no two categories differ only in case, accents or umlauts.';
+COMMENT ON INDEX library.category_search_key_trgm_idx IS 'Substring (LIKE) search of categories.';
+
+--- create index on the parent of table category ---
+CREATE INDEX category_parent_idx ON library.category (parent_id);
+
+COMMENT ON INDEX library.category_parent_idx IS 'Children of a category, foreign key checks on removing a category.';
+
+--- create table category_closure, all ancestor and descendant pairs of the category tree maintained by triggers on table category ---
+CREATE TABLE library.category_closure
+(
+    ancestor_id   INT8 NOT NULL,
+    descendant_id INT8 NOT NULL,
+    depth         INT4 NOT NULL,
+    CONSTRAINT category_closure_pk PRIMARY KEY (ancestor_id, descendant_id),
+    CONSTRAINT category_closure_ancestor_fk FOREIGN KEY (ancestor_id) REFERENCES library.category(id) ON DELETE CASCADE,
+    CONSTRAINT category_closure_descendant_fk FOREIGN KEY (descendant_id) REFERENCES library.category(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.category_closure.ancestor_id IS 'The ID of the ancestor category. Each category is its own ancestor with depth 0.';
+COMMENT ON COLUMN library.category_closure.descendant_id IS 'The ID of the descendant category.';
+COMMENT ON COLUMN library.category_closure.depth IS 'The number of levels between ancestor and descendant.';
+
+CREATE INDEX category_closure_descendant_idx ON library.category_closure (descendant_id) INCLUDE (depth);
+
+COMMENT ON INDEX library.category_closure_descendant_idx IS 'Ancestors of a category, on insert and move of categories.';
+
+--- create trigger function linking an inserted category to the ancestors of its parent, and a moved subtree to the ancestors of its new parent ---
+CREATE FUNCTION library.category_closure_trg() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF NEW.parent_id IS NOT NULL THEN
+            PERFORM pg_advisory_xact_lock_shared(hashtext('library.category_closure'));
+        END IF;
+        INSERT INTO library.category_closure(ancestor_id, descendant_id, depth)
+        SELECT NEW.id, NEW.id, 0
+        UNION ALL
+        SELECT p.ancestor_id, NEW.id, p.depth + 1
+        FROM library.category_closure p
+        WHERE p.descendant_id = NEW.parent_id;
+    ELSE
+        -- moves are serialized, so two concurrent moves cannot close a cycle, or miss a category inserted meanwhile
+        PERFORM pg_advisory_xact_lock(hashtext('library.category_closure'));
+        IF EXISTS (SELECT 1 FROM library.category_closure s WHERE s.ancestor_id = NEW.id AND s.descendant_id = NEW.parent_id) THEN
+            RAISE EXCEPTION 'category % cannot be moved below its own subtree category %', NEW.id, NEW.parent_id
+                USING ERRCODE = 'check_violation';
+        END IF;
+        DELETE FROM library.category_closure l
+        WHERE l.descendant_id IN (SELECT s.descendant_id FROM library.category_closure s WHERE s.ancestor_id = NEW.id)
+          AND l.ancestor_id IN (SELECT a.ancestor_id FROM library.category_closure a WHERE a.descendant_id = NEW.id AND a.ancestor_id <> NEW.id);
+        INSERT INTO library.category_closure(ancestor_id, descendant_id, depth)
+        SELECT a.ancestor_id, s.descendant_id, a.depth + s.depth + 1
+        FROM library.category_closure a
+        CROSS JOIN library.category_closure s
+        WHERE a.descendant_id = NEW.parent_id
+          AND s.ancestor_id = NEW.id;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER category_closure_insert_trg AFTER INSERT ON library.category
+    FOR EACH ROW EXECUTE FUNCTION library.category_closure_trg();
+CREATE TRIGGER category_closure_move_trg AFTER UPDATE OF parent_id ON library.category
+    FOR EACH ROW WHEN (OLD.parent_id IS DISTINCT FROM NEW.parent_id) EXECUTE FUNCTION library.category_closure_trg();
+
+--- initialize the closure from the existing categories ---
+INSERT INTO library.category_closure(ancestor_id, descendant_id, depth)
+WITH RECURSIVE tree(ancestor_id, descendant_id, depth) AS (
+    SELECT c.id, c.id, 0
+    FROM library.category c
+    UNION ALL
+    SELECT t.ancestor_id, c.id, t.depth + 1
+    FROM tree t
+    JOIN library.category c ON (c.parent_id = t.descendant_id))
+SELECT t.ancestor_id, t.descendant_id, t.depth
+FROM tree t;
+
 --- create table customer in database 'schwarz_db' ---
 CREATE TABLE library.customer
 (
@@ -35,10 +136,43 @@ CREATE TABLE library.customer
 COMMENT ON COLUMN library.customer.id IS 'Primary key.';
 COMMENT ON COLUMN library.customer.name IS 'The name of the customer.';
 COMMENT ON COLUMN library.customer.email IS 'The email address of the customer.';
-COMMENT ON COLUMN library.customer.password IS 'The password of the customer. Not encrypted.';
+COMMENT ON COLUMN library.customer.password IS 'The password hash of the customer, prefixed by the id of its encoder, e.g. {bcrypt}. Hashes without prefix are BCrypt.';
 COMMENT ON COLUMN library.customer.created_on IS 'The creation time of the entry.';
 COMMENT ON COLUMN library.customer.updated_on IS 'The update time of the entry.';
 
+--- create table refresh_token, the refresh tokens of the customers, rotated on each use ---
+CREATE TABLE library.refresh_token
+(
+    id          BIGSERIAL PRIMARY KEY,
+    customer_id INT8 NOT NULL,
+    family_id   UUID NOT NULL,
+    token_hash  VARCHAR(64) NOT NULL,
+    expires_on  TIMESTAMP NOT NULL,
+    used_on     TIMESTAMP NULL,
+    revoked_on  TIMESTAMP NULL,
+    created_on  TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT refresh_token_hash_uk UNIQUE (token_hash),
+    CONSTRAINT refresh_token_customer_fk FOREIGN KEY (customer_id) REFERENCES library.customer(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.refresh_token.id IS 'Primary key.';
+COMMENT ON COLUMN library.refresh_token.customer_id IS 'The ID of the customer.';
+COMMENT ON COLUMN library.refresh_token.family_id IS 'The login the token descends from, all tokens of a login are revoked when a used token is used again.';
+COMMENT ON COLUMN library.refresh_token.token_hash IS 'The SHA-256 hash of the token in hex, the token itself is not stored.';
+COMMENT ON COLUMN library.refresh_token.expires_on IS 'The expiry time of the token.';
+COMMENT ON COLUMN library.refresh_token.used_on IS 'The time the token was exchanged for its successor, NULL if unused.';
+COMMENT ON COLUMN library.refresh_token.revoked_on IS 'The revocation time of the token, NULL if not revoked.';
+COMMENT ON COLUMN library.refresh_token.created_on IS 'The creation time of the entry.';
+
+CREATE INDEX refresh_token_family_idx ON library.refresh_token (family_id);
+CREATE INDEX refresh_token_customer_idx ON library.refresh_token (customer_id);
+CREATE INDEX refresh_token_expires_idx ON library.refresh_token (expires_on);
+
+COMMENT ON INDEX library.refresh_token_family_idx IS 'Tokens of a login, revoking them on reuse.';
+COMMENT ON INDEX library.refresh_token_customer_idx IS 'Foreign key checks on removing a customer.';
+COMMENT ON INDEX library.refresh_token_expires_idx IS 'Removing the expired tokens.';
+
 
 --- create table book in database 'schwarz_db' ---
 CREATE TABLE library.book
@@ -64,6 +198,206 @@ COMMENT ON COLUMN library.book.category_id IS 'The ID of the category, to which
 COMMENT ON COLUMN library.book.created_on IS 'The creation time of the entry.';
 COMMENT ON COLUMN library.book.updated_on IS 'The update time of the entry.';
 
+--- allocate book ids in blocks of 50, matching the allocation size of the entity ---
+--- starts at 50, so each value is the highest id of its block, the first block is 1..50 ---
+--- existing databases are migrated by ./migration/book_id_seq_allocation.sql ---
+ALTER SEQUENCE library.book_id_seq INCREMENT BY 50 START WITH 50 RESTART;
+
+--- create indexes on table book ---
+CREATE INDEX book_category_year_idx ON library.book (category_id, publishing_year, id) INCLUDE (publisher);
+CREATE INDEX book_publisher_year_idx ON library.book (publisher, publishing_year) INCLUDE (category_id);
+CREATE INDEX book_year_idx ON library.book (publishing_year) INCLUDE (category_id, publisher);
+CREATE INDEX book_author_idx ON library.book (author, id);
+
+COMMENT ON INDEX library.book_category_year_idx IS 'Keyset pagination of the books of a category by publishing year and id, index only facet counts filtered by category.';
+COMMENT ON INDEX library.book_publisher_year_idx IS 'Index only facet counts filtered by publisher and publishing year.';
+COMMENT ON INDEX library.book_year_idx IS 'Index only facet counts filtered by publishing year.';
+COMMENT ON INDEX library.book_author_idx IS 'Books of the exact authors matched by the typo tolerant author search, ordered by id.';
+
+--- create trigram indexes on table book for substring and similarity search ---
+CREATE INDEX book_author_trgm_idx ON library.book USING GIN (author gin_trgm_ops);
+CREATE INDEX book_title_trgm_idx ON library.book USING GIN (title gin_trgm_ops);
+
+COMMENT ON INDEX library.book_author_trgm_idx IS 'Substring (LIKE) and similarity search on the author.';
+COMMENT ON INDEX library.book_title_trgm_idx IS 'Substring (LIKE) and similarity search on the title.';
+
+--- create table category_book_count, the number of books per category maintained by triggers on table book ---
+CREATE TABLE library.category_book_count
+(
+    category_id INT8 NOT NULL,
+    slot        INT4 NOT NULL,
+    books_count INT8 NOT NULL DEFAULT 0,
+    CONSTRAINT category_book_count_pk PRIMARY KEY (category_id, slot),
+    CONSTRAINT category_book_count_category_fk FOREIGN KEY (category_id) REFERENCES library.category(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.category_book_count.category_id IS 'The ID of the category.';
+COMMENT ON COLUMN library.category_book_count.slot IS 'Counter slot of the writing session, so concurrent writers of one category do not wait on the same row.';
+COMMENT ON COLUMN library.category_book_count.books_count IS 'Share of the books of the category counted in this slot. The sum over all slots is the number of books.';
+
+--- create trigger function adding the books of each statement to the counters, one row per category ---
+CREATE FUNCTION library.category_book_count_trg() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO library.category_book_count(category_id, slot, books_count)
+        SELECT n.category_id, pg_backend_pid() % 16, count(*)
+        FROM new_books n
+        GROUP BY n.category_id
+        ORDER BY n.category_id
+        ON CONFLICT (category_id, slot) DO UPDATE SET books_count = category_book_count.books_count + EXCLUDED.books_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO library.category_book_count(category_id, slot, books_count)
+        SELECT o.category_id, pg_backend_pid() % 16, -count(*)
+        FROM old_books o
+        GROUP BY o.category_id
+        ORDER BY o.category_id
+        ON CONFLICT (category_id, slot) DO UPDATE SET books_count = category_book_count.books_count + EXCLUDED.books_count;
+    ELSE
+        INSERT INTO library.category_book_count(category_id, slot, books_count)
+        SELECT d.category_id, pg_backend_pid() % 16, sum(d.delta)
+        FROM (SELECT n.category_id, 1 delta FROM new_books n
+              UNION ALL
+              SELECT o.category_id, -1 delta FROM old_books o) d
+        GROUP BY d.category_id
+        HAVING sum(d.delta) <> 0
+        ORDER BY d.category_id
+        ON CONFLICT (category_id, slot) DO UPDATE SET books_count = category_book_count.books_count + EXCLUDED.books_count;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER book_count_insert_trg AFTER INSERT ON library.book
+    REFERENCING NEW TABLE AS new_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.category_book_count_trg();
+CREATE TRIGGER book_count_update_trg AFTER UPDATE ON library.book
+    REFERENCING OLD TABLE AS old_books NEW TABLE AS new_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.category_book_count_trg();
+CREATE TRIGGER book_count_delete_trg AFTER DELETE ON library.book
+    REFERENCING OLD TABLE AS old_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.category_book_count_trg();
+
+--- initialize the counters from the existing books ---
+INSERT INTO library.category_book_count(category_id, slot, books_count)
+SELECT b.category_id, 0, count(*)
+FROM library.book b
+GROUP BY b.category_id;
+
+--- create table book_facet_count, the number of books per category, publisher and year maintained by triggers on table book ---
+CREATE TABLE library.book_facet_count
+(
+    category_id     INT8 NOT NULL,
+    publisher       VARCHAR(50) NOT NULL,
+    publishing_year INT4 NOT NULL,
+    slot            INT4 NOT NULL,
+    books_count     INT4 NOT NULL DEFAULT 0,
+    CONSTRAINT book_facet_count_pk PRIMARY KEY (category_id, publisher, publishing_year, slot),
+    CONSTRAINT book_facet_count_category_fk FOREIGN KEY (category_id) REFERENCES library.category(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.book_facet_count.category_id IS 'The ID of the category.';
+COMMENT ON COLUMN library.book_facet_count.publisher IS 'The book publisher.';
+COMMENT ON COLUMN library.book_facet_count.publishing_year IS 'The year the books were published in.';
+COMMENT ON COLUMN library.book_facet_count.slot IS 'Counter slot of the writing session, so concurrent writers of one combination do not wait on the same row.';
+COMMENT ON COLUMN library.book_facet_count.books_count IS 'Share of the books of the combination counted in this slot. The sum over all slots is the number of books, INT4 as summed without numeric.';
+
+CREATE INDEX book_facet_count_publisher_idx ON library.book_facet_count (publisher, publishing_year) INCLUDE (category_id, books_count);
+CREATE INDEX book_facet_count_year_idx ON library.book_facet_count (publishing_year) INCLUDE (category_id, publisher, books_count);
+
+COMMENT ON INDEX library.book_facet_count_publisher_idx IS 'Index only facet counts filtered by publisher, the primary key covers the filter by category.';
+COMMENT ON INDEX library.book_facet_count_year_idx IS 'Index only facet counts filtered by publishing year.';
+
+--- create trigger function adding the books of each statement to the counters, one row per combination ---
+CREATE FUNCTION library.book_facet_count_trg() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO library.book_facet_count(category_id, publisher, publishing_year, slot, books_count)
+        SELECT n.category_id, n.publisher, CAST(EXTRACT(YEAR FROM n.publishing_year) AS int), pg_backend_pid() % 16, count(*)
+        FROM new_books n
+        GROUP BY 1, 2, 3
+        ORDER BY 1, 2, 3
+        ON CONFLICT (category_id, publisher, publishing_year, slot) DO UPDATE SET books_count = book_facet_count.books_count + EXCLUDED.books_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO library.book_facet_count(category_id, publisher, publishing_year, slot, books_count)
+        SELECT o.category_id, o.publisher, CAST(EXTRACT(YEAR FROM o.publishing_year) AS int), pg_backend_pid() % 16, -count(*)
+        FROM old_books o
+        GROUP BY 1, 2, 3
+        ORDER BY 1, 2, 3
+        ON CONFLICT (category_id, publisher, publishing_year, slot) DO UPDATE SET books_count = book_facet_count.books_count + EXCLUDED.books_count;
+    ELSE
+        INSERT INTO library.book_facet_count(category_id, publisher, publishing_year, slot, books_count)
+        SELECT d.category_id, d.publisher, d.publishing_year, pg_backend_pid() % 16, sum(d.delta)
+        FROM (SELECT n.category_id, n.publisher, CAST(EXTRACT(YEAR FROM n.publishing_year) AS int) publishing_year, 1 delta FROM new_books n
+              UNION ALL
+              SELECT o.category_id, o.publisher, CAST(EXTRACT(YEAR FROM o.publishing_year) AS int) publishing_year, -1 delta FROM old_books o) d
+        GROUP BY d.category_id, d.publisher, d.publishing_year
+        HAVING sum(d.delta) <> 0
+        ORDER BY d.category_id, d.publisher, d.publishing_year
+        ON CONFLICT (category_id, publisher, publishing_year, slot) DO UPDATE SET books_count = book_facet_count.books_count + EXCLUDED.books_count;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER book_facet_count_insert_trg AFTER INSERT ON library.book
+    REFERENCING NEW TABLE AS new_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.book_facet_count_trg();
+CREATE TRIGGER book_facet_count_update_trg AFTER UPDATE ON library.book
+    REFERENCING OLD TABLE AS old_books NEW TABLE AS new_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.book_facet_count_trg();
+CREATE TRIGGER book_facet_count_delete_trg AFTER DELETE ON library.book
+    REFERENCING OLD TABLE AS old_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.book_facet_count_trg();
+
+--- initialize the counters from the existing books ---
+INSERT INTO library.book_facet_count(category_id, publisher, publishing_year, slot, books_count)
+SELECT b.category_id, b.publisher, CAST(EXTRACT(YEAR FROM b.publishing_year) AS int), 0, count(*)
+FROM library.book b
+GROUP BY 1, 2, 3;
+
+--- create table tag in database 'schwarz_db' ---
+CREATE TABLE library.tag
+(
+    id          BIGSERIAL PRIMARY KEY,
+    name        VARCHAR(50) NOT NULL,
+    created_on  TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT tag_name_uk UNIQUE (name)
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.tag.id IS 'Primary key.';
+COMMENT ON COLUMN library.tag.name IS 'The name of the tag, trimmed and in lower case.';
+COMMENT ON COLUMN library.tag.created_on IS 'The creation time of the entry.';
+
+--- create table book_tag, the tags of the books ---
+CREATE TABLE library.book_tag
+(
+    book_id INT8 NOT NULL,
+    tag_id  INT8 NOT NULL,
+    CONSTRAINT book_tag_pk PRIMARY KEY (book_id, tag_id),
+    CONSTRAINT book_tag_book_fk FOREIGN KEY (book_id) REFERENCES library.book(id) ON DELETE CASCADE,
+    CONSTRAINT book_tag_tag_fk FOREIGN KEY (tag_id) REFERENCES library.tag(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.book_tag.book_id IS 'The ID of the tagged book.';
+COMMENT ON COLUMN library.book_tag.tag_id IS 'The ID of the tag.';
+
+CREATE INDEX book_tag_tag_idx ON library.book_tag (tag_id, book_id);
+
+COMMENT ON INDEX library.book_tag_tag_idx IS 'Books of a tag, loading the tag index and removing a tag.';
+
+--- create sequence of the catalog version, incremented after each commit changing books or categories ---
+CREATE SEQUENCE library.catalog_version_seq;
+
+COMMENT ON SEQUENCE library.catalog_version_seq IS 'Version of the catalog, used as entity tag of the catalog responses.';
+
 --- grant privileges on schema ---
 GRANT ALL PRIVILEGES ON SCHEMA library TO schwarz;
 GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA library TO schwarz;
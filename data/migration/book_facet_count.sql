@@ -0,0 +1,78 @@
+--- migrate a database created by an earlier init.sql to the precomputed facet counts of the books ---
+
+--- create table book_facet_count, the number of books per category, publisher and year maintained by triggers on table book ---
+CREATE TABLE library.book_facet_count
+(
+    category_id     INT8 NOT NULL,
+    publisher       VARCHAR(50) NOT NULL,
+    publishing_year INT4 NOT NULL,
+    slot            INT4 NOT NULL,
+    books_count     INT4 NOT NULL DEFAULT 0,
+    CONSTRAINT book_facet_count_pk PRIMARY KEY (category_id, publisher, publishing_year, slot),
+    CONSTRAINT book_facet_count_category_fk FOREIGN KEY (category_id) REFERENCES library.category(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.book_facet_count.category_id IS 'The ID of the category.';
+COMMENT ON COLUMN library.book_facet_count.publisher IS 'The book publisher.';
+COMMENT ON COLUMN library.book_facet_count.publishing_year IS 'The year the books were published in.';
+COMMENT ON COLUMN library.book_facet_count.slot IS 'Counter slot of the writing session, so concurrent writers of one combination do not wait on the same row.';
+COMMENT ON COLUMN library.book_facet_count.books_count IS 'Share of the books of the combination counted in this slot. The sum over all slots is the number of books, INT4 as summed without numeric.';
+
+CREATE INDEX book_facet_count_publisher_idx ON library.book_facet_count (publisher, publishing_year) INCLUDE (category_id, books_count);
+CREATE INDEX book_facet_count_year_idx ON library.book_facet_count (publishing_year) INCLUDE (category_id, publisher, books_count);
+
+COMMENT ON INDEX library.book_facet_count_publisher_idx IS 'Index only facet counts filtered by publisher, the primary key covers the filter by category.';
+COMMENT ON INDEX library.book_facet_count_year_idx IS 'Index only facet counts filtered by publishing year.';
+
+--- create trigger function adding the books of each statement to the counters, one row per combination ---
+CREATE FUNCTION library.book_facet_count_trg() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO library.book_facet_count(category_id, publisher, publishing_year, slot, books_count)
+        SELECT n.category_id, n.publisher, CAST(EXTRACT(YEAR FROM n.publishing_year) AS int), pg_backend_pid() % 16, count(*)
+        FROM new_books n
+        GROUP BY 1, 2, 3
+        ORDER BY 1, 2, 3
+        ON CONFLICT (category_id, publisher, publishing_year, slot) DO UPDATE SET books_count = book_facet_count.books_count + EXCLUDED.books_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO library.book_facet_count(category_id, publisher, publishing_year, slot, books_count)
+        SELECT o.category_id, o.publisher, CAST(EXTRACT(YEAR FROM o.publishing_year) AS int), pg_backend_pid() % 16, -count(*)
+        FROM old_books o
+        GROUP BY 1, 2, 3
+        ORDER BY 1, 2, 3
+        ON CONFLICT (category_id, publisher, publishing_year, slot) DO UPDATE SET books_count = book_facet_count.books_count + EXCLUDED.books_count;
+    ELSE
+        INSERT INTO library.book_facet_count(category_id, publisher, publishing_year, slot, books_count)
+        SELECT d.category_id, d.publisher, d.publishing_year, pg_backend_pid() % 16, sum(d.delta)
+        FROM (SELECT n.category_id, n.publisher, CAST(EXTRACT(YEAR FROM n.publishing_year) AS int) publishing_year, 1 delta FROM new_books n
+              UNION ALL
+              SELECT o.category_id, o.publisher, CAST(EXTRACT(YEAR FROM o.publishing_year) AS int) publishing_year, -1 delta FROM old_books o) d
+        GROUP BY d.category_id, d.publisher, d.publishing_year
+        HAVING sum(d.delta) <> 0
+        ORDER BY d.category_id, d.publisher, d.publishing_year
+        ON CONFLICT (category_id, publisher, publishing_year, slot) DO UPDATE SET books_count = book_facet_count.books_count + EXCLUDED.books_count;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER book_facet_count_insert_trg AFTER INSERT ON library.book
+    REFERENCING NEW TABLE AS new_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.book_facet_count_trg();
+CREATE TRIGGER book_facet_count_update_trg AFTER UPDATE ON library.book
+    REFERENCING OLD TABLE AS old_books NEW TABLE AS new_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.book_facet_count_trg();
+CREATE TRIGGER book_facet_count_delete_trg AFTER DELETE ON library.book
+    REFERENCING OLD TABLE AS old_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.book_facet_count_trg();
+
+--- initialize the counters from the existing books ---
+INSERT INTO library.book_facet_count(category_id, publisher, publishing_year, slot, books_count)
+SELECT b.category_id, b.publisher, CAST(EXTRACT(YEAR FROM b.publishing_year) AS int), 0, count(*)
+FROM library.book b
+GROUP BY 1, 2, 3;
+
+GRANT ALL PRIVILEGES ON library.book_facet_count TO schwarz;
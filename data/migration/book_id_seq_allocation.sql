@@ -0,0 +1,5 @@
+--- migrate a database created by an earlier init.sql to book ids allocated in blocks of 50 ---
+--- the next value of the sequence is the highest id of its block, so the block must not reach below the ids in use ---
+ALTER SEQUENCE library.book_id_seq INCREMENT BY 50;
+SELECT setval('library.book_id_seq', GREATEST(s.last_value, (SELECT COALESCE(max(b.id), 0) FROM library.book b)), true)
+FROM library.book_id_seq s;
@@ -0,0 +1,22 @@
+--- migrate a database created by an earlier init.sql to the indexes of table book ---
+
+--- create extension for trigram indexes ---
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+--- create indexes on table book ---
+CREATE INDEX IF NOT EXISTS book_category_year_idx ON library.book (category_id, publishing_year, id) INCLUDE (publisher);
+CREATE INDEX IF NOT EXISTS book_publisher_year_idx ON library.book (publisher, publishing_year) INCLUDE (category_id);
+CREATE INDEX IF NOT EXISTS book_year_idx ON library.book (publishing_year) INCLUDE (category_id, publisher);
+CREATE INDEX IF NOT EXISTS book_author_idx ON library.book (author, id);
+
+COMMENT ON INDEX library.book_category_year_idx IS 'Keyset pagination of the books of a category by publishing year and id, index only facet counts filtered by category.';
+COMMENT ON INDEX library.book_publisher_year_idx IS 'Index only facet counts filtered by publisher and publishing year.';
+COMMENT ON INDEX library.book_year_idx IS 'Index only facet counts filtered by publishing year.';
+COMMENT ON INDEX library.book_author_idx IS 'Books of the exact authors matched by the typo tolerant author search, ordered by id.';
+
+--- create trigram indexes on table book for substring and similarity search ---
+CREATE INDEX IF NOT EXISTS book_author_trgm_idx ON library.book USING GIN (author gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS book_title_trgm_idx ON library.book USING GIN (title gin_trgm_ops);
+
+COMMENT ON INDEX library.book_author_trgm_idx IS 'Substring (LIKE) and similarity search on the author.';
+COMMENT ON INDEX library.book_title_trgm_idx IS 'Substring (LIKE) and similarity search on the title.';
@@ -0,0 +1,8 @@
+--- migrate a database created by an earlier init.sql to the catalog version ---
+
+--- create sequence of the catalog version, incremented after each commit changing books or categories ---
+CREATE SEQUENCE IF NOT EXISTS library.catalog_version_seq;
+
+COMMENT ON SEQUENCE library.catalog_version_seq IS 'Version of the catalog, used as entity tag of the catalog responses.';
+
+GRANT ALL PRIVILEGES ON library.catalog_version_seq TO schwarz;
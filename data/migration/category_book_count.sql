@@ -0,0 +1,68 @@
+--- migrate a database created by an earlier init.sql to the precomputed book counts of the categories ---
+
+--- create table category_book_count, the number of books per category maintained by triggers on table book ---
+CREATE TABLE library.category_book_count
+(
+    category_id INT8 NOT NULL,
+    slot        INT4 NOT NULL,
+    books_count INT8 NOT NULL DEFAULT 0,
+    CONSTRAINT category_book_count_pk PRIMARY KEY (category_id, slot),
+    CONSTRAINT category_book_count_category_fk FOREIGN KEY (category_id) REFERENCES library.category(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.category_book_count.category_id IS 'The ID of the category.';
+COMMENT ON COLUMN library.category_book_count.slot IS 'Counter slot of the writing session, so concurrent writers of one category do not wait on the same row.';
+COMMENT ON COLUMN library.category_book_count.books_count IS 'Share of the books of the category counted in this slot. The sum over all slots is the number of books.';
+
+--- create trigger function adding the books of each statement to the counters, one row per category ---
+CREATE FUNCTION library.category_book_count_trg() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO library.category_book_count(category_id, slot, books_count)
+        SELECT n.category_id, pg_backend_pid() % 16, count(*)
+        FROM new_books n
+        GROUP BY n.category_id
+        ORDER BY n.category_id
+        ON CONFLICT (category_id, slot) DO UPDATE SET books_count = category_book_count.books_count + EXCLUDED.books_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO library.category_book_count(category_id, slot, books_count)
+        SELECT o.category_id, pg_backend_pid() % 16, -count(*)
+        FROM old_books o
+        GROUP BY o.category_id
+        ORDER BY o.category_id
+        ON CONFLICT (category_id, slot) DO UPDATE SET books_count = category_book_count.books_count + EXCLUDED.books_count;
+    ELSE
+        INSERT INTO library.category_book_count(category_id, slot, books_count)
+        SELECT d.category_id, pg_backend_pid() % 16, sum(d.delta)
+        FROM (SELECT n.category_id, 1 delta FROM new_books n
+              UNION ALL
+              SELECT o.category_id, -1 delta FROM old_books o) d
+        GROUP BY d.category_id
+        HAVING sum(d.delta) <> 0
+        ORDER BY d.category_id
+        ON CONFLICT (category_id, slot) DO UPDATE SET books_count = category_book_count.books_count + EXCLUDED.books_count;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER book_count_insert_trg AFTER INSERT ON library.book
+    REFERENCING NEW TABLE AS new_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.category_book_count_trg();
+CREATE TRIGGER book_count_update_trg AFTER UPDATE ON library.book
+    REFERENCING OLD TABLE AS old_books NEW TABLE AS new_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.category_book_count_trg();
+CREATE TRIGGER book_count_delete_trg AFTER DELETE ON library.book
+    REFERENCING OLD TABLE AS old_books
+    FOR EACH STATEMENT EXECUTE FUNCTION library.category_book_count_trg();
+
+--- initialize the counters from the existing books ---
+INSERT INTO library.category_book_count(category_id, slot, books_count)
+SELECT b.category_id, 0, count(*)
+FROM library.book b
+GROUP BY b.category_id;
+
+GRANT ALL PRIVILEGES ON library.category_book_count TO schwarz;
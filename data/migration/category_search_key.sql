@@ -0,0 +1,23 @@
+--- migrate a database created by an earlier init.sql to the search key of the categories, transcribing umlauts only ---
+--- a database without the key gets the column and its indexes, the unique index fails for descriptions differing only ---
+--- in case, accents or umlauts, which have to be renamed first ---
+--- a database with the earlier key, which folded every ae/oe/ue, e.g. Poetry as potry, gets its stored keys recomputed ---
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE OR REPLACE FUNCTION library.category_search_key(description TEXT) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+    RETURN regexp_replace(regexp_replace(regexp_replace(lower(normalize(description, NFD)), '([aou])\u0308', '\1e', 'g'), '[\u0300-\u036f]', '', 'g'), '[ßẞ]', 'ss', 'g');
+
+COMMENT ON FUNCTION library.category_search_key(TEXT) IS 'Lower case, ä/ö/ü as ae/oe/ue, other diacritics stripped, ß as ss: Märchen, MÄRCHEN and Maerchen have the same key, Poetry keeps its oe. Same as CategorySearchKey of the application.';
+
+ALTER TABLE library.category ADD COLUMN IF NOT EXISTS search_key TEXT GENERATED ALWAYS AS (library.category_search_key(description)) STORED;
+
+COMMENT ON COLUMN library.category.search_key IS 'The normalized description, for strict and substring search of categories.';
+
+UPDATE library.category SET description = description;
+
+CREATE UNIQUE INDEX IF NOT EXISTS category_search_key_uk ON library.category (search_key text_pattern_ops);
+CREATE INDEX IF NOT EXISTS category_search_key_trgm_idx ON library.category USING GIN (search_key gin_trgm_ops);
+
+COMMENT ON INDEX library.category_search_key_uk IS 'Strict and prefix search of categories, no two categories differ only in case, accents or umlauts.';
+COMMENT ON INDEX library.category_search_key_trgm_idx IS 'Substring (LIKE) search of categories.';
@@ -0,0 +1,87 @@
+--- migrate a database created by an earlier init.sql to the category tree ---
+
+--- add the parent to table category, the existing categories stay on the top level ---
+ALTER TABLE library.category ADD COLUMN parent_id INT8 NULL;
+ALTER TABLE library.category ADD CONSTRAINT category_parent_fk FOREIGN KEY (parent_id) REFERENCES library.category(id);
+
+COMMENT ON COLUMN library.category.parent_id IS 'The ID of the parent category, NULL for a top level category.';
+
+--- create index on the parent of table category ---
+CREATE INDEX category_parent_idx ON library.category (parent_id);
+
+COMMENT ON INDEX library.category_parent_idx IS 'Children of a category, foreign key checks on removing a category.';
+
+--- create table category_closure, all ancestor and descendant pairs of the category tree maintained by triggers on table category ---
+CREATE TABLE library.category_closure
+(
+    ancestor_id   INT8 NOT NULL,
+    descendant_id INT8 NOT NULL,
+    depth         INT4 NOT NULL,
+    CONSTRAINT category_closure_pk PRIMARY KEY (ancestor_id, descendant_id),
+    CONSTRAINT category_closure_ancestor_fk FOREIGN KEY (ancestor_id) REFERENCES library.category(id) ON DELETE CASCADE,
+    CONSTRAINT category_closure_descendant_fk FOREIGN KEY (descendant_id) REFERENCES library.category(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.category_closure.ancestor_id IS 'The ID of the ancestor category. Each category is its own ancestor with depth 0.';
+COMMENT ON COLUMN library.category_closure.descendant_id IS 'The ID of the descendant category.';
+COMMENT ON COLUMN library.category_closure.depth IS 'The number of levels between ancestor and descendant.';
+
+CREATE INDEX category_closure_descendant_idx ON library.category_closure (descendant_id) INCLUDE (depth);
+
+COMMENT ON INDEX library.category_closure_descendant_idx IS 'Ancestors of a category, on insert and move of categories.';
+
+--- create trigger function linking an inserted category to the ancestors of its parent, and a moved subtree to the ancestors of its new parent ---
+CREATE FUNCTION library.category_closure_trg() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF NEW.parent_id IS NOT NULL THEN
+            PERFORM pg_advisory_xact_lock_shared(hashtext('library.category_closure'));
+        END IF;
+        INSERT INTO library.category_closure(ancestor_id, descendant_id, depth)
+        SELECT NEW.id, NEW.id, 0
+        UNION ALL
+        SELECT p.ancestor_id, NEW.id, p.depth + 1
+        FROM library.category_closure p
+        WHERE p.descendant_id = NEW.parent_id;
+    ELSE
+        -- moves are serialized, so two concurrent moves cannot close a cycle, or miss a category inserted meanwhile
+        PERFORM pg_advisory_xact_lock(hashtext('library.category_closure'));
+        IF EXISTS (SELECT 1 FROM library.category_closure s WHERE s.ancestor_id = NEW.id AND s.descendant_id = NEW.parent_id) THEN
+            RAISE EXCEPTION 'category % cannot be moved below its own subtree category %', NEW.id, NEW.parent_id
+                USING ERRCODE = 'check_violation';
+        END IF;
+        DELETE FROM library.category_closure l
+        WHERE l.descendant_id IN (SELECT s.descendant_id FROM library.category_closure s WHERE s.ancestor_id = NEW.id)
+          AND l.ancestor_id IN (SELECT a.ancestor_id FROM library.category_closure a WHERE a.descendant_id = NEW.id AND a.ancestor_id <> NEW.id);
+        INSERT INTO library.category_closure(ancestor_id, descendant_id, depth)
+        SELECT a.ancestor_id, s.descendant_id, a.depth + s.depth + 1
+        FROM library.category_closure a
+        CROSS JOIN library.category_closure s
+        WHERE a.descendant_id = NEW.parent_id
+          AND s.ancestor_id = NEW.id;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER category_closure_insert_trg AFTER INSERT ON library.category
+    FOR EACH ROW EXECUTE FUNCTION library.category_closure_trg();
+CREATE TRIGGER category_closure_move_trg AFTER UPDATE OF parent_id ON library.category
+    FOR EACH ROW WHEN (OLD.parent_id IS DISTINCT FROM NEW.parent_id) EXECUTE FUNCTION library.category_closure_trg();
+
+--- initialize the closure from the existing categories ---
+INSERT INTO library.category_closure(ancestor_id, descendant_id, depth)
+WITH RECURSIVE tree(ancestor_id, descendant_id, depth) AS (
+    SELECT c.id, c.id, 0
+    FROM library.category c
+    UNION ALL
+    SELECT t.ancestor_id, c.id, t.depth + 1
+    FROM tree t
+    JOIN library.category c ON (c.parent_id = t.descendant_id))
+SELECT t.ancestor_id, t.descendant_id, t.depth
+FROM tree t;
+
+GRANT ALL PRIVILEGES ON library.category_closure TO schwarz;
@@ -0,0 +1,40 @@
+--- migrate a database created by an earlier init.sql to the refresh tokens and the hashed passwords ---
+--- the stored passwords must be BCrypt hashes already, hashes without prefix of an encoder are BCrypt ---
+
+COMMENT ON COLUMN library.customer.password IS 'The password hash of the customer, prefixed by the id of its encoder, e.g. {bcrypt}. Hashes without prefix are BCrypt.';
+
+--- create table refresh_token, the refresh tokens of the customers, rotated on each use ---
+CREATE TABLE library.refresh_token
+(
+    id          BIGSERIAL PRIMARY KEY,
+    customer_id INT8 NOT NULL,
+    family_id   UUID NOT NULL,
+    token_hash  VARCHAR(64) NOT NULL,
+    expires_on  TIMESTAMP NOT NULL,
+    used_on     TIMESTAMP NULL,
+    revoked_on  TIMESTAMP NULL,
+    created_on  TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT refresh_token_hash_uk UNIQUE (token_hash),
+    CONSTRAINT refresh_token_customer_fk FOREIGN KEY (customer_id) REFERENCES library.customer(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.refresh_token.id IS 'Primary key.';
+COMMENT ON COLUMN library.refresh_token.customer_id IS 'The ID of the customer.';
+COMMENT ON COLUMN library.refresh_token.family_id IS 'The login the token descends from, all tokens of a login are revoked when a used token is used again.';
+COMMENT ON COLUMN library.refresh_token.token_hash IS 'The SHA-256 hash of the token in hex, the token itself is not stored.';
+COMMENT ON COLUMN library.refresh_token.expires_on IS 'The expiry time of the token.';
+COMMENT ON COLUMN library.refresh_token.used_on IS 'The time the token was exchanged for its successor, NULL if unused.';
+COMMENT ON COLUMN library.refresh_token.revoked_on IS 'The revocation time of the token, NULL if not revoked.';
+COMMENT ON COLUMN library.refresh_token.created_on IS 'The creation time of the entry.';
+
+CREATE INDEX refresh_token_family_idx ON library.refresh_token (family_id);
+CREATE INDEX refresh_token_customer_idx ON library.refresh_token (customer_id);
+CREATE INDEX refresh_token_expires_idx ON library.refresh_token (expires_on);
+
+COMMENT ON INDEX library.refresh_token_family_idx IS 'Tokens of a login, revoking them on reuse.';
+COMMENT ON INDEX library.refresh_token_customer_idx IS 'Foreign key checks on removing a customer.';
+COMMENT ON INDEX library.refresh_token_expires_idx IS 'Removing the expired tokens.';
+
+GRANT ALL PRIVILEGES ON library.refresh_token TO schwarz;
+GRANT ALL PRIVILEGES ON library.refresh_token_id_seq TO schwarz;
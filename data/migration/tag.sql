@@ -0,0 +1,36 @@
+--- migrate a database created by an earlier init.sql to the tags of the books ---
+
+--- create table tag in database 'schwarz_db' ---
+CREATE TABLE library.tag
+(
+    id          BIGSERIAL PRIMARY KEY,
+    name        VARCHAR(50) NOT NULL,
+    created_on  TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT tag_name_uk UNIQUE (name)
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.tag.id IS 'Primary key.';
+COMMENT ON COLUMN library.tag.name IS 'The name of the tag, trimmed and in lower case.';
+COMMENT ON COLUMN library.tag.created_on IS 'The creation time of the entry.';
+
+--- create table book_tag, the tags of the books ---
+CREATE TABLE library.book_tag
+(
+    book_id INT8 NOT NULL,
+    tag_id  INT8 NOT NULL,
+    CONSTRAINT book_tag_pk PRIMARY KEY (book_id, tag_id),
+    CONSTRAINT book_tag_book_fk FOREIGN KEY (book_id) REFERENCES library.book(id) ON DELETE CASCADE,
+    CONSTRAINT book_tag_tag_fk FOREIGN KEY (tag_id) REFERENCES library.tag(id) ON DELETE CASCADE
+);
+
+--- create comments on columns ---
+COMMENT ON COLUMN library.book_tag.book_id IS 'The ID of the tagged book.';
+COMMENT ON COLUMN library.book_tag.tag_id IS 'The ID of the tag.';
+
+CREATE INDEX book_tag_tag_idx ON library.book_tag (tag_id, book_id);
+
+COMMENT ON INDEX library.book_tag_tag_idx IS 'Books of a tag, loading the tag index and removing a tag.';
+
+GRANT ALL PRIVILEGES ON library.tag, library.book_tag TO schwarz;
+GRANT ALL PRIVILEGES ON library.tag_id_seq TO schwarz;
@@ -5,9 +5,11 @@ import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @OpenAPIDefinition(info = @Info(title = "Library-App-Webservice", version = "1.0.0"), tags = @Tag(name = "Library-App API"))
 @SpringBootApplication
+@EnableScheduling
 public class LibraryAppApplication {
 
     public static void main(String[] args) {
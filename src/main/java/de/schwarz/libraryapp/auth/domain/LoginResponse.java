@@ -7,4 +7,5 @@ import lombok.Data;
 @Builder
 public class LoginResponse {
     private String token;
+    private String refreshToken;
 }
@@ -0,0 +1,33 @@
+package de.schwarz.libraryapp.auth.domain;
+
+
+import de.schwarz.libraryapp.auth.domain.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "SELECT r FROM RefreshToken r WHERE r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashForUpdate(@Param(value = "tokenHash") String tokenHash);
+
+    @Modifying
+    @Query(value = "UPDATE library.refresh_token SET revoked_on = now() WHERE family_id = :familyId AND revoked_on IS NULL", nativeQuery = true)
+    int revokeFamily(@Param(value = "familyId") UUID familyId);
+
+    @Modifying
+    @Query(value = "UPDATE library.refresh_token SET revoked_on = now() WHERE customer_id = :customerId AND revoked_on IS NULL", nativeQuery = true)
+    int revokeByCustomerId(@Param(value = "customerId") Long customerId);
+
+    @Modifying
+    @Query(value = "DELETE FROM library.refresh_token WHERE expires_on < :now", nativeQuery = true)
+    int deleteExpired(@Param(value = "now") LocalDateTime now);
+}
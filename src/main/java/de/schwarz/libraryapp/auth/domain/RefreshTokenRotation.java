@@ -0,0 +1,13 @@
+package de.schwarz.libraryapp.auth.domain;
+
+import lombok.Value;
+
+/**
+ * Successor of an exchanged refresh token, with the customer it was issued to
+ */
+@Value
+public class RefreshTokenRotation {
+    Long customerId;
+    String email;
+    String refreshToken;
+}
@@ -0,0 +1,37 @@
+package de.schwarz.libraryapp.auth.domain.entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_token", schema = "library")
+@Data
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "library.refresh_token_id_seq")
+    @SequenceGenerator(name = "library.refresh_token_id_seq", sequenceName = "library.refresh_token_id_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @Column(name = "token_hash", length = 64, nullable = false)
+    private String tokenHash;
+
+    @Column(name = "expires_on", nullable = false)
+    private LocalDateTime expiresOn;
+
+    @Column(name = "used_on")
+    private LocalDateTime usedOn;
+
+    @Column(name = "revoked_on")
+    private LocalDateTime revokedOn;
+}
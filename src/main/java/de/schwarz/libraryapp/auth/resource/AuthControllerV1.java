@@ -2,7 +2,9 @@ package de.schwarz.libraryapp.auth.resource;
 
 import de.schwarz.libraryapp.auth.domain.LoginRequest;
 import de.schwarz.libraryapp.auth.domain.LoginResponse;
+import de.schwarz.libraryapp.auth.domain.RefreshRequest;
 import de.schwarz.libraryapp.auth.service.AuthService;
+import de.schwarz.libraryapp.auth.service.RefreshTokenService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -25,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthControllerV1 {
 
     private final AuthService authService;
+    private final RefreshTokenService refreshTokenService;
 
 
     @Operation(tags = "Auth login", summary = "Authentication check over login", description = "Process authenticates customers from online library database during login.",
@@ -43,4 +46,23 @@ public class AuthControllerV1 {
         return ResponseEntity
                 .ok(response);
     }
+
+    @Operation(tags = "Auth login", summary = "Renewal of the token", description = "Process renews the token with the refresh token of a login, without the password. "
+            + "The refresh token is used once and replaced by the returned one, reusing it revokes the login.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = LoginResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @PostMapping("/v1/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest request) {
+        // Validate request param
+        refreshTokenService.validateRequestParams(request);
+        // Call service
+        LoginResponse response = authService.refresh(request.getRefreshToken());
+        // Prepare and return response
+        return ResponseEntity
+                .ok(response);
+    }
 }
@@ -1,6 +1,7 @@
 package de.schwarz.libraryapp.auth.service;
 
 import de.schwarz.libraryapp.auth.domain.LoginResponse;
+import de.schwarz.libraryapp.exception.RetryLaterException;
 import de.schwarz.libraryapp.security.JwtIssuer;
 import de.schwarz.libraryapp.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +11,11 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+
+import static de.schwarz.libraryapp.security.CustomerAuthDetailService.ROLE_USER;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -21,6 +27,7 @@ public class AuthService {
 
     private final JwtIssuer jwtIssuer;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
 
 
     /**
@@ -43,10 +50,37 @@ public class AuthService {
 
             return LoginResponse.builder()
                     .token(token)
+                    .refreshToken(refreshTokenService.createToken(principal.getUserId()))
                     .build();
+        } catch (RetryLaterException e) {
+            // Hashing is saturated, no failure of the login, the customer retries
+            throw e;
+        } catch (HttpClientErrorException e) {
+            // The customer was removed after its principal was loaded
+            throw e;
         } catch (Exception e) {
             log.error("Error during login process with email: {}...", email, e);
             throw new InternalError(ERROR_AUTH_CUSTOMER);
         }
     }
+
+    /**
+     * Renewal of the token with a refresh token, without the password. The refresh token is rotated.
+     *
+     * @param refreshToken
+     * @return
+     */
+    public LoginResponse refresh(final String refreshToken) {
+        var rotation = refreshTokenService.rotateToken(refreshToken);
+        var token = jwtIssuer.issue(JwtIssuer.Request.builder()
+                .userId(rotation.getCustomerId())
+                .email(rotation.getEmail())
+                .roles(List.of(ROLE_USER))
+                .build());
+
+        return LoginResponse.builder()
+                .token(token)
+                .refreshToken(rotation.getRefreshToken())
+                .build();
+    }
 }
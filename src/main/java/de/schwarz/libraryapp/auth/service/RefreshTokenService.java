@@ -0,0 +1,165 @@
+package de.schwarz.libraryapp.auth.service;
+
+import de.schwarz.libraryapp.auth.domain.RefreshRequest;
+import de.schwarz.libraryapp.auth.domain.RefreshTokenRepository;
+import de.schwarz.libraryapp.auth.domain.RefreshTokenRotation;
+import de.schwarz.libraryapp.auth.domain.entity.RefreshToken;
+import de.schwarz.libraryapp.customer.domain.CustomerRepository;
+import de.schwarz.libraryapp.security.JwtProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Long-lived opaque refresh tokens, exchanged for a new access token without the password. Only the SHA-256 hash
+ * of a token is stored, a random token of 256 bits needs no slow password hash. Each token is used once and replaced
+ * by its successor. A used token presented again means it was stolen or replayed, all tokens of its login are
+ * revoked then, so the thief and the customer have to log in again.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class RefreshTokenService {
+
+    public static final String ERROR_AUTH_REFRESH_REQUEST_EMPTY = "error.auth.refresh.request.empty";
+    public static final String ERROR_AUTH_REFRESH_TOKEN_EMPTY = "error.auth.refresh.token.empty";
+    public static final String ERROR_AUTH_REFRESH_TOKEN_INVALID = "error.auth.refresh.token.invalid";
+    public static final String ERROR_AUTH_CUSTOMER_REMOVED = "error.auth.customer.removed";
+    private static final int TOKEN_BYTES = 32;
+
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final CustomerRepository customerRepository;
+    private final JwtProperties properties;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+
+    /**
+     * Validates request params
+     *
+     * @param request
+     */
+    public void validateRequestParams(final RefreshRequest request) {
+        if (ObjectUtils.isEmpty(request)) {
+            throw new IllegalArgumentException(ERROR_AUTH_REFRESH_REQUEST_EMPTY);
+        }
+
+        if (!StringUtils.hasText(request.getRefreshToken())) {
+            throw new IllegalArgumentException(ERROR_AUTH_REFRESH_TOKEN_EMPTY);
+        }
+    }
+
+    /**
+     * Creates the first refresh token of a login. A customer removed meanwhile, e.g. on another instance with its
+     * principal still cached here, is not authorized.
+     *
+     * @param customerId
+     * @return the token
+     */
+    @Transactional
+    public String createToken(Long customerId) {
+        try {
+            return createToken(customerId, UUID.randomUUID());
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Refresh token of removed customer: {} rejected...", customerId);
+            throw HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, ERROR_AUTH_CUSTOMER_REMOVED, null, null, null);
+        }
+    }
+
+    /**
+     * Exchanges a refresh token for its successor. The token is locked, so it is exchanged once only,
+     * even if presented concurrently. The revocation of a reused token is committed, although rejected.
+     *
+     * @param refreshToken
+     * @return
+     */
+    @Transactional(noRollbackFor = HttpClientErrorException.class)
+    public RefreshTokenRotation rotateToken(String refreshToken) {
+        var now = LocalDateTime.now();
+        var token = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken.trim()))
+                .orElseThrow(RefreshTokenService::invalidToken);
+        if (!ObjectUtils.isEmpty(token.getUsedOn()) && ObjectUtils.isEmpty(token.getRevokedOn())) {
+            var revoked = refreshTokenRepository.revokeFamily(token.getFamilyId());
+            log.warn("Reuse of refresh token: {} of customer: {} detected, tokens revoked: {}...", token.getId(),
+                    token.getCustomerId(), revoked);
+            throw invalidToken();
+        }
+
+        if (!ObjectUtils.isEmpty(token.getRevokedOn()) || token.getExpiresOn().isBefore(now)) {
+            throw invalidToken();
+        }
+
+        var customer = customerRepository.findById(token.getCustomerId())
+                .orElseThrow(RefreshTokenService::invalidToken);
+        token.setUsedOn(now);
+
+        return new RefreshTokenRotation(customer.getId(), customer.getEmail(), createToken(customer.getId(), token.getFamilyId()));
+    }
+
+    /**
+     * Revokes all refresh tokens of a customer, e.g. after a change of the password
+     *
+     * @param customerId
+     */
+    @Transactional
+    public void revokeTokens(Long customerId) {
+        var revoked = refreshTokenRepository.revokeByCustomerId(customerId);
+        log.info("Refresh tokens of customer: {} revoked: {}...", customerId, revoked);
+    }
+
+    /**
+     * Removes the expired tokens periodically
+     */
+    @Scheduled(fixedDelayString = "${application.properties.auth.refresh-token.purge-interval}",
+            initialDelayString = "${application.properties.auth.refresh-token.purge-interval}")
+    @Transactional
+    public void purgeExpiredTokens() {
+        var removed = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("Expired refresh tokens removed: {}...", removed);
+    }
+
+    private String createToken(Long customerId, UUID familyId) {
+        var bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        var token = Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(bytes);
+
+        var refreshToken = new RefreshToken();
+        refreshToken.setCustomerId(customerId);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setExpiresOn(LocalDateTime.now().plus(properties.getRefreshTokenDuration()));
+        refreshTokenRepository.saveAndFlush(refreshToken);
+
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpClientErrorException invalidToken() {
+        return HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, ERROR_AUTH_REFRESH_TOKEN_INVALID, null, null, null);
+    }
+}
@@ -3,14 +3,18 @@ package de.schwarz.libraryapp.auth.service;
 import de.schwarz.libraryapp.customer.domain.CustomerRepository;
 import de.schwarz.libraryapp.customer.domain.dto.CustomerDto;
 import de.schwarz.libraryapp.customer.domain.entity.Customer;
+import de.schwarz.libraryapp.customer.domain.event.CustomerChangedEvent;
 import de.schwarz.libraryapp.exception.NoContentException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.List;
+
 import static de.schwarz.libraryapp.customer.service.CustomerService.ERROR_CUSTOMERS_USERNAME;
 
 @Slf4j
@@ -19,6 +23,7 @@ import static de.schwarz.libraryapp.customer.service.CustomerService.ERROR_CUSTO
 public class UserService {
 
     private final CustomerRepository customerRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     /**
@@ -41,6 +46,20 @@ public class UserService {
         }
     }
 
+    /**
+     * Replaces the password hash of a customer, the password itself is unchanged
+     *
+     * @param customerId
+     * @param email
+     * @param password
+     */
+    @Transactional
+    public void updatePassword(final Long customerId, final String email, final String password) {
+        customerRepository.updatePassword(customerId, password);
+        eventPublisher.publishEvent(new CustomerChangedEvent(List.of(email)));
+        log.info("Password hash of customer: {} upgraded...", customerId);
+    }
+
     /**
      * Creates from entity customer the dto.
      *
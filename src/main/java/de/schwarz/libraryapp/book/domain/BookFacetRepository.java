@@ -0,0 +1,165 @@
+package de.schwarz.libraryapp.book.domain;
+
+
+import de.schwarz.libraryapp.book.domain.dto.BookFacet;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetDto;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetFilter;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetResult;
+import de.schwarz.libraryapp.book.domain.dto.BookView;
+import de.schwarz.libraryapp.category.domain.CategorySearchKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ObjectUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faceted search of books. The page of books and the counts of all facets are read with one statement. The counts
+ * are summed from the counters per category, publisher and year maintained by triggers on the books, grouped by
+ * grouping sets in one pass, so they do not grow with the count of filtered books.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Repository
+public class BookFacetRepository {
+
+    private static final String KIND_BOOK = "BOOK";
+
+    @PersistenceContext
+    private EntityManager em;
+
+
+    /**
+     * Finds a page of the filtered books ordered by id, and the counts of the filtered books per category,
+     * publisher and bucket of publishing years.
+     *
+     * @param filter
+     * @param lastId
+     * @param limit
+     * @param yearBucket count of years per bucket
+     * @param maxValues  max count of categories and publishers, the most frequent first
+     * @return
+     */
+    public BookFacetResult findFacetPage(BookFacetFilter filter, Long lastId, int limit, int yearBucket, int maxValues) {
+        Map<String, Object> params = new HashMap<>();
+        String where = createWhere(filter, params);
+        String countWhere = createCountWhere(filter, params);
+        String bucket = "n.publishing_year / " + yearBucket + " * " + yearBucket;
+
+        String sql = "(SELECT '" + KIND_BOOK + "' kind, CAST(NULL AS text) facet, CAST(NULL AS text) facet_value, CAST(NULL AS bigint) facet_count, "
+                + "b.id book_id, b.author, b.title, b.publisher, b.publishing_year, c.description category_description "
+                + "FROM library.book b JOIN library.category c ON (b.category_id = c.id) "
+                + where + "AND b.id > :lastId ORDER BY b.id LIMIT :limit) "
+                + "UNION ALL "
+                + "SELECT 'FACET', f.facet, COALESCE(c.description, f.publisher, CAST(f.bucket AS text)), f.facet_count, "
+                + "NULL, NULL, NULL, NULL, NULL, NULL "
+                + "FROM (SELECT g.*, row_number() OVER (PARTITION BY g.facet ORDER BY g.facet_count DESC, g.category_id, g.publisher, g.bucket) facet_rank "
+                + "FROM (SELECT CASE WHEN GROUPING(n.category_id) = 0 THEN '" + BookFacet.CATEGORY + "' "
+                + "WHEN GROUPING(n.publisher) = 0 THEN '" + BookFacet.PUBLISHER + "' ELSE '" + BookFacet.YEAR + "' END facet, "
+                + "n.category_id, n.publisher, " + bucket + " bucket, SUM(n.books_count) facet_count "
+                + "FROM library.book_facet_count n " + countWhere
+                + "GROUP BY GROUPING SETS ((n.category_id), (n.publisher), (" + bucket + ")) "
+                + "HAVING SUM(n.books_count) > 0) g) f "
+                + "LEFT JOIN library.category c ON (f.facet = '" + BookFacet.CATEGORY + "' AND c.id = f.category_id) "
+                + "WHERE f.facet = '" + BookFacet.YEAR + "' OR f.facet_rank <= :maxValues";
+
+        var query = em.createNativeQuery(sql, Tuple.class)
+                .setParameter("lastId", lastId)
+                .setParameter("limit", limit)
+                .setParameter("maxValues", maxValues);
+        params.forEach(query::setParameter);
+
+        @SuppressWarnings("unchecked")
+        List<Tuple> result = query.getResultList();
+
+        List<BookView> books = new ArrayList<>();
+        List<BookFacetDto> facets = new ArrayList<>();
+        for (Tuple row : result) {
+            if (KIND_BOOK.equals(row.get("kind", String.class))) {
+                books.add(new BookRow(((Number) row.get("book_id")).longValue(), row.get("author", String.class), row.get("title", String.class),
+                        row.get("publisher", String.class), toLocalDate(row.get("publishing_year")), row.get("category_description", String.class)));
+            } else {
+                facets.add(new BookFacetDto(BookFacet.valueOf(row.get("facet", String.class)), row.get("facet_value", String.class),
+                        ((Number) row.get("facet_count")).longValue()));
+            }
+        }
+
+        books.sort(Comparator.comparing(BookView::getBookId));
+        return new BookFacetResult(books, facets);
+    }
+
+    private String createWhere(BookFacetFilter filter, Map<String, Object> params) {
+        var where = new StringBuilder("WHERE TRUE ");
+        appendCategoriesAndPublishers(where, "b", filter, params);
+
+        if (!ObjectUtils.isEmpty(filter.getYearFrom())) {
+            where.append("AND b.publishing_year >= :publishingYearFrom ");
+            params.put("publishingYearFrom", LocalDate.of(filter.getYearFrom(), 1, 1));
+        }
+
+        if (!ObjectUtils.isEmpty(filter.getYearTo())) {
+            where.append("AND b.publishing_year < :publishingYearTo ");
+            params.put("publishingYearTo", LocalDate.of(filter.getYearTo() + 1, 1, 1));
+        }
+
+        return where.toString();
+    }
+
+    private String createCountWhere(BookFacetFilter filter, Map<String, Object> params) {
+        var where = new StringBuilder("WHERE TRUE ");
+        appendCategoriesAndPublishers(where, "n", filter, params);
+
+        if (!ObjectUtils.isEmpty(filter.getYearFrom())) {
+            where.append("AND n.publishing_year >= :yearFrom ");
+            params.put("yearFrom", filter.getYearFrom());
+        }
+
+        if (!ObjectUtils.isEmpty(filter.getYearTo())) {
+            where.append("AND n.publishing_year <= :yearTo ");
+            params.put("yearTo", filter.getYearTo());
+        }
+
+        return where.toString();
+    }
+
+    private void appendCategoriesAndPublishers(StringBuilder where, String alias, BookFacetFilter filter, Map<String, Object> params) {
+        if (!ObjectUtils.isEmpty(filter.getCategories())) {
+            where.append("AND ").append(alias).append(".category_id IN (SELECT c.id FROM library.category c WHERE c.search_key = ANY(:categories)) ");
+            params.put("categories", filter.getCategories().stream()
+                    .map(category -> CategorySearchKey.of(category.trim()))
+                    .toArray(String[]::new));
+        }
+
+        if (!ObjectUtils.isEmpty(filter.getPublishers())) {
+            where.append("AND ").append(alias).append(".publisher = ANY(:publishers) ");
+            params.put("publishers", filter.getPublishers().stream()
+                    .map(String::trim)
+                    .toArray(String[]::new));
+        }
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    @Value
+    private static class BookRow implements BookView {
+        Long bookId;
+        String author;
+        String title;
+        String publisher;
+        LocalDate publishingYear;
+        String categoryDescription;
+    }
+}
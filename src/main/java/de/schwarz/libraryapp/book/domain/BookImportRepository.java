@@ -0,0 +1,161 @@
+package de.schwarz.libraryapp.book.domain;
+
+
+import de.schwarz.libraryapp.book.domain.dto.BookInsertResult;
+import de.schwarz.libraryapp.book.domain.entity.Book;
+import de.schwarz.libraryapp.job.domain.dto.JobErrorDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Bulk import of books. The rows are copied into a temporary staging table, validated and inserted with set based
+ * statements, all within the transaction of the caller.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Repository
+public class BookImportRepository {
+
+    public static final String ERROR_BOOK_IMPORT_AUTHOR_EMPTY = "error.book.import.author.empty";
+    public static final String ERROR_BOOK_IMPORT_AUTHOR_TOO_LONG = "error.book.import.author.too_long";
+    public static final String ERROR_BOOK_IMPORT_TITLE_EMPTY = "error.book.import.title.empty";
+    public static final String ERROR_BOOK_IMPORT_TITLE_TOO_LONG = "error.book.import.title.too_long";
+    public static final String ERROR_BOOK_IMPORT_PUBLISHER_EMPTY = "error.book.import.publisher.empty";
+    public static final String ERROR_BOOK_IMPORT_PUBLISHER_TOO_LONG = "error.book.import.publisher.too_long";
+    public static final String ERROR_BOOK_IMPORT_PUBLISHING_YEAR_EMPTY = "error.book.import.publishing_year.empty";
+    public static final String ERROR_BOOK_IMPORT_PUBLISHING_YEAR_INVALID = "error.book.import.publishing_year.invalid";
+    public static final String ERROR_BOOK_IMPORT_CATEGORY_EMPTY = "error.book.import.category.empty";
+    public static final String ERROR_BOOK_IMPORT_CATEGORY_UNKNOWN = "error.book.import.category.unknown";
+
+    @PersistenceContext
+    private EntityManager em;
+
+
+    /**
+     * Creates the staging tables, dropped again at the end of the transaction
+     */
+    public void createStagingTable() {
+        String sql = "CREATE TEMP TABLE book_import_staging ("
+                + "line_no BIGSERIAL, author TEXT, title TEXT, publisher TEXT, publishing_year TEXT, category TEXT, error TEXT"
+                + ") ON COMMIT DROP";
+
+        em.createNativeQuery(sql)
+                .executeUpdate();
+    }
+
+    /**
+     * Copies the given CSV rows into the staging table. The rows are converted from the upload line by line, numbered
+     * by their line in the upload and with the error of a malformed line, so every row fits the staging table.
+     *
+     * @param csv
+     * @return count of staged rows
+     */
+    public long copyIntoStaging(Reader csv) {
+        String sql = "COPY book_import_staging (line_no, author, title, publisher, publishing_year, category, error) "
+                + "FROM STDIN WITH (FORMAT csv)";
+
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try {
+                return connection.unwrap(PGConnection.class)
+                        .getCopyAPI()
+                        .copyIn(sql, csv);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Validates the staged rows and resolves the categories by their description in one join
+     *
+     * @return count of invalid rows
+     */
+    public long validateStaging() {
+        String sql = "CREATE TEMP TABLE book_import_checked ON COMMIT DROP AS "
+                + "SELECT s.line_no, TRIM(s.author) author, TRIM(s.title) title, TRIM(s.publisher) publisher, "
+                + "s.publishing_year, c.id category_id, "
+                + "CASE "
+                + "WHEN s.error IS NOT NULL THEN s.error "
+                + "WHEN COALESCE(TRIM(s.author), '') = '' THEN '" + ERROR_BOOK_IMPORT_AUTHOR_EMPTY + "' "
+                + "WHEN length(TRIM(s.author)) > 30 THEN '" + ERROR_BOOK_IMPORT_AUTHOR_TOO_LONG + "' "
+                + "WHEN COALESCE(TRIM(s.title), '') = '' THEN '" + ERROR_BOOK_IMPORT_TITLE_EMPTY + "' "
+                + "WHEN length(TRIM(s.title)) > 100 THEN '" + ERROR_BOOK_IMPORT_TITLE_TOO_LONG + "' "
+                + "WHEN COALESCE(TRIM(s.publisher), '') = '' THEN '" + ERROR_BOOK_IMPORT_PUBLISHER_EMPTY + "' "
+                + "WHEN length(TRIM(s.publisher)) > 50 THEN '" + ERROR_BOOK_IMPORT_PUBLISHER_TOO_LONG + "' "
+                + "WHEN COALESCE(s.publishing_year, '') = '' THEN '" + ERROR_BOOK_IMPORT_PUBLISHING_YEAR_EMPTY + "' "
+                + "WHEN s.publishing_year !~ '^\\d{4}-\\d{2}-\\d{2}$' "
+                + "OR CAST(substr(s.publishing_year, 1, 4) AS int) < 1 "
+                + "OR CAST(substr(s.publishing_year, 6, 2) AS int) NOT BETWEEN 1 AND 12 THEN '" + ERROR_BOOK_IMPORT_PUBLISHING_YEAR_INVALID + "' "
+                + "WHEN CAST(substr(s.publishing_year, 9, 2) AS int) NOT BETWEEN 1 AND CAST(extract(DAY FROM "
+                + "make_date(CAST(substr(s.publishing_year, 1, 4) AS int), CAST(substr(s.publishing_year, 6, 2) AS int), 1) "
+                + "+ INTERVAL '1 month - 1 day') AS int) THEN '" + ERROR_BOOK_IMPORT_PUBLISHING_YEAR_INVALID + "' "
+                + "WHEN COALESCE(TRIM(s.category), '') = '' THEN '" + ERROR_BOOK_IMPORT_CATEGORY_EMPTY + "' "
+                + "WHEN c.id IS NULL THEN '" + ERROR_BOOK_IMPORT_CATEGORY_UNKNOWN + "' "
+                + "END error "
+                + "FROM book_import_staging s "
+                + "LEFT JOIN library.category c ON (c.search_key = library.category_search_key(TRIM(s.category)))";
+
+        em.createNativeQuery(sql)
+                .executeUpdate();
+
+        return ((Number) em.createNativeQuery("SELECT count(*) FROM book_import_checked WHERE error IS NOT NULL")
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * Inserts all valid rows, in the order of the upload. The ids are reserved in blocks of the allocation size,
+     * the same way as by the pooled optimizer of the entity, so one sequence call covers a block of books. The
+     * sequence starts at the allocation size, so each value is the highest id of its block.
+     *
+     * @param count of valid rows
+     * @return count and id range of inserted books
+     */
+    public BookInsertResult insertValidBooks(long count) {
+        String sql = "WITH inserted AS (INSERT INTO library.book (id, author, title, publisher, publishing_year, category_id) "
+                + "SELECT i.hi - :allocationSize + 1 + (k.row_no - 1) % :allocationSize, "
+                + "k.author, k.title, k.publisher, CAST(k.publishing_year AS date), k.category_id "
+                + "FROM (SELECT row_number() OVER (ORDER BY line_no) row_no, * FROM book_import_checked WHERE error IS NULL) k "
+                + "JOIN (SELECT row_number() OVER () - 1 block_no, hi FROM "
+                + "(SELECT nextval('library.book_id_seq') hi FROM generate_series(1, (:count + :allocationSize - 1) / :allocationSize)) s) i "
+                + "ON (i.block_no = (k.row_no - 1) / :allocationSize) "
+                + "ORDER BY k.row_no RETURNING id) "
+                + "SELECT count(*), min(id), max(id) FROM inserted";
+
+        var result = (Object[]) em.createNativeQuery(sql)
+                .setParameter("allocationSize", Book.ID_ALLOCATION_SIZE)
+                .setParameter("count", count)
+                .getSingleResult();
+
+        return new BookInsertResult(((Number) result[0]).longValue(),
+                result[1] == null ? null : ((Number) result[1]).longValue(),
+                result[2] == null ? null : ((Number) result[2]).longValue());
+    }
+
+    /**
+     * @param limit
+     * @return the first invalid rows with their error
+     */
+    public List<JobErrorDto> findInvalidRows(int limit) {
+        String sql = "SELECT k.line_no, k.error FROM book_import_checked k "
+                + "WHERE k.error IS NOT NULL ORDER BY k.line_no LIMIT :limit";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = em.createNativeQuery(sql)
+                .setParameter("limit", limit)
+                .getResultList();
+
+        return result.stream()
+                .map(obj -> new JobErrorDto(((Number) obj[0]).longValue(), (String) obj[1]))
+                .toList();
+    }
+}
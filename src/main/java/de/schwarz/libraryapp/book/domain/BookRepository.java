@@ -1,18 +1,80 @@
 package de.schwarz.libraryapp.book.domain;
 
 
+import de.schwarz.libraryapp.book.domain.dto.BookView;
 import de.schwarz.libraryapp.book.domain.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
 
-    @Query(value = "SELECT b.* FROM library.book b WHERE b.author LIKE '%' || :author || '%'", nativeQuery = true)
-    List<Book> findByAuthor(@Param(value = "author") String author);
+    String STREAM_FETCH_SIZE = "1000";
+    // Aliases quoted, PostgreSQL folds unquoted ones to lower case and the projection is looked up by the exact name
+    String SELECT_BOOK_VIEW = "SELECT b.id AS \"bookId\", b.author AS author, b.title AS title, b.publisher AS publisher, "
+            + "b.publishing_year AS \"publishingYear\", c.description AS \"categoryDescription\" "
+            + "FROM library.book b JOIN library.category c ON (b.category_id = c.id) ";
 
-    @Query(value = "SELECT b.* FROM library.book b JOIN library.category c ON (b.category_id = c.id) WHERE c.description = :category ORDER BY b.publishing_year DESC", nativeQuery = true)
-    List<Book> findByCategory(@Param(value = "category") String category);
-}
\ No newline at end of file
+    @Query(value = SELECT_BOOK_VIEW + "WHERE b.id = :bookId", nativeQuery = true)
+    Optional<BookView> findViewById(@Param(value = "bookId") Long bookId);
+
+    @Query(value = SELECT_BOOK_VIEW + "WHERE b.id = ANY(:bookIds)", nativeQuery = true)
+    List<BookView> findViewsByIds(@Param(value = "bookIds") Long[] bookIds);
+
+    @Query(value = SELECT_BOOK_VIEW + "WHERE b.id > :lastId ORDER BY b.id LIMIT :limit", nativeQuery = true)
+    List<BookView> findAllAfter(@Param(value = "lastId") Long lastId, @Param(value = "limit") int limit);
+
+    @Query(value = SELECT_BOOK_VIEW + "WHERE b.id > :lastId AND b.id <= :toId ORDER BY b.id LIMIT :limit", nativeQuery = true)
+    List<BookView> findRangeAfter(@Param(value = "lastId") Long lastId, @Param(value = "toId") Long toId, @Param(value = "limit") int limit);
+
+    @Query(value = SELECT_BOOK_VIEW + "WHERE (b.created_on >= :since OR b.updated_on >= :since OR c.updated_on >= :since) "
+            + "AND b.id > :lastId ORDER BY b.id LIMIT :limit", nativeQuery = true)
+    List<BookView> findChangedAfter(@Param(value = "since") LocalDateTime since, @Param(value = "lastId") Long lastId, @Param(value = "limit") int limit);
+
+    @Query(value = SELECT_BOOK_VIEW + "WHERE b.author LIKE '%' || :author || '%' AND b.id > :lastId ORDER BY b.id LIMIT :limit", nativeQuery = true)
+    List<BookView> findByAuthor(@Param(value = "author") String author, @Param(value = "lastId") Long lastId, @Param(value = "limit") int limit);
+
+    @Query(value = SELECT_BOOK_VIEW + "WHERE b.author = ANY(:authors) AND b.id > :lastId ORDER BY b.id LIMIT :limit", nativeQuery = true)
+    List<BookView> findByAuthors(@Param(value = "authors") String[] authors, @Param(value = "lastId") Long lastId, @Param(value = "limit") int limit);
+
+    @Query(value = SELECT_BOOK_VIEW + "WHERE c.description = :category "
+            + "AND (b.publishing_year, b.id) < (:publishingYear, :lastId) ORDER BY b.publishing_year DESC, b.id DESC LIMIT :limit", nativeQuery = true)
+    List<BookView> findByCategory(@Param(value = "category") String category, @Param(value = "publishingYear") LocalDate publishingYear,
+                                  @Param(value = "lastId") Long lastId, @Param(value = "limit") int limit);
+
+    @Query(value = SELECT_BOOK_VIEW + "JOIN library.category_closure cl ON (cl.descendant_id = b.category_id) WHERE cl.ancestor_id = :categoryId "
+            + "AND (b.publishing_year, b.id) < (:publishingYear, :lastId) ORDER BY b.publishing_year DESC, b.id DESC LIMIT :limit", nativeQuery = true)
+    List<BookView> findByCategorySubtree(@Param(value = "categoryId") Long categoryId, @Param(value = "publishingYear") LocalDate publishingYear,
+                                         @Param(value = "lastId") Long lastId, @Param(value = "limit") int limit);
+
+    @Query(value = SELECT_BOOK_VIEW + "WHERE :author <% b.author "
+            + "ORDER BY word_similarity(:author, b.author) DESC, b.id LIMIT :limit", nativeQuery = true)
+    List<BookView> findTopByAuthorSimilarity(@Param(value = "author") String author, @Param(value = "limit") int limit);
+
+    @Query(value = SELECT_BOOK_VIEW + "WHERE :title <% b.title "
+            + "ORDER BY word_similarity(:title, b.title) DESC, b.id LIMIT :limit", nativeQuery = true)
+    List<BookView> findTopByTitleSimilarity(@Param(value = "title") String title, @Param(value = "limit") int limit);
+
+    @QueryHints(value = {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")})
+    @Query(value = SELECT_BOOK_VIEW + "ORDER BY b.id", nativeQuery = true)
+    Stream<BookView> streamAll();
+
+    @QueryHints(value = {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")})
+    @Query(value = SELECT_BOOK_VIEW + "WHERE b.category_id = :categoryId ORDER BY b.id", nativeQuery = true)
+    Stream<BookView> streamByCategoryId(@Param(value = "categoryId") Long categoryId);
+}
@@ -0,0 +1,17 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookBatchResult {
+    private Integer index;
+    private BookBatchStatus status;
+    private BookDto book;
+    private String error;
+}
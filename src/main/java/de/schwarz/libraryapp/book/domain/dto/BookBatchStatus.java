@@ -0,0 +1,7 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+public enum BookBatchStatus {
+    CREATED,
+    UPDATED,
+    FAILED
+}
@@ -0,0 +1,15 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCursor {
+    private Long bookId;
+    private LocalDate publishingYear;
+}
@@ -2,16 +2,23 @@ package de.schwarz.libraryapp.book.domain.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Data;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
-@Data
+/**
+ * Immutable, as a cached book is shared by all readers.
+ */
+@Value
+@Builder(toBuilder = true)
+@Jacksonized
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class BookDto {
-    private Long bookId;
-    private String author;
-    private String title;
-    private String publisher;
-    private String publishingYear;
+    Long bookId;
+    String author;
+    String title;
+    String publisher;
+    String publishingYear;
     @JsonProperty(value = "category")
-    private String categoryDescription;
+    String categoryDescription;
 }
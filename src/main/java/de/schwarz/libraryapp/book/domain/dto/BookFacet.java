@@ -0,0 +1,7 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+public enum BookFacet {
+    CATEGORY,
+    PUBLISHER,
+    YEAR
+}
@@ -0,0 +1,18 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookFacetDto {
+    @JsonIgnore
+    private BookFacet facet;
+    private String value;
+    private Long count;
+}
@@ -0,0 +1,19 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookFacetFilter {
+    private List<String> categories;
+    private List<String> publishers;
+    private Integer yearFrom;
+    private Integer yearTo;
+}
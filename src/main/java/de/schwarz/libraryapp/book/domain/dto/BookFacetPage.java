@@ -0,0 +1,20 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookFacetPage {
+    private List<BookDto> books;
+    private String nextCursor;
+    private List<BookFacetDto> categories;
+    private List<BookFacetDto> publishers;
+    private List<BookFacetDto> years;
+}
@@ -0,0 +1,15 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacetResult {
+    private List<BookView> books;
+    private List<BookFacetDto> facets;
+}
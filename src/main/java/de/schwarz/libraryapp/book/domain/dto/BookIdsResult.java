@@ -0,0 +1,17 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookIdsResult {
+    private List<BookDto> books;
+    private List<Long> missingIds;
+}
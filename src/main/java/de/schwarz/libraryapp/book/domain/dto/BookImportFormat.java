@@ -0,0 +1,6 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+public enum BookImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,18 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Books inserted at once, their ids lie between the first and the last book id. Other books may have been inserted
+ * between them concurrently.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookInsertResult {
+    private long inserted;
+    private Long firstBookId;
+    private Long lastBookId;
+}
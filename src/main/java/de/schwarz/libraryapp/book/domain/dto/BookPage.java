@@ -0,0 +1,25 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookPage {
+    private List<BookDto> books;
+    private String nextCursor;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> didYouMean;
+
+
+    public BookPage(List<BookDto> books, String nextCursor) {
+        this(books, nextCursor, null);
+    }
+}
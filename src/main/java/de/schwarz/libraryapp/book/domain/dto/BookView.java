@@ -0,0 +1,20 @@
+package de.schwarz.libraryapp.book.domain.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a book joined with the description of its category.
+ */
+public interface BookView {
+    Long getBookId();
+
+    String getAuthor();
+
+    String getTitle();
+
+    String getPublisher();
+
+    LocalDate getPublishingYear();
+
+    String getCategoryDescription();
+}
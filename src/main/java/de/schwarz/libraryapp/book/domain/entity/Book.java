@@ -12,9 +12,15 @@ import java.time.LocalDateTime;
 @Data
 public class Book {
 
+    /**
+     * Ids are allocated in blocks, so batched inserts need one sequence call per block only.
+     * Must match the increment of the sequence.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "library.book_id_seq")
-    @SequenceGenerator(name = "library.book_id_seq", sequenceName = "library.book_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "library.book_id_seq", sequenceName = "library.book_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "author", length = 30, nullable = false)
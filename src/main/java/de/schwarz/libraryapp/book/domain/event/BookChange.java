@@ -0,0 +1,14 @@
+package de.schwarz.libraryapp.book.domain.event;
+
+import lombok.Value;
+
+/**
+ * The searchable terms of a book before and after its change. Before is null for a created book,
+ * after is null for a removed book.
+ */
+@Value
+public class BookChange {
+    Long bookId;
+    BookTerms before;
+    BookTerms after;
+}
@@ -0,0 +1,49 @@
+package de.schwarz.libraryapp.book.domain.event;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when books are created, updated or removed. Listeners react after the commit.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookChangedEvent {
+    private final Collection<Long> bookIds;
+    private final Collection<BookChange> changes;
+    private final boolean bulk;
+    // Books created by a bulk operation have ids in this range
+    private final Long firstBookId;
+    private final Long lastBookId;
+
+
+    public BookChangedEvent(Collection<BookChange> changes) {
+        this(changes.stream()
+                .map(BookChange::getBookId)
+                .toList(), changes, false, null, null);
+    }
+
+    /**
+     * Books changed by a bulk operation, without the ids and changes of the single books
+     *
+     * @return
+     */
+    public static BookChangedEvent bulk() {
+        return new BookChangedEvent(List.of(), List.of(), true, null, null);
+    }
+
+    /**
+     * Books created by a bulk operation, without the changes of the single books
+     *
+     * @param firstBookId
+     * @param lastBookId
+     * @return
+     */
+    public static BookChangedEvent bulk(Long firstBookId, Long lastBookId) {
+        return new BookChangedEvent(List.of(), List.of(), true, firstBookId, lastBookId);
+    }
+}
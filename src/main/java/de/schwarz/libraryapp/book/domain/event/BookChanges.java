@@ -0,0 +1,45 @@
+package de.schwarz.libraryapp.book.domain.event;
+
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Book changes applied to an in-memory index, while the index is rebuilt from a snapshot of the database.
+ */
+public final class BookChanges {
+
+    private BookChanges() {
+    }
+
+    /**
+     * Finds the changes not seen by a snapshot. The changes of a book are ordered by their commit, the snapshot has
+     * seen them up to the last change leaving the book with the terms of the snapshot. Replaying the remaining changes
+     * leads from the snapshot to the current terms, so no change is counted twice or missed.
+     *
+     * @param changes  in the order of their commit
+     * @param snapshot terms of the changed books in the snapshot, a book missing in the snapshot has none
+     * @return the changes to replay
+     */
+    public static Set<BookChange> unseen(List<BookChange> changes, Map<Long, BookTerms> snapshot) {
+        Map<Long, Integer> lastSeen = new HashMap<>();
+        for (int i = 0; i < changes.size(); i++) {
+            var change = changes.get(i);
+            if (Objects.equals(change.getAfter(), snapshot.get(change.getBookId()))) {
+                lastSeen.put(change.getBookId(), i);
+            }
+        }
+
+        Set<BookChange> unseen = Collections.newSetFromMap(new IdentityHashMap<>());
+        IntStream.range(0, changes.size())
+                .filter(i -> i > lastSeen.getOrDefault(changes.get(i).getBookId(), -1))
+                .forEach(i -> unseen.add(changes.get(i)));
+        return unseen;
+    }
+}
@@ -0,0 +1,19 @@
+package de.schwarz.libraryapp.book.domain.event;
+
+import de.schwarz.libraryapp.book.domain.entity.Book;
+import lombok.Value;
+
+/**
+ * The searchable terms of a book at one point in time.
+ */
+@Value
+public class BookTerms {
+    String title;
+    String author;
+    Long categoryId;
+
+
+    public static BookTerms of(Book book) {
+        return new BookTerms(book.getTitle(), book.getAuthor(), book.getCategoryId());
+    }
+}
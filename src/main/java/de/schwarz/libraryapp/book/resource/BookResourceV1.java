@@ -1,9 +1,20 @@
 package de.schwarz.libraryapp.book.resource;
 
 
+import de.schwarz.libraryapp.book.domain.dto.BookBatchResult;
 import de.schwarz.libraryapp.book.domain.dto.BookDto;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetFilter;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetPage;
+import de.schwarz.libraryapp.book.domain.dto.BookIdsResult;
+import de.schwarz.libraryapp.book.domain.dto.BookImportFormat;
+import de.schwarz.libraryapp.book.domain.dto.BookPage;
 import de.schwarz.libraryapp.book.domain.dto.BookRequest;
+import de.schwarz.libraryapp.book.service.BookImportService;
 import de.schwarz.libraryapp.book.service.BookService;
+import de.schwarz.libraryapp.catalog.service.CatalogVersionService;
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
+import de.schwarz.libraryapp.stream.JsonStreamWriter;
+import de.schwarz.libraryapp.tag.domain.dto.TagFilter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,10 +22,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,62 +42,310 @@ import java.util.List;
 public class BookResourceV1 {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final CatalogVersionService catalogVersionService;
+    private final JsonStreamWriter jsonStreamWriter;
 
 
-    @Operation(tags = "Get all books", summary = "Getting all books from library", description = "Process gets all books from online library database without restrictions.",
+    @Operation(tags = "Get all books", summary = "Getting a page of all books from library", description = "Process gets a page of all books from online library database without restrictions. The next page is requested with the returned cursor.",
             responses = {
-                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookDto.class))),
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookPage.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Page size is invalid.<br/>* Cursor is invalid."),
                     @ApiResponse(responseCode = "401", description = "Unauthorized"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "500", description = "Internal error")})
     @SecurityRequirement(name = "http_secure")
     @GetMapping("/v1/books")
-    public ResponseEntity<?> detectAllBooks() {
+    public ResponseEntity<?> detectAllBooks(@RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "size", required = false) Integer size) {
+        // Validate request param
+        bookService.validateRequestParamPage(cursor, size);
+        // Call service
+        BookPage books = bookService.detectAllBooks(cursor, size);
+        log.info("Count of books detected: {}...", books.getBooks().size());
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(books);
+    }
+
+    @Operation(tags = "Get books ids", summary = "Getting the books of the given ids from library", description = "Process gets the books of the given comma separated ids from online library database with one query. "
+            + "The books are returned in the order of the ids, ids without book are returned as missing ids.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookIdsResult.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Book ids are empty.<br/>* Book ids exceed the max size."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping(value = "/v1/books", params = "ids")
+    public ResponseEntity<?> detectBooksFromIds(@RequestParam(value = "ids", required = false) List<Long> bookIds) {
+        // Validate request param
+        bookService.validateRequestParamBookIds(bookIds);
+        // Call service
+        BookIdsResult books = bookService.detectBooksByIds(bookIds);
+        log.info("Count of books detected: {}, missing: {} by ids...", books.getBooks().size(), books.getMissingIds().size());
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(books);
+    }
+
+    @Operation(tags = "Get books ids", summary = "Getting the books of the given ids from library", description = "Process gets the books of the ids in the request body from online library database with one query, for lists too long for the query string. "
+            + "The books are returned in the order of the ids, ids without book are returned as missing ids.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookIdsResult.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Book ids are empty.<br/>* Book ids exceed the max size."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @PostMapping("/v1/books/ids")
+    public ResponseEntity<?> detectBooksFromIdList(@RequestBody(required = false) List<Long> bookIds) {
+        // Validate request param
+        bookService.validateRequestParamBookIds(bookIds);
         // Call service
-        List<BookDto> books = bookService.detectAllBooks();
-        log.info("Count of books detected: {}...", books.size());
+        BookIdsResult books = bookService.detectBooksByIds(bookIds);
+        log.info("Count of books detected: {}, missing: {} by ids...", books.getBooks().size(), books.getMissingIds().size());
         // Prepare and return response
         return ResponseEntity
                 .ok()
                 .body(books);
     }
 
-    @Operation(tags = "Get all books author", summary = "Getting all books by the given author from library", description = "Process gets all books from online library database, by the given author.",
+    @Operation(tags = "Stream all books", summary = "Streaming all books from library", description = "Process streams all books from online library database without restrictions as json lines (NDJSON).",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = BookDto.class))),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping(value = "/v1/books/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        log.info("Streaming all books as json lines...");
+        // Prepare and return response, the service is called during writing the response
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(jsonStreamWriter.ndjson(bookService::streamAllBooks));
+    }
+
+    @Operation(tags = "Stream all books array", summary = "Streaming all books from library", description = "Process streams all books from online library database without restrictions as json array.",
             responses = {
                     @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookDto.class))),
-                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Author is empty."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping(value = "/v1/books/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBooksAsArray() {
+        log.info("Streaming all books as json array...");
+        // Prepare and return response, the service is called during writing the response
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamWriter.array(bookService::streamAllBooks));
+    }
+
+    @Operation(tags = "Get all books author", summary = "Getting a page of books by the given author from library", description = "Process gets a page of books from online library database, by the given author. The next page is requested with the returned cursor. "
+            + "The fuzzy mode gets the books of the authors within a few typos of the given one, listed as did you mean. Without fuzzy mode, an author without books returns the authors within a few typos as did you mean, without books.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookPage.class))),
+                    @ApiResponse(responseCode = "204", description = "No Content<br/><br/>* No books and no similar authors."),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Author is empty.<br/>* Page size is invalid.<br/>* Cursor is invalid."),
                     @ApiResponse(responseCode = "401", description = "Unauthorized"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "500", description = "Internal error")})
     @SecurityRequirement(name = "http_secure")
     @GetMapping("/v1/books/author")
-    public ResponseEntity<?> detectBooksFromAuthor(@RequestParam(value = "author", required = false) String author) {
+    public ResponseEntity<?> detectBooksFromAuthor(@RequestParam(value = "author", required = false) String author,
+                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                   @RequestParam(value = "size", required = false) Integer size,
+                                                   @RequestParam(value = "fuzzy", required = false) Boolean fuzzy) {
+        // Validate request param
+        bookService.validateRequestParamAuthor(author);
+        bookService.validateRequestParamPage(cursor, size);
+        // Call service
+        BookPage books = bookService.detectBooksByAuthor(author, cursor, size, fuzzy);
+        log.info("Count of books detected: {} by author: {}...", books.getBooks().size(), author);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(books);
+    }
+
+    @Operation(tags = "Get similar books author", summary = "Getting the books with the most similar author from library", description = "Process gets the top books from online library database, ranked by the similarity of their author to the given one.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookDto.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Author is empty.<br/>* Size is invalid."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/books/author/similar")
+    public ResponseEntity<?> detectBooksFromSimilarAuthor(@RequestParam(value = "author", required = false) String author,
+                                                          @RequestParam(value = "size", required = false) Integer size) {
         // Validate request param
         bookService.validateRequestParamAuthor(author);
+        bookService.validateRequestParamPage(null, size);
         // Call service
-        List<BookDto> books = bookService.detectBooksByAuthor(author);
-        log.info("Count of books detected: {} by author: {}...", books.size(), author);
+        List<BookDto> books = bookService.detectBooksByAuthorSimilarity(author, size);
+        log.info("Count of books detected: {} by similar author: {}...", books.size(), author);
         // Prepare and return response
         return ResponseEntity
                 .ok()
                 .body(books);
     }
 
-    @Operation(tags = "Get all books category", summary = "Getting all books by the given category from library", description = "Process gets all books from online library database, by the given category.",
+    @Operation(tags = "Get similar books title", summary = "Getting the books with the most similar title from library", description = "Process gets the top books from online library database, ranked by the similarity of their title to the given one.",
             responses = {
                     @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookDto.class))),
-                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Category is empty."),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Title is empty.<br/>* Size is invalid."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/books/title/similar")
+    public ResponseEntity<?> detectBooksFromSimilarTitle(@RequestParam(value = "title", required = false) String title,
+                                                         @RequestParam(value = "size", required = false) Integer size) {
+        // Validate request param
+        bookService.validateRequestParamTitle(title);
+        bookService.validateRequestParamPage(null, size);
+        // Call service
+        List<BookDto> books = bookService.detectBooksByTitleSimilarity(title, size);
+        log.info("Count of books detected: {} by similar title: {}...", books.size(), title);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(books);
+    }
+
+    @Operation(tags = "Get all books category", summary = "Getting a page of books by the given category from library", description = "Process gets a page of books from online library database, by the given category. The next page is requested with the returned cursor. "
+            + "The response is tagged with the catalog version, a request with a matching If-None-Match header is answered without body.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookPage.class))),
+                    @ApiResponse(responseCode = "304", description = "Not Modified"),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Category is empty.<br/>* Page size is invalid.<br/>* Cursor is invalid."),
                     @ApiResponse(responseCode = "401", description = "Unauthorized"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "500", description = "Internal error")})
     @SecurityRequirement(name = "http_secure")
     @GetMapping("/v1/books/category")
-    public ResponseEntity<?> detectBooksInCategory(@RequestParam(value = "category", required = false) String category) {
+    public ResponseEntity<?> detectBooksInCategory(@RequestParam(value = "category", required = false) String category,
+                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                   @RequestParam(value = "size", required = false) Integer size,
+                                                   WebRequest webRequest) {
         // Validate request param
         bookService.validateRequestParamCategory(category);
+        bookService.validateRequestParamPage(cursor, size);
+        // Check catalog version
+        String eTag = catalogVersionService.detectCatalogETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .build();
+        }
+        // Call service
+        BookPage books = bookService.detectBooksByCategory(category, cursor, size);
+        log.info("Count of books detected: {} by category: {}...", books.getBooks().size(), category);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .body(books);
+    }
+
+    @Operation(tags = "Get all books category subtree", summary = "Getting a page of books by the given category and all categories below it from library", description = "Process gets a page of books from online library database, by the given category id and all its descendant categories. The next page is requested with the returned cursor. "
+            + "The response is tagged with the catalog version, a request with a matching If-None-Match header is answered without body.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookPage.class))),
+                    @ApiResponse(responseCode = "304", description = "Not Modified"),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Category id is empty.<br/>* Page size is invalid.<br/>* Cursor is invalid."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/books/category/subtree")
+    public ResponseEntity<?> detectBooksInCategorySubtree(@RequestParam(value = "categoryId", required = false) Long categoryId,
+                                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                                          @RequestParam(value = "size", required = false) Integer size,
+                                                          WebRequest webRequest) {
+        // Validate request param
+        bookService.validateRequestParamCategoryId(categoryId);
+        bookService.validateRequestParamPage(cursor, size);
+        // Check catalog version
+        String eTag = catalogVersionService.detectCatalogETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .build();
+        }
         // Call service
-        List<BookDto> books = bookService.detectBooksByCategory(category);
-        log.info("Count of books detected: {} by category: {}...", books.size(), category);
+        BookPage books = bookService.detectBooksByCategorySubtree(categoryId, cursor, size);
+        log.info("Count of books detected: {} by subtree of category id: {}...", books.getBooks().size(), categoryId);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .body(books);
+    }
+
+    @Operation(tags = "Get books tags", summary = "Getting a page of books by tags from library", description = "Process gets a page of books having all tags of all, at least one tag of any and none of the tags of none, ordered by book id. "
+            + "The tags are evaluated in memory, the next page is requested with the returned cursor.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookPage.class))),
+                    @ApiResponse(responseCode = "204", description = "No Content"),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Tags all and any are empty.<br/>* Too many tags.<br/>* Tag is invalid.<br/>* Page size is invalid.<br/>* Cursor is invalid."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/books/tags")
+    public ResponseEntity<?> detectBooksByTags(@RequestParam(value = "all", required = false) List<String> all,
+                                               @RequestParam(value = "any", required = false) List<String> any,
+                                               @RequestParam(value = "none", required = false) List<String> none,
+                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam(value = "size", required = false) Integer size) {
+        TagFilter filter = new TagFilter(all, any, none);
+        // Validate request param
+        bookService.validateRequestParamTagFilter(filter);
+        bookService.validateRequestParamPage(cursor, size);
+        // Call service
+        BookPage books = bookService.detectBooksByTags(filter, cursor, size);
+        log.info("Count of books detected: {} by tags: {}...", books.getBooks().size(), filter);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(books);
+    }
+
+    @Operation(tags = "Get books facets", summary = "Getting a page of filtered books with facet counts from library", description = "Process gets a page of books from online library database, filtered by categories, publishers and a range of publishing years. "
+            + "The counts of the filtered books per category, publisher and bucket of publishing years are returned with the page. The next page is requested with the returned cursor.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookFacetPage.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Year range is invalid.<br/>* Page size is invalid.<br/>* Cursor is invalid."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/books/facets")
+    public ResponseEntity<?> detectBooksByFacets(@RequestParam(value = "category", required = false) List<String> categories,
+                                                 @RequestParam(value = "publisher", required = false) List<String> publishers,
+                                                 @RequestParam(value = "yearFrom", required = false) Integer yearFrom,
+                                                 @RequestParam(value = "yearTo", required = false) Integer yearTo,
+                                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                                 @RequestParam(value = "size", required = false) Integer size) {
+        BookFacetFilter filter = new BookFacetFilter(categories, publishers, yearFrom, yearTo);
+        // Validate request param
+        bookService.validateRequestParamFacetFilter(filter);
+        bookService.validateRequestParamPage(cursor, size);
+        // Call service
+        BookFacetPage books = bookService.detectBooksByFacets(filter, cursor, size);
+        log.info("Count of books detected: {} by facets: {}...", books.getBooks().size(), filter);
         // Prepare and return response
         return ResponseEntity
                 .ok()
@@ -130,6 +394,53 @@ public class BookResourceV1 {
                 .body(book);
     }
 
+    @Operation(tags = "Create update books", summary = "Creates or updates a batch of books in the online library", description = "Process creates or updates the books of the given requests in library database, in one transaction. "
+            + "Requests with a book id update the book, the others create a book. The result of each request is returned by its index, invalid requests fail without affecting the others.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookBatchResult.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Batch is empty.<br/>* Batch exceeds the max size."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @PostMapping("/v1/books/batch")
+    public ResponseEntity<?> saveBooks(@RequestBody(required = false) List<BookRequest> requests) {
+        // Validate request param
+        bookService.validateRequestParamsBatch(requests);
+        // Call service
+        List<BookBatchResult> results = bookService.createOrUpdateBooks(requests);
+        log.info("Batch of books created or updated: {}...", results.size());
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(results);
+    }
+
+    @Operation(tags = "Import books", summary = "Imports books into the online library", description = "Process imports the books of a CSV or json lines upload as background job. "
+            + "CSV uploads start with the header author,title,publisher,publishing_year,category. Json lines use the fields of a book request. "
+            + "Without format, json lines are detected by the file extension .ndjson or .jsonl. The progress and the invalid rows are reported by the job.",
+            responses = {
+                    @ApiResponse(responseCode = "202", content = @Content(schema = @Schema(implementation = JobDto.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* File is empty."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error"),
+                    @ApiResponse(responseCode = "503", description = "Service unavailable<br/><br/>* Too many jobs queued.")})
+    @SecurityRequirement(name = "http_secure")
+    @PostMapping(value = "/v1/books/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importBooks(@RequestPart(value = "file", required = false) MultipartFile file,
+                                         @RequestParam(value = "format", required = false) BookImportFormat format) {
+        // Validate request param
+        bookImportService.validateRequestParamFile(file);
+        // Call service
+        JobDto job = bookImportService.importBooks(file, format);
+        log.info("Import of books from file: {} submitted as job: {}...", file.getOriginalFilename(), job.getJobId());
+        // Prepare and return response
+        return ResponseEntity
+                .accepted()
+                .body(job);
+    }
+
     @Operation(tags = "Remove book", summary = "Removes a book from the online library", description = "Process removes a book from the library database, by the given book id.",
             responses = {
                     @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookRequest.class))),
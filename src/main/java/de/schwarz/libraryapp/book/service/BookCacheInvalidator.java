@@ -0,0 +1,54 @@
+package de.schwarz.libraryapp.book.service;
+
+
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.cache.CacheConfig;
+import de.schwarz.libraryapp.category.domain.event.CategoryChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * Evicts cached books after the commit of their change, so no reader caches the state before the commit again.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class BookCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+
+    /**
+     * Evicts the changed books, or all books after a bulk change
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        var cache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.CACHE_BOOKS));
+        if (event.isBulk()) {
+            cache.clear();
+            log.debug("Books cleared from cache after bulk change...");
+            return;
+        }
+
+        event.getBookIds().forEach(cache::evict);
+        log.debug("Books evicted from cache: {}...", event.getBookIds().size());
+    }
+
+    /**
+     * Clears all books, as each cached book contains the description of its category
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Objects.requireNonNull(cacheManager.getCache(CacheConfig.CACHE_BOOKS)).clear();
+        log.debug("Books cleared from cache after change of category: {}...", event.getCategoryId());
+    }
+}
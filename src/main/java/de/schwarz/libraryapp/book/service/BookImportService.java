@@ -0,0 +1,145 @@
+package de.schwarz.libraryapp.book.service;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.schwarz.libraryapp.book.domain.BookImportRepository;
+import de.schwarz.libraryapp.book.domain.dto.BookImportFormat;
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.job.domain.Job;
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
+import de.schwarz.libraryapp.job.service.JobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class BookImportService {
+
+    public static final String JOB_TYPE_BOOK_IMPORT = "BOOK_IMPORT";
+    public static final String ERROR_BOOK_IMPORT_FILE_EMPTY = "error.book.import.file.empty";
+    public static final String ERROR_BOOK_IMPORT_FILE = "error.book.import.file";
+    public static final String PHASE_STAGING = "STAGING";
+    public static final String PHASE_VALIDATING = "VALIDATING";
+    public static final String PHASE_INSERTING = "INSERTING";
+
+
+    private final BookImportRepository bookImportRepository;
+    private final JobService jobService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+
+    /**
+     * Validates request param file
+     *
+     * @param file
+     */
+    public void validateRequestParamFile(final MultipartFile file) {
+        if (ObjectUtils.isEmpty(file) || file.isEmpty()) {
+            throw new IllegalArgumentException(ERROR_BOOK_IMPORT_FILE_EMPTY);
+        }
+    }
+
+    /**
+     * Imports the books of the uploaded file as background job. Without format, json lines are detected by the file
+     * extension .ndjson or .jsonl, otherwise CSV with the header author,title,publisher,publishing_year,category is expected.
+     *
+     * @param file
+     * @param format
+     * @return the submitted job
+     */
+    public JobDto importBooks(MultipartFile file, BookImportFormat format) {
+        var importFormat = ObjectUtils.isEmpty(format) ? detectFormat(file.getOriginalFilename()) : format;
+        var upload = storeUpload(file);
+        try {
+            return jobService.submitJob(JOB_TYPE_BOOK_IMPORT, job -> runImport(upload, importFormat, job));
+        } catch (RuntimeException e) {
+            deleteUpload(upload);
+            throw e;
+        }
+    }
+
+    private void runImport(Path upload, BookImportFormat format, Job job) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> importUpload(upload, format, job));
+        } finally {
+            deleteUpload(upload);
+        }
+    }
+
+    private void importUpload(Path upload, BookImportFormat format, Job job) {
+        job.setPhase(PHASE_STAGING);
+        bookImportRepository.createStagingTable();
+        long staged;
+        try (Reader reader = createCsvReader(upload, format, job)) {
+            staged = bookImportRepository.copyIntoStaging(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        job.getProcessed().set(staged);
+        log.info("Import job: {}, rows staged: {}...", job.getJobId(), staged);
+
+        job.setPhase(PHASE_VALIDATING);
+        var invalid = bookImportRepository.validateStaging();
+        job.getFailed().set(invalid);
+        bookImportRepository.findInvalidRows(job.getMaxReportedErrors())
+                .forEach(error -> job.reportError(error.getRow(), error.getError()));
+
+        job.setPhase(PHASE_INSERTING);
+        var inserted = bookImportRepository.insertValidBooks(staged - invalid);
+        job.getSucceeded().set(inserted.getInserted());
+        if (inserted.getInserted() > 0) {
+            eventPublisher.publishEvent(BookChangedEvent.bulk(inserted.getFirstBookId(), inserted.getLastBookId()));
+        }
+        log.info("Import job: {}, books inserted: {}, rows invalid: {}...", job.getJobId(), inserted.getInserted(), invalid);
+    }
+
+    private Reader createCsvReader(Path upload, BookImportFormat format, Job job) throws IOException {
+        // Malformed bytes are replaced by U+FFFD instead of aborting the import
+        var reader = new InputStreamReader(Files.newInputStream(upload), StandardCharsets.UTF_8);
+        return switch (format) {
+            case CSV -> new CsvStagingReader(reader, job.getProcessed());
+            case NDJSON -> new NdjsonCsvReader(reader, objectMapper, job.getProcessed());
+        };
+    }
+
+    private BookImportFormat detectFormat(String filename) {
+        var name = ObjectUtils.isEmpty(filename) ? "" : filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl") ? BookImportFormat.NDJSON : BookImportFormat.CSV;
+    }
+
+    private Path storeUpload(MultipartFile file) {
+        try {
+            var upload = Files.createTempFile("book-import-", ".upload");
+            file.transferTo(upload);
+            return upload;
+        } catch (IOException e) {
+            log.error("Exception during storing the upload of the book import...", e);
+            throw new InternalError(ERROR_BOOK_IMPORT_FILE);
+        }
+    }
+
+    private void deleteUpload(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            log.warn("Upload: {} of the book import not deleted...", upload, e);
+        }
+    }
+}
@@ -1,15 +1,38 @@
 package de.schwarz.libraryapp.book.service;
 
 
+import de.schwarz.libraryapp.book.domain.BookFacetRepository;
 import de.schwarz.libraryapp.book.domain.BookRepository;
+import de.schwarz.libraryapp.book.domain.dto.BookBatchResult;
+import de.schwarz.libraryapp.book.domain.dto.BookBatchStatus;
+import de.schwarz.libraryapp.book.domain.dto.BookCursor;
 import de.schwarz.libraryapp.book.domain.dto.BookDto;
+import de.schwarz.libraryapp.book.domain.dto.BookFacet;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetDto;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetFilter;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetPage;
+import de.schwarz.libraryapp.book.domain.dto.BookIdsResult;
+import de.schwarz.libraryapp.book.domain.dto.BookPage;
 import de.schwarz.libraryapp.book.domain.dto.BookRequest;
+import de.schwarz.libraryapp.book.domain.dto.BookView;
 import de.schwarz.libraryapp.book.domain.entity.Book;
+import de.schwarz.libraryapp.book.domain.event.BookChange;
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
+import de.schwarz.libraryapp.cache.CacheConfig;
+import de.schwarz.libraryapp.category.domain.CategorySearchKey;
 import de.schwarz.libraryapp.category.domain.dto.CategoryDto;
 import de.schwarz.libraryapp.category.service.CategoryService;
 import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionDto;
+import de.schwarz.libraryapp.suggest.service.AuthorMatchService;
+import de.schwarz.libraryapp.tag.domain.dto.TagFilter;
+import de.schwarz.libraryapp.tag.service.TagService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,8 +40,22 @@ import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -29,10 +66,15 @@ public class BookService {
     public static final String ERROR_BOOKS_ALL = "error.books.all";
     public static final String ERROR_BOOKS_AUTHOR = "error.books.author";
     public static final String ERROR_BOOKS_CATEGORY = "error.books.category";
+    public static final String ERROR_BOOKS_TAGS = "error.books.tags";
+    public static final String ERROR_BOOKS_TITLE = "error.books.title";
     public static final String ERROR_BOOKS_ID = "error.books.id";
     public static final String ERROR_BOOKS_SAVE = "error.books.save";
+    public static final String ERROR_BOOKS_BATCH = "error.books.batch";
     public static final String ERROR_BOOK_AUTHOR_EMPTY = "error.book.author.empty";
     public static final String ERROR_BOOK_CATEGORY_EMPTY = "error.book.category.empty";
+    public static final String ERROR_BOOK_CATEGORY_ID_EMPTY = "error.book.category.id.empty";
+    public static final String ERROR_BOOK_TITLE_EMPTY = "error.book.title.empty";
     public static final String ERROR_BOOK_ID_EMPTY = "error.book.id.empty";
     public static final String ERROR_BOOK_REQUEST_EMPTY = "error.book.request.empty";
     public static final String ERROR_BOOK_REQUEST_AUTHOR_EMPTY = "error.book.request.author.empty";
@@ -40,10 +82,45 @@ public class BookService {
     public static final String ERROR_BOOK_REQUEST_PUBLISHER_EMPTY = "error.book.request.publisher.empty";
     public static final String ERROR_BOOK_REQUEST_PUBLISHING_YEAR_EMPTY = "error.book.request.publishing_year.empty";
     public static final String ERROR_BOOK_REQUEST_CATEGORY_EMPTY = "error.book.request.category.empty";
+    public static final String ERROR_BOOK_PAGE_SIZE_INVALID = "error.book.page.size.invalid";
+    public static final String ERROR_BOOK_PAGE_CURSOR_INVALID = "error.book.page.cursor.invalid";
+    public static final String ERROR_BOOK_FACET_YEAR_INVALID = "error.book.facet.year.invalid";
+    public static final String ERROR_BOOK_IDS_EMPTY = "error.book.ids.empty";
+    public static final String ERROR_BOOK_IDS_SIZE_INVALID = "error.book.ids.size.invalid";
+    public static final String ERROR_BOOK_BATCH_EMPTY = "error.book.batch.empty";
+    public static final String ERROR_BOOK_BATCH_SIZE_INVALID = "error.book.batch.size.invalid";
+    public static final String ERROR_BOOK_BATCH_CATEGORY_UNKNOWN = "error.book.batch.category.unknown";
+    public static final String ERROR_BOOK_BATCH_ID_UNKNOWN = "error.book.batch.id.unknown";
+    private static final String CURSOR_SEPARATOR = ":";
+    private static final Long FIRST_PAGE_ASCENDING_ID = 0L;
+    private static final Long FIRST_PAGE_DESCENDING_ID = Long.MAX_VALUE;
+    private static final LocalDate FIRST_PAGE_DESCENDING_PUBLISHING_YEAR = LocalDate.of(9999, 12, 31);
 
 
     private final BookRepository bookRepository;
+    private final BookFacetRepository bookFacetRepository;
     private final CategoryService categoryService;
+    private final TagService tagService;
+    private final AuthorMatchService authorMatchService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value(value = "${application.properties.book.page.default-size}")
+    private int defaultPageSize;
+
+    @Value(value = "${application.properties.book.page.max-size}")
+    private int maxPageSize;
+
+    @Value(value = "${application.properties.book.facet.year-bucket}")
+    private int facetYearBucket;
+
+    @Value(value = "${application.properties.book.facet.max-values}")
+    private int facetMaxValues;
+
+    @Value(value = "${application.properties.book.ids.max-size}")
+    private int maxIdsSize;
+
+    @Value(value = "${application.properties.book.batch.max-size}")
+    private int maxBatchSize;
 
 
     /**
@@ -68,6 +145,28 @@ public class BookService {
         }
     }
 
+    /**
+     * Validates request param category id
+     *
+     * @param categoryId
+     */
+    public void validateRequestParamCategoryId(final Long categoryId) {
+        if (ObjectUtils.isEmpty(categoryId)) {
+            throw new IllegalArgumentException(ERROR_BOOK_CATEGORY_ID_EMPTY);
+        }
+    }
+
+    /**
+     * Validates request param title
+     *
+     * @param title
+     */
+    public void validateRequestParamTitle(final String title) {
+        if (!StringUtils.hasText(title)) {
+            throw new IllegalArgumentException(ERROR_BOOK_TITLE_EMPTY);
+        }
+    }
+
     /**
      * Validates request param book id.
      *
@@ -79,6 +178,22 @@ public class BookService {
         }
     }
 
+    /**
+     * Validates request params of a book page
+     *
+     * @param cursor
+     * @param size
+     */
+    public void validateRequestParamPage(final String cursor, final Integer size) {
+        if (!ObjectUtils.isEmpty(size) && (size < 1 || size > maxPageSize)) {
+            throw new IllegalArgumentException(ERROR_BOOK_PAGE_SIZE_INVALID);
+        }
+
+        if (StringUtils.hasText(cursor)) {
+            decodeCursor(cursor);
+        }
+    }
+
     /**
      * Validates request params
      *
@@ -111,21 +226,80 @@ public class BookService {
     }
 
     /**
-     * Detects all books by the given author
+     * Validates request params of a faceted search
+     *
+     * @param filter
+     */
+    public void validateRequestParamFacetFilter(final BookFacetFilter filter) {
+        if (!ObjectUtils.isEmpty(filter.getYearFrom()) && !ObjectUtils.isEmpty(filter.getYearTo())
+                && filter.getYearFrom() > filter.getYearTo()) {
+            throw new IllegalArgumentException(ERROR_BOOK_FACET_YEAR_INVALID);
+        }
+
+        if ((!ObjectUtils.isEmpty(filter.getYearFrom()) && (filter.getYearFrom() < 1 || filter.getYearFrom() > 9998))
+                || (!ObjectUtils.isEmpty(filter.getYearTo()) && (filter.getYearTo() < 1 || filter.getYearTo() > 9998))) {
+            throw new IllegalArgumentException(ERROR_BOOK_FACET_YEAR_INVALID);
+        }
+    }
+
+    /**
+     * Validates request param tag filter
+     *
+     * @param filter
+     */
+    public void validateRequestParamTagFilter(final TagFilter filter) {
+        tagService.validateRequestParams(filter);
+    }
+
+    /**
+     * Validates request param book ids
+     *
+     * @param bookIds
+     */
+    public void validateRequestParamBookIds(final List<Long> bookIds) {
+        if (ObjectUtils.isEmpty(bookIds) || bookIds.contains(null)) {
+            throw new IllegalArgumentException(ERROR_BOOK_IDS_EMPTY);
+        }
+
+        if (bookIds.size() > maxIdsSize) {
+            throw new IllegalArgumentException(ERROR_BOOK_IDS_SIZE_INVALID);
+        }
+    }
+
+    /**
+     * Validates request params of a batch. The single requests are validated by the batch itself.
      *
+     * @param requests
+     */
+    public void validateRequestParamsBatch(final List<BookRequest> requests) {
+        if (ObjectUtils.isEmpty(requests)) {
+            throw new IllegalArgumentException(ERROR_BOOK_BATCH_EMPTY);
+        }
+
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException(ERROR_BOOK_BATCH_SIZE_INVALID);
+        }
+    }
+
+    /**
+     * Detects a page of all books, ordered by book id
+     *
+     * @param cursor
+     * @param size
      * @return
      */
     @Transactional
-    public List<BookDto> detectAllBooks() {
+    public BookPage detectAllBooks(String cursor, Integer size) {
         try {
-            var books = bookRepository.findAll();
+            var after = decodeCursor(cursor);
+            var pageSize = pageSize(size);
+            var lastId = ObjectUtils.isEmpty(after) ? FIRST_PAGE_ASCENDING_ID : after.getBookId();
+            var books = bookRepository.findAllAfter(lastId, pageSize + 1);
             if (books.isEmpty()) {
                 throw new NoContentException();
             }
 
-            return books.stream()
-                    .map(this::createBookDto)
-                    .toList();
+            return createBookPage(books, pageSize);
         } catch (DataIntegrityViolationException e) {
             rollback();
             log.error("Exception during detecting all books...", e);
@@ -135,15 +309,190 @@ public class BookService {
 
 
     /**
-     * Detects all books by the given author
+     * Detects a page of books by the given author, ordered by book id. The fuzzy mode detects the books of the authors
+     * within a few typos of the given one, by their exact names. Without the fuzzy mode, a first page without books
+     * returns these authors as did you mean.
      *
      * @param author
+     * @param cursor
+     * @param size
+     * @param fuzzy
      * @return
      */
     @Transactional
-    public List<BookDto> detectBooksByAuthor(String author) {
+    public BookPage detectBooksByAuthor(String author, String cursor, Integer size, Boolean fuzzy) {
         try {
-            var books = bookRepository.findByAuthor(author.trim());
+            var after = decodeCursor(cursor);
+            var pageSize = pageSize(size);
+            var lastId = ObjectUtils.isEmpty(after) ? FIRST_PAGE_ASCENDING_ID : after.getBookId();
+            if (Boolean.TRUE.equals(fuzzy)) {
+                var authors = authorNames(authorMatchService.detectAuthorMatches(author.trim()));
+                var books = authors.isEmpty() ? List.<BookView>of()
+                        : bookRepository.findByAuthors(authors.toArray(String[]::new), lastId, pageSize + 1);
+                if (books.isEmpty()) {
+                    throw new NoContentException();
+                }
+
+                var page = createBookPage(books, pageSize);
+                page.setDidYouMean(authors);
+                return page;
+            }
+
+            var books = bookRepository.findByAuthor(author.trim(), lastId, pageSize + 1);
+            if (books.isEmpty()) {
+                var authors = ObjectUtils.isEmpty(after) ? authorNames(authorMatchService.detectAuthorMatches(author.trim())) : List.<String>of();
+                if (authors.isEmpty()) {
+                    throw new NoContentException();
+                }
+
+                return new BookPage(List.of(), null, authors);
+            }
+
+            return createBookPage(books, pageSize);
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during detecting books by author: {}", author, e);
+            throw new InternalError(ERROR_BOOKS_AUTHOR);
+        }
+    }
+
+    /**
+     * Detects a page of books by the given category, ordered by publishing year and book id descending
+     *
+     * @param category
+     * @param cursor
+     * @param size
+     * @return
+     */
+    @Transactional
+    public BookPage detectBooksByCategory(String category, String cursor, Integer size) {
+        try {
+            var after = decodeCursor(cursor);
+            var pageSize = pageSize(size);
+            var publishingYear = ObjectUtils.isEmpty(after) ? FIRST_PAGE_DESCENDING_PUBLISHING_YEAR : after.getPublishingYear();
+            var lastId = ObjectUtils.isEmpty(after) ? FIRST_PAGE_DESCENDING_ID : after.getBookId();
+            var books = bookRepository.findByCategory(category, publishingYear, lastId, pageSize + 1);
+            if (books.isEmpty()) {
+                throw new NoContentException();
+            }
+
+            return createBookPage(books, pageSize);
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during detecting books by category id: {}", category, e);
+            throw new InternalError(ERROR_BOOKS_CATEGORY);
+        }
+    }
+
+    /**
+     * Detects a page of books of the given category and all its descendants, ordered by publishing year and book id descending
+     *
+     * @param categoryId
+     * @param cursor
+     * @param size
+     * @return
+     */
+    @Transactional
+    public BookPage detectBooksByCategorySubtree(Long categoryId, String cursor, Integer size) {
+        try {
+            var after = decodeCursor(cursor);
+            var pageSize = pageSize(size);
+            var publishingYear = ObjectUtils.isEmpty(after) ? FIRST_PAGE_DESCENDING_PUBLISHING_YEAR : after.getPublishingYear();
+            var lastId = ObjectUtils.isEmpty(after) ? FIRST_PAGE_DESCENDING_ID : after.getBookId();
+            var books = bookRepository.findByCategorySubtree(categoryId, publishingYear, lastId, pageSize + 1);
+            if (books.isEmpty()) {
+                throw new NoContentException();
+            }
+
+            return createBookPage(books, pageSize);
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during detecting books by subtree of category id: {}", categoryId, e);
+            throw new InternalError(ERROR_BOOKS_CATEGORY);
+        }
+    }
+
+    /**
+     * Detects a page of the books matching the tag filter, ordered by book id. The ids are found by the tag index,
+     * the books are read with one query.
+     *
+     * @param filter
+     * @param cursor
+     * @param size
+     * @return
+     */
+    @Transactional
+    public BookPage detectBooksByTags(TagFilter filter, String cursor, Integer size) {
+        try {
+            var after = decodeCursor(cursor);
+            var pageSize = pageSize(size);
+            var lastId = ObjectUtils.isEmpty(after) ? FIRST_PAGE_ASCENDING_ID : after.getBookId();
+            var bookIds = tagService.detectBookIds(filter, lastId, pageSize + 1);
+            var books = bookIds.isEmpty() ? List.<BookView>of() : bookRepository.findViewsByIds(bookIds.toArray(Long[]::new))
+                    .stream()
+                    .sorted(Comparator.comparing(BookView::getBookId))
+                    .toList();
+            if (books.isEmpty()) {
+                throw new NoContentException();
+            }
+
+            return createBookPage(books, pageSize);
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during detecting books by tags: {}", filter, e);
+            throw new InternalError(ERROR_BOOKS_TAGS);
+        }
+    }
+
+    /**
+     * Detects a page of the filtered books ordered by book id, with the counts of the filtered books per category,
+     * publisher and bucket of publishing years. The page and the counts are read with one statement.
+     *
+     * @param filter
+     * @param cursor
+     * @param size
+     * @return
+     */
+    @Transactional
+    public BookFacetPage detectBooksByFacets(BookFacetFilter filter, String cursor, Integer size) {
+        try {
+            var after = decodeCursor(cursor);
+            var pageSize = pageSize(size);
+            var lastId = ObjectUtils.isEmpty(after) ? FIRST_PAGE_ASCENDING_ID : after.getBookId();
+            var result = bookFacetRepository.findFacetPage(filter, lastId, pageSize + 1, facetYearBucket, facetMaxValues);
+            if (result.getBooks().isEmpty()) {
+                throw new NoContentException();
+            }
+
+            var page = createBookPage(result.getBooks(), pageSize);
+            var facets = result.getFacets().stream()
+                    .collect(Collectors.groupingBy(BookFacetDto::getFacet));
+
+            return new BookFacetPage(page.getBooks(), page.getNextCursor(),
+                    facets.getOrDefault(BookFacet.CATEGORY, List.of()),
+                    facets.getOrDefault(BookFacet.PUBLISHER, List.of()),
+                    facets.getOrDefault(BookFacet.YEAR, List.of()).stream()
+                            .sorted(Comparator.comparing(facet -> Integer.valueOf(facet.getValue())))
+                            .toList());
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during detecting books by facets: {}", filter, e);
+            throw new InternalError(ERROR_BOOKS_ALL);
+        }
+    }
+
+    /**
+     * Detects the books with the most similar author to the given one, ranked by similarity.
+     * The trigram index on the author is used, so no sequential scan is needed.
+     *
+     * @param author
+     * @param size
+     * @return
+     */
+    @Transactional
+    public List<BookDto> detectBooksByAuthorSimilarity(String author, Integer size) {
+        try {
+            var books = bookRepository.findTopByAuthorSimilarity(author.trim(), pageSize(size));
             if (books.isEmpty()) {
                 throw new NoContentException();
             }
@@ -153,21 +502,23 @@ public class BookService {
                     .toList();
         } catch (DataIntegrityViolationException e) {
             rollback();
-            log.error("Exception during detecting books by author: {}", author, e);
+            log.error("Exception during detecting books by similar author: {}", author, e);
             throw new InternalError(ERROR_BOOKS_AUTHOR);
         }
     }
 
     /**
-     * Detects all books by the given category
+     * Detects the books with the most similar title to the given one, ranked by similarity.
+     * The trigram index on the title is used, so no sequential scan is needed.
      *
-     * @param category
+     * @param title
+     * @param size
      * @return
      */
     @Transactional
-    public List<BookDto> detectBooksByCategory(String category) {
+    public List<BookDto> detectBooksByTitleSimilarity(String title, Integer size) {
         try {
-            var books = bookRepository.findByCategory(category);
+            var books = bookRepository.findTopByTitleSimilarity(title.trim(), pageSize(size));
             if (books.isEmpty()) {
                 throw new NoContentException();
             }
@@ -177,21 +528,41 @@ public class BookService {
                     .toList();
         } catch (DataIntegrityViolationException e) {
             rollback();
-            log.error("Exception during detecting books by category id: {}", category, e);
-            throw new InternalError(ERROR_BOOKS_CATEGORY);
+            log.error("Exception during detecting books by similar title: {}", title, e);
+            throw new InternalError(ERROR_BOOKS_TITLE);
         }
     }
 
     /**
-     * Detects a book by the given book id.
+     * Streams all books ordered by id to the given consumer. The rows are fetched in chunks by a server side cursor
+     * as projections, so no entity is held in the persistence context and the heap usage does not grow with the count of books.
+     *
+     * @param consumer
+     */
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<BookDto> consumer) {
+        try (Stream<BookView> books = bookRepository.streamAll()) {
+            books.forEach(book -> consumer.accept(createBookDto(book)));
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during streaming all books...", e);
+            throw new InternalError(ERROR_BOOKS_ALL);
+        }
+    }
+
+    /**
+     * Detects a book by the given book id. The book is cached until it is changed or the time to live expires.
+     * The load is synchronized with the eviction of the book, so a book loaded before the commit of its change
+     * is not put after its eviction.
      *
      * @param bookId
      * @return
      */
+    @Cacheable(cacheNames = CacheConfig.CACHE_BOOKS, key = "#bookId", sync = true)
     @Transactional
     public BookDto detectBook(Long bookId) {
         try {
-            var book = bookRepository.findById(bookId);
+            var book = bookRepository.findViewById(bookId);
             if (book.isEmpty()) {
                 throw new NoContentException();
             }
@@ -204,6 +575,40 @@ public class BookService {
         }
     }
 
+    /**
+     * Detects the books of the given ids with one query. The books are returned in the order of the given ids,
+     * each id once. Ids without book are returned as missing ids.
+     *
+     * @param bookIds
+     * @return
+     */
+    @Transactional
+    public BookIdsResult detectBooksByIds(List<Long> bookIds) {
+        try {
+            var distinctIds = new LinkedHashSet<>(bookIds);
+            var books = bookRepository.findViewsByIds(distinctIds.toArray(Long[]::new))
+                    .stream()
+                    .collect(Collectors.toMap(BookView::getBookId, Function.identity()));
+
+            List<BookDto> booksFound = new ArrayList<>(books.size());
+            List<Long> missingIds = new ArrayList<>();
+            for (Long bookId : distinctIds) {
+                var book = books.get(bookId);
+                if (ObjectUtils.isEmpty(book)) {
+                    missingIds.add(bookId);
+                } else {
+                    booksFound.add(createBookDto(book));
+                }
+            }
+
+            return new BookIdsResult(booksFound, missingIds);
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during detecting books by: {} ids", bookIds.size(), e);
+            throw new InternalError(ERROR_BOOKS_ID);
+        }
+    }
+
     /**
      * Creates or updates a book in online library
      *
@@ -216,12 +621,16 @@ public class BookService {
             CategoryDto category = categoryService.detectCategoryByDescription(bookRequest.getCategory());
             Book book = createBookEntityFromRequest(bookRequest);
             book.setCategoryId(category.getCategoryId());
+            // Loads the book merged by save, so the terms before the update are known without another query
+            var termsBefore = ObjectUtils.isEmpty(book.getId()) ? null : bookRepository.findById(book.getId())
+                    .map(BookTerms::of)
+                    .orElse(null);
 
             var bookNew = bookRepository.save(book);
-            BookDto bookCreatedOrUpdated = createBookDto(bookNew);
-            bookCreatedOrUpdated.setCategoryDescription(category.getDescription());
-
-            return bookCreatedOrUpdated;
+            eventPublisher.publishEvent(new BookChangedEvent(List.of(new BookChange(bookNew.getId(), termsBefore, BookTerms.of(bookNew)))));
+            return createBookDto(bookNew).toBuilder()
+                    .categoryDescription(category.getDescription())
+                    .build();
         } catch (DataIntegrityViolationException | NoContentException e) {
             rollback();
             if (e instanceof NoContentException) {
@@ -234,6 +643,95 @@ public class BookService {
         }
     }
 
+    /**
+     * Creates or updates the books of a batch in one transaction. The categories and the books to update are detected
+     * with one query each, the inserts and updates are sent in JDBC batches. Invalid requests are reported in the result
+     * of their index, without failing the other requests.
+     *
+     * @param bookRequests
+     * @return
+     */
+    @Transactional
+    public List<BookBatchResult> createOrUpdateBooks(List<BookRequest> bookRequests) {
+        try {
+            var categories = categoryService.detectCategoriesByDescriptionsStrict(bookRequests.stream()
+                    .filter(Objects::nonNull)
+                    .map(BookRequest::getCategory)
+                    .filter(StringUtils::hasText)
+                    .collect(Collectors.toSet()));
+            var books = bookRepository.findAllById(bookRequests.stream()
+                            .filter(Objects::nonNull)
+                            .map(BookRequest::getBookId)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            var termsBefore = books.values().stream()
+                    .collect(Collectors.toMap(Book::getId, BookTerms::of));
+
+            List<BookBatchResult> results = new ArrayList<>(bookRequests.size());
+            Map<BookBatchResult, Book> resultBooks = new IdentityHashMap<>();
+            List<Book> booksNew = new ArrayList<>();
+            for (int index = 0; index < bookRequests.size(); index++) {
+                var bookRequest = bookRequests.get(index);
+                var result = new BookBatchResult(index, BookBatchStatus.FAILED, null, null);
+                results.add(result);
+                try {
+                    validateRequestParams(bookRequest);
+                } catch (IllegalArgumentException e) {
+                    result.setError(e.getMessage());
+                    continue;
+                }
+
+                var category = categories.get(CategorySearchKey.of(bookRequest.getCategory().trim()));
+                if (ObjectUtils.isEmpty(category)) {
+                    result.setError(ERROR_BOOK_BATCH_CATEGORY_UNKNOWN);
+                    continue;
+                }
+
+                Book book;
+                if (ObjectUtils.isEmpty(bookRequest.getBookId())) {
+                    book = createBookEntityFromRequest(bookRequest);
+                    booksNew.add(book);
+                    result.setStatus(BookBatchStatus.CREATED);
+                } else {
+                    book = books.get(bookRequest.getBookId());
+                    if (ObjectUtils.isEmpty(book)) {
+                        result.setError(ERROR_BOOK_BATCH_ID_UNKNOWN);
+                        continue;
+                    }
+
+                    updateBookEntityFromRequest(book, bookRequest);
+                    result.setStatus(BookBatchStatus.UPDATED);
+                }
+
+                book.setCategoryId(category.getCategoryId());
+                resultBooks.put(result, book);
+            }
+
+            bookRepository.saveAll(booksNew);
+            bookRepository.flush();
+            eventPublisher.publishEvent(new BookChangedEvent(resultBooks.values().stream()
+                    .distinct()
+                    .map(book -> new BookChange(book.getId(), termsBefore.get(book.getId()), BookTerms.of(book)))
+                    .toList()));
+
+            var categoryDescriptions = categories.values().stream()
+                    .collect(Collectors.toMap(CategoryDto::getCategoryId, CategoryDto::getDescription));
+            resultBooks.forEach((result, book) -> {
+                result.setBook(createBookDto(book).toBuilder()
+                        .categoryDescription(categoryDescriptions.get(book.getCategoryId()))
+                        .build());
+            });
+
+            return results;
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during creating or updating a batch of: {} books", bookRequests.size(), e);
+            throw new InternalError(ERROR_BOOKS_BATCH);
+        }
+    }
+
     /**
      * Removes a book for the given book id.
      *
@@ -243,7 +741,11 @@ public class BookService {
     @Transactional
     public void removeBook(Long bookId) {
         try {
-            bookRepository.deleteById(bookId);
+            bookRepository.findById(bookId).ifPresent(book -> {
+                var termsBefore = BookTerms.of(book);
+                bookRepository.delete(book);
+                eventPublisher.publishEvent(new BookChangedEvent(List.of(new BookChange(bookId, termsBefore, null))));
+            });
         } catch (DataIntegrityViolationException e) {
             rollback();
             log.error("Exception during removing book for the book id: {}", bookId, e);
@@ -258,14 +760,105 @@ public class BookService {
      * @return
      */
     protected BookDto createBookDto(Book book) {
-        BookDto bookDto = new BookDto();
-        bookDto.setBookId(book.getId());
-        bookDto.setAuthor(book.getAuthor());
-        bookDto.setTitle(book.getTitle());
-        bookDto.setPublisher(book.getPublisher());
-        bookDto.setPublishingYear(String.valueOf(book.getPublishingYear().getYear()));
+        return BookDto.builder()
+                .bookId(book.getId())
+                .author(book.getAuthor())
+                .title(book.getTitle())
+                .publisher(book.getPublisher())
+                .publishingYear(String.valueOf(book.getPublishingYear().getYear()))
+                .build();
+    }
+
+    /**
+     * Creates from the book projection the dto, including the category description.
+     *
+     * @param book
+     * @return
+     */
+    protected BookDto createBookDto(BookView book) {
+        return BookDto.builder()
+                .bookId(book.getBookId())
+                .author(book.getAuthor())
+                .title(book.getTitle())
+                .publisher(book.getPublisher())
+                .publishingYear(String.valueOf(book.getPublishingYear().getYear()))
+                .categoryDescription(book.getCategoryDescription())
+                .build();
+    }
 
-        return bookDto;
+    /**
+     * Creates a page from the detected books. One book more than the page size is expected
+     * to be detected, when a further page exists.
+     *
+     * @param books
+     * @param pageSize
+     * @return
+     */
+    protected BookPage createBookPage(List<BookView> books, int pageSize) {
+        var hasNextPage = books.size() > pageSize;
+        var content = hasNextPage ? books.subList(0, pageSize) : books;
+        var nextCursor = hasNextPage ? encodeCursor(content.get(content.size() - 1)) : null;
+
+        return new BookPage(content.stream()
+                .map(this::createBookDto)
+                .toList(), nextCursor);
+    }
+
+    /**
+     * @param suggestions
+     * @return the names of the suggested authors
+     */
+    protected List<String> authorNames(List<SuggestionDto> suggestions) {
+        return suggestions.stream()
+                .map(SuggestionDto::getValue)
+                .toList();
+    }
+
+    /**
+     * Resolves the page size, limited by the configured max page size.
+     *
+     * @param size
+     * @return
+     */
+    protected int pageSize(Integer size) {
+        return ObjectUtils.isEmpty(size) ? defaultPageSize : Math.min(size, maxPageSize);
+    }
+
+    /**
+     * Creates the opaque cursor, pointing after the given book.
+     *
+     * @param book
+     * @return
+     */
+    protected String encodeCursor(BookView book) {
+        var cursor = book.getBookId() + CURSOR_SEPARATOR + book.getPublishingYear();
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the opaque cursor. Returns null for the first page.
+     *
+     * @param cursor
+     * @return
+     */
+    protected BookCursor decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            var parts = decoded.split(CURSOR_SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(ERROR_BOOK_PAGE_CURSOR_INVALID);
+            }
+
+            return new BookCursor(Long.parseLong(parts[0]), LocalDate.parse(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException(ERROR_BOOK_PAGE_CURSOR_INVALID);
+        }
     }
 
     /**
@@ -286,6 +879,20 @@ public class BookService {
         return book;
     }
 
+    /**
+     * Updates a managed entity from request, the changes are flushed with the transaction.
+     *
+     * @param book
+     * @param bookRequest
+     */
+    protected void updateBookEntityFromRequest(Book book, BookRequest bookRequest) {
+        book.setAuthor(bookRequest.getAuthor());
+        book.setTitle(bookRequest.getTitle());
+        book.setPublisher(bookRequest.getPublisher());
+        book.setPublishingYear(bookRequest.getPublishingYear());
+        book.setUpdatedOn(LocalDateTime.now());
+    }
+
     /**
      * For testing purposes refactored.
      */
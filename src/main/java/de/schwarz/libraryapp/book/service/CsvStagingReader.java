@@ -0,0 +1,68 @@
+package de.schwarz.libraryapp.book.service;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parses the CSV lines of books to rows for the staging table, the first line is the header. Fields are separated
+ * by comma and may be quoted, a quote within a quoted field is doubled. A line is invalid, if it has not exactly
+ * the five fields of a book or a quote is not closed. As no field of a book contains a line break, each record
+ * ends with its line, so a malformed line never swallows the following ones.
+ */
+class CsvStagingReader extends StagingRowReader {
+
+    private boolean header = true;
+
+
+    CsvStagingReader(Reader in, AtomicLong lines) {
+        super(in, lines);
+    }
+
+    @Override
+    protected boolean skipLine(String line) {
+        var skip = header;
+        header = false;
+        return skip;
+    }
+
+    @Override
+    protected String[] parseLine(String line) {
+        List<String> fields = new ArrayList<>(FIELD_COUNT);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean closed = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append(c);
+                    i++;
+                } else {
+                    quoted = false;
+                    closed = true;
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                closed = false;
+            } else if (closed) {
+                // Text after the closing quote of a field
+                return null;
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+
+        return fields.size() == FIELD_COUNT ? fields.toArray(String[]::new) : null;
+    }
+}
@@ -0,0 +1,49 @@
+package de.schwarz.libraryapp.book.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Reader;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converts json lines of books to CSV rows for the staging table. A line is invalid, if it is no json object.
+ */
+class NdjsonCsvReader extends StagingRowReader {
+
+    private static final String[] FIELDS = {"author", "title", "publisher", "publishingYear", "category"};
+
+
+    private final ObjectMapper objectMapper;
+
+
+    NdjsonCsvReader(Reader in, ObjectMapper objectMapper, AtomicLong lines) {
+        super(in, lines);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected String[] parseLine(String line) {
+        JsonNode node = readLine(line);
+        if (node == null) {
+            return null;
+        }
+
+        String[] values = new String[FIELD_COUNT];
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            JsonNode value = node.get(FIELDS[i]);
+            values[i] = value == null || value.isNull() ? null : value.asText();
+        }
+        return values;
+    }
+
+    private JsonNode readLine(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            return node != null && node.isObject() ? node : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package de.schwarz.libraryapp.book.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converts the lines of an upload to CSV rows for the staging table, while reading. Each row starts with its line
+ * number and ends with an error, if the line cannot be parsed. So a malformed line is reported as invalid row,
+ * instead of aborting the copy of all rows.
+ */
+abstract class StagingRowReader extends Reader {
+
+    public static final String ERROR_BOOK_IMPORT_LINE_INVALID = "error.book.import.line.invalid";
+    protected static final int FIELD_COUNT = 5;
+
+
+    private final BufferedReader in;
+    private final AtomicLong lines;
+    private final StringBuilder row = new StringBuilder();
+    private int position;
+
+
+    StagingRowReader(Reader in, AtomicLong lines) {
+        this.in = new BufferedReader(in);
+        this.lines = lines;
+    }
+
+    /**
+     * @param line
+     * @return author, title, publisher, publishing year and category of the line, null if the line is malformed
+     */
+    protected abstract String[] parseLine(String line);
+
+    /**
+     * @param line
+     * @return true, if the line is skipped, as a header
+     */
+    protected boolean skipLine(String line) {
+        return false;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (position == row.length() && !nextRow()) {
+            return -1;
+        }
+
+        int n = Math.min(len, row.length() - position);
+        row.getChars(position, position + n, cbuf, off);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean nextRow() throws IOException {
+        row.setLength(0);
+        position = 0;
+        String line;
+        long lineNo;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                return false;
+            }
+            lineNo = lines.incrementAndGet();
+        } while (line.isBlank() || skipLine(line));
+
+        row.append(lineNo);
+        // PostgreSQL text cannot contain NUL characters
+        String[] values = line.indexOf('\u0000') < 0 ? parseLine(line) : null;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            row.append(',');
+            if (values != null && values[i] != null) {
+                appendQuoted(values[i]);
+            }
+        }
+        row.append(',');
+        if (values == null) {
+            appendQuoted(ERROR_BOOK_IMPORT_LINE_INVALID);
+        }
+        row.append('\n');
+        return true;
+    }
+
+    private void appendQuoted(String value) {
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+}
@@ -0,0 +1,88 @@
+package de.schwarz.libraryapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import de.schwarz.libraryapp.security.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * In-process caches, bounded by size (W-TinyLFU eviction) and time to live. The statistics are recorded,
+ * so hits, misses and evictions are published as cache metrics by the actuator.
+ * The cache advice runs before the transaction advice, so a hit does not open a transaction.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String CACHE_BOOKS = "books";
+    public static final String CACHE_TOKENS = "tokens";
+    public static final String CACHE_PRINCIPALS = "principals";
+
+    @Value(value = "${application.properties.cache.books.max-size}")
+    private long booksMaxSize;
+
+    @Value(value = "${application.properties.cache.books.ttl}")
+    private Duration booksTtl;
+
+    @Value(value = "${application.properties.cache.tokens.max-size}")
+    private long tokensMaxSize;
+
+    @Value(value = "${application.properties.cache.principals.max-size}")
+    private long principalsMaxSize;
+
+    @Value(value = "${application.properties.cache.principals.ttl}")
+    private Duration principalsTtl;
+
+
+    @Bean
+    public CacheManager cacheManager() {
+        var cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CACHE_BOOKS, Caffeine.newBuilder()
+                .maximumSize(booksMaxSize)
+                .expireAfterWrite(booksTtl)
+                .recordStats()
+                .build());
+        // Verified tokens expire with the token itself, they are not revoked before
+        cacheManager.registerCustomCache(CACHE_TOKENS, Caffeine.newBuilder()
+                .maximumSize(tokensMaxSize)
+                .expireAfter(new VerifiedTokenExpiry())
+                .recordStats()
+                .build());
+        // Principals are evicted after the change of their customer, the time to live covers changes of other instances
+        cacheManager.registerCustomCache(CACHE_PRINCIPALS, Caffeine.newBuilder()
+                .maximumSize(principalsMaxSize)
+                .expireAfterWrite(principalsTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    /**
+     * Expires a verified token with the token itself, reads keep its expiry
+     */
+    private static class VerifiedTokenExpiry implements Expiry<Object, Object> {
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return value instanceof VerifiedToken verifiedToken ? verifiedToken.timeToLive().toNanos() : 0L;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
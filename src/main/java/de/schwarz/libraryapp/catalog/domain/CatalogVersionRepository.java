@@ -0,0 +1,42 @@
+package de.schwarz.libraryapp.catalog.domain;
+
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Version of the catalog of books and categories, kept in a sequence. A sequence is not rolled back and does not lock,
+ * so incrementing and reading the version is cheap for any count of nodes.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Repository
+public class CatalogVersionRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+
+    /**
+     * @return the current version, 0 before the first increment
+     */
+    public long findVersion() {
+        String sql = "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM library.catalog_version_seq";
+
+        return ((Number) em.createNativeQuery(sql)
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * @return the incremented version
+     */
+    public long incrementVersion() {
+        String sql = "SELECT nextval('library.catalog_version_seq')";
+
+        return ((Number) em.createNativeQuery(sql)
+                .getSingleResult()).longValue();
+    }
+}
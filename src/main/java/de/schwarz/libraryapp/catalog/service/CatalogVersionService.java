@@ -0,0 +1,57 @@
+package de.schwarz.libraryapp.catalog.service;
+
+
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.catalog.domain.CatalogVersionRepository;
+import de.schwarz.libraryapp.category.domain.event.CategoryChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class CatalogVersionService {
+
+    private final CatalogVersionRepository catalogVersionRepository;
+
+
+    /**
+     * Detects the strong entity tag of the current catalog version. Responses of the catalog are unchanged,
+     * as long as the tag is unchanged.
+     *
+     * @return
+     */
+    @Transactional(readOnly = true)
+    public String detectCatalogETag() {
+        return "\"v" + catalogVersionRepository.findVersion() + "\"";
+    }
+
+    /**
+     * Increments the catalog version after the commit of changed books. Incrementing before the commit would tag the
+     * state before the commit with the new version.
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onBookChanged(BookChangedEvent event) {
+        var version = catalogVersionRepository.incrementVersion();
+        log.debug("Catalog version: {} after change of books...", version);
+    }
+
+    /**
+     * Increments the catalog version after the commit of a changed category
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        var version = catalogVersionRepository.incrementVersion();
+        log.debug("Catalog version: {} after change of category: {}...", version, event.getCategoryId());
+    }
+}
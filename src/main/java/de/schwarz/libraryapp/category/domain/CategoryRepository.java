@@ -1,7 +1,10 @@
 package de.schwarz.libraryapp.category.domain;
 
 
+import de.schwarz.libraryapp.book.domain.event.BookChange;
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
 import de.schwarz.libraryapp.category.domain.dto.CategoryDto;
+import de.schwarz.libraryapp.category.domain.dto.CategoryNodeDto;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
@@ -13,14 +16,29 @@ import org.hibernate.type.StandardBasicTypes;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.ObjectUtils;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
 @Repository
 public class CategoryRepository {
 
+    /**
+     * Number of books of the category c, summed over the counter slots maintained by the triggers on table book.
+     */
+    private static final String COUNT_BOOKS = "(SELECT CAST(COALESCE(SUM(n.books_count), 0) AS INT8) FROM library.category_book_count n "
+            + "WHERE n.category_id = c.id)";
+
+    /**
+     * Number of books of the category c and all its descendants, the counters of the subtree joined over the closure.
+     */
+    private static final String COUNT_SUBTREE_BOOKS = "(SELECT CAST(COALESCE(SUM(n.books_count), 0) AS INT8) FROM library.category_closure s "
+            + "JOIN library.category_book_count n ON (n.category_id = s.descendant_id) WHERE s.ancestor_id = c.id)";
+
     @PersistenceContext
     private EntityManager em;
 
@@ -29,9 +47,7 @@ public class CategoryRepository {
      * @return
      */
     public List<CategoryDto> findAll() {
-        String sql = "SELECT c.id, c.description, count(b.id) count_books FROM library.category c "
-                + "LEFT JOIN library.book b ON(c.id=b.category_id) "
-                + "GROUP BY c.id, c.description "
+        String sql = "SELECT c.id, c.description, " + COUNT_BOOKS + " count_books, c.parent_id FROM library.category c "
                 + "ORDER BY c.id";
 
         @SuppressWarnings("unchecked")
@@ -39,7 +55,7 @@ public class CategoryRepository {
                 .getResultList();
 
         return result.stream()
-                .map(obj -> new CategoryDto(((Number) obj[0]).longValue(), (String) obj[1], ((Number) obj[2]).longValue()))
+                .map(CategoryRepository::toCategory)
                 .toList();
     }
 
@@ -48,19 +64,18 @@ public class CategoryRepository {
      * @return
      */
     public List<CategoryDto> findByDescription(String description) {
-        String sql = "SELECT c.id, c.description, count(b.id) count_books "
-                + "FROM library.category c LEFT JOIN library.book b ON(c.id=b.category_id) "
-                + "WHERE UPPER(c.description) LIKE '%' || :description || '%'"
-                + "GROUP BY c.id, c.description "
+        String sql = "SELECT c.id, c.description, " + COUNT_BOOKS + " count_books, c.parent_id "
+                + "FROM library.category c "
+                + "WHERE c.search_key LIKE '%' || library.category_search_key(:description) || '%' "
                 + "ORDER BY c.id";
 
         @SuppressWarnings("unchecked")
         List<Object[]> result = em.createNativeQuery(sql)
-                .setParameter("description", new TypedParameterValue<>(StandardBasicTypes.STRING, description.toUpperCase()))
+                .setParameter("description", new TypedParameterValue<>(StandardBasicTypes.STRING, description))
                 .getResultList();
 
         return result.stream()
-                .map(obj -> new CategoryDto(((Number) obj[0]).longValue(), (String) obj[1], ((Number) obj[2]).longValue()))
+                .map(CategoryRepository::toCategory)
                 .toList();
     }
 
@@ -70,69 +85,319 @@ public class CategoryRepository {
      */
     public Optional<CategoryDto> findByDescriptionStrict(String description) {
         try {
-            String sql = "SELECT c.id, c.description, count(b.id) count_books "
-                    + "FROM library.category c LEFT JOIN library.book b ON(c.id=b.category_id) "
-                    + "WHERE UPPER(c.description) = :description "
-                    + "GROUP BY c.id, c.description "
+            String sql = "SELECT c.id, c.description, " + COUNT_BOOKS + " count_books, c.parent_id "
+                    + "FROM library.category c "
+                    + "WHERE c.search_key = library.category_search_key(:description) "
                     + "ORDER BY c.id";
 
             Object[] result = (Object[]) em.createNativeQuery(sql)
-                    .setParameter("description", new TypedParameterValue<>(StandardBasicTypes.STRING, description.toUpperCase()))
+                    .setParameter("description", new TypedParameterValue<>(StandardBasicTypes.STRING, description))
                     .getSingleResult();
 
-            return Optional.of(new CategoryDto(((Number) result[0]).longValue(), (String) result[1], ((Number) result[2]).longValue()));
+            return Optional.of(toCategory(result));
         } catch (NoResultException e) {
             return Optional.empty();
         }
     }
 
+    /**
+     * Finds the categories of all given descriptions in one query, without counting their books.
+     *
+     * @param descriptions
+     * @return
+     */
+    public List<CategoryDto> findByDescriptionsStrict(Collection<String> descriptions) {
+        String sql = "SELECT c.id, c.description, c.parent_id FROM library.category c "
+                + "WHERE c.search_key IN (:searchKeys) "
+                + "ORDER BY c.id";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = em.createNativeQuery(sql)
+                .setParameter("searchKeys", descriptions.stream()
+                        .map(CategorySearchKey::of)
+                        .distinct()
+                        .toList())
+                .getResultList();
+
+        return result.stream()
+                .map(obj -> new CategoryDto(((Number) obj[0]).longValue(), (String) obj[1], null, toLong(obj[2])))
+                .toList();
+    }
+
+    /**
+     * Counts the books of the given categories only, instead of all categories as with findAll.
+     *
+     * @param categoryIds
+     * @return the number of books by the id of each existing category
+     */
+    public Map<Long, Long> countBooksByIds(Collection<Long> categoryIds) {
+        String sql = "SELECT c.id, " + COUNT_BOOKS + " count_books FROM library.category c "
+                + "WHERE c.id = ANY(CAST(:categoryIds AS INT8[]))";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = em.createNativeQuery(sql)
+                .setParameter("categoryIds", categoryIds.toArray(Long[]::new))
+                .getResultList();
+
+        return result.stream()
+                .collect(Collectors.toMap(obj -> ((Number) obj[0]).longValue(), obj -> ((Number) obj[1]).longValue()));
+    }
+
     /**
      * @param categoryId
      * @return
      */
     public Optional<CategoryDto> findById(Long categoryId) {
         try {
-            String sql = "SELECT c.id, c.description, count(b.id) count_books "
-                    + "FROM library.category c LEFT JOIN library.book b ON(c.id=b.category_id) "
-                    + "WHERE c.id = :categoryId "
-                    + "GROUP BY c.id, c.description "
-                    + "ORDER BY c.id";
+            String sql = "SELECT c.id, c.description, " + COUNT_BOOKS + " count_books, c.parent_id "
+                    + "FROM library.category c "
+                    + "WHERE c.id = :categoryId";
 
             Tuple result = (Tuple) em.createNativeQuery(sql, Tuple.class)
                     .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, categoryId))
                     .getSingleResult();
 
-            return Optional.of(new CategoryDto(result.get("id", Long.class), result.get("description", String.class), result.get("count_books", Long.class)));
+            return Optional.of(new CategoryDto(result.get("id", Long.class), result.get("description", String.class), result.get("count_books", Long.class),
+                    result.get("parent_id", Long.class)));
         } catch (NoResultException e) {
             return Optional.empty();
         }
     }
 
     /**
+     * Creates or updates a category. An update with a parent moves the category below it, the triggers on table
+     * category relink the closure. An update without parent keeps the category in its place.
+     *
      * @param category
      * @return
      */
     public int save(CategoryDto category) {
         if (ObjectUtils.isEmpty(category.getCategoryId())) {
-            String sql = "INSERT INTO library.category(description) "
-                    + "VALUES(:description)";
+            String sql = "INSERT INTO library.category(description, parent_id) "
+                    + "VALUES(:description, :parentId)";
 
             return em.createNativeQuery(sql)
                     .setParameter("description", new TypedParameterValue<>(StandardBasicTypes.STRING, category.getDescription()))
+                    .setParameter("parentId", new TypedParameterValue<>(StandardBasicTypes.LONG, category.getParentId()))
                     .executeUpdate();
         } else {
-            String sql = "UPDATE library.category c "
-                    + "SET c.description = :description "
-                    + "SET c.updated_on = now() "
-                    + "WHERE c.id = :categoryId";
+            String sql = "UPDATE library.category "
+                    + "SET description = :description, parent_id = COALESCE(:parentId, parent_id), updated_on = now() "
+                    + "WHERE id = :categoryId";
 
             return em.createNativeQuery(sql)
                     .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, category.getCategoryId()))
                     .setParameter("description", new TypedParameterValue<>(StandardBasicTypes.STRING, category.getDescription()))
+                    .setParameter("parentId", new TypedParameterValue<>(StandardBasicTypes.LONG, category.getParentId()))
                     .executeUpdate();
         }
     }
 
+    /**
+     * Creates or updates the given categories with one statement. A category is matched by the search key of its
+     * description, a matched category is updated only if its description differs, so its update time stays unchanged
+     * otherwise. The parent is set for created categories only, matched categories keep their place in the tree.
+     *
+     * @param categories categories with distinct search keys
+     * @return the created and updated categories, without the unchanged ones
+     */
+    public List<CategoryDto> upsertAll(Collection<CategoryDto> categories) {
+        String sql = "INSERT INTO library.category AS c(description, parent_id) "
+                + "SELECT n.description, n.parent_id FROM unnest(CAST(:descriptions AS VARCHAR[]), CAST(:parentIds AS INT8[])) n(description, parent_id) "
+                + "ON CONFLICT (search_key) DO UPDATE SET description = EXCLUDED.description, updated_on = now() "
+                + "WHERE c.description IS DISTINCT FROM EXCLUDED.description "
+                + "RETURNING c.id, c.description, c.parent_id";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = em.createNativeQuery(sql)
+                .setParameter("descriptions", categories.stream()
+                        .map(CategoryDto::getDescription)
+                        .toArray(String[]::new))
+                .setParameter("parentIds", categories.stream()
+                        .map(CategoryDto::getParentId)
+                        .toArray(Long[]::new))
+                .getResultList();
+
+        return result.stream()
+                .map(obj -> new CategoryDto(((Number) obj[0]).longValue(), (String) obj[1], null, toLong(obj[2])))
+                .toList();
+    }
+
+    /**
+     * Finds a category and all its descendants with one join over the closure, with the number of books of each category
+     * and of its subtree.
+     *
+     * @param categoryId
+     * @return the categories of the subtree ordered by depth and id, empty if the category does not exist
+     */
+    public List<CategoryNodeDto> findSubtree(Long categoryId) {
+        String sql = "SELECT c.id, c.parent_id, c.description, r.depth, " + COUNT_BOOKS + " count_books, "
+                + COUNT_SUBTREE_BOOKS + " count_subtree_books "
+                + "FROM library.category_closure r JOIN library.category c ON (c.id = r.descendant_id) "
+                + "WHERE r.ancestor_id = :categoryId "
+                + "ORDER BY r.depth, c.id";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = em.createNativeQuery(sql)
+                .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, categoryId))
+                .getResultList();
+
+        return result.stream()
+                .map(obj -> new CategoryNodeDto(((Number) obj[0]).longValue(), toLong(obj[1]), (String) obj[2],
+                        ((Number) obj[3]).intValue(), ((Number) obj[4]).longValue(), ((Number) obj[5]).longValue()))
+                .toList();
+    }
+
+    /**
+     * @param categoryId
+     * @param ancestorId
+     * @return true, if the category is the given ancestor or one of its descendants
+     */
+    public boolean isInSubtree(Long categoryId, Long ancestorId) {
+        String sql = "SELECT 1 FROM library.category_closure r "
+                + "WHERE r.ancestor_id = :ancestorId AND r.descendant_id = :categoryId";
+
+        return !em.createNativeQuery(sql)
+                .setParameter("ancestorId", new TypedParameterValue<>(StandardBasicTypes.LONG, ancestorId))
+                .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, categoryId))
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Moves a category with its subtree below the given parent, the triggers on table category relink the closure.
+     *
+     * @param categoryId
+     * @param parentId   NULL moves the category to the top level
+     * @return
+     */
+    public int moveById(Long categoryId, Long parentId) {
+        String sql = "UPDATE library.category SET parent_id = :parentId, updated_on = now() "
+                + "WHERE id = :categoryId";
+
+        return em.createNativeQuery(sql)
+                .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, categoryId))
+                .setParameter("parentId", new TypedParameterValue<>(StandardBasicTypes.LONG, parentId))
+                .executeUpdate();
+    }
+
+    /**
+     * Moves the children of a category with their subtrees below the given parent, the triggers on table category
+     * relink the closure.
+     *
+     * @param categoryId
+     * @param parentId
+     * @return the number of moved children
+     */
+    public int moveChildren(Long categoryId, Long parentId) {
+        String sql = "UPDATE library.category SET parent_id = :parentId, updated_on = now() "
+                + "WHERE parent_id = :categoryId";
+
+        return em.createNativeQuery(sql)
+                .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, categoryId))
+                .setParameter("parentId", new TypedParameterValue<>(StandardBasicTypes.LONG, parentId))
+                .executeUpdate();
+    }
+
+    /**
+     * Moves the children of a category with their subtrees below the parent of the category, or to the top level.
+     *
+     * @param categoryId
+     * @return the number of moved children
+     */
+    public int moveChildrenToParent(Long categoryId) {
+        String sql = "UPDATE library.category c SET parent_id = p.parent_id, updated_on = now() "
+                + "FROM library.category p "
+                + "WHERE p.id = :categoryId AND c.parent_id = p.id";
+
+        return em.createNativeQuery(sql)
+                .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, categoryId))
+                .executeUpdate();
+    }
+
+    /**
+     * Locks a category until the end of the transaction, so no book can reference it meanwhile.
+     *
+     * @param categoryId
+     * @return false, if the category does not exist
+     */
+    public boolean lockById(Long categoryId) {
+        String sql = "SELECT c.id FROM library.category c "
+                + "WHERE c.id = :categoryId "
+                + "FOR UPDATE";
+
+        return !em.createNativeQuery(sql)
+                .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, categoryId))
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Locks a category until the end of the transaction, so it cannot be removed meanwhile. Its description and parent
+     * may still change and books may still reference it.
+     *
+     * @param categoryId
+     * @return false, if the category does not exist
+     */
+    public boolean lockKeyById(Long categoryId) {
+        String sql = "SELECT c.id FROM library.category c "
+                + "WHERE c.id = :categoryId "
+                + "FOR KEY SHARE";
+
+        return !em.createNativeQuery(sql)
+                .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, categoryId))
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Locks the given categories until the end of the transaction, so they cannot be removed meanwhile.
+     *
+     * @param categoryIds
+     * @return the number of existing categories locked
+     */
+    public int lockByIds(Collection<Long> categoryIds) {
+        String sql = "SELECT c.id FROM library.category c "
+                + "WHERE c.id = ANY(CAST(:categoryIds AS INT8[])) "
+                + "ORDER BY c.id "
+                + "FOR UPDATE";
+
+        return em.createNativeQuery(sql)
+                .setParameter("categoryIds", categoryIds.toArray(Long[]::new))
+                .getResultList()
+                .size();
+    }
+
+    /**
+     * Moves a chunk of the books of the source category to the target category with one statement.
+     * Books locked by other transactions are skipped on request, a later chunk moves them.
+     *
+     * @param sourceCategoryId
+     * @param targetCategoryId
+     * @param limit
+     * @param skipLocked
+     * @return the changes of the moved books
+     */
+    public List<BookChange> moveBooks(Long sourceCategoryId, Long targetCategoryId, int limit, boolean skipLocked) {
+        String sql = "UPDATE library.book b SET category_id = :targetCategoryId, updated_on = now() "
+                + "WHERE b.id IN (SELECT s.id FROM library.book s WHERE s.category_id = :sourceCategoryId "
+                + "LIMIT :limit FOR UPDATE" + (skipLocked ? " SKIP LOCKED" : "") + ") "
+                + "RETURNING b.id, b.title, b.author";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = em.createNativeQuery(sql)
+                .setParameter("sourceCategoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, sourceCategoryId))
+                .setParameter("targetCategoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, targetCategoryId))
+                .setParameter("limit", limit)
+                .getResultList();
+
+        return result.stream()
+                .map(obj -> new BookChange(((Number) obj[0]).longValue(),
+                        new BookTerms((String) obj[1], (String) obj[2], sourceCategoryId),
+                        new BookTerms((String) obj[1], (String) obj[2], targetCategoryId)))
+                .toList();
+    }
+
     /**
      * @param categoryId
      */
@@ -144,4 +409,12 @@ public class CategoryRepository {
                 .setParameter("categoryId", new TypedParameterValue<>(StandardBasicTypes.LONG, categoryId))
                 .executeUpdate();
     }
+
+    private static CategoryDto toCategory(Object[] obj) {
+        return new CategoryDto(((Number) obj[0]).longValue(), (String) obj[1], ((Number) obj[2]).longValue(), toLong(obj[3]));
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
 }
\ No newline at end of file
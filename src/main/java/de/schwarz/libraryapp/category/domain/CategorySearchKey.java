@@ -0,0 +1,34 @@
+package de.schwarz.libraryapp.category.domain;
+
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Search key of a category description, ignoring case, accents and the transcription of umlauts:
+ * Märchen, MÄRCHEN and Maerchen have the same key. Only umlauts are transcribed, ae, oe and ue of other words are kept,
+ * so Poetry and Potry have different keys. Same as the function library.category_search_key of the database,
+ * which persists the key in the column search_key.
+ */
+public final class CategorySearchKey {
+
+    private static final Pattern UMLAUT = Pattern.compile("([aou])\\u0308");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("[\\u0300-\\u036f]");
+    private static final Pattern SHARP_S = Pattern.compile("[ßẞ]");
+
+
+    private CategorySearchKey() {
+    }
+
+    /**
+     * @param description
+     * @return
+     */
+    public static String of(String description) {
+        var transcribed = UMLAUT.matcher(Normalizer.normalize(description, Normalizer.Form.NFD).toLowerCase(Locale.ROOT)).replaceAll("$1e");
+        var stripped = COMBINING_MARKS.matcher(transcribed).replaceAll("");
+
+        return SHARP_S.matcher(stripped).replaceAll("ss");
+    }
+}
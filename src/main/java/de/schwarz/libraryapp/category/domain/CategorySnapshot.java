@@ -0,0 +1,106 @@
+package de.schwarz.libraryapp.category.domain;
+
+
+import de.schwarz.libraryapp.category.domain.dto.CategoryDto;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable copy of all categories, indexed by id and by the search key of their description. A snapshot is never
+ * changed after its creation, it is replaced as a whole, so readers need no locking. The found categories are returned
+ * as copies, so callers cannot change the snapshot.
+ */
+public final class CategorySnapshot {
+
+    private final long[] ids;
+    private final CategoryDto[] categories;
+    private final String[] searchKeys;
+    private final Map<String, CategoryDto> categoriesBySearchKey;
+
+
+    public CategorySnapshot(Collection<CategoryDto> categories) {
+        this.categories = categories.stream()
+                .map(CategorySnapshot::copy)
+                .sorted(Comparator.comparing(CategoryDto::getCategoryId))
+                .toArray(CategoryDto[]::new);
+        this.ids = Arrays.stream(this.categories)
+                .mapToLong(CategoryDto::getCategoryId)
+                .toArray();
+        this.searchKeys = Arrays.stream(this.categories)
+                .map(category -> CategorySearchKey.of(category.getDescription()))
+                .toArray(String[]::new);
+        var bySearchKey = new HashMap<String, CategoryDto>(this.categories.length * 2);
+        for (int index = 0; index < this.categories.length; index++) {
+            bySearchKey.putIfAbsent(searchKeys[index], this.categories[index]);
+        }
+        this.categoriesBySearchKey = Map.copyOf(bySearchKey);
+    }
+
+    /**
+     * @return all categories ordered by id
+     */
+    public List<CategoryDto> findAll() {
+        return Arrays.stream(categories)
+                .map(CategorySnapshot::copy)
+                .toList();
+    }
+
+    /**
+     * @param description
+     * @return the categories ordered by id, whose search key contains the search key of the given description
+     */
+    public List<CategoryDto> findByDescription(String description) {
+        var searchKey = CategorySearchKey.of(description);
+        return IntStream.range(0, categories.length)
+                .filter(index -> searchKeys[index].contains(searchKey))
+                .mapToObj(index -> copy(categories[index]))
+                .toList();
+    }
+
+    /**
+     * @param description
+     * @return
+     */
+    public Optional<CategoryDto> findByDescriptionStrict(String description) {
+        return Optional.ofNullable(categoriesBySearchKey.get(CategorySearchKey.of(description)))
+                .map(CategorySnapshot::copy);
+    }
+
+    /**
+     * @param categoryId
+     * @return
+     */
+    public Optional<CategoryDto> findById(long categoryId) {
+        int index = Arrays.binarySearch(ids, categoryId);
+        return index < 0 ? Optional.empty() : Optional.of(copy(categories[index]));
+    }
+
+    /**
+     * @param booksCounts the number of books by category id, categories not contained keep their number
+     * @return a new snapshot with the given numbers of books, this snapshot stays unchanged
+     */
+    public CategorySnapshot withBooksCounts(Map<Long, Long> booksCounts) {
+        return new CategorySnapshot(Arrays.stream(categories)
+                .map(category -> new CategoryDto(category.getCategoryId(), category.getDescription(),
+                        booksCounts.getOrDefault(category.getCategoryId(), category.getBooksCount()), category.getParentId()))
+                .toList());
+    }
+
+    /**
+     * @return
+     */
+    public int size() {
+        return categories.length;
+    }
+
+    private static CategoryDto copy(CategoryDto category) {
+        return new CategoryDto(category.getCategoryId(), category.getDescription(), category.getBooksCount(), category.getParentId());
+    }
+}
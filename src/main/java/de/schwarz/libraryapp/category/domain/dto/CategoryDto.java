@@ -13,4 +13,5 @@ public class CategoryDto {
     private Long categoryId;
     private String description;
     private Long booksCount;
+    private Long parentId;
 }
@@ -0,0 +1,11 @@
+package de.schwarz.libraryapp.category.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CategoryMergeRequest {
+    private Long sourceCategoryId;
+    private Long targetCategoryId;
+}
@@ -0,0 +1,19 @@
+package de.schwarz.libraryapp.category.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CategoryNodeDto {
+    private Long categoryId;
+    private Long parentId;
+    private String description;
+    private Integer depth;
+    private Long booksCount;
+    private Long subtreeBooksCount;
+}
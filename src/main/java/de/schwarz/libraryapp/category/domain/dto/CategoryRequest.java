@@ -8,4 +8,5 @@ import lombok.Data;
 public class CategoryRequest {
     private Long categoryId;
     private String description;
+    private Long parentId;
 }
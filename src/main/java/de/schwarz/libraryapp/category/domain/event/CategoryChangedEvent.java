@@ -0,0 +1,14 @@
+package de.schwarz.libraryapp.category.domain.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a category is created, updated or removed. Listeners react after the commit.
+ * The category id is empty for created categories and batches of categories.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+}
@@ -1,9 +1,15 @@
 package de.schwarz.libraryapp.category.resource;
 
 
+import de.schwarz.libraryapp.catalog.service.CatalogVersionService;
 import de.schwarz.libraryapp.category.domain.dto.CategoryDto;
+import de.schwarz.libraryapp.category.domain.dto.CategoryMergeRequest;
+import de.schwarz.libraryapp.category.domain.dto.CategoryMoveRequest;
+import de.schwarz.libraryapp.category.domain.dto.CategoryNodeDto;
 import de.schwarz.libraryapp.category.domain.dto.CategoryRequest;
+import de.schwarz.libraryapp.category.service.CategoryMergeService;
 import de.schwarz.libraryapp.category.service.CategoryService;
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,10 +17,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -26,23 +35,37 @@ import java.util.List;
 public class CategoryResourceV1 {
 
     private final CategoryService categoryService;
+    private final CategoryMergeService categoryMergeService;
+    private final CatalogVersionService catalogVersionService;
 
 
-    @Operation(tags = "Get all categories", summary = "Getting all categories from library", description = "Process gets all categories from online library database without restrictions.",
+    @Operation(tags = "Get all categories", summary = "Getting all categories from library", description = "Process gets all categories from online library database without restrictions. "
+            + "The response is tagged with the catalog version, a request with a matching If-None-Match header is answered without body.",
             responses = {
                     @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CategoryDto.class))),
+                    @ApiResponse(responseCode = "304", description = "Not Modified"),
                     @ApiResponse(responseCode = "401", description = "Unauthorized"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "500", description = "Internal error")})
     @SecurityRequirement(name = "http_secure")
     @GetMapping("/v1/categories")
-    public ResponseEntity<?> detectAllCategories() {
+    public ResponseEntity<?> detectAllCategories(WebRequest webRequest) {
+        // Check catalog version
+        String eTag = catalogVersionService.detectCatalogETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .build();
+        }
         // Call service
         List<CategoryDto> categories = categoryService.detectAllCategories();
         log.info("Count of categories detected: {}...", categories.size());
         // Prepare and return response
         return ResponseEntity
                 .ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
                 .body(categories);
     }
 
@@ -109,6 +132,29 @@ public class CategoryResourceV1 {
                 .body(category);
     }
 
+    @Operation(tags = "Get category subtree", summary = "Getting a category with all its descendants from library", description = "Process gets a category and all categories below it from online library database, by the given category id. "
+            + "Each category is returned with its parent, its depth below the given category, its number of books and the number of books of its subtree.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CategoryNodeDto.class))),
+                    @ApiResponse(responseCode = "204", description = "No Content<br/><br/>* Category is unknown."),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Category id is empty."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/categories/subtree")
+    public ResponseEntity<?> detectSubtree(@RequestParam(value = "categoryId", required = false) Long categoryId) {
+        // Validate request param
+        categoryService.validateRequestParamCategoryId(categoryId);
+        // Call service
+        List<CategoryNodeDto> categories = categoryService.detectSubtree(categoryId);
+        log.info("Count of categories detected: {} in subtree of category id: {}...", categories.size(), categoryId);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(categories);
+    }
+
     @Operation(tags = "Create update category", summary = "Creates or updates a category in the online library", description = "Process creates or updates a category in library database, by the given request.",
             responses = {
                     @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CategoryRequest.class))),
@@ -130,6 +176,77 @@ public class CategoryResourceV1 {
                 .build();
     }
 
+    @Operation(tags = "Create update categories", summary = "Creates or updates a batch of categories in the online library", description = "Process creates or updates the categories of the given requests in library database, in one transaction. "
+            + "A category is matched by its description ignoring case, accents and the transcription of umlauts, the category ids of the requests are ignored. The parents are set for created categories only. "
+            + "The category of each request is returned by its index, with its id.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CategoryDto.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Batch is empty.<br/>* Batch exceeds the max size.<br/>* Category description is empty.<br/>* Parent category is unknown."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @PostMapping("/v1/categories/batch")
+    public ResponseEntity<?> saveCategories(@RequestBody(required = false) List<CategoryRequest> requests) {
+        // Validate request param
+        categoryService.validateRequestParamsBatch(requests);
+        // Call service
+        List<CategoryDto> categories = categoryService.createOrUpdateCategories(requests);
+        log.info("Batch of categories created or updated: {}...", categories.size());
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(categories);
+    }
+
+    @Operation(tags = "Move category", summary = "Moves a category with its subtree in the online library", description = "Process moves a category with all categories below it to the given parent category, "
+            + "or to the top level without parent.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK"),
+                    @ApiResponse(responseCode = "204", description = "No Content<br/><br/>* Category or parent category is unknown."),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Request is empty.<br/>* Category id is empty.<br/>* Parent category is the category itself or one of its descendants."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @PostMapping("/v1/category/move")
+    public ResponseEntity<?> moveCategory(@RequestBody(required = false) CategoryMoveRequest request) {
+        // Validate request param
+        categoryService.validateRequestParams(request);
+        // Call service
+        var categoryMoved = categoryService.moveCategory(request);
+        log.info("Category: {} moved below parent: {}: {}...", request.getCategoryId(), request.getParentId(), categoryMoved > 0);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .build();
+    }
+
+    @Operation(tags = "Merge categories", summary = "Merges a category into another one as background job", description = "Process moves all books of the source category to the target category in chunks and removes the source category. "
+            + "The progress is reported by the job.",
+            responses = {
+                    @ApiResponse(responseCode = "202", content = @Content(schema = @Schema(implementation = JobDto.class))),
+                    @ApiResponse(responseCode = "204", description = "No Content<br/><br/>* Source or target category is unknown."),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Request is empty.<br/>* Source or target category id is empty.<br/>* Source and target category are the same."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error"),
+                    @ApiResponse(responseCode = "503", description = "Service unavailable<br/><br/>* Too many jobs queued.")})
+    @SecurityRequirement(name = "http_secure")
+    @PostMapping("/v1/category/merge")
+    public ResponseEntity<?> mergeCategories(@RequestBody(required = false) CategoryMergeRequest request) {
+        // Validate request param
+        categoryMergeService.validateRequestParams(request);
+        // Call service
+        JobDto job = categoryMergeService.mergeCategories(request);
+        log.info("Merge of category: {} into category: {} submitted as job: {}...", request.getSourceCategoryId(),
+                request.getTargetCategoryId(), job.getJobId());
+        // Prepare and return response
+        return ResponseEntity
+                .accepted()
+                .body(job);
+    }
+
     @Operation(tags = "Remove category", summary = "Removes a category from the online library", description = "Process removes a category from the library database, by the given category id.",
             responses = {
                     @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CategoryRequest.class))),
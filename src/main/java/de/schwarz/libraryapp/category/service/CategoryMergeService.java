@@ -0,0 +1,151 @@
+package de.schwarz.libraryapp.category.service;
+
+
+import de.schwarz.libraryapp.book.domain.event.BookChange;
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.category.domain.CategoryRepository;
+import de.schwarz.libraryapp.category.domain.dto.CategoryMergeRequest;
+import de.schwarz.libraryapp.category.domain.event.CategoryChangedEvent;
+import de.schwarz.libraryapp.job.domain.Job;
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
+import de.schwarz.libraryapp.job.service.JobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ObjectUtils;
+
+import java.util.List;
+
+/**
+ * Merges a category into another one: moves all its books and its children to the target category and removes it. The books are moved
+ * in chunks, each in a transaction of its own, so the rows of a huge category are not locked until the end.
+ * The target category is locked against removal by each chunk. The changed books of each chunk are published with
+ * its transaction, so caches, suggestions and the search index follow the merge chunk by chunk and no changes are
+ * collected over the whole merge. The removal of the source category is published last.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class CategoryMergeService {
+
+    public static final String JOB_TYPE_CATEGORY_MERGE = "CATEGORY_MERGE";
+    public static final String ERROR_CATEGORY_MERGE_REQUEST_EMPTY = "error.category.merge.request.empty";
+    public static final String ERROR_CATEGORY_MERGE_ID_EMPTY = "error.category.merge.id.empty";
+    public static final String ERROR_CATEGORY_MERGE_SAME = "error.category.merge.same";
+    public static final String ERROR_CATEGORY_MERGE_SOURCE_REMOVED = "error.category.merge.source.removed";
+    public static final String ERROR_CATEGORY_MERGE_TARGET_REMOVED = "error.category.merge.target.removed";
+    public static final String ERROR_CATEGORY_MERGE_CYCLE = "error.category.merge.cycle";
+    public static final String PHASE_MOVING = "MOVING";
+    public static final String PHASE_REMOVING = "REMOVING";
+
+
+    private final CategoryService categoryService;
+    private final CategoryRepository categoryRepository;
+    private final JobService jobService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value(value = "${application.properties.category.merge.chunk-size}")
+    private int chunkSize;
+
+
+    /**
+     * Validates request params
+     *
+     * @param request
+     */
+    public void validateRequestParams(final CategoryMergeRequest request) {
+        if (ObjectUtils.isEmpty(request)) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_MERGE_REQUEST_EMPTY);
+        }
+
+        if (ObjectUtils.isEmpty(request.getSourceCategoryId()) || ObjectUtils.isEmpty(request.getTargetCategoryId())) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_MERGE_ID_EMPTY);
+        }
+
+        if (request.getSourceCategoryId().equals(request.getTargetCategoryId())) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_MERGE_SAME);
+        }
+    }
+
+    /**
+     * Merges the source category into the target category as background job
+     *
+     * @param request
+     * @return the submitted job
+     */
+    public JobDto mergeCategories(CategoryMergeRequest request) {
+        var source = categoryService.detectCategory(request.getSourceCategoryId());
+        var target = categoryService.detectCategory(request.getTargetCategoryId());
+        // The children of the source are moved below the target, which must not be one of them
+        if (categoryRepository.isInSubtree(target.getCategoryId(), source.getCategoryId())) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_MERGE_CYCLE);
+        }
+
+        return jobService.submitJob(JOB_TYPE_CATEGORY_MERGE, job -> {
+            job.setMessage("Books to move: " + source.getBooksCount());
+            runMerge(source.getCategoryId(), target.getCategoryId(), job);
+        });
+    }
+
+    private void runMerge(Long sourceCategoryId, Long targetCategoryId, Job job) {
+        job.setPhase(PHASE_MOVING);
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> {
+                lockTarget(targetCategoryId);
+                return moveChunk(sourceCategoryId, targetCategoryId, true);
+            });
+            job.getProcessed().addAndGet(moved);
+        } while (moved > 0);
+
+        // Locks the source category, so books created meanwhile are moved as well, before it is removed
+        job.setPhase(PHASE_REMOVING);
+        transactionTemplate.executeWithoutResult(status -> {
+            lockTarget(targetCategoryId);
+            if (!categoryRepository.lockById(sourceCategoryId)) {
+                throw new IllegalStateException(ERROR_CATEGORY_MERGE_SOURCE_REMOVED);
+            }
+
+            int remaining;
+            do {
+                remaining = moveChunk(sourceCategoryId, targetCategoryId, false);
+                job.getProcessed().addAndGet(remaining);
+            } while (remaining > 0);
+
+            categoryRepository.moveChildren(sourceCategoryId, targetCategoryId);
+            categoryRepository.deleteById(sourceCategoryId);
+            eventPublisher.publishEvent(new CategoryChangedEvent(sourceCategoryId));
+        });
+        job.getSucceeded().set(job.getProcessed().get());
+        log.info("Merge job: {}, category: {} merged into: {}, books moved: {}...", job.getJobId(), sourceCategoryId,
+                targetCategoryId, job.getProcessed().get());
+    }
+
+    /**
+     * Moves a chunk of books and publishes their changes with the current transaction, so no changes are kept
+     * beyond their chunk.
+     *
+     * @param sourceCategoryId
+     * @param targetCategoryId
+     * @param skipLocked
+     * @return the number of moved books
+     */
+    private int moveChunk(Long sourceCategoryId, Long targetCategoryId, boolean skipLocked) {
+        List<BookChange> changes = categoryRepository.moveBooks(sourceCategoryId, targetCategoryId, chunkSize, skipLocked);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new BookChangedEvent(changes));
+        }
+
+        return changes.size();
+    }
+
+    private void lockTarget(Long targetCategoryId) {
+        if (!categoryRepository.lockKeyById(targetCategoryId)) {
+            throw new IllegalStateException(ERROR_CATEGORY_MERGE_TARGET_REMOVED);
+        }
+    }
+}
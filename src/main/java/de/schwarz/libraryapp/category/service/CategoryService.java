@@ -1,20 +1,45 @@
 package de.schwarz.libraryapp.category.service;
 
 
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
 import de.schwarz.libraryapp.category.domain.CategoryRepository;
+import de.schwarz.libraryapp.category.domain.CategorySearchKey;
+import de.schwarz.libraryapp.category.domain.CategorySnapshot;
 import de.schwarz.libraryapp.category.domain.dto.CategoryDto;
+import de.schwarz.libraryapp.category.domain.dto.CategoryMoveRequest;
+import de.schwarz.libraryapp.category.domain.dto.CategoryNodeDto;
 import de.schwarz.libraryapp.category.domain.dto.CategoryRequest;
+import de.schwarz.libraryapp.category.domain.event.CategoryChangedEvent;
 import de.schwarz.libraryapp.exception.NoContentException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -30,9 +55,30 @@ public class CategoryService {
     public static final String ERROR_CATEGORIES_ID_EMPTY = "error.category.id.empty";
     public static final String ERROR_CATEGORIES_REQUEST_EMPTY = "error.category.request.empty";
     public static final String ERROR_CATEGORIES_REQUEST_DESCRIPTION_EMPTY = "error.category.request.description.empty";
+    public static final String ERROR_CATEGORIES_SUBTREE = "error.categories.subtree";
+    public static final String ERROR_CATEGORIES_MOVE = "error.categories.move";
+    public static final String ERROR_CATEGORY_MOVE_REQUEST_EMPTY = "error.category.move.request.empty";
+    public static final String ERROR_CATEGORY_MOVE_ID_EMPTY = "error.category.move.id.empty";
+    public static final String ERROR_CATEGORY_MOVE_CYCLE = "error.category.move.cycle";
+    public static final String ERROR_CATEGORIES_BATCH = "error.categories.batch";
+    public static final String ERROR_CATEGORY_BATCH_EMPTY = "error.category.batch.empty";
+    public static final String ERROR_CATEGORY_BATCH_SIZE_INVALID = "error.category.batch.size.invalid";
+    public static final String ERROR_CATEGORY_BATCH_PARENT_UNKNOWN = "error.category.batch.parent.unknown";
+    // Raised by the trigger of the closure for a move below the own subtree, table category has no check constraints
+    private static final String SQL_STATE_CHECK_VIOLATION = "23514";
 
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<CategorySnapshot> snapshot = new AtomicReference<>();
+    // Set by bulk changes of books, the next read reloads the snapshot
+    private final AtomicBoolean snapshotStale = new AtomicBoolean();
+
+    @Value(value = "${application.properties.category.batch.max-size}")
+    private int maxBatchSize;
+
+    @Value(value = "${application.properties.category.batch.chunk-size}")
+    private int batchChunkSize;
 
 
     /**
@@ -70,6 +116,46 @@ public class CategoryService {
         if (!StringUtils.hasText(request.getDescription())) {
             throw new IllegalArgumentException(ERROR_CATEGORIES_REQUEST_DESCRIPTION_EMPTY);
         }
+
+        if (!ObjectUtils.isEmpty(request.getCategoryId()) && request.getCategoryId().equals(request.getParentId())) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_MOVE_CYCLE);
+        }
+    }
+
+    /**
+     * Validates request params of a move. The parent id is optional, a category without parent is moved to the top level.
+     *
+     * @param request
+     */
+    public void validateRequestParams(final CategoryMoveRequest request) {
+        if (ObjectUtils.isEmpty(request)) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_MOVE_REQUEST_EMPTY);
+        }
+
+        if (ObjectUtils.isEmpty(request.getCategoryId())) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_MOVE_ID_EMPTY);
+        }
+
+        if (request.getCategoryId().equals(request.getParentId())) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_MOVE_CYCLE);
+        }
+    }
+
+    /**
+     * Validates request params of a batch, each category needs a description.
+     *
+     * @param requests
+     */
+    public void validateRequestParamsBatch(final List<CategoryRequest> requests) {
+        if (ObjectUtils.isEmpty(requests)) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_BATCH_EMPTY);
+        }
+
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException(ERROR_CATEGORY_BATCH_SIZE_INVALID);
+        }
+
+        requests.forEach(this::validateRequestParams);
     }
 
     /**
@@ -77,17 +163,15 @@ public class CategoryService {
      *
      * @return
      */
-    @Transactional
     public List<CategoryDto> detectAllCategories() {
         try {
-            var categories = categoryRepository.findAll();
+            var categories = detectSnapshot().findAll();
             if (categories.isEmpty()) {
                 throw new NoContentException();
             }
 
             return categories;
         } catch (DataIntegrityViolationException e) {
-            rollback();
             log.error("Exception during detecting all categories...", e);
             throw new InternalError(ERROR_CATEGORIES_ALL);
         }
@@ -100,17 +184,15 @@ public class CategoryService {
      * @param description
      * @return
      */
-    @Transactional
     public List<CategoryDto> detectCategoriesByDescription(String description) {
         try {
-            var categories = categoryRepository.findByDescription(description.trim());
+            var categories = detectSnapshot().findByDescription(description.trim());
             if (categories.isEmpty()) {
                 throw new NoContentException();
             }
 
             return categories;
         } catch (DataIntegrityViolationException e) {
-            rollback();
             log.error("Exception during detecting categories by description: {}", description, e);
             throw new InternalError(ERROR_CATEGORIES_DESCRIPTION);
         }
@@ -124,43 +206,96 @@ public class CategoryService {
      */
     public CategoryDto detectCategoryByDescription(String description) {
         try {
-            var category = categoryRepository.findByDescriptionStrict(description.trim());
+            var category = detectSnapshot().findByDescriptionStrict(description.trim())
+                    .or(() -> categoryRepository.findByDescriptionStrict(description.trim()));
             if (category.isEmpty()) {
                 throw new NoContentException();
             }
 
             return category.get();
         } catch (DataIntegrityViolationException e) {
-            rollback();
             log.error("Exception during detecting category by description: {}", description, e);
             throw new InternalError(ERROR_CATEGORY_DESCRIPTION);
         }
     }
 
+    /**
+     * Detects the categories of all given descriptions, the descriptions missing in the snapshot with one query
+     *
+     * @param descriptions
+     * @return categories by the search key of their description
+     */
+    public Map<String, CategoryDto> detectCategoriesByDescriptionsStrict(Collection<String> descriptions) {
+        if (descriptions.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            var categorySnapshot = detectSnapshot();
+            Map<String, CategoryDto> categories = new HashMap<>();
+            List<String> missing = new ArrayList<>();
+            for (String description : descriptions) {
+                categorySnapshot.findByDescriptionStrict(description.trim())
+                        .ifPresentOrElse(category -> categories.putIfAbsent(CategorySearchKey.of(category.getDescription()), category),
+                                () -> missing.add(description.trim()));
+            }
+            if (!missing.isEmpty()) {
+                categoryRepository.findByDescriptionsStrict(missing)
+                        .forEach(category -> categories.putIfAbsent(CategorySearchKey.of(category.getDescription()), category));
+            }
+
+            return categories;
+        } catch (DataIntegrityViolationException e) {
+            log.error("Exception during detecting categories by descriptions: {}", descriptions, e);
+            throw new InternalError(ERROR_CATEGORY_DESCRIPTION);
+        }
+    }
+
     /**
      * Detects a category by the given category id.
      *
      * @param categoryId
      * @return
      */
-    @Transactional
     public CategoryDto detectCategory(Long categoryId) {
         try {
-            var category = categoryRepository.findById(categoryId);
+            var category = detectSnapshot().findById(categoryId)
+                    .or(() -> categoryRepository.findById(categoryId));
             if (category.isEmpty()) {
                 throw new NoContentException();
             }
 
             return category.get();
         } catch (DataIntegrityViolationException e) {
-            rollback();
             log.error("Exception during detecting category by category id: {}", categoryId, e);
             throw new InternalError(ERROR_CATEGORIES_ID);
         }
     }
 
     /**
-     * Creates or updates a category in online library
+     * Detects a category and all its descendants, with the number of books of each category and of its subtree
+     *
+     * @param categoryId
+     * @return the categories ordered by depth and id, the given category first
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryNodeDto> detectSubtree(Long categoryId) {
+        try {
+            var categories = categoryRepository.findSubtree(categoryId);
+            if (categories.isEmpty()) {
+                throw new NoContentException();
+            }
+
+            return categories;
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during detecting subtree of category id: {}", categoryId, e);
+            throw new InternalError(ERROR_CATEGORIES_SUBTREE);
+        }
+    }
+
+    /**
+     * Creates or updates a category in online library. An update with a parent moves the category below it.
      *
      * @param categoryRequest
      * @return
@@ -169,16 +304,120 @@ public class CategoryService {
     public Integer createOrUpdateCategory(CategoryRequest categoryRequest) {
         try {
             CategoryDto category = createCategoryFromRequest(categoryRequest);
-            return categoryRepository.save(category);
+            var saved = categoryRepository.save(category);
+            eventPublisher.publishEvent(new CategoryChangedEvent(category.getCategoryId()));
+
+            return saved;
         } catch (DataIntegrityViolationException e) {
             rollback();
+            if (isCycle(e)) {
+                throw new IllegalArgumentException(ERROR_CATEGORY_MOVE_CYCLE);
+            }
             log.error("Exception during creating category with the description: {}", categoryRequest.getDescription(), e);
             throw new InternalError(ERROR_CATEGORIES_SAVE);
         }
     }
 
     /**
-     * Removes a category for the given category id.
+     * Creates or updates a batch of categories in one transaction, matched by their descriptions ignoring case, accents
+     * and the transcription of umlauts. Each chunk is saved with one upsert, the unchanged categories of the chunk are
+     * read with one query.
+     * The category ids of the requests are ignored, the parents are set for created categories only.
+     *
+     * @param categoryRequests
+     * @return the category of each request, in the order of the requests
+     */
+    @Transactional
+    public List<CategoryDto> createOrUpdateCategories(List<CategoryRequest> categoryRequests) {
+        try {
+            Map<String, CategoryDto> requested = new LinkedHashMap<>();
+            for (CategoryRequest categoryRequest : categoryRequests) {
+                var category = createCategoryFromRequest(categoryRequest);
+                category.setCategoryId(null);
+                category.setDescription(category.getDescription().trim());
+                requested.put(CategorySearchKey.of(category.getDescription()), category);
+            }
+
+            var parentIds = requested.values().stream()
+                    .map(CategoryDto::getParentId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            if (!parentIds.isEmpty() && categoryRepository.lockByIds(parentIds) < parentIds.size()) {
+                throw new IllegalArgumentException(ERROR_CATEGORY_BATCH_PARENT_UNKNOWN);
+            }
+
+            var categories = new ArrayList<>(requested.values());
+            Map<String, CategoryDto> saved = new HashMap<>();
+            var changed = 0;
+            for (int from = 0; from < categories.size(); from += batchChunkSize) {
+                var chunk = categories.subList(from, Math.min(from + batchChunkSize, categories.size()));
+                var upserted = categoryRepository.upsertAll(chunk);
+                upserted.forEach(category -> saved.put(CategorySearchKey.of(category.getDescription()), category));
+                changed += upserted.size();
+
+                var unchanged = chunk.stream()
+                        .map(CategoryDto::getDescription)
+                        .filter(description -> !saved.containsKey(CategorySearchKey.of(description)))
+                        .toList();
+                if (!unchanged.isEmpty()) {
+                    categoryRepository.findByDescriptionsStrict(unchanged)
+                            .forEach(category -> saved.put(CategorySearchKey.of(category.getDescription()), category));
+                }
+            }
+            if (changed > 0) {
+                eventPublisher.publishEvent(new CategoryChangedEvent(null));
+            }
+            log.debug("Batch of categories saved: {}, changed: {}...", categories.size(), changed);
+
+            return categoryRequests.stream()
+                    .map(categoryRequest -> saved.get(CategorySearchKey.of(categoryRequest.getDescription().trim())))
+                    .toList();
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during creating or updating a batch of categories: {}", categoryRequests.size(), e);
+            throw new InternalError(ERROR_CATEGORIES_BATCH);
+        }
+    }
+
+    /**
+     * Moves a category with all its descendants below another category, or to the top level without parent.
+     * The parent is locked, so it cannot be removed meanwhile.
+     *
+     * @param request
+     * @return
+     */
+    @Transactional
+    public Integer moveCategory(CategoryMoveRequest request) {
+        try {
+            if (!ObjectUtils.isEmpty(request.getParentId())) {
+                if (!categoryRepository.lockById(request.getParentId())) {
+                    throw new NoContentException();
+                }
+                if (categoryRepository.isInSubtree(request.getParentId(), request.getCategoryId())) {
+                    throw new IllegalArgumentException(ERROR_CATEGORY_MOVE_CYCLE);
+                }
+            }
+
+            var moved = categoryRepository.moveById(request.getCategoryId(), request.getParentId());
+            if (moved == 0) {
+                throw new NoContentException();
+            }
+            eventPublisher.publishEvent(new CategoryChangedEvent(request.getCategoryId()));
+
+            return moved;
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            // A concurrent move has closed the cycle after the check, the trigger of the closure rejects it
+            if (isCycle(e)) {
+                throw new IllegalArgumentException(ERROR_CATEGORY_MOVE_CYCLE);
+            }
+            log.error("Exception during moving category id: {} below parent id: {}", request.getCategoryId(), request.getParentId(), e);
+            throw new InternalError(ERROR_CATEGORIES_MOVE);
+        }
+    }
+
+    /**
+     * Removes a category for the given category id. Its children are moved with their subtrees below its parent.
      *
      * @param categoryId
      * @return
@@ -186,7 +425,13 @@ public class CategoryService {
     @Transactional
     public Integer removeCategory(Long categoryId) {
         try {
-            return categoryRepository.deleteById(categoryId);
+            if (categoryRepository.lockById(categoryId)) {
+                categoryRepository.moveChildrenToParent(categoryId);
+            }
+            var removed = categoryRepository.deleteById(categoryId);
+            eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+
+            return removed;
         } catch (DataIntegrityViolationException e) {
             rollback();
             log.error("Exception during removing category for the category id: {}", categoryId, e);
@@ -194,6 +439,93 @@ public class CategoryService {
         }
     }
 
+    /**
+     * Rebuilds the snapshot after the commit of a changed category
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        refreshSnapshot();
+    }
+
+    /**
+     * Updates the number of books in the snapshot after the commit of changed books. Only the categories of the
+     * changed books are counted again, on the committing thread. Bulk changes name no categories, they mark the
+     * snapshot stale, the next read reloads it.
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isBulk()) {
+            snapshotStale.set(true);
+            return;
+        }
+
+        Set<Long> categoryIds = event.getChanges().stream()
+                .flatMap(change -> Stream.of(change.getBefore(), change.getAfter()))
+                .filter(Objects::nonNull)
+                .map(BookTerms::getCategoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (categoryIds.isEmpty() || snapshot.get() == null) {
+            return;
+        }
+
+        var booksCounts = categoryRepository.countBooksByIds(categoryIds);
+        snapshot.updateAndGet(categorySnapshot -> categorySnapshot == null ? null : categorySnapshot.withBooksCounts(booksCounts));
+        log.debug("Category snapshot updated with the books count of categories: {}...", booksCounts.keySet());
+    }
+
+    /**
+     * Rebuilds the snapshot periodically, so changes of other instances are read as well.
+     */
+    @Scheduled(fixedDelayString = "${application.properties.category.snapshot.refresh-interval}",
+            initialDelayString = "${application.properties.category.snapshot.refresh-interval}")
+    @Transactional(readOnly = true)
+    public void refreshSnapshotScheduled() {
+        refreshSnapshot();
+    }
+
+    /**
+     * Detects the snapshot of all categories, loads it on first use.
+     *
+     * @return
+     */
+    protected CategorySnapshot detectSnapshot() {
+        var categorySnapshot = snapshot.get();
+        return categorySnapshot != null && !snapshotStale.get() ? categorySnapshot : refreshStaleSnapshot();
+    }
+
+    /**
+     * Loads the snapshot, unless a concurrent reader loaded it meanwhile.
+     *
+     * @return
+     */
+    protected synchronized CategorySnapshot refreshStaleSnapshot() {
+        var categorySnapshot = snapshot.get();
+        return categorySnapshot != null && !snapshotStale.get() ? categorySnapshot : refreshSnapshot();
+    }
+
+    /**
+     * Loads all categories and swaps the snapshot. Synchronized, so a snapshot loaded earlier never replaces one
+     * loaded later.
+     *
+     * @return
+     */
+    protected synchronized CategorySnapshot refreshSnapshot() {
+        // Reset before loading, so a bulk change committed during the load marks the snapshot stale again
+        snapshotStale.set(false);
+        var categorySnapshot = new CategorySnapshot(categoryRepository.findAll());
+        snapshot.set(categorySnapshot);
+        log.debug("Category snapshot refreshed with categories: {}...", categorySnapshot.size());
+
+        return categorySnapshot;
+    }
+
     /**
      * Creates an entity from request.
      *
@@ -204,10 +536,20 @@ public class CategoryService {
         CategoryDto category = new CategoryDto();
         category.setCategoryId(categoryRequest.getCategoryId());
         category.setDescription(categoryRequest.getDescription());
+        category.setParentId(categoryRequest.getParentId());
 
         return category;
     }
 
+    /**
+     * @param e
+     * @return true, if the trigger of the closure rejected a move below the own subtree
+     */
+    private static boolean isCycle(DataIntegrityViolationException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sqlException
+                && SQL_STATE_CHECK_VIOLATION.equals(sqlException.getSQLState());
+    }
+
     /**
      * For testing purposes refactored.
      */
@@ -2,14 +2,32 @@ package de.schwarz.libraryapp.customer.domain;
 
 
 import de.schwarz.libraryapp.customer.domain.entity.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    String STREAM_FETCH_SIZE = "1000";
+
     @Query(value = "SELECT c.* FROM library.customer c WHERE c.email = :username", nativeQuery = true)
     Optional<Customer> findByUsername(@Param(value = "username") String username);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query(value = "UPDATE Customer c SET c.password = :password WHERE c.id = :customerId")
+    int updatePassword(@Param(value = "customerId") Long customerId, @Param(value = "password") String password);
+
+    @QueryHints(value = {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")})
+    @Query(value = "SELECT c FROM Customer c ORDER BY c.id")
+    Stream<Customer> streamAll();
+}
@@ -0,0 +1,16 @@
+package de.schwarz.libraryapp.customer.domain.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published when a customer is created, updated or removed, or the password hash is upgraded. Listeners react after
+ * the commit. The emails are the former and the current one of the customer.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CustomerChangedEvent {
+    private final List<String> emails;
+}
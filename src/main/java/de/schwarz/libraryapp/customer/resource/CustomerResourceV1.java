@@ -4,6 +4,7 @@ package de.schwarz.libraryapp.customer.resource;
 import de.schwarz.libraryapp.customer.domain.dto.CustomerDto;
 import de.schwarz.libraryapp.customer.domain.dto.CustomerRequest;
 import de.schwarz.libraryapp.customer.service.CustomerService;
+import de.schwarz.libraryapp.stream.JsonStreamWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -15,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,6 +28,7 @@ import java.util.List;
 public class CustomerResourceV1 {
 
     private final CustomerService customerService;
+    private final JsonStreamWriter jsonStreamWriter;
 
 
     @Operation(tags = "Get all customers", summary = "Getting all customers from library", description = "Process gets all customers from online library database without restrictions.",
@@ -46,6 +49,40 @@ public class CustomerResourceV1 {
                 .body(customers);
     }
 
+    @Operation(tags = "Stream all customers", summary = "Streaming all customers from library", description = "Process streams all customers from online library database without restrictions as json lines (NDJSON).",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = CustomerDto.class))),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping(value = "/v1/customers/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllCustomers() {
+        log.info("Streaming all customers as json lines...");
+        // Prepare and return response, the service is called during writing the response
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(jsonStreamWriter.ndjson(customerService::streamAllCustomers));
+    }
+
+    @Operation(tags = "Stream all customers array", summary = "Streaming all customers from library", description = "Process streams all customers from online library database without restrictions as json array.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CustomerDto.class))),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping(value = "/v1/customers/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllCustomersAsArray() {
+        log.info("Streaming all customers as json array...");
+        // Prepare and return response, the service is called during writing the response
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamWriter.array(customerService::streamAllCustomers));
+    }
+
     @Operation(tags = "Get a customer email", summary = "Getting a customer by the given email from library", description = "Process gets a customer from online library database, by the given email.",
             responses = {
                     @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CustomerDto.class))),
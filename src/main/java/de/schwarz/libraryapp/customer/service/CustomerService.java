@@ -1,14 +1,19 @@
 package de.schwarz.libraryapp.customer.service;
 
 
+import de.schwarz.libraryapp.auth.service.RefreshTokenService;
 import de.schwarz.libraryapp.customer.domain.CustomerRepository;
 import de.schwarz.libraryapp.customer.domain.dto.CustomerDto;
 import de.schwarz.libraryapp.customer.domain.dto.CustomerRequest;
 import de.schwarz.libraryapp.customer.domain.entity.Customer;
+import de.schwarz.libraryapp.customer.domain.event.CustomerChangedEvent;
 import de.schwarz.libraryapp.exception.NoContentException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,7 +24,10 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -42,6 +50,11 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Value(value = "${application.properties.email.regex}")
     private String emailRegex;
@@ -124,6 +137,26 @@ public class CustomerService {
     }
 
 
+    /**
+     * Streams all customers ordered by id to the given consumer. The rows are fetched in chunks by a server side cursor
+     * and every entity is detached after mapping, so the heap usage does not grow with the count of customers.
+     *
+     * @param consumer
+     */
+    @Transactional(readOnly = true)
+    public void streamAllCustomers(Consumer<CustomerDto> consumer) {
+        try (Stream<Customer> customers = customerRepository.streamAll()) {
+            customers.forEach(customer -> {
+                consumer.accept(createCustomerDto(customer));
+                entityManager.detach(customer);
+            });
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during streaming all customers...", e);
+            throw new InternalError(ERROR_CUSTOMERS_ALL);
+        }
+    }
+
     /**
      * Detects all customers by the given email
      *
@@ -177,8 +210,16 @@ public class CustomerService {
     @Transactional
     public CustomerDto createOrUpdateCustomer(CustomerRequest customerRequest) {
         try {
+            var emailBefore = findEmail(customerRequest.getCustomerId());
             Customer customer = createCustomerEntityFromRequest(customerRequest);
             var customerNew = customerRepository.save(customer);
+            if (!ObjectUtils.isEmpty(customerRequest.getCustomerId())) {
+                // An update sets the password again, logins with the former password end
+                refreshTokenService.revokeTokens(customerNew.getId());
+            }
+            eventPublisher.publishEvent(new CustomerChangedEvent(Stream.of(emailBefore, customerNew.getEmail())
+                    .filter(Objects::nonNull)
+                    .toList()));
 
             return createCustomerDto(customerNew);
         } catch (DataIntegrityViolationException e) {
@@ -197,7 +238,11 @@ public class CustomerService {
     @Transactional
     public void removeCustomer(Long customerId) {
         try {
+            var emailBefore = findEmail(customerId);
             customerRepository.deleteById(customerId);
+            if (emailBefore != null) {
+                eventPublisher.publishEvent(new CustomerChangedEvent(List.of(emailBefore)));
+            }
         } catch (DataIntegrityViolationException e) {
             rollback();
             log.error("Exception during removing customer for the customer id: {}", customerId, e);
@@ -205,6 +250,20 @@ public class CustomerService {
         }
     }
 
+    /**
+     * @param customerId
+     * @return the stored email of the customer, if any
+     */
+    private String findEmail(Long customerId) {
+        if (ObjectUtils.isEmpty(customerId)) {
+            return null;
+        }
+
+        return customerRepository.findById(customerId)
+                .map(Customer::getEmail)
+                .orElse(null);
+    }
+
     /**
      * Validates per regex email address.
      *
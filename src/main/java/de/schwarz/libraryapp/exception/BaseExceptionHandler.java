@@ -1,6 +1,8 @@
 package de.schwarz.libraryapp.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -61,6 +63,23 @@ public class BaseExceptionHandler {
                 .body(e.getMessage());
     }
 
+    @ExceptionHandler(value = {TaskRejectedException.class})
+    public ResponseEntity<String> handleTaskRejectedException(TaskRejectedException e) {
+        log.error("TaskRejected Exception: {}", e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .build();
+    }
+
+    @ExceptionHandler(value = {RetryLaterException.class})
+    public ResponseEntity<String> handleRetryLaterException(RetryLaterException e) {
+        log.error("RetryLater Exception: {}", e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(e.getMessage());
+    }
+
     @ExceptionHandler(value = {InternalError.class})
     public ResponseEntity<String> handleInternalError(InternalError error) {
         log.error("Internal Error: {}", error.getMessage());
@@ -0,0 +1,21 @@
+package de.schwarz.libraryapp.exception;
+
+import lombok.Getter;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+
+/**
+ * A task rejected by a saturated executor, the client may retry after the given time
+ */
+@Getter
+public class RetryLaterException extends TaskRejectedException {
+
+    private final Duration retryAfter;
+
+
+    public RetryLaterException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
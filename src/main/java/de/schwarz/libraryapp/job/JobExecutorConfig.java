@@ -0,0 +1,36 @@
+package de.schwarz.libraryapp.job;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class JobExecutorConfig {
+
+    public static final String JOB_EXECUTOR = "jobExecutor";
+
+    @Value(value = "${application.properties.job.pool-size}")
+    private int poolSize;
+
+    @Value(value = "${application.properties.job.queue-capacity}")
+    private int queueCapacity;
+
+
+    /**
+     * Executor of the background jobs. Jobs beyond the queue capacity are rejected instead of piling up.
+     *
+     * @return
+     */
+    @Bean(name = JOB_EXECUTOR)
+    public ThreadPoolTaskExecutor jobExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("job-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
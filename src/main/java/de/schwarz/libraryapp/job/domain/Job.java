@@ -0,0 +1,63 @@
+package de.schwarz.libraryapp.job.domain;
+
+import de.schwarz.libraryapp.job.domain.dto.JobErrorDto;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of a background job. The job is updated by its worker thread and read concurrently by requests for its progress.
+ */
+@Getter
+public class Job {
+
+    private final UUID jobId = UUID.randomUUID();
+    private final String type;
+    private final int maxReportedErrors;
+    private final LocalDateTime createdOn = LocalDateTime.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong reportedErrors = new AtomicLong();
+    private final Queue<JobErrorDto> errors = new ConcurrentLinkedQueue<>();
+    @Setter
+    private volatile JobStatus status = JobStatus.QUEUED;
+    @Setter
+    private volatile String phase;
+    @Setter
+    private volatile String message;
+    @Setter
+    private volatile LocalDateTime finishedOn;
+
+
+    public Job(String type, int maxReportedErrors) {
+        this.type = type;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Reports an error of a single row. Only the first errors are kept, up to the max reported errors.
+     *
+     * @param row
+     * @param error
+     */
+    public void reportError(long row, String error) {
+        if (reportedErrors.incrementAndGet() <= maxReportedErrors) {
+            errors.add(new JobErrorDto(row, error));
+        }
+    }
+
+    public List<JobErrorDto> getErrors() {
+        return List.copyOf(errors);
+    }
+
+    public boolean isFinished() {
+        return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+    }
+}
@@ -0,0 +1,8 @@
+package de.schwarz.libraryapp.job.domain;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
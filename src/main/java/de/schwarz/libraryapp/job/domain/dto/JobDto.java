@@ -0,0 +1,25 @@
+package de.schwarz.libraryapp.job.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import de.schwarz.libraryapp.job.domain.JobStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class JobDto {
+    private UUID jobId;
+    private String type;
+    private JobStatus status;
+    private String phase;
+    private String message;
+    private Long processed;
+    private Long succeeded;
+    private Long failed;
+    private List<JobErrorDto> errors;
+    private LocalDateTime createdOn;
+    private LocalDateTime finishedOn;
+}
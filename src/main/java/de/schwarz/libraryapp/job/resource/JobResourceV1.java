@@ -0,0 +1,54 @@
+package de.schwarz.libraryapp.job.resource;
+
+
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
+import de.schwarz.libraryapp.job.service.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.UUID;
+
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(path = "/api", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+public class JobResourceV1 {
+
+    private final JobService jobService;
+
+
+    @Operation(tags = "Detect job", summary = "Detects a background job of the online library", description = "Detects the status, progress and error rows of a background job, by the given job id.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = JobDto.class))),
+                    @ApiResponse(responseCode = "204", description = "No Content<br/><br/>* Job is unknown or expired."),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Job id is empty."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/job/id")
+    public ResponseEntity<?> detectJob(@RequestParam(value = "jobId", required = false) UUID jobId) {
+        // Validate request param
+        jobService.validateRequestParamJobId(jobId);
+        // Call service
+        JobDto job = jobService.detectJob(jobId);
+        log.info("Job with id: {}, detected in status: {}...", job.getJobId(), job.getStatus());
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(job);
+    }
+}
@@ -0,0 +1,139 @@
+package de.schwarz.libraryapp.job.service;
+
+
+import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.job.JobExecutorConfig;
+import de.schwarz.libraryapp.job.domain.Job;
+import de.schwarz.libraryapp.job.domain.JobStatus;
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ObjectUtils;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class JobService {
+
+    public static final String ERROR_JOB_ID_EMPTY = "error.job.id.empty";
+
+
+    private final TaskExecutor jobExecutor;
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    @Value(value = "${application.properties.job.retention}")
+    private int retention;
+
+    @Value(value = "${application.properties.job.max-reported-errors}")
+    private int maxReportedErrors;
+
+
+    public JobService(@Qualifier(JobExecutorConfig.JOB_EXECUTOR) TaskExecutor jobExecutor) {
+        this.jobExecutor = jobExecutor;
+    }
+
+    /**
+     * Validates request param job id.
+     *
+     * @param jobId
+     */
+    public void validateRequestParamJobId(UUID jobId) {
+        if (ObjectUtils.isEmpty(jobId)) {
+            throw new IllegalArgumentException(ERROR_JOB_ID_EMPTY);
+        }
+    }
+
+    /**
+     * Submits a job to the background executor
+     *
+     * @param type
+     * @param task
+     * @return
+     */
+    public JobDto submitJob(String type, Consumer<Job> task) {
+        var job = new Job(type, maxReportedErrors);
+        evictFinishedJobs();
+        jobs.put(job.getJobId(), job);
+        try {
+            jobExecutor.execute(() -> runJob(job, task));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getJobId());
+            throw e;
+        }
+
+        log.info("Job: {} of type: {} submitted...", job.getJobId(), type);
+        return createJobDto(job);
+    }
+
+    /**
+     * Detects a job by the given job id
+     *
+     * @param jobId
+     * @return
+     */
+    public JobDto detectJob(UUID jobId) {
+        var job = jobs.get(jobId);
+        if (ObjectUtils.isEmpty(job)) {
+            throw new NoContentException();
+        }
+
+        return createJobDto(job);
+    }
+
+    private void runJob(Job job, Consumer<Job> task) {
+        job.setStatus(JobStatus.RUNNING);
+        try {
+            task.accept(job);
+            job.setStatus(JobStatus.COMPLETED);
+            log.info("Job: {} completed, processed: {}, succeeded: {}, failed: {}...", job.getJobId(),
+                    job.getProcessed().get(), job.getSucceeded().get(), job.getFailed().get());
+        } catch (RuntimeException e) {
+            job.setMessage(e.getMessage());
+            job.setStatus(JobStatus.FAILED);
+            log.error("Exception during job: {}...", job.getJobId(), e);
+        } catch (Error e) {
+            // E.g. out of memory, the job must not stay running forever
+            job.setMessage(e.toString());
+            job.setStatus(JobStatus.FAILED);
+            log.error("Error during job: {}...", job.getJobId(), e);
+            throw e;
+        } finally {
+            job.setFinishedOn(LocalDateTime.now());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        var finished = jobs.values().stream()
+                .filter(Job::isFinished)
+                .sorted(Comparator.comparing(Job::getCreatedOn).reversed())
+                .toList();
+        finished.stream()
+                .skip(Math.max(retention - 1, 0))
+                .forEach(job -> jobs.remove(job.getJobId()));
+    }
+
+    private JobDto createJobDto(Job job) {
+        var jobDto = new JobDto();
+        jobDto.setJobId(job.getJobId());
+        jobDto.setType(job.getType());
+        jobDto.setStatus(job.getStatus());
+        jobDto.setPhase(job.getPhase());
+        jobDto.setMessage(job.getMessage());
+        jobDto.setProcessed(job.getProcessed().get());
+        jobDto.setSucceeded(job.getSucceeded().get());
+        jobDto.setFailed(job.getFailed().get());
+        jobDto.setErrors(job.getErrors());
+        jobDto.setCreatedOn(job.getCreatedOn());
+        jobDto.setFinishedOn(job.getFinishedOn());
+        return jobDto;
+    }
+}
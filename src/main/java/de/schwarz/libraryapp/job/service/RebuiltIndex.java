@@ -0,0 +1,172 @@
+package de.schwarz.libraryapp.job.service;
+
+
+import de.schwarz.libraryapp.book.domain.event.BookChange;
+import de.schwarz.libraryapp.book.domain.event.BookChanges;
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index built from the database in a background job, single changes are applied to it after their commit.
+ * The index is read under a read lock and changed under a write lock. A rebuild reads one snapshot of the database
+ * and swaps the new index, changes committed during the build are applied to the new index as well, before it is swapped.
+ *
+ * @param <T> the type of the index, not thread safe itself
+ */
+public final class RebuiltIndex<T> {
+
+    private final TransactionTemplate snapshotTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by the lock
+    private T index;
+    private List<PendingChange<T>> pendingChanges;
+
+
+    /**
+     * @param index               the empty index, until the first rebuild
+     * @param transactionTemplate the snapshot of a rebuild is read in a read only repeatable read transaction of its manager
+     */
+    public RebuiltIndex(T index, TransactionTemplate transactionTemplate) {
+        this.index = index;
+        this.snapshotTemplate = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Reads the index under the read lock
+     *
+     * @param reader
+     * @return the result of the reader
+     */
+    public <R> R read(Function<? super T, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a committed change to the index. The change is applied to a rebuilt index again, it must not count twice,
+     * if the snapshot of the rebuild has seen it.
+     *
+     * @param change
+     */
+    public void apply(Consumer<? super T> change) {
+        write(() -> {
+            change.accept(index);
+            if (pendingChanges != null) {
+                pendingChanges.add(new PendingChange<>(change, List.of(), null));
+            }
+        });
+    }
+
+    /**
+     * Applies committed book changes to the index, which may count them. A rebuilt index gets the changes not seen
+     * by the snapshot of the rebuild only.
+     *
+     * @param changes
+     * @param applier applies one change to an index
+     */
+    public void applyBookChanges(Collection<BookChange> changes, BiConsumer<? super T, BookChange> applier) {
+        var bookChanges = List.copyOf(changes);
+        write(() -> {
+            bookChanges.forEach(change -> applier.accept(index, change));
+            if (pendingChanges != null) {
+                pendingChanges.add(new PendingChange<>(null, bookChanges, applier));
+            }
+        });
+    }
+
+    /**
+     * Builds a new index from one snapshot of the database and swaps it, changes committed during the build are
+     * applied to the new index as well. Book changes seen by the snapshot already are skipped, their terms are
+     * read from the snapshot, after the build.
+     *
+     * @param builder   builds the index in the snapshot transaction
+     * @param findTerms finds the terms of the given books in the snapshot transaction
+     * @param onSwap    runs under the write lock, before the pending changes are applied to the new index
+     * @return the new index
+     */
+    public synchronized T rebuild(Supplier<T> builder, Function<Set<Long>, Map<Long, BookTerms>> findTerms, Runnable onSwap) {
+        write(() -> pendingChanges = new ArrayList<>());
+        try {
+            return snapshotTemplate.execute(status -> {
+                var rebuilt = builder.get();
+                // The terms of the changed books are read in the snapshot, the write lock holds back further changes
+                write(() -> {
+                    var bookChanges = pendingChanges.stream()
+                            .flatMap(pending -> pending.bookChanges().stream())
+                            .toList();
+                    var unseen = bookChanges.isEmpty() ? Set.<BookChange>of() : BookChanges.unseen(bookChanges,
+                            findTerms.apply(bookChanges.stream()
+                                    .map(BookChange::getBookId)
+                                    .collect(Collectors.toSet())));
+                    onSwap.run();
+                    pendingChanges.forEach(pending -> pending.applyTo(rebuilt, unseen));
+                    index = rebuilt;
+                });
+
+                return rebuilt;
+            });
+        } finally {
+            write(() -> pendingChanges = null);
+        }
+    }
+
+    /**
+     * Builds a new index from one snapshot of the database and swaps it, the changes committed during the build are
+     * applied to the new index as well.
+     *
+     * @param builder builds the index in the snapshot transaction
+     * @return the new index
+     */
+    public T rebuild(Supplier<T> builder) {
+        return rebuild(builder, bookIds -> Map.of(), () -> {
+        });
+    }
+
+    private void write(Runnable writer) {
+        lock.writeLock().lock();
+        try {
+            writer.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A change applied during a rebuild, either a change of the index or changed books
+     */
+    private record PendingChange<T>(Consumer<? super T> change, List<BookChange> bookChanges,
+                                    BiConsumer<? super T, BookChange> applier) {
+
+        private void applyTo(T rebuilt, Set<BookChange> unseen) {
+            if (change != null) {
+                change.accept(rebuilt);
+                return;
+            }
+
+            bookChanges.stream()
+                    .filter(unseen::contains)
+                    .forEach(bookChange -> applier.accept(rebuilt, bookChange));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package de.schwarz.libraryapp.search.domain;
+
+
+import de.schwarz.libraryapp.book.domain.dto.BookDto;
+import de.schwarz.libraryapp.book.domain.dto.BookView;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.Term;
+
+import java.util.Map;
+
+/**
+ * Fields of a book in the search index. The searched fields are stored as well, so the hits are returned
+ * without reading the database.
+ */
+public final class BookDocument {
+
+    public static final String ERROR_BOOK_ID_EMPTY = "error.search.book.id.empty";
+    public static final String FIELD_BOOK_ID = "bookId";
+    public static final String FIELD_TITLE = "title";
+    public static final String FIELD_AUTHOR = "author";
+    public static final String FIELD_PUBLISHER = "publisher";
+    public static final String FIELD_CATEGORY = "category";
+    public static final String FIELD_PUBLISHING_YEAR = "publishingYear";
+    // Rebuild that has written the document, documents of earlier rebuilds are removed after a rebuild
+    public static final String FIELD_GENERATION = "generation";
+    // Boosts of the searched fields, a match in the title counts most
+    public static final Map<String, Float> SEARCHED_FIELDS = Map.of(
+            FIELD_TITLE, 3.0f,
+            FIELD_AUTHOR, 2.0f,
+            FIELD_CATEGORY, 1.5f,
+            FIELD_PUBLISHER, 1.0f);
+
+
+    private BookDocument() {
+    }
+
+    /**
+     * Creates the document of a book. Missing fields are left out, a book without id cannot be indexed.
+     *
+     * @param book
+     * @param generation
+     * @return the document of the book
+     */
+    public static Document create(BookView book, long generation) {
+        if (book.getBookId() == null) {
+            throw new IllegalArgumentException(ERROR_BOOK_ID_EMPTY);
+        }
+
+        var document = new Document();
+        document.add(new StringField(FIELD_BOOK_ID, String.valueOf(book.getBookId()), Field.Store.YES));
+        document.add(new NumericDocValuesField(FIELD_BOOK_ID, book.getBookId()));
+        addText(document, FIELD_TITLE, book.getTitle());
+        addText(document, FIELD_AUTHOR, book.getAuthor());
+        addText(document, FIELD_PUBLISHER, book.getPublisher());
+        addText(document, FIELD_CATEGORY, book.getCategoryDescription());
+        if (book.getPublishingYear() != null) {
+            document.add(new StoredField(FIELD_PUBLISHING_YEAR, book.getPublishingYear().getYear()));
+        }
+        document.add(new LongPoint(FIELD_GENERATION, generation));
+
+        return document;
+    }
+
+    /**
+     * @param bookId
+     * @return the term identifying the document of a book
+     */
+    public static Term idTerm(Long bookId) {
+        return new Term(FIELD_BOOK_ID, String.valueOf(bookId));
+    }
+
+    /**
+     * @param document
+     * @return the book of a stored document
+     */
+    public static BookDto toBookDto(Document document) {
+        return BookDto.builder()
+                .bookId(Long.valueOf(document.get(FIELD_BOOK_ID)))
+                .author(document.get(FIELD_AUTHOR))
+                .title(document.get(FIELD_TITLE))
+                .publisher(document.get(FIELD_PUBLISHER))
+                .publishingYear(document.get(FIELD_PUBLISHING_YEAR))
+                .categoryDescription(document.get(FIELD_CATEGORY))
+                .build();
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.YES));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package de.schwarz.libraryapp.search.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import de.schwarz.libraryapp.book.domain.dto.BookDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookSearchHit {
+    private BookDto book;
+    private Float score;
+}
@@ -0,0 +1,78 @@
+package de.schwarz.libraryapp.search.resource;
+
+
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
+import de.schwarz.libraryapp.search.domain.dto.BookSearchPage;
+import de.schwarz.libraryapp.search.service.BookSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(path = "/api", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+public class BookSearchResourceV1 {
+
+    private final BookSearchService bookSearchService;
+
+
+    @Operation(tags = "Search books", summary = "Searches books by relevance", description = "Process searches the books matching all words of the query in title, author, category and publisher, ignoring case and accents. "
+            + "Matches in the title rank highest, then author, category and publisher. The query supports phrases \"der idiot\", fields author:dostojewski, boosts idiot^2 and wildcards idio*. "
+            + "The hits are ordered by score, the next page is requested with the next cursor of the previous page.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BookSearchPage.class))),
+                    @ApiResponse(responseCode = "204", description = "No Content<br/><br/>* No book matches the query."),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Query is empty.<br/>* Query is invalid.<br/>* Size is invalid.<br/>* Cursor is invalid."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/books/search")
+    public ResponseEntity<?> searchBooks(@RequestParam(value = "query", required = false) String query,
+                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", required = false) Integer size) {
+        // Validate request param
+        bookSearchService.validateRequestParams(query, size);
+        // Call service
+        BookSearchPage page = bookSearchService.detectBooks(query, cursor, size);
+        log.info("Count of books found: {} for query: {}...", page.getHits().size(), query);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(page);
+    }
+
+    @Operation(tags = "Search books", summary = "Rebuilds the search index", description = "Process rebuilds the search index from the database as background job. "
+            + "Searches stay complete during the rebuild, each book is found in its former or its rebuilt version.",
+            responses = {
+                    @ApiResponse(responseCode = "202", content = @Content(schema = @Schema(implementation = JobDto.class))),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error"),
+                    @ApiResponse(responseCode = "503", description = "Service unavailable<br/><br/>* Too many jobs queued.")})
+    @SecurityRequirement(name = "http_secure")
+    @PostMapping("/v1/books/search/rebuild")
+    public ResponseEntity<?> rebuildSearchIndex() {
+        // Call service
+        JobDto job = bookSearchService.rebuildIndex();
+        log.info("Rebuild of the search index submitted as job: {}...", job.getJobId());
+        // Prepare and return response
+        return ResponseEntity
+                .accepted()
+                .body(job);
+    }
+}
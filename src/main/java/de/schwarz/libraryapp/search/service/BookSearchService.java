@@ -0,0 +1,709 @@
+package de.schwarz.libraryapp.search.service;
+
+
+import de.schwarz.libraryapp.book.domain.BookRepository;
+import de.schwarz.libraryapp.book.domain.dto.BookView;
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.category.domain.CategoryRepository;
+import de.schwarz.libraryapp.category.domain.dto.CategoryDto;
+import de.schwarz.libraryapp.category.domain.event.CategoryChangedEvent;
+import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.job.domain.Job;
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
+import de.schwarz.libraryapp.job.service.JobService;
+import de.schwarz.libraryapp.search.domain.BookAnalyzer;
+import de.schwarz.libraryapp.search.domain.BookDocument;
+import de.schwarz.libraryapp.search.domain.dto.BookSearchHit;
+import de.schwarz.libraryapp.search.domain.dto.BookSearchPage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.IndexFormatTooNewException;
+import org.apache.lucene.index.IndexFormatTooOldException;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Relevance ranked search of the books by title, author, publisher and category from an embedded Lucene index
+ * in a local directory. Changed books are indexed by a background job after their commit, books created in bulk
+ * as well. At startup the books changed since the last commit of the index are indexed, the index is rebuilt
+ * from the database, if it is empty or its number of books differs from the database.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class BookSearchService {
+
+    public static final String ERROR_SEARCH_QUERY_EMPTY = "error.search.query.empty";
+    public static final String ERROR_SEARCH_QUERY_INVALID = "error.search.query.invalid";
+    public static final String ERROR_SEARCH_SIZE_INVALID = "error.search.size.invalid";
+    public static final String ERROR_SEARCH_CURSOR_INVALID = "error.search.cursor.invalid";
+    public static final String JOB_TYPE_SEARCH_REBUILD = "SEARCH_REBUILD";
+    public static final String JOB_TYPE_SEARCH_CATCH_UP = "SEARCH_CATCH_UP";
+    public static final String JOB_TYPE_SEARCH_INDEX = "SEARCH_INDEX";
+    private static final String PHASE_BOOKS = "BOOKS";
+    private static final String PHASE_CHANGES = "CHANGES";
+    private static final String CURSOR_SEPARATOR = ":";
+    // Commit data of the index, all changes committed to the database before are indexed
+    private static final String COMMIT_INDEXED_ON = "indexedOn";
+    // Changed books read from the database at once
+    private static final int CHUNK_SIZE = 1000;
+    // Ties of the score are ordered by book id, so a page continues exactly after the last hit of the previous page
+    private static final Sort SORT = new Sort(SortField.FIELD_SCORE, new SortField(BookDocument.FIELD_BOOK_ID, SortField.Type.LONG));
+
+
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+    private final JobService jobService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Analyzer analyzer = new BookAnalyzer();
+    // Serializes the indexing of changes, a book read later from the database is indexed later
+    private final Lock lock = new ReentrantLock();
+    // Guarded by the lock
+    private long generation;
+    private Map<Long, String> categoryDescriptions = Map.of();
+    private Set<Long> pendingBookIds;
+    private Directory directory;
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+    // Books and categories to index by the next index job, guarded by the set of books
+    private final Set<Long> queuedBookIds = new HashSet<>();
+    private final Set<Long> queuedCategoryIds = new HashSet<>();
+    private boolean indexJobQueued;
+
+    @Value(value = "${application.properties.search.index-dir}")
+    private String indexDir;
+
+    @Value(value = "${application.properties.search.default-size}")
+    private int defaultSize;
+
+    @Value(value = "${application.properties.search.max-size}")
+    private int maxSize;
+
+    @Value(value = "${application.properties.search.catch-up-margin}")
+    private Duration catchUpMargin;
+
+
+    /**
+     * Opens the index in the configured directory, creates it anew if unreadable
+     *
+     * @throws IOException
+     */
+    @PostConstruct
+    void open() throws IOException {
+        directory = StringUtils.hasText(indexDir) ? FSDirectory.open(Path.of(indexDir)) : new ByteBuffersDirectory();
+        try {
+            indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        } catch (CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException e) {
+            log.warn("Search index in: {} unreadable, the index is created anew...", indexDir, e);
+            indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        }
+        searcherManager = new SearcherManager(indexWriter, null);
+        categoryDescriptions = transactionTemplate.execute(status -> readCategoryDescriptions());
+        log.info("Search index opened in: {} with books: {}...", StringUtils.hasText(indexDir) ? indexDir : "memory",
+                indexWriter.getDocStats().numDocs);
+
+        Gauge.builder("search.books", this, service -> service.indexWriter.getDocStats().numDocs)
+                .description("Number of books of the search index")
+                .register(meterRegistry);
+        Gauge.builder("search.index.size", this, BookSearchService::indexBytes)
+                .description("Size of the files of the search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Commits the pending changes and closes the index
+     *
+     * @throws IOException
+     */
+    @PreDestroy
+    void close() throws IOException {
+        IOUtils.close(searcherManager, indexWriter, directory);
+    }
+
+    /**
+     * Validates request params query and size
+     *
+     * @param query
+     * @param size
+     */
+    public void validateRequestParams(final String query, final Integer size) {
+        if (!StringUtils.hasText(query)) {
+            throw new IllegalArgumentException(ERROR_SEARCH_QUERY_EMPTY);
+        }
+
+        if (!ObjectUtils.isEmpty(size) && (size < 1 || size > maxSize)) {
+            throw new IllegalArgumentException(ERROR_SEARCH_SIZE_INVALID);
+        }
+    }
+
+    /**
+     * Searches the books matching all words of the query, ordered by relevance. The query supports the
+     * Lucene syntax, e.g. phrases "der idiot", fields author:dostojewski, boosts idiot^2 and wildcards idio*.
+     * A query with invalid syntax is searched for its words.
+     *
+     * @param query
+     * @param cursor
+     * @param size
+     * @return
+     */
+    public BookSearchPage detectBooks(String query, String cursor, Integer size) {
+        var parsedQuery = parseQuery(query);
+        var after = decodeCursor(cursor);
+        var pageSize = ObjectUtils.isEmpty(size) ? defaultSize : size;
+        try {
+            var searcher = searcherManager.acquire();
+            try {
+                // Hits with the score and book id of the cursor are the hit of the cursor itself, the last doc skips it
+                var afterHit = ObjectUtils.isEmpty(after) ? null
+                        : new FieldDoc(searcher.getIndexReader().maxDoc() - 1, after.score, after.fields);
+                var topDocs = searcher.searchAfter(afterHit, parsedQuery, pageSize + 1, SORT, true);
+                if (topDocs.scoreDocs.length == 0) {
+                    throw new NoContentException();
+                }
+
+                var storedFields = searcher.storedFields();
+                List<BookSearchHit> hits = new ArrayList<>();
+                for (int index = 0; index < Math.min(topDocs.scoreDocs.length, pageSize); index++) {
+                    var scoreDoc = topDocs.scoreDocs[index];
+                    hits.add(new BookSearchHit(BookDocument.toBookDto(storedFields.document(scoreDoc.doc)), scoreDoc.score));
+                }
+                var nextCursor = topDocs.scoreDocs.length > pageSize ? encodeCursor((FieldDoc) topDocs.scoreDocs[pageSize - 1]) : null;
+
+                return new BookSearchPage(hits, nextCursor);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IndexSearcher.TooManyClauses e) {
+            throw new IllegalArgumentException(ERROR_SEARCH_QUERY_INVALID);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Submits the rebuild of the index from the database as background job
+     *
+     * @return
+     */
+    public JobDto rebuildIndex() {
+        return jobService.submitJob(JOB_TYPE_SEARCH_REBUILD, this::rebuild);
+    }
+
+    /**
+     * Indexes the books changed since the last commit of the index after the startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            jobService.submitJob(JOB_TYPE_SEARCH_CATCH_UP, this::catchUp);
+        } catch (TaskRejectedException e) {
+            log.warn("Catch up of the search index rejected, the index is rebuilt after the next bulk change...");
+        }
+    }
+
+    /**
+     * Queues the changed books for indexing after their commit, indexes the books created by a bulk change
+     * and rebuilds the index after other bulk changes
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (!event.isBulk()) {
+            queueIndexing(event.getBookIds(), List.of());
+        } else if (ObjectUtils.isEmpty(event.getFirstBookId()) || ObjectUtils.isEmpty(event.getLastBookId())) {
+            submitRebuild();
+        } else {
+            submitIndexCreatedBooks(event.getFirstBookId(), event.getLastBookId());
+        }
+    }
+
+    /**
+     * Queues the books of the renamed categories for indexing after the commit of a changed category
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        var descriptions = readCategoryDescriptions();
+        List<Long> renamedIds;
+        lock.lock();
+        try {
+            renamedIds = categoryDescriptions.entrySet().stream()
+                    .filter(category -> descriptions.containsKey(category.getKey())
+                            && !descriptions.get(category.getKey()).equals(category.getValue()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            categoryDescriptions = descriptions;
+        } finally {
+            lock.unlock();
+        }
+
+        if (!renamedIds.isEmpty()) {
+            queueIndexing(List.of(), renamedIds);
+        }
+    }
+
+    /**
+     * Commits the changes periodically, so they are kept, if the application is not shut down gracefully
+     */
+    @Scheduled(fixedDelayString = "${application.properties.search.commit-interval}",
+            initialDelayString = "${application.properties.search.commit-interval}")
+    public void commitScheduled() {
+        try {
+            if (indexWriter.hasUncommittedChanges()) {
+                commit(LocalDateTime.now());
+            }
+        } catch (IOException e) {
+            log.error("Commit of the search index failed...", e);
+        }
+    }
+
+    /**
+     * Writes all books from the database with a new generation, then removes the books of earlier generations.
+     * Searches see the complete index during the rebuild, each book in its former or in its rebuilt version.
+     * Books changed during the rebuild are read again afterwards, the rebuild may have written an older version of them.
+     *
+     * @param job
+     */
+    protected synchronized void rebuild(Job job) {
+        var startedOn = LocalDateTime.now();
+        long rebuildGeneration;
+        lock.lock();
+        try {
+            generation = Math.max(generation + 1, System.currentTimeMillis());
+            rebuildGeneration = generation;
+            pendingBookIds = new HashSet<>();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            job.setPhase(PHASE_BOOKS);
+            transactionTemplate.executeWithoutResult(status -> {
+                var descriptions = readCategoryDescriptions();
+                lock.lock();
+                try {
+                    categoryDescriptions = descriptions;
+                } finally {
+                    lock.unlock();
+                }
+
+                try (var books = bookRepository.streamAll()) {
+                    for (var iterator = books.iterator(); iterator.hasNext(); ) {
+                        var book = iterator.next();
+                        indexWriter.updateDocument(BookDocument.idTerm(book.getBookId()), BookDocument.create(book, rebuildGeneration));
+                        job.getProcessed().incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            job.setPhase(PHASE_CHANGES);
+            lock.lock();
+            try {
+                var changedIds = pendingBookIds;
+                pendingBookIds = null;
+                indexBooks(changedIds);
+                indexWriter.deleteDocuments(LongPoint.newRangeQuery(BookDocument.FIELD_GENERATION, Long.MIN_VALUE, rebuildGeneration - 1));
+            } finally {
+                lock.unlock();
+            }
+            commit(startedOn);
+            searcherManager.maybeRefreshBlocking();
+
+            var books = indexWriter.getDocStats().numDocs;
+            job.getSucceeded().set(books);
+            log.info("Search index rebuilt with books: {}, bytes: {}...", books, indexBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.lock();
+            try {
+                pendingBookIds = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Indexes the books changed since the last commit of the index, including the margin before the commit,
+     * whose changes may have been queued only. Rebuilds the index, if it has no commit yet or its number of books differs from
+     * the database afterwards, e.g. after books were removed, while the application was down.
+     *
+     * @param job
+     */
+    protected void catchUp(Job job) {
+        var indexedOn = indexedOn();
+        if (ObjectUtils.isEmpty(indexedOn) || indexWriter.getDocStats().numDocs == 0) {
+            rebuild(job);
+            return;
+        }
+
+        var since = indexedOn.minus(catchUpMargin);
+        try {
+            var startedOn = LocalDateTime.now();
+            job.setPhase(PHASE_BOOKS);
+            indexChunks(job, lastId -> bookRepository.findChangedAfter(since, lastId, CHUNK_SIZE));
+            commit(startedOn);
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var books = indexWriter.getDocStats().numDocs;
+        var count = bookRepository.count();
+        if (books != count) {
+            log.info("Search index with books: {} differs from the database with books: {}, the index is rebuilt...", books, count);
+            rebuild(job);
+            return;
+        }
+
+        job.getSucceeded().set(job.getProcessed().get());
+        log.info("Search index caught up with changed books: {} since: {}...", job.getProcessed().get(), since);
+    }
+
+    /**
+     * Indexes the queued books and the books of the queued categories, until no more are queued.
+     * The index job is queued once, further changes are indexed by the running job.
+     *
+     * @param job
+     */
+    protected void indexQueued(Job job) {
+        var drained = false;
+        try {
+            while (true) {
+                Set<Long> bookIds;
+                Set<Long> categoryIds;
+                synchronized (queuedBookIds) {
+                    if (queuedBookIds.isEmpty() && queuedCategoryIds.isEmpty()) {
+                        indexJobQueued = false;
+                        drained = true;
+                        return;
+                    }
+                    bookIds = new HashSet<>(queuedBookIds);
+                    categoryIds = new HashSet<>(queuedCategoryIds);
+                    queuedBookIds.clear();
+                    queuedCategoryIds.clear();
+                }
+
+                for (Long categoryId : categoryIds) {
+                    indexCategory(categoryId, job);
+                }
+                indexBooks(bookIds);
+                job.getProcessed().addAndGet(bookIds.size());
+                searcherManager.maybeRefreshBlocking();
+            }
+        } catch (IOException e) {
+            log.error("Indexing of changed books failed, the index is rebuilt...", e);
+            submitRebuild();
+        } finally {
+            if (!drained) {
+                synchronized (queuedBookIds) {
+                    indexJobQueued = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes the books created by a bulk change, their ids are in the given range
+     *
+     * @param firstBookId
+     * @param lastBookId
+     * @param job
+     */
+    protected void indexCreatedBooks(long firstBookId, long lastBookId, Job job) {
+        try {
+            job.setPhase(PHASE_BOOKS);
+            indexChunks(job, lastId -> bookRepository.findRangeAfter(Math.max(lastId, firstBookId - 1), lastBookId, CHUNK_SIZE));
+            searcherManager.maybeRefreshBlocking();
+            job.getSucceeded().set(job.getProcessed().get());
+        } catch (IOException e) {
+            log.error("Indexing of created books: {} to {} failed, the index is rebuilt...", firstBookId, lastBookId, e);
+            submitRebuild();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the given books from the database and indexes them, removes the books not found
+     *
+     * @param bookIds
+     * @throws IOException
+     */
+    protected void indexBooks(Collection<Long> bookIds) throws IOException {
+        var ids = List.copyOf(new HashSet<>(bookIds));
+        lock.lock();
+        try {
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                var chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+                var removedIds = new HashSet<>(chunk);
+                for (BookView book : bookRepository.findViewsByIds(chunk.toArray(Long[]::new))) {
+                    indexBook(book);
+                    removedIds.remove(book.getBookId());
+                }
+                for (Long bookId : removedIds) {
+                    indexWriter.deleteDocuments(BookDocument.idTerm(bookId));
+                    if (pendingBookIds != null) {
+                        pendingBookIds.add(bookId);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Parses the query, searches the words of the query, if the syntax is invalid
+     *
+     * @param query
+     * @return
+     */
+    protected Query parseQuery(String query) {
+        var fields = BookDocument.SEARCHED_FIELDS.keySet().toArray(String[]::new);
+        var parser = new MultiFieldQueryParser(fields, analyzer, BookDocument.SEARCHED_FIELDS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(query.trim());
+        } catch (ParseException e) {
+            try {
+                return parser.parse(QueryParser.escape(query.trim()));
+            } catch (ParseException escapedException) {
+                throw new IllegalArgumentException(ERROR_SEARCH_QUERY_INVALID);
+            }
+        }
+    }
+
+    /**
+     * Creates the opaque cursor, pointing after the given hit
+     *
+     * @param hit
+     * @return
+     */
+    protected String encodeCursor(FieldDoc hit) {
+        var cursor = hit.fields[0] + CURSOR_SEPARATOR + hit.fields[1];
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the opaque cursor. Returns null for the first page.
+     *
+     * @param cursor
+     * @return
+     */
+    protected FieldDoc decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            var parts = decoded.split(CURSOR_SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(ERROR_SEARCH_CURSOR_INVALID);
+            }
+
+            var score = Float.parseFloat(parts[0]);
+            if (!Float.isFinite(score)) {
+                throw new IllegalArgumentException(ERROR_SEARCH_CURSOR_INVALID);
+            }
+
+            return new FieldDoc(0, score, new Object[]{score, Long.parseLong(parts[1])});
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(ERROR_SEARCH_CURSOR_INVALID);
+        }
+    }
+
+    private void queueIndexing(Collection<Long> bookIds, Collection<Long> categoryIds) {
+        synchronized (queuedBookIds) {
+            queuedBookIds.addAll(bookIds);
+            queuedCategoryIds.addAll(categoryIds);
+            if (indexJobQueued) {
+                return;
+            }
+            indexJobQueued = true;
+        }
+
+        try {
+            jobService.submitJob(JOB_TYPE_SEARCH_INDEX, this::indexQueued);
+        } catch (TaskRejectedException e) {
+            synchronized (queuedBookIds) {
+                indexJobQueued = false;
+            }
+            log.warn("Indexing of changed books rejected, the books are indexed with the next change...");
+        }
+    }
+
+    private void submitIndexCreatedBooks(long firstBookId, long lastBookId) {
+        try {
+            jobService.submitJob(JOB_TYPE_SEARCH_INDEX, job -> indexCreatedBooks(firstBookId, lastBookId, job));
+        } catch (TaskRejectedException e) {
+            log.warn("Indexing of created books rejected, the index is rebuilt...");
+            submitRebuild();
+        }
+    }
+
+    /**
+     * Reads the books chunk by chunk and indexes them. A chunk is read and indexed under the lock,
+     * so a book changed meanwhile is indexed in its later version.
+     */
+    private void indexChunks(Job job, LongFunction<List<BookView>> readChunk) throws IOException {
+        long lastId = 0;
+        List<BookView> books;
+        do {
+            lock.lock();
+            try {
+                var afterId = lastId;
+                books = transactionTemplate.execute(status -> readChunk.apply(afterId));
+                for (BookView book : books) {
+                    indexBook(book);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (!books.isEmpty()) {
+                lastId = books.get(books.size() - 1).getBookId();
+            }
+            job.getProcessed().addAndGet(books.size());
+        } while (books.size() == CHUNK_SIZE);
+    }
+
+    private void indexCategory(Long categoryId, Job job) throws IOException {
+        lock.lock();
+        try {
+            var indexed = transactionTemplate.execute(status -> {
+                try (var books = bookRepository.streamByCategoryId(categoryId)) {
+                    long count = 0;
+                    for (var iterator = books.iterator(); iterator.hasNext(); count++) {
+                        indexBook(iterator.next());
+                    }
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            job.getProcessed().addAndGet(indexed);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void commit(LocalDateTime indexedOn) throws IOException {
+        indexWriter.setLiveCommitData(Map.of(COMMIT_INDEXED_ON, indexedOn.toString()).entrySet());
+        indexWriter.commit();
+    }
+
+    private LocalDateTime indexedOn() {
+        var commitData = indexWriter.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (COMMIT_INDEXED_ON.equals(entry.getKey())) {
+                    return LocalDateTime.parse(entry.getValue());
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private void submitRebuild() {
+        try {
+            rebuildIndex();
+        } catch (TaskRejectedException e) {
+            log.warn("Rebuild of the search index rejected, the index is rebuilt after the next bulk change...");
+        }
+    }
+
+    private void indexBook(BookView book) throws IOException {
+        indexWriter.updateDocument(BookDocument.idTerm(book.getBookId()), BookDocument.create(book, generation));
+        if (pendingBookIds != null) {
+            pendingBookIds.add(book.getBookId());
+        }
+    }
+
+    private Map<Long, String> readCategoryDescriptions() {
+        return categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(CategoryDto::getCategoryId, CategoryDto::getDescription));
+    }
+
+    private long indexBytes() {
+        long bytes = 0;
+        try {
+            for (String file : directory.listAll()) {
+                try {
+                    bytes += directory.fileLength(file);
+                } catch (NoSuchFileException e) {
+                    // Removed by a merge meanwhile
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Size of the search index unknown...", e);
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,35 @@
+package de.schwarz.libraryapp.security;
+
+import de.schwarz.libraryapp.exception.RetryLaterException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Authenticates with the bounded password encoder. The upgrade of an outdated hash needs a second hash after the
+ * password matched, if the hashing queue is full by then, the upgrade waits for the next login instead of failing this one.
+ */
+@Slf4j
+public class BoundedDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    public BoundedDaoAuthenticationProvider(PasswordEncoder passwordEncoder) {
+        super(passwordEncoder);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        try {
+            return super.createSuccessAuthentication(principal, authentication, user);
+        } catch (RetryLaterException e) {
+            log.warn("Upgrade of the password hash of: {} skipped, hashing busy...", user.getUsername());
+            // The password matched already, authenticated as without upgrade
+            var result = UsernamePasswordAuthenticationToken.authenticated(principal, authentication.getCredentials(), user.getAuthorities());
+            result.setDetails(authentication.getDetails());
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package de.schwarz.libraryapp.security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt with a strength fitting the hardware. Unlike the plain encoder, a stored hash of any other strength needs
+ * an upgrade, so lowering the strength takes effect on the next login as well.
+ */
+@Slf4j
+@Getter
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int CALIBRATION_ROUNDS = 3;
+
+
+    private final int strength;
+
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Benchmarks the strengths from the minimum on and picks the strongest one hashing within the target time.
+     * Each strength doubles the time, the minimum is kept even if slower.
+     *
+     * @param targetTime
+     * @param minStrength
+     * @param maxStrength
+     * @return
+     */
+    public static CalibratedBCryptPasswordEncoder calibrate(Duration targetTime, int minStrength, int maxStrength) {
+        // Warm up, the first hashes are slowed down by the class loading and the compiler
+        new BCryptPasswordEncoder(minStrength).encode(CALIBRATION_PASSWORD);
+
+        var strength = minStrength;
+        var time = measure(strength);
+        while (strength < maxStrength && time.multipliedBy(2).compareTo(targetTime) <= 0) {
+            var next = measure(strength + 1);
+            if (next.compareTo(targetTime) > 0) {
+                break;
+            }
+            strength++;
+            time = next;
+        }
+        log.info("Password hashing calibrated to strength: {} with: {} ms, target: {} ms...", strength, time.toMillis(), targetTime.toMillis());
+
+        return new CalibratedBCryptPasswordEncoder(strength);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+
+        var matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return !matcher.matches() || Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /**
+     * @param strength
+     * @return the median time of a hash
+     */
+    private static Duration measure(int strength) {
+        var encoder = new BCryptPasswordEncoder(strength);
+        var times = new long[CALIBRATION_ROUNDS];
+        for (var i = 0; i < CALIBRATION_ROUNDS; i++) {
+            var start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+
+        return Duration.ofNanos(times[CALIBRATION_ROUNDS / 2]);
+    }
+}
@@ -1,9 +1,12 @@
 package de.schwarz.libraryapp.security;
 
 import de.schwarz.libraryapp.auth.service.UserService;
+import de.schwarz.libraryapp.cache.CacheConfig;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
@@ -12,11 +15,23 @@ import java.util.List;
 
 @RequiredArgsConstructor
 @Component
-public class CustomerAuthDetailService implements UserDetailsService {
+public class CustomerAuthDetailService implements UserDetailsService, UserDetailsPasswordService {
+
+    public static final String ROLE_USER = "USER";
+
 
     private final UserService userService;
 
 
+    /**
+     * Loads the principal of a customer, cached by the email as it is looked up. The load is synchronized with the
+     * eviction of the email, so a principal loaded before the commit of a change is not put after its eviction.
+     *
+     * @param username
+     * @return
+     * @throws UsernameNotFoundException
+     */
+    @Cacheable(cacheNames = CacheConfig.CACHE_PRINCIPALS, key = "#username.trim()", sync = true)
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         var user = userService.findByEmail(username);
@@ -24,7 +39,27 @@ public class CustomerAuthDetailService implements UserDetailsService {
                 .userId(user.getCustomerId())
                 .email(user.getEmail())
                 .password(user.getPassword())
-                .authorities(List.of(new SimpleGrantedAuthority("USER")))
+                .authorities(List.of(new SimpleGrantedAuthority(ROLE_USER)))
+                .build();
+    }
+
+    /**
+     * Stores the new hash of a customer after the login, if the stored one is of another encoder or strength
+     *
+     * @param user
+     * @param newPassword
+     * @return
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        var principal = (UserPrincipal) user;
+        userService.updatePassword(principal.getUserId(), principal.getEmail(), newPassword);
+
+        return UserPrincipal.builder()
+                .userId(principal.getUserId())
+                .email(principal.getEmail())
+                .password(newPassword)
+                .authorities(List.copyOf(principal.getAuthorities()))
                 .build();
     }
 }
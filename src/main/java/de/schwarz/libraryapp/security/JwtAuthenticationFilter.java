@@ -1,37 +1,100 @@
 package de.schwarz.libraryapp.security;
 
+import de.schwarz.libraryapp.cache.CacheConfig;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Optional;
 
-@RequiredArgsConstructor
+/**
+ * Authenticates the requests by their bearer token. The principal of a verified token is cached by the hash of
+ * the token until the token expires, so repeated requests with the same token are not verified again.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final RequestMatcher PUBLIC_REQUESTS = new OrRequestMatcher(Arrays.stream(LibraryAppSecurityConfig.PUBLIC_PATHS)
+            .map(AntPathRequestMatcher::new)
+            .toArray(RequestMatcher[]::new));
+
     private final JwtDecoder jwtDecoder;
     private final JwtToPrincipalConverter jwtToPrincipalConverter;
+    private final Cache tokenCache;
+
+
+    public JwtAuthenticationFilter(JwtDecoder jwtDecoder, JwtToPrincipalConverter jwtToPrincipalConverter, CacheManager cacheManager) {
+        this.jwtDecoder = jwtDecoder;
+        this.jwtToPrincipalConverter = jwtToPrincipalConverter;
+        this.tokenCache = cacheManager.getCache(CacheConfig.CACHE_TOKENS);
+    }
 
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return PUBLIC_REQUESTS.matches(request);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         extractTokenFromRequest(request)
-                .map(jwtDecoder::decode)
-                .map(jwtToPrincipalConverter::convert)
+                .map(this::resolvePrincipal)
                 .map(UserPrincipalAuthenticationToken::new)
                 .ifPresent(authentication -> SecurityContextHolder.getContext().setAuthentication(authentication));
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Resolves the principal of a token from the cache, verifies and caches the token on a miss
+     *
+     * @param token
+     * @return
+     */
+    private UserPrincipal resolvePrincipal(String token) {
+        var key = hash(token);
+        var verifiedToken = tokenCache.get(key, VerifiedToken.class);
+        if (verifiedToken != null) {
+            return verifiedToken.getPrincipal();
+        }
+
+        var jwt = jwtDecoder.decode(token);
+        var principal = jwtToPrincipalConverter.convert(jwt);
+        if (jwt.getExpiresAtAsInstant() != null) {
+            tokenCache.put(key, new VerifiedToken(principal, jwt.getExpiresAtAsInstant()));
+        }
+
+        return principal;
+    }
+
+    /**
+     * @param token
+     * @return the SHA-256 hash of the token, so the cache holds no usable tokens
+     */
+    private static String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private Optional<String> extractTokenFromRequest(HttpServletRequest request) {
         var token = request.getHeader("Authorization");
         if (StringUtils.hasText(token) && token.startsWith("Bearer ")) {
@@ -1,20 +1,24 @@
 package de.schwarz.libraryapp.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-@RequiredArgsConstructor
 @Component
 public class JwtDecoder {
 
-    private final JwtProperties properties;
+    // Immutable and thread safe, so built once instead of per request
+    private final JWTVerifier verifier;
+
+
+    public JwtDecoder(JwtProperties properties) {
+        this.verifier = JWT.require(Algorithm.HMAC256(properties.getSecretKey()))
+                .build();
+    }
 
     public DecodedJWT decode(String token) {
-        return JWT.require(Algorithm.HMAC256(properties.getSecretKey()))
-                .build()
-                .verify(token);
+        return verifier.verify(token);
     }
 }
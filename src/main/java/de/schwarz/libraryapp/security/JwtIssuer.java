@@ -4,17 +4,22 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.List;
 
-@RequiredArgsConstructor
 @Component
 public class JwtIssuer {
 
     private final JwtProperties properties;
+    private final Algorithm algorithm;
+
+
+    public JwtIssuer(JwtProperties properties) {
+        this.properties = properties;
+        this.algorithm = Algorithm.HMAC256(properties.getSecretKey());
+    }
 
     public String issue(Request request) {
         var now = Instant.now();
@@ -24,7 +29,7 @@ public class JwtIssuer {
                 .withExpiresAt(now.plus(properties.getTokenDuration()))
                 .withClaim("email", request.getEmail())
                 .withClaim("roles", request.getRoles())
-                .sign(Algorithm.HMAC256(properties.getSecretKey()));
+                .sign(algorithm);
     }
 
     @Getter
@@ -14,4 +14,5 @@ import java.time.Duration;
 public class JwtProperties {
     private String secretKey;
     private Duration tokenDuration;
+    private Duration refreshTokenDuration;
 }
\ No newline at end of file
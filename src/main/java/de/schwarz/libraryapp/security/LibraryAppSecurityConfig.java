@@ -1,28 +1,58 @@
 package de.schwarz.libraryapp.security;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+
+import static de.schwarz.libraryapp.security.PasswordHashingExecutorConfig.PASSWORD_HASHING_EXECUTOR;
+
 @RequiredArgsConstructor
 @EnableWebSecurity
 @Configuration
 public class LibraryAppSecurityConfig {
 
+    // Permitted without authentication, the token of these requests is not verified either
+    public static final String[] PUBLIC_PATHS = {"/actuator/health/**", "/actuator/info", "/swagger-ui/**",
+            "/v3/api-docs/**", "/auth/v1/login", "/auth/v1/refresh"};
+    public static final String PASSWORD_ENCODER_BCRYPT = "bcrypt";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CustomerAuthDetailService customerAuthDetailService;
     private final UnauthorizedHandler unauthorizedHandler;
 
+    @Value(value = "${application.properties.auth.hashing.retry-after}")
+    private Duration hashingRetryAfter;
+
+    @Value(value = "${application.properties.auth.hashing.strength}")
+    private int hashingStrength;
+
+    @Value(value = "${application.properties.auth.hashing.target-time}")
+    private Duration hashingTargetTime;
+
+    @Value(value = "${application.properties.auth.hashing.min-strength}")
+    private int hashingMinStrength;
+
+    @Value(value = "${application.properties.auth.hashing.max-strength}")
+    private int hashingMaxStrength;
+
 
     @Bean
     public SecurityFilterChain libraryAppSecurity(HttpSecurity http) throws Exception {
@@ -34,26 +64,54 @@ public class LibraryAppSecurityConfig {
         http.exceptionHandling(h -> h.authenticationEntryPoint(unauthorizedHandler));
         http.securityMatcher("/**");
         http.authorizeHttpRequests(config -> {
-            config.requestMatchers("/actuator/**").permitAll()
-                    .requestMatchers("/swagger-ui/**").permitAll()
-                    .requestMatchers("/v3/api-docs/**").permitAll()
-                    .requestMatchers("/auth/v1/login").permitAll()
+            config.requestMatchers(PUBLIC_PATHS).permitAll()
                     .anyRequest().authenticated();
         });
 
         return http.build();
     }
 
+    /**
+     * BCrypt with the configured strength, or calibrated to the target time on this hardware. The hashes are prefixed
+     * by the id of their encoder, hashes without are BCrypt hashes from before. Hashes of another encoder or strength
+     * are replaced on the next login.
+     *
+     * @param passwordHashingExecutor
+     * @param meterRegistry
+     * @return
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Qualifier(PASSWORD_HASHING_EXECUTOR) ThreadPoolTaskExecutor passwordHashingExecutor, MeterRegistry meterRegistry) {
+        var bcrypt = hashingStrength > 0
+                ? new CalibratedBCryptPasswordEncoder(hashingStrength)
+                : CalibratedBCryptPasswordEncoder.calibrate(hashingTargetTime, hashingMinStrength, hashingMaxStrength);
+        Gauge.builder("auth.hashing.strength", bcrypt, CalibratedBCryptPasswordEncoder::getStrength)
+                .description("Strength of the password hashes")
+                .register(meterRegistry);
+
+        var encoder = new DelegatingPasswordEncoder(PASSWORD_ENCODER_BCRYPT, Map.of(PASSWORD_ENCODER_BCRYPT, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(encoder, passwordHashingExecutor, hashingRetryAfter, meterRegistry);
     }
 
+    /**
+     * Authenticates the customers by their password. An outdated hash is replaced after the login, unless the hashing
+     * queue is full.
+     *
+     * @param http
+     * @param passwordEncoder
+     * @return
+     * @throws Exception
+     */
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
+        var provider = new BoundedDaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(customerAuthDetailService);
+        provider.setUserDetailsPasswordService(customerAuthDetailService);
+
         var builder = http.getSharedObject(AuthenticationManagerBuilder.class);
-        builder.userDetailsService(customerAuthDetailService)
-                .passwordEncoder(passwordEncoder());
+        builder.authenticationProvider(provider);
 
         return builder.build();
     }
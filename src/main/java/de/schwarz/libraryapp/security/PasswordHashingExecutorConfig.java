@@ -0,0 +1,36 @@
+package de.schwarz.libraryapp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PasswordHashingExecutorConfig {
+
+    public static final String PASSWORD_HASHING_EXECUTOR = "passwordHashingExecutor";
+
+    @Value(value = "${application.properties.auth.hashing.pool-size}")
+    private int poolSize;
+
+    @Value(value = "${application.properties.auth.hashing.queue-capacity}")
+    private int queueCapacity;
+
+
+    /**
+     * Executor of the password hashing, apart from the request threads. A login burst occupies at most its threads,
+     * hashes beyond the queue capacity are rejected instead of starving the other requests.
+     *
+     * @return
+     */
+    @Bean(name = PASSWORD_HASHING_EXECUTOR)
+    public ThreadPoolTaskExecutor passwordHashingExecutor() {
+        var threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("hashing-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+}
@@ -0,0 +1,40 @@
+package de.schwarz.libraryapp.security;
+
+import de.schwarz.libraryapp.cache.CacheConfig;
+import de.schwarz.libraryapp.customer.domain.event.CustomerChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * Evicts cached principals after the commit of their customer's change, so no login caches the state before the
+ * commit again.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class PrincipalCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+
+    /**
+     * Evicts the principals of the former and the current email
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        var cache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.CACHE_PRINCIPALS));
+        event.getEmails().stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .distinct()
+                .forEach(cache::evict);
+        log.debug("Principals evicted from cache: {}...", event.getEmails().size());
+    }
+}
@@ -0,0 +1,24 @@
+package de.schwarz.libraryapp.security;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Principal resolved from a verified token, valid until the token expires
+ */
+@Value
+public class VerifiedToken {
+    UserPrincipal principal;
+    Instant expiresAt;
+
+
+    /**
+     * @return the time until the token expires, zero if expired
+     */
+    public Duration timeToLive() {
+        var timeToLive = Duration.between(Instant.now(), expiresAt);
+        return timeToLive.isNegative() ? Duration.ZERO : timeToLive;
+    }
+}
@@ -0,0 +1,83 @@
+package de.schwarz.libraryapp.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+@Component
+public class JsonStreamWriter {
+
+    private static final char NEW_LINE = '\n';
+
+
+    private final ObjectMapper mapper;
+
+
+    /**
+     * Creates a response body, which writes every element of the source as a single json line (NDJSON).
+     *
+     * @param source
+     * @return
+     */
+    public <T> StreamingResponseBody ndjson(Consumer<Consumer<T>> source) {
+        return outputStream -> write(outputStream, source, false);
+    }
+
+    /**
+     * Creates a response body, which writes the elements of the source as a json array.
+     *
+     * @param source
+     * @return
+     */
+    public <T> StreamingResponseBody array(Consumer<Consumer<T>> source) {
+        return outputStream -> write(outputStream, source, true);
+    }
+
+    /**
+     * Serializes element by element directly to the output stream, so that only the current element is held on the heap.
+     * Flushing is left to the buffer of the generator and the servlet container.
+     *
+     * @param outputStream
+     * @param source
+     * @param array
+     * @throws IOException
+     */
+    protected <T> void write(OutputStream outputStream, Consumer<Consumer<T>> source, boolean array) throws IOException {
+        var writer = mapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (var generator = mapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (array) {
+                generator.writeStartArray();
+            }
+
+            source.accept(element -> {
+                try {
+                    writer.writeValue(generator, element);
+                    if (!array) {
+                        generator.writeRaw(NEW_LINE);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            if (array) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.schwarz.libraryapp.stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class StreamExecutorConfig {
+
+    public static final String STREAM_THREAD_NAME_PREFIX = "stream-";
+
+    @Value(value = "${application.properties.stream.pool-size}")
+    private int poolSize;
+
+    @Value(value = "${application.properties.stream.queue-capacity}")
+    private int queueCapacity;
+
+
+    /**
+     * Executor of the asynchronous requests, e.g. the streamed responses. Spring Boot creates its own one only
+     * without any other executor, which the job and hashing executors are, Spring MVC falls back to a new thread
+     * per request then. Streams beyond the queue capacity are rejected with 503.
+     *
+     * @return
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(STREAM_THREAD_NAME_PREFIX);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+}
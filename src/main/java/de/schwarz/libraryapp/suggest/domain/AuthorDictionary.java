@@ -0,0 +1,263 @@
+package de.schwarz.libraryapp.suggest.domain;
+
+
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionDto;
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionType;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Dictionary of the authors in a compressed radix trie, keyed by their normalized name and by each word of it,
+ * so "dostojevsky" finds "Fjodor Dostojewski" as well. The authors within k typos of a name are found by walking
+ * the trie with the rows of the Levenshtein matrix, like a Levenshtein automaton: keys sharing a prefix share its rows,
+ * and the subtree of a prefix is skipped, as soon as the prefix is more than k typos away.
+ * Not thread safe, the callers guard it.
+ */
+public final class AuthorDictionary extends RadixTrie<AuthorDictionary.Node> {
+
+    private static final int MIN_WORD_LENGTH = 4;
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[\\s.,'-]+");
+    private static final Node[] NO_CHILDREN = new Node[0];
+    // Estimated heap sizes with compressed references: node with authors map, author map entry
+    private static final long NODE_BYTES = 24 + RADIX_NODE_BYTES;
+    private static final long ENTRY_BYTES = 32 + 16;
+    private static final Comparator<Match> BEST_FIRST = Comparator.comparingInt(Match::getDistance)
+            .thenComparing(Comparator.comparingLong(Match::getBooks).reversed())
+            .thenComparing(Match::getAuthor);
+
+    private long keys;
+    private long authors;
+    private long entries;
+    private long authorChars;
+
+
+    public AuthorDictionary() {
+        super(new Node(""), NODE_BYTES);
+    }
+
+
+    /**
+     * Adds the given delta to the number of books of an author, adds the author if unknown. An author is removed,
+     * when its number of books drops to zero.
+     *
+     * @param author
+     * @param delta
+     */
+    public void add(String author, long delta) {
+        if (author == null || author.isBlank() || delta == 0) {
+            return;
+        }
+
+        var value = author.trim();
+        var name = SuggestTrie.normalize(value);
+        var nameNode = findNode(name, true, null);
+        long books = (nameNode == null || nameNode.authors == null ? 0L : nameNode.authors.getOrDefault(value, 0L)) + delta;
+        if (books == delta && delta < 0) {
+            return;
+        }
+
+        for (String key : keys(name)) {
+            if (books > 0) {
+                putAuthor(key, value, books);
+            } else {
+                removeAuthor(key, value);
+            }
+        }
+
+        if (books == delta) {
+            authors++;
+            authorChars += value.length();
+        } else if (books <= 0) {
+            authors--;
+            authorChars -= value.length();
+        }
+    }
+
+    /**
+     * Finds the authors within the given edit distance of a name, or of a word of it
+     *
+     * @param name
+     * @param maxDistance
+     * @param limit
+     * @return the authors ordered by distance, number of books descending and name
+     */
+    public List<SuggestionDto> find(String name, int maxDistance, int limit) {
+        var query = SuggestTrie.normalize(name);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        // rows[i] is the row of the first i characters of a key, no key longer than the query + k can match
+        int[][] rows = new int[query.length() + maxDistance + 1][query.length() + 1];
+        for (int column = 0; column <= query.length(); column++) {
+            rows[0][column] = column;
+        }
+        Map<String, Match> matches = new HashMap<>();
+        for (Node child : root.children) {
+            search(child, 0, rows, query, maxDistance, matches);
+        }
+
+        return matches.values().stream()
+                .sorted(BEST_FIRST)
+                .limit(limit)
+                .map(match -> new SuggestionDto(match.getAuthor(), SuggestionType.AUTHOR, match.getBooks()))
+                .toList();
+    }
+
+    /**
+     * @return the number of authors
+     */
+    public long size() {
+        return authors;
+    }
+
+    /**
+     * @return the number of keys, the names and their words
+     */
+    public long keys() {
+        return keys;
+    }
+
+    /**
+     * @return the estimated heap size in bytes
+     */
+    public long estimatedBytes() {
+        return estimatedNodeBytes() + entries * ENTRY_BYTES + authorChars;
+    }
+
+    /**
+     * Levenshtein distance of two strings
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public static int distance(String first, String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int column = 0; column <= second.length(); column++) {
+            previous[column] = column;
+        }
+        for (int row = 0; row < first.length(); row++) {
+            fillRow(previous, current, first.charAt(row), second);
+            var swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[second.length()];
+    }
+
+    /**
+     * Continues the rows of the parent prefix with the label of the node, collects the authors of the node and
+     * searches its children, unless the prefix is too far from the query.
+     */
+    private static void search(Node node, int depth, int[][] rows, String query, int maxDistance, Map<String, Match> matches) {
+        int row = depth;
+        for (int index = 0; index < node.label.length(); index++) {
+            if (row + 1 == rows.length || fillRow(rows[row], rows[row + 1], node.label.charAt(index), query) > maxDistance) {
+                return;
+            }
+            row++;
+        }
+
+        int distance = rows[row][query.length()];
+        if (node.authors != null && distance <= maxDistance) {
+            node.authors.forEach((author, books) -> matches.merge(author, new Match(author, distance, books),
+                    (known, match) -> known.getDistance() <= match.getDistance() ? known : match));
+        }
+        for (Node child : node.children) {
+            search(child, row, rows, query, maxDistance, matches);
+        }
+    }
+
+    /**
+     * Computes the next row of the Levenshtein matrix for one more character of the key
+     *
+     * @return the minimum of the row, a lower bound of the distance of all keys continuing the prefix
+     */
+    private static int fillRow(int[] previous, int[] current, char character, String query) {
+        current[0] = previous[0] + 1;
+        int min = current[0];
+        for (int column = 1; column <= query.length(); column++) {
+            int substitution = previous[column - 1] + (character == query.charAt(column - 1) ? 0 : 1);
+            current[column] = Math.min(substitution, Math.min(previous[column], current[column - 1]) + 1);
+            min = Math.min(min, current[column]);
+        }
+
+        return min;
+    }
+
+    /**
+     * @return the whole name and its words long enough to be misspelled, without duplicates
+     */
+    private static List<String> keys(String name) {
+        return Stream.concat(Stream.of(name), Arrays.stream(WORD_SEPARATORS.split(name)))
+                .filter(key -> key.equals(name) || key.length() >= MIN_WORD_LENGTH)
+                .distinct()
+                .toList();
+    }
+
+    private void putAuthor(String key, String author, long books) {
+        var node = insertNode(key, null);
+        if (node.authors == null) {
+            node.authors = new HashMap<>(2);
+            keys++;
+        }
+        if (node.authors.put(author, books) == null) {
+            entries++;
+        }
+    }
+
+    private void removeAuthor(String key, String author) {
+        List<Node> path = new ArrayList<>();
+        var node = findNode(key, true, path);
+        if (node == null || node.authors == null || node.authors.remove(author) == null) {
+            return;
+        }
+        entries--;
+        if (node.authors.isEmpty()) {
+            node.authors = null;
+            keys--;
+        }
+        compact(path);
+    }
+
+    @Override
+    protected Node newNode(String label) {
+        return new Node(label);
+    }
+
+    static final class Node extends RadixTrie.RadixNode<Node> {
+        private Map<String, Long> authors;
+
+        private Node(String label) {
+            super(label, NO_CHILDREN);
+        }
+
+        @Override
+        protected boolean hasValues() {
+            return authors != null;
+        }
+
+        @Override
+        protected void moveValues(Node child) {
+            authors = child.authors;
+        }
+    }
+
+    @Value
+    private static class Match {
+        String author;
+        int distance;
+        long books;
+    }
+}
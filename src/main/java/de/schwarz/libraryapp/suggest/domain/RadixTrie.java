@@ -0,0 +1,261 @@
+package de.schwarz.libraryapp.suggest.domain;
+
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compressed radix trie, the structure shared by the suggest trie and the author dictionary. The children of a node
+ * are ordered by the first character of their label, which no two children share. A node without values has at least
+ * two children, except the root. The subclasses keep their values in the nodes.
+ * Not thread safe, the callers guard it.
+ *
+ * @param <N> the type of the nodes
+ */
+public abstract class RadixTrie<N extends RadixTrie.RadixNode<N>> {
+
+    // Estimated heap size of a node with compressed references: label string and children array, without the values
+    protected static final long RADIX_NODE_BYTES = 40 + 20;
+
+    protected final N root;
+    private final long nodeBytes;
+    private long nodes = 1;
+    private long labelChars;
+
+
+    /**
+     * @param root      the empty root node
+     * @param nodeBytes estimated heap size of a node and its label and children, without the characters of the label
+     */
+    protected RadixTrie(N root, long nodeBytes) {
+        this.root = root;
+        this.nodeBytes = nodeBytes;
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the estimated heap size of the nodes and their labels in bytes, without the values
+     */
+    protected long estimatedNodeBytes() {
+        return nodes * nodeBytes + labelChars;
+    }
+
+    /**
+     * Creates a node of the subclass
+     *
+     * @param label
+     * @return
+     */
+    protected abstract N newNode(String label);
+
+    /**
+     * Finds the node of the given key. A node of a prefix may have a longer label, which starts with the rest of the prefix.
+     *
+     * @param key
+     * @param exact false to find the node of a prefix
+     * @param path  the nodes from the root to the node are added, if not null
+     * @return the node, null if unknown
+     */
+    protected N findNode(String key, boolean exact, List<N> path) {
+        N node = root;
+        addToPath(path, node);
+        int position = 0;
+        while (position < key.length()) {
+            int index = findChild(node, key.charAt(position));
+            if (index < 0) {
+                return null;
+            }
+
+            var child = node.children[index];
+            int common = commonPrefix(child.label, key, position);
+            if (common < child.label.length()) {
+                return !exact && position + common == key.length() ? child : null;
+            }
+
+            node = child;
+            addToPath(path, node);
+            position += common;
+        }
+
+        return node;
+    }
+
+    /**
+     * Finds the node of the given key, adds the missing nodes and splits the labels of the nodes on the way.
+     *
+     * @param key
+     * @param path the nodes from the root to the node are added, if not null
+     * @return the node
+     */
+    protected N insertNode(String key, List<N> path) {
+        N node = root;
+        addToPath(path, node);
+        int position = 0;
+        while (position < key.length()) {
+            int index = findChild(node, key.charAt(position));
+            if (index < 0) {
+                var leaf = newNode(key.substring(position));
+                insertChild(node, leaf, -(index + 1));
+                nodes++;
+                labelChars += leaf.label.length();
+                addToPath(path, leaf);
+                return leaf;
+            }
+
+            var child = node.children[index];
+            int common = commonPrefix(child.label, key, position);
+            if (common < child.label.length()) {
+                child = split(node, index, common);
+            }
+
+            node = child;
+            addToPath(path, node);
+            position += common;
+        }
+
+        return node;
+    }
+
+    /**
+     * Compacts the nodes of a path bottom up, after values were removed from its last node, and updates the nodes
+     * remaining on the path.
+     *
+     * @param path the nodes from the root to the changed node
+     */
+    protected void compact(List<N> path) {
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            compact(path.get(depth - 1), path.get(depth));
+        }
+        path.get(0).update();
+    }
+
+    /**
+     * Splits the label of a child, so the first part becomes a node of its own.
+     */
+    private N split(N parent, int index, int length) {
+        var child = parent.children[index];
+        var middle = newNode(child.label.substring(0, length));
+        child.label = child.label.substring(length);
+        middle.children = Arrays.copyOf(middle.children, 1);
+        middle.children[0] = child;
+        middle.update();
+        parent.children[index] = middle;
+        nodes++;
+
+        return middle;
+    }
+
+    /**
+     * Removes a node without values and children, merges a node without values into its single child
+     * and updates the node.
+     */
+    private void compact(N parent, N node) {
+        if (!node.hasValues() && node.children.length == 0) {
+            int index = findChild(parent, node.label.charAt(0));
+            var children = Arrays.copyOf(parent.children, parent.children.length - 1);
+            System.arraycopy(parent.children, index + 1, children, index, children.length - index);
+            parent.children = children;
+            nodes--;
+            labelChars -= node.label.length();
+            return;
+        }
+
+        if (!node.hasValues() && node.children.length == 1) {
+            var child = node.children[0];
+            node.label = node.label + child.label;
+            node.children = child.children;
+            node.moveValues(child);
+            nodes--;
+        }
+        node.update();
+    }
+
+    private static <N extends RadixNode<N>> void insertChild(N parent, N child, int index) {
+        var children = Arrays.copyOf(parent.children, parent.children.length + 1);
+        System.arraycopy(parent.children, index, children, index + 1, parent.children.length - index);
+        children[index] = child;
+        parent.children = children;
+    }
+
+    /**
+     * Binary search of the child, whose label starts with the given character.
+     *
+     * @return the index of the child, or (-(insertion point) - 1)
+     */
+    private static <N extends RadixNode<N>> int findChild(N node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char current = node.children[middle].label.charAt(0);
+            if (current < first) {
+                low = middle + 1;
+            } else if (current > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    private static int commonPrefix(String label, String key, int position) {
+        int length = Math.min(label.length(), key.length() - position);
+        int common = 0;
+        while (common < length && label.charAt(common) == key.charAt(position + common)) {
+            common++;
+        }
+
+        return common;
+    }
+
+    private static <N> void addToPath(List<N> path, N node) {
+        if (path != null) {
+            path.add(node);
+        }
+    }
+
+    /**
+     * Node of a radix trie with the values of the subclass
+     *
+     * @param <N> the type of the nodes
+     */
+    protected abstract static class RadixNode<N extends RadixNode<N>> {
+        protected String label;
+        protected N[] children;
+
+        /**
+         * @param label
+         * @param noChildren an empty array of the type of the nodes
+         */
+        protected RadixNode(String label, N[] noChildren) {
+            this.label = label;
+            this.children = noChildren;
+        }
+
+        /**
+         * @return true if the node has values, a node without values is compacted
+         */
+        protected abstract boolean hasValues();
+
+        /**
+         * Takes the values of the single child, which is merged into this node
+         *
+         * @param child
+         */
+        protected abstract void moveValues(N child);
+
+        /**
+         * Updates the values derived from the children, after they changed
+         */
+        protected void update() {
+        }
+    }
+}
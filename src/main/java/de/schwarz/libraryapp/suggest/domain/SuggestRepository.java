@@ -0,0 +1,79 @@
+package de.schwarz.libraryapp.suggest.domain;
+
+
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@RequiredArgsConstructor
+@Repository
+public class SuggestRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    @PersistenceContext
+    private EntityManager em;
+
+
+    /**
+     * Reads each distinct title with its number of books. The rows are fetched in chunks by a server side cursor,
+     * must be called in a transaction.
+     *
+     * @param consumer
+     */
+    public void readTitleCounts(ObjIntConsumer<String> consumer) {
+        readCounts("SELECT b.title, count(*) FROM library.book b GROUP BY b.title", consumer);
+    }
+
+    /**
+     * Reads each distinct author with its number of books. The rows are fetched in chunks by a server side cursor,
+     * must be called in a transaction.
+     *
+     * @param consumer
+     */
+    public void readAuthorCounts(ObjIntConsumer<String> consumer) {
+        readCounts("SELECT b.author, count(*) FROM library.book b GROUP BY b.author", consumer);
+    }
+
+    /**
+     * @param bookIds
+     * @return the searchable terms of the given books by id, missing for unknown books
+     */
+    public Map<Long, BookTerms> findTerms(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery("SELECT b.id, b.title, b.author, b.category_id FROM library.book b WHERE b.id IN (:bookIds)")
+                .setParameter("bookIds", bookIds)
+                .getResultList();
+
+        return rows.stream()
+                .collect(Collectors.toMap(row -> ((Number) row[0]).longValue(),
+                        row -> new BookTerms((String) row[1], (String) row[2], ((Number) row[3]).longValue())));
+    }
+
+    private void readCounts(String sql, ObjIntConsumer<String> consumer) {
+        @SuppressWarnings("unchecked")
+        Stream<Object[]> rows = em.createNativeQuery(sql)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+        try (rows) {
+            rows.forEach(row -> consumer.accept((String) row[0], ((Number) row[1]).intValue()));
+        }
+    }
+}
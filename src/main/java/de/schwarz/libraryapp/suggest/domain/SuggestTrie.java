@@ -0,0 +1,242 @@
+package de.schwarz.libraryapp.suggest.domain;
+
+
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionDto;
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionType;
+import lombok.Value;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Compressed radix trie of the suggested terms, keyed by their normalized value. Each node keeps the highest weight
+ * of its subtree, so the completions of a prefix are found best first, without visiting the whole subtree.
+ * Not thread safe, the callers guard it.
+ */
+public final class SuggestTrie extends RadixTrie<SuggestTrie.Node> {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("[\\u0300-\\u036f]");
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Term[] NO_TERMS = new Term[0];
+    // Estimated heap sizes with compressed references: node with terms array, term with value string
+    private static final long NODE_BYTES = 32 + 16 + RADIX_NODE_BYTES;
+    private static final long TERM_BYTES = 24 + 40 + 4;
+    // Nodes are expanded before the terms of the same weight, so terms of equal weight are completed ordered by value
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingLong(Candidate::getWeight).reversed()
+            .thenComparing(candidate -> candidate.getTerm() != null)
+            .thenComparing(candidate -> candidate.getTerm() == null ? "" : candidate.getTerm().value);
+
+    private long terms;
+    private long termChars;
+
+
+    public SuggestTrie() {
+        super(new Node(""), NODE_BYTES);
+    }
+
+
+    /**
+     * @param value
+     * @return the value in lower case, without accents and surrounding whitespace
+     */
+    public static String normalize(String value) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(value.trim(), Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds the given delta to the weight of a term, adds the term if unknown. A term is removed, when its weight
+     * drops to zero.
+     *
+     * @param type
+     * @param value
+     * @param delta
+     */
+    public void add(SuggestionType type, String value, long delta) {
+        var key = value == null ? "" : normalize(value);
+        if (key.isEmpty() || delta == 0) {
+            return;
+        }
+
+        // A negative delta must not add the nodes of an unknown term
+        List<Node> path = new ArrayList<>();
+        var node = delta < 0 ? findNode(key, true, path) : insertNode(key, path);
+        if (node == null) {
+            return;
+        }
+
+        var term = node.findTerm(type);
+        if (term == null) {
+            if (delta < 0) {
+                return;
+            }
+
+            term = new Term(type, value.trim());
+            node.terms = Arrays.copyOf(node.terms, node.terms.length + 1);
+            node.terms[node.terms.length - 1] = term;
+            terms++;
+            termChars += term.value.length();
+        }
+
+        term.weight += delta;
+        if (term.weight <= 0) {
+            node.removeTerm(term);
+            terms--;
+            termChars -= term.value.length();
+        }
+
+        compact(path);
+    }
+
+    /**
+     * @param type
+     * @param value
+     * @return the weight of the term, zero if unknown
+     */
+    public long weight(SuggestionType type, String value) {
+        var node = findNode(value == null ? "" : normalize(value), true, null);
+        var term = node == null ? null : node.findTerm(type);
+
+        return term == null ? 0 : term.weight;
+    }
+
+    /**
+     * Sets the weight of a term, removes the term for a weight of zero.
+     *
+     * @param type
+     * @param value
+     * @param weight
+     */
+    public void set(SuggestionType type, String value, long weight) {
+        add(type, value, Math.max(weight, 0) - weight(type, value));
+    }
+
+    /**
+     * Finds the completions of the given prefix with the highest weights
+     *
+     * @param prefix
+     * @param limit
+     * @return the completions ordered by weight descending
+     */
+    public List<SuggestionDto> complete(String prefix, int limit) {
+        var start = findNode(normalize(prefix), false, null);
+        if (start == null) {
+            return List.of();
+        }
+
+        List<SuggestionDto> suggestions = new ArrayList<>(limit);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(BEST_FIRST);
+        candidates.add(new Candidate(start.maxWeight, start, null));
+        while (!candidates.isEmpty() && suggestions.size() < limit) {
+            var candidate = candidates.poll();
+            if (candidate.getTerm() != null) {
+                suggestions.add(new SuggestionDto(candidate.getTerm().value, candidate.getTerm().type, candidate.getTerm().weight));
+                continue;
+            }
+
+            for (Term term : candidate.getNode().terms) {
+                candidates.add(new Candidate(term.weight, null, term));
+            }
+            for (Node child : candidate.getNode().children) {
+                candidates.add(new Candidate(child.maxWeight, child, null));
+            }
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * @return the number of terms
+     */
+    public long size() {
+        return terms;
+    }
+
+    /**
+     * @return the estimated heap size in bytes
+     */
+    public long estimatedBytes() {
+        return estimatedNodeBytes() + terms * TERM_BYTES + termChars;
+    }
+
+    @Override
+    protected Node newNode(String label) {
+        return new Node(label);
+    }
+
+    static final class Node extends RadixTrie.RadixNode<Node> {
+        private Term[] terms = NO_TERMS;
+        private long maxWeight;
+
+        private Node(String label) {
+            super(label, NO_CHILDREN);
+        }
+
+        @Override
+        protected boolean hasValues() {
+            return terms.length > 0;
+        }
+
+        @Override
+        protected void moveValues(Node child) {
+            terms = child.terms;
+        }
+
+        @Override
+        protected void update() {
+            updateMaxWeight();
+        }
+
+        private Term findTerm(SuggestionType type) {
+            for (Term term : terms) {
+                if (term.type == type) {
+                    return term;
+                }
+            }
+
+            return null;
+        }
+
+        private void removeTerm(Term term) {
+            terms = Arrays.stream(terms)
+                    .filter(current -> current != term)
+                    .toArray(Term[]::new);
+        }
+
+        private void updateMaxWeight() {
+            long max = 0;
+            for (Term term : terms) {
+                max = Math.max(max, term.weight);
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+
+    private static final class Term {
+        private final SuggestionType type;
+        private final String value;
+        private long weight;
+
+        private Term(SuggestionType type, String value) {
+            this.type = type;
+            this.value = value;
+        }
+    }
+
+    @Value
+    private static class Candidate {
+        long weight;
+        Node node;
+        Term term;
+    }
+}
@@ -0,0 +1,16 @@
+package de.schwarz.libraryapp.suggest.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SuggestionDto {
+    private String value;
+    private SuggestionType type;
+    private Long weight;
+}
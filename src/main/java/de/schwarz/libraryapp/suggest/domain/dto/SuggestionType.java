@@ -0,0 +1,7 @@
+package de.schwarz.libraryapp.suggest.domain.dto;
+
+public enum SuggestionType {
+    TITLE,
+    AUTHOR,
+    CATEGORY
+}
@@ -0,0 +1,55 @@
+package de.schwarz.libraryapp.suggest.resource;
+
+
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionDto;
+import de.schwarz.libraryapp.suggest.service.SuggestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(path = "/api", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+public class SuggestResourceV1 {
+
+    private final SuggestService suggestService;
+
+
+    @Operation(tags = "Suggest", summary = "Suggests completions of a search prefix", description = "Process gets the titles, authors and categories starting with the given prefix, ignoring case and accents, ranked by their number of books.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = SuggestionDto.class))),
+                    @ApiResponse(responseCode = "204", description = "No Content<br/><br/>* No completion of the prefix."),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Prefix is empty.<br/>* Size is invalid."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/suggest")
+    public ResponseEntity<?> detectSuggestions(@RequestParam(value = "prefix", required = false) String prefix,
+                                               @RequestParam(value = "size", required = false) Integer size) {
+        // Validate request param
+        suggestService.validateRequestParams(prefix, size);
+        // Call service
+        List<SuggestionDto> suggestions = suggestService.detectSuggestions(prefix, size);
+        log.info("Count of suggestions detected: {} for prefix: {}...", suggestions.size(), prefix);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(suggestions);
+    }
+}
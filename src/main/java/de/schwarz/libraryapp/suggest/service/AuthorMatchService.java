@@ -0,0 +1,147 @@
+package de.schwarz.libraryapp.suggest.service;
+
+
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
+import de.schwarz.libraryapp.job.domain.Job;
+import de.schwarz.libraryapp.job.service.JobService;
+import de.schwarz.libraryapp.job.service.RebuiltIndex;
+import de.schwarz.libraryapp.suggest.domain.AuthorDictionary;
+import de.schwarz.libraryapp.suggest.domain.SuggestRepository;
+import de.schwarz.libraryapp.suggest.domain.SuggestTrie;
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Typo tolerant matching of authors from an in-memory dictionary of the distinct authors. The dictionary is built from
+ * the database at startup and after bulk changes, single changes are applied to it after their commit.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class AuthorMatchService {
+
+    public static final String JOB_TYPE_AUTHOR_MATCH_REBUILD = "AUTHOR_MATCH_REBUILD";
+    // Characters of the author per allowed typo, so short names are not matched by almost any other short name
+    private static final int CHARS_PER_TYPO = 4;
+
+
+    private final SuggestRepository suggestRepository;
+    private final JobService jobService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private RebuiltIndex<AuthorDictionary> dictionary;
+
+    @Value(value = "${application.properties.suggest.author.max-distance}")
+    private int maxDistance;
+
+    @Value(value = "${application.properties.suggest.author.max-matches}")
+    private int maxMatches;
+
+
+    @PostConstruct
+    void init() {
+        dictionary = new RebuiltIndex<>(new AuthorDictionary(), transactionTemplate);
+        Gauge.builder("suggest.authors", this, service -> service.dictionary.read(AuthorDictionary::size))
+                .description("Number of authors of the author dictionary")
+                .register(meterRegistry);
+        Gauge.builder("suggest.authors.keys", this, service -> service.dictionary.read(AuthorDictionary::keys))
+                .description("Number of keys of the author dictionary, the names and their words")
+                .register(meterRegistry);
+        Gauge.builder("suggest.authors.memory", this, service -> service.dictionary.read(AuthorDictionary::estimatedBytes))
+                .description("Estimated heap size of the author dictionary")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Detects the authors within a few typos of the given author, one typo per four characters up to the configured
+     * max distance. The author itself is included, if known.
+     *
+     * @param author
+     * @return the authors ordered by distance and number of books descending, empty if none matches
+     */
+    public List<SuggestionDto> detectAuthorMatches(String author) {
+        var distance = Math.min(maxDistance, (SuggestTrie.normalize(author).length() + 1) / CHARS_PER_TYPO);
+        return dictionary.read(authorDictionary -> authorDictionary.find(author, distance, maxMatches));
+    }
+
+    /**
+     * Builds the dictionary after the startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        submitRebuild();
+    }
+
+    /**
+     * Applies the authors of the changed books after their commit, rebuilds the dictionary after a bulk change
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isBulk()) {
+            submitRebuild();
+            return;
+        }
+
+        dictionary.applyBookChanges(event.getChanges(), (authorDictionary, change) -> {
+            applyAuthor(authorDictionary, change.getBefore(), -1);
+            applyAuthor(authorDictionary, change.getAfter(), 1);
+        });
+    }
+
+    /**
+     * Submits the rebuild of the dictionary as background job
+     */
+    public void submitRebuild() {
+        try {
+            jobService.submitJob(JOB_TYPE_AUTHOR_MATCH_REBUILD, this::rebuild);
+        } catch (TaskRejectedException e) {
+            log.warn("Rebuild of author matches rejected, the authors are rebuilt after the next bulk change...");
+        }
+    }
+
+    /**
+     * Builds a new dictionary from one snapshot of the database and swaps it. Changes committed during the build are
+     * applied to the new dictionary as well, before it is swapped. Book changes seen by the snapshot already are skipped,
+     * so their authors are not counted twice.
+     *
+     * @param job
+     */
+    protected void rebuild(Job job) {
+        var rebuilt = dictionary.rebuild(() -> {
+            var authorDictionary = new AuthorDictionary();
+            suggestRepository.readAuthorCounts((author, count) -> {
+                authorDictionary.add(author, count);
+                job.getProcessed().incrementAndGet();
+            });
+
+            return authorDictionary;
+        }, suggestRepository::findTerms, () -> {
+        });
+        job.getSucceeded().set(rebuilt.size());
+        log.info("Author matches rebuilt with authors: {}, keys: {}, estimated bytes: {}...", rebuilt.size(),
+                rebuilt.keys(), rebuilt.estimatedBytes());
+    }
+
+    private static void applyAuthor(AuthorDictionary authorDictionary, BookTerms terms, long delta) {
+        if (terms != null) {
+            authorDictionary.add(terms.getAuthor(), delta);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package de.schwarz.libraryapp.suggest.service;
+
+
+import de.schwarz.libraryapp.book.domain.event.BookChange;
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
+import de.schwarz.libraryapp.category.domain.CategoryRepository;
+import de.schwarz.libraryapp.category.domain.dto.CategoryDto;
+import de.schwarz.libraryapp.category.domain.event.CategoryChangedEvent;
+import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.job.domain.Job;
+import de.schwarz.libraryapp.job.service.JobService;
+import de.schwarz.libraryapp.job.service.RebuiltIndex;
+import de.schwarz.libraryapp.suggest.domain.SuggestRepository;
+import de.schwarz.libraryapp.suggest.domain.SuggestTrie;
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionDto;
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Type-ahead suggestions of titles, authors and categories from an in-memory trie. The trie is built from the database
+ * at startup and after bulk changes, single changes are applied to it after their commit. A term is weighted by
+ * its number of books, a category counts itself as well, so categories without books are suggested too.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class SuggestService {
+
+    public static final String ERROR_SUGGEST_PREFIX_EMPTY = "error.suggest.prefix.empty";
+    public static final String ERROR_SUGGEST_SIZE_INVALID = "error.suggest.size.invalid";
+    public static final String JOB_TYPE_SUGGEST_REBUILD = "SUGGEST_REBUILD";
+    private static final String PHASE_TITLES = "TITLES";
+    private static final String PHASE_AUTHORS = "AUTHORS";
+    private static final String PHASE_CATEGORIES = "CATEGORIES";
+
+
+    private final SuggestRepository suggestRepository;
+    private final CategoryRepository categoryRepository;
+    private final JobService jobService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private RebuiltIndex<SuggestTrie> trie;
+    // Guarded by the lock of the trie
+    private Map<Long, String> categoryDescriptions = Map.of();
+
+    @Value(value = "${application.properties.suggest.default-size}")
+    private int defaultSize;
+
+    @Value(value = "${application.properties.suggest.max-size}")
+    private int maxSize;
+
+
+    @PostConstruct
+    void init() {
+        trie = new RebuiltIndex<>(new SuggestTrie(), transactionTemplate);
+        Gauge.builder("suggest.terms", this, service -> service.trie.read(SuggestTrie::size))
+                .description("Number of suggested terms")
+                .register(meterRegistry);
+        Gauge.builder("suggest.nodes", this, service -> service.trie.read(SuggestTrie::nodes))
+                .description("Number of nodes of the suggest trie")
+                .register(meterRegistry);
+        Gauge.builder("suggest.memory", this, service -> service.trie.read(SuggestTrie::estimatedBytes))
+                .description("Estimated heap size of the suggest trie")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validates request params prefix and size
+     *
+     * @param prefix
+     * @param size
+     */
+    public void validateRequestParams(final String prefix, final Integer size) {
+        if (!StringUtils.hasText(prefix)) {
+            throw new IllegalArgumentException(ERROR_SUGGEST_PREFIX_EMPTY);
+        }
+
+        if (!ObjectUtils.isEmpty(size) && (size < 1 || size > maxSize)) {
+            throw new IllegalArgumentException(ERROR_SUGGEST_SIZE_INVALID);
+        }
+    }
+
+    /**
+     * Detects the completions of the given prefix with the highest weights
+     *
+     * @param prefix
+     * @param size
+     * @return
+     */
+    public List<SuggestionDto> detectSuggestions(String prefix, Integer size) {
+        var suggestions = trie.read(suggestTrie -> suggestTrie.complete(prefix, ObjectUtils.isEmpty(size) ? defaultSize : size));
+        if (suggestions.isEmpty()) {
+            throw new NoContentException();
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * Builds the trie after the startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        submitRebuild();
+    }
+
+    /**
+     * Applies the changed books after their commit, rebuilds the trie after a bulk change
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isBulk()) {
+            submitRebuild();
+            return;
+        }
+
+        trie.applyBookChanges(event.getChanges(), this::applyBookChange);
+    }
+
+    /**
+     * Synchronizes the categories after the commit of a changed category
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        var categories = categoryRepository.findAll();
+        trie.apply(suggestTrie -> categoryDescriptions = applyCategories(suggestTrie, categories, categoryDescriptions));
+    }
+
+    /**
+     * Submits the rebuild of the trie as background job
+     */
+    public void submitRebuild() {
+        try {
+            jobService.submitJob(JOB_TYPE_SUGGEST_REBUILD, this::rebuild);
+        } catch (TaskRejectedException e) {
+            log.warn("Rebuild of suggestions rejected, the suggestions are rebuilt after the next bulk change...");
+        }
+    }
+
+    /**
+     * Builds a new trie from one snapshot of the database and swaps it. Changes committed during the build are applied
+     * to the new trie as well, before it is swapped. Book changes seen by the snapshot already are skipped, so their
+     * weights are not counted twice.
+     *
+     * @param job
+     */
+    protected void rebuild(Job job) {
+        Map<Long, String> descriptions = new HashMap<>();
+        var rebuilt = trie.rebuild(() -> {
+            var suggestTrie = new SuggestTrie();
+            job.setPhase(PHASE_TITLES);
+            suggestRepository.readTitleCounts((title, count) -> {
+                suggestTrie.add(SuggestionType.TITLE, title, count);
+                job.getProcessed().incrementAndGet();
+            });
+            job.setPhase(PHASE_AUTHORS);
+            suggestRepository.readAuthorCounts((author, count) -> {
+                suggestTrie.add(SuggestionType.AUTHOR, author, count);
+                job.getProcessed().incrementAndGet();
+            });
+            job.setPhase(PHASE_CATEGORIES);
+            descriptions.putAll(applyCategories(suggestTrie, categoryRepository.findAll(), Map.of()));
+
+            return suggestTrie;
+        }, suggestRepository::findTerms, () -> categoryDescriptions = Map.copyOf(descriptions));
+        job.getSucceeded().set(rebuilt.size());
+        log.info("Suggestions rebuilt with terms: {}, nodes: {}, estimated bytes: {}...", rebuilt.size(),
+                rebuilt.nodes(), rebuilt.estimatedBytes());
+    }
+
+    private void applyBookChange(SuggestTrie suggestTrie, BookChange change) {
+        applyBookTerms(suggestTrie, change.getBefore(), -1);
+        applyBookTerms(suggestTrie, change.getAfter(), 1);
+    }
+
+    private void applyBookTerms(SuggestTrie suggestTrie, BookTerms terms, long delta) {
+        if (terms == null) {
+            return;
+        }
+
+        suggestTrie.add(SuggestionType.TITLE, terms.getTitle(), delta);
+        suggestTrie.add(SuggestionType.AUTHOR, terms.getAuthor(), delta);
+        suggestTrie.add(SuggestionType.CATEGORY, categoryDescriptions.get(terms.getCategoryId()), delta);
+    }
+
+    /**
+     * Sets the weights of the given categories, removes the previous categories removed or renamed since.
+     *
+     * @return the descriptions of the given categories by id
+     */
+    private Map<Long, String> applyCategories(SuggestTrie suggestTrie, List<CategoryDto> categories, Map<Long, String> previousDescriptions) {
+        var descriptions = categories.stream()
+                .collect(Collectors.toMap(CategoryDto::getCategoryId, CategoryDto::getDescription));
+        previousDescriptions.forEach((categoryId, description) -> {
+            if (!description.equals(descriptions.get(categoryId))) {
+                suggestTrie.set(SuggestionType.CATEGORY, description, 0);
+            }
+        });
+        categories.forEach(category -> suggestTrie.set(SuggestionType.CATEGORY, category.getDescription(),
+                category.getBooksCount() + 1));
+
+        return descriptions;
+    }
+}
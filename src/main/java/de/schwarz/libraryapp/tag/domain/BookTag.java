@@ -0,0 +1,12 @@
+package de.schwarz.libraryapp.tag.domain;
+
+import lombok.Value;
+
+/**
+ * A tag of a book
+ */
+@Value
+public class BookTag {
+    long bookId;
+    long tagId;
+}
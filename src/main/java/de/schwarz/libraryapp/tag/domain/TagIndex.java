@@ -0,0 +1,242 @@
+package de.schwarz.libraryapp.tag.domain;
+
+
+import de.schwarz.libraryapp.tag.domain.dto.TagDto;
+import de.schwarz.libraryapp.tag.domain.dto.TagFilter;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.util.ObjectUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory index of the tagged books, one compressed bitmap of book ids per tag. Tag filters are evaluated by
+ * intersection, union and difference of the bitmaps, without reading the database.
+ * Not thread safe, the callers guard it.
+ */
+public final class TagIndex {
+
+    private static final Roaring64NavigableMap EMPTY = new Roaring64NavigableMap();
+    // Windows of book ids evaluated at once, 4 and 1024 bitmap containers of 65536 ids
+    private static final long FIRST_WINDOW = 1L << 18;
+    private static final long MAX_WINDOW = 1L << 26;
+
+    private final Map<Long, Roaring64NavigableMap> booksByTag = new HashMap<>();
+    private final Map<String, Long> tagIds = new HashMap<>();
+    private final Map<Long, String> tagNames = new HashMap<>();
+
+
+    /**
+     * @param name
+     * @return the name trimmed and in lower case
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds a tag without books, keeps the books of a known tag.
+     *
+     * @param tagId
+     * @param name
+     */
+    public void putTag(long tagId, String name) {
+        tagIds.put(normalize(name), tagId);
+        tagNames.put(tagId, normalize(name));
+        booksByTag.computeIfAbsent(tagId, id -> new Roaring64NavigableMap());
+    }
+
+    /**
+     * @param tagId
+     */
+    public void removeTag(long tagId) {
+        var name = tagNames.remove(tagId);
+        if (name != null) {
+            tagIds.remove(name);
+        }
+        booksByTag.remove(tagId);
+    }
+
+    /**
+     * Adds a book to a tag, ignored for an unknown tag.
+     *
+     * @param bookTag
+     */
+    public void add(BookTag bookTag) {
+        var books = booksByTag.get(bookTag.getTagId());
+        if (books != null) {
+            books.addLong(bookTag.getBookId());
+        }
+    }
+
+    /**
+     * @param bookTag
+     */
+    public void remove(BookTag bookTag) {
+        var books = booksByTag.get(bookTag.getTagId());
+        if (books != null) {
+            books.removeLong(bookTag.getBookId());
+        }
+    }
+
+    /**
+     * Removes a book from all tags
+     *
+     * @param bookId
+     */
+    public void removeBook(long bookId) {
+        booksByTag.values().forEach(books -> books.removeLong(bookId));
+    }
+
+    /**
+     * Compresses runs of consecutive book ids, after loading many books.
+     */
+    public void optimize() {
+        booksByTag.values().forEach(Roaring64NavigableMap::runOptimize);
+    }
+
+    /**
+     * @return all tags ordered by name, with their number of books
+     */
+    public List<TagDto> findAll() {
+        return tagNames.entrySet().stream()
+                .map(tag -> new TagDto(tag.getKey(), tag.getValue(), booksByTag.get(tag.getKey()).getLongCardinality()))
+                .sorted(Comparator.comparing(TagDto::getName))
+                .toList();
+    }
+
+    /**
+     * Finds the ids of the books matching a tag filter after the given id. The filter is evaluated window by window
+     * of ascending book ids, each window twice as large as the one before, until the page is full. So the bitmap
+     * operations of a page are bounded by the windows it spans, not by the size of the bitmaps. Unknown tags match
+     * no books.
+     *
+     * @param filter
+     * @param afterId
+     * @param limit
+     * @return the ids ordered ascending
+     */
+    public List<Long> find(TagFilter filter, long afterId, int limit) {
+        var required = bitmaps(filter.getAll());
+        required.sort(Comparator.comparingLong(Roaring64NavigableMap::getLongCardinality));
+        var optional = bitmaps(filter.getAny());
+        var excluded = bitmaps(filter.getNone());
+        List<Long> bookIds = new ArrayList<>(limit);
+        long lastId = lastId(required, optional);
+        long from = afterId + 1;
+        long span = FIRST_WINDOW;
+        while (bookIds.size() < limit && from > afterId && from <= lastId) {
+            long to = lastId - from < span ? lastId + 1 : from + span;
+            var iterator = evaluate(required, optional, excluded, from, to).getLongIterator();
+            while (iterator.hasNext() && bookIds.size() < limit) {
+                bookIds.add(iterator.next());
+            }
+            from = to;
+            span = Math.min(span * 2, MAX_WINDOW);
+        }
+
+        return bookIds;
+    }
+
+    /**
+     * Evaluates the filter within the window [from, to). The intersection starts with the smallest bitmap,
+     * so each further step is bounded by the result so far.
+     */
+    private static Roaring64NavigableMap evaluate(List<Roaring64NavigableMap> required, List<Roaring64NavigableMap> optional,
+                                            List<Roaring64NavigableMap> excluded, long from, long to) {
+        var result = window(from, to);
+        for (Roaring64NavigableMap books : required) {
+            result.and(books);
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+
+        if (!optional.isEmpty()) {
+            var union = new Roaring64NavigableMap();
+            for (Roaring64NavigableMap books : optional) {
+                var part = window(from, to);
+                part.and(books);
+                union.or(part);
+            }
+            result.and(union);
+        }
+
+        for (Roaring64NavigableMap books : excluded) {
+            result.andNot(books);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the highest id, which can match: the lowest last id of the required tags, else the highest last id
+     * of the optional tags
+     */
+    private static long lastId(List<Roaring64NavigableMap> required, List<Roaring64NavigableMap> optional) {
+        if (!required.isEmpty()) {
+            return required.stream()
+                    .mapToLong(books -> books.isEmpty() ? Long.MIN_VALUE : books.last())
+                    .min()
+                    .getAsLong();
+        }
+
+        return optional.stream()
+                .filter(books -> !books.isEmpty())
+                .mapToLong(Roaring64NavigableMap::last)
+                .max()
+                .orElse(Long.MIN_VALUE);
+    }
+
+    private static Roaring64NavigableMap window(long from, long to) {
+        var window = new Roaring64NavigableMap();
+        window.addRange(from, to);
+
+        return window;
+    }
+
+    /**
+     * @return the number of tags
+     */
+    public long size() {
+        return booksByTag.size();
+    }
+
+    /**
+     * @return the number of tagged books summed over all tags
+     */
+    public long entries() {
+        return booksByTag.values().stream()
+                .mapToLong(Roaring64NavigableMap::getLongCardinality)
+                .sum();
+    }
+
+    /**
+     * @return the heap size of the bitmaps in bytes
+     */
+    public long estimatedBytes() {
+        return booksByTag.values().stream()
+                .mapToLong(Roaring64NavigableMap::getLongSizeInBytes)
+                .sum();
+    }
+
+    private List<Roaring64NavigableMap> bitmaps(Collection<String> names) {
+        if (ObjectUtils.isEmpty(names)) {
+            return new ArrayList<>();
+        }
+
+        List<Roaring64NavigableMap> bitmaps = new ArrayList<>(names.size());
+        for (String name : names) {
+            var tagId = tagIds.get(normalize(name));
+            var books = tagId == null ? null : booksByTag.get(tagId);
+            bitmaps.add(books == null ? EMPTY : books);
+        }
+
+        return bitmaps;
+    }
+}
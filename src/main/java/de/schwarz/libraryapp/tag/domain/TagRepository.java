@@ -0,0 +1,158 @@
+package de.schwarz.libraryapp.tag.domain;
+
+
+import de.schwarz.libraryapp.tag.domain.dto.TagDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.TypedParameterValue;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Slf4j
+@RequiredArgsConstructor
+@Repository
+public class TagRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    @PersistenceContext
+    private EntityManager em;
+
+
+    /**
+     * @return all tags without their number of books
+     */
+    public List<TagDto> findAll() {
+        String sql = "SELECT t.id, t.name FROM library.tag t ORDER BY t.id";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = em.createNativeQuery(sql)
+                .getResultList();
+
+        return result.stream()
+                .map(obj -> new TagDto(((Number) obj[0]).longValue(), (String) obj[1], null))
+                .toList();
+    }
+
+    /**
+     * Creates the unknown tags of the given names
+     *
+     * @param names normalized names
+     * @return the number of created tags
+     */
+    public int createMissing(Collection<String> names) {
+        String sql = "INSERT INTO library.tag(name) "
+                + "SELECT DISTINCT n.name FROM unnest(CAST(:names AS VARCHAR[])) n(name) "
+                + "ORDER BY n.name "
+                + "ON CONFLICT (name) DO NOTHING";
+
+        return em.createNativeQuery(sql)
+                .setParameter("names", names.toArray(String[]::new))
+                .executeUpdate();
+    }
+
+    /**
+     * @param names normalized names
+     * @return the tags of the given names
+     */
+    public List<TagDto> findByNames(Collection<String> names) {
+        String sql = "SELECT t.id, t.name FROM library.tag t "
+                + "WHERE t.name = ANY(CAST(:names AS VARCHAR[]))";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = em.createNativeQuery(sql)
+                .setParameter("names", names.toArray(String[]::new))
+                .getResultList();
+
+        return result.stream()
+                .map(obj -> new TagDto(((Number) obj[0]).longValue(), (String) obj[1], null))
+                .toList();
+    }
+
+    /**
+     * Assigns the given tags to the existing books of the given ids with one statement. Unknown books are skipped.
+     *
+     * @param bookIds
+     * @param tagIds
+     * @return the added tags of the books, without the tags the books had before
+     */
+    public List<BookTag> addBookTags(Collection<Long> bookIds, Collection<Long> tagIds) {
+        String sql = "INSERT INTO library.book_tag(book_id, tag_id) "
+                + "SELECT b.id, t.id FROM library.book b CROSS JOIN library.tag t "
+                + "WHERE b.id = ANY(CAST(:bookIds AS INT8[])) AND t.id = ANY(CAST(:tagIds AS INT8[])) "
+                + "ORDER BY b.id, t.id "
+                + "ON CONFLICT (book_id, tag_id) DO NOTHING "
+                + "RETURNING book_id, tag_id";
+
+        return executeBookTags(sql, bookIds, tagIds);
+    }
+
+    /**
+     * Removes the given tags from the books of the given ids with one statement
+     *
+     * @param bookIds
+     * @param tagIds
+     * @return the removed tags of the books
+     */
+    public List<BookTag> removeBookTags(Collection<Long> bookIds, Collection<Long> tagIds) {
+        String sql = "DELETE FROM library.book_tag bt "
+                + "WHERE bt.book_id = ANY(CAST(:bookIds AS INT8[])) AND bt.tag_id = ANY(CAST(:tagIds AS INT8[])) "
+                + "RETURNING bt.book_id, bt.tag_id";
+
+        return executeBookTags(sql, bookIds, tagIds);
+    }
+
+    /**
+     * Reads all tags of all books ordered by tag and book id. The rows are fetched in chunks by a server side cursor,
+     * must be called in a transaction.
+     *
+     * @param consumer
+     */
+    public void readBookTags(Consumer<BookTag> consumer) {
+        String sql = "SELECT bt.book_id, bt.tag_id FROM library.book_tag bt ORDER BY bt.tag_id, bt.book_id";
+
+        @SuppressWarnings("unchecked")
+        Stream<Object[]> rows = em.createNativeQuery(sql)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+        try (rows) {
+            rows.forEach(row -> consumer.accept(new BookTag(((Number) row[0]).longValue(), ((Number) row[1]).longValue())));
+        }
+    }
+
+    /**
+     * Removes a tag, the tags of the books are removed by the database
+     *
+     * @param tagId
+     * @return
+     */
+    public int deleteById(Long tagId) {
+        String sql = "DELETE FROM library.tag t "
+                + "WHERE t.id = :tagId";
+
+        return em.createNativeQuery(sql)
+                .setParameter("tagId", new TypedParameterValue<>(StandardBasicTypes.LONG, tagId))
+                .executeUpdate();
+    }
+
+    private List<BookTag> executeBookTags(String sql, Collection<Long> bookIds, Collection<Long> tagIds) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> result = em.createNativeQuery(sql)
+                .setParameter("bookIds", bookIds.toArray(Long[]::new))
+                .setParameter("tagIds", tagIds.toArray(Long[]::new))
+                .getResultList();
+
+        return result.stream()
+                .map(obj -> new BookTag(((Number) obj[0]).longValue(), ((Number) obj[1]).longValue()))
+                .toList();
+    }
+}
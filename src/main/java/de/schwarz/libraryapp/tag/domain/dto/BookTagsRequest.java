@@ -0,0 +1,13 @@
+package de.schwarz.libraryapp.tag.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookTagsRequest {
+    private List<Long> bookIds;
+    private List<String> tags;
+}
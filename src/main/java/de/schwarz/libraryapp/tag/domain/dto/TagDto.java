@@ -0,0 +1,16 @@
+package de.schwarz.libraryapp.tag.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TagDto {
+    private Long tagId;
+    private String name;
+    private Long booksCount;
+}
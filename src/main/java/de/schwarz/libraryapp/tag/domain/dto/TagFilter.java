@@ -0,0 +1,22 @@
+package de.schwarz.libraryapp.tag.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Tag expression of a book search: books with all tags of all, at least one tag of any and none of the tags of none.
+ * Missing lists do not restrict the books, at least one of all and any must be given.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TagFilter {
+    private List<String> all;
+    private List<String> any;
+    private List<String> none;
+}
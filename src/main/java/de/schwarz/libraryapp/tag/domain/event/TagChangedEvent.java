@@ -0,0 +1,48 @@
+package de.schwarz.libraryapp.tag.domain.event;
+
+import de.schwarz.libraryapp.tag.domain.BookTag;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published when tags are created or removed, or assigned to or removed from books. Listeners react after the commit.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class TagChangedEvent {
+    private final Map<Long, String> tags;
+    private final Collection<Long> removedTagIds;
+    private final Collection<BookTag> addedBookTags;
+    private final Collection<BookTag> removedBookTags;
+
+
+    /**
+     * @param tags          names of the assigned tags by id, including the tags created for the assignment
+     * @param addedBookTags
+     * @return
+     */
+    public static TagChangedEvent assigned(Map<Long, String> tags, Collection<BookTag> addedBookTags) {
+        return new TagChangedEvent(tags, List.of(), addedBookTags, List.of());
+    }
+
+    /**
+     * @param removedBookTags
+     * @return
+     */
+    public static TagChangedEvent unassigned(Collection<BookTag> removedBookTags) {
+        return new TagChangedEvent(Map.of(), List.of(), List.of(), removedBookTags);
+    }
+
+    /**
+     * @param tagId
+     * @return
+     */
+    public static TagChangedEvent removed(Long tagId) {
+        return new TagChangedEvent(Map.of(), List.of(tagId), List.of(), List.of());
+    }
+}
@@ -0,0 +1,114 @@
+package de.schwarz.libraryapp.tag.resource;
+
+
+import de.schwarz.libraryapp.tag.domain.dto.BookTagsRequest;
+import de.schwarz.libraryapp.tag.domain.dto.TagDto;
+import de.schwarz.libraryapp.tag.service.TagService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(path = "/api", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+public class TagResourceV1 {
+
+    private final TagService tagService;
+
+
+    @Operation(tags = "Get all tags", summary = "Getting all tags from library", description = "Process gets all tags with their number of books, ordered by name.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = TagDto.class))),
+                    @ApiResponse(responseCode = "204", description = "No Content"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @GetMapping("/v1/tags")
+    public ResponseEntity<?> detectAllTags() {
+        // Call service
+        List<TagDto> tags = tagService.detectAllTags();
+        log.info("Count of tags detected: {}...", tags.size());
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(tags);
+    }
+
+    @Operation(tags = "Add book tags", summary = "Assigns tags to books in the online library", description = "Process assigns all given tags to all given books with one statement. "
+            + "Unknown tags are created, unknown books are skipped. The response is the number of added tags of the books.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = Integer.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Request is empty.<br/>* Book ids are empty or too many.<br/>* Tags are empty or invalid."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @PostMapping("/v1/books/tags")
+    public ResponseEntity<?> addBookTags(@RequestBody(required = false) BookTagsRequest request) {
+        // Validate request param
+        tagService.validateRequestParams(request);
+        // Call service
+        var added = tagService.addBookTags(request);
+        log.info("Count of book tags added: {}...", added);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(added);
+    }
+
+    @Operation(tags = "Remove book tags", summary = "Removes tags from books in the online library", description = "Process removes all given tags from all given books with one statement, the tags remain. "
+            + "The response is the number of removed tags of the books.",
+            responses = {
+                    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = Integer.class))),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Request is empty.<br/>* Book ids are empty or too many.<br/>* Tags are empty or invalid."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @DeleteMapping("/v1/books/tags")
+    public ResponseEntity<?> removeBookTags(@RequestBody(required = false) BookTagsRequest request) {
+        // Validate request param
+        tagService.validateRequestParams(request);
+        // Call service
+        var removed = tagService.removeBookTags(request);
+        log.info("Count of book tags removed: {}...", removed);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .body(removed);
+    }
+
+    @Operation(tags = "Remove tag", summary = "Removes a tag from the online library", description = "Process removes a tag from all books and from the library database, by the given tag id.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "OK"),
+                    @ApiResponse(responseCode = "400", content = @Content(schema = @Schema(implementation = HttpClientErrorException.BadRequest.class)), description = "Bad Request<br/><br/>* Tag id is empty."),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal error")})
+    @SecurityRequirement(name = "http_secure")
+    @DeleteMapping("/v1/tag/id")
+    public ResponseEntity<?> removeTag(@RequestParam(value = "tagId", required = false) Long tagId) {
+        // Validate request param
+        tagService.validateRequestParamTagId(tagId);
+        // Call service
+        var tagRemoved = tagService.removeTag(tagId);
+        log.info("Tag removed: {}...", tagRemoved > 0);
+        // Prepare and return response
+        return ResponseEntity
+                .ok()
+                .build();
+    }
+}
@@ -0,0 +1,369 @@
+package de.schwarz.libraryapp.tag.service;
+
+
+import de.schwarz.libraryapp.book.domain.event.BookChange;
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.job.domain.Job;
+import de.schwarz.libraryapp.job.service.JobService;
+import de.schwarz.libraryapp.job.service.RebuiltIndex;
+import de.schwarz.libraryapp.tag.domain.BookTag;
+import de.schwarz.libraryapp.tag.domain.TagIndex;
+import de.schwarz.libraryapp.tag.domain.TagRepository;
+import de.schwarz.libraryapp.tag.domain.dto.BookTagsRequest;
+import de.schwarz.libraryapp.tag.domain.dto.TagDto;
+import de.schwarz.libraryapp.tag.domain.dto.TagFilter;
+import de.schwarz.libraryapp.tag.domain.event.TagChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Tags of the books, evaluated from an in-memory index of one bitmap of book ids per tag. The index is built from the
+ * database at startup, the changes of tags and books are applied to it after their commit.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class TagService {
+
+    public static final String ERROR_TAGS_SAVE = "error.tags.save";
+    public static final String ERROR_TAGS_ID = "error.tags.id";
+    public static final String ERROR_TAG_ID_EMPTY = "error.tag.id.empty";
+    public static final String ERROR_TAG_REQUEST_EMPTY = "error.tag.request.empty";
+    public static final String ERROR_TAG_REQUEST_BOOK_IDS_EMPTY = "error.tag.request.book_ids.empty";
+    public static final String ERROR_TAG_REQUEST_BOOK_IDS_SIZE_INVALID = "error.tag.request.book_ids.size.invalid";
+    public static final String ERROR_TAG_REQUEST_TAGS_EMPTY = "error.tag.request.tags.empty";
+    public static final String ERROR_TAG_NAME_INVALID = "error.tag.name.invalid";
+    public static final String ERROR_TAG_FILTER_EMPTY = "error.tag.filter.empty";
+    public static final String ERROR_TAG_FILTER_SIZE_INVALID = "error.tag.filter.size.invalid";
+    public static final String JOB_TYPE_TAG_INDEX_REBUILD = "TAG_INDEX_REBUILD";
+    private static final int MAX_NAME_LENGTH = 50;
+
+
+    private final TagRepository tagRepository;
+    private final JobService jobService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private RebuiltIndex<TagIndex> index;
+    // Set while the last rebuild was rejected or failed, the index may be empty
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    @Value(value = "${application.properties.tag.max-books}")
+    private int maxBooks;
+
+    @Value(value = "${application.properties.tag.max-filter-tags}")
+    private int maxFilterTags;
+
+
+    @PostConstruct
+    void init() {
+        index = new RebuiltIndex<>(new TagIndex(), transactionTemplate);
+        Gauge.builder("tag.index.tags", this, service -> service.index.read(TagIndex::size))
+                .description("Number of indexed tags")
+                .register(meterRegistry);
+        Gauge.builder("tag.index.entries", this, service -> service.index.read(TagIndex::entries))
+                .description("Number of tagged books summed over all tags")
+                .register(meterRegistry);
+        Gauge.builder("tag.index.memory", this, service -> service.index.read(TagIndex::estimatedBytes))
+                .description("Heap size of the tag bitmaps")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validates request param tag id
+     *
+     * @param tagId
+     */
+    public void validateRequestParamTagId(Long tagId) {
+        if (ObjectUtils.isEmpty(tagId)) {
+            throw new IllegalArgumentException(ERROR_TAG_ID_EMPTY);
+        }
+    }
+
+    /**
+     * Validates request params of assigning or removing tags
+     *
+     * @param request
+     */
+    public void validateRequestParams(final BookTagsRequest request) {
+        if (ObjectUtils.isEmpty(request)) {
+            throw new IllegalArgumentException(ERROR_TAG_REQUEST_EMPTY);
+        }
+
+        if (ObjectUtils.isEmpty(request.getBookIds()) || request.getBookIds().stream().anyMatch(ObjectUtils::isEmpty)) {
+            throw new IllegalArgumentException(ERROR_TAG_REQUEST_BOOK_IDS_EMPTY);
+        }
+
+        if (request.getBookIds().size() > maxBooks) {
+            throw new IllegalArgumentException(ERROR_TAG_REQUEST_BOOK_IDS_SIZE_INVALID);
+        }
+
+        if (ObjectUtils.isEmpty(request.getTags())) {
+            throw new IllegalArgumentException(ERROR_TAG_REQUEST_TAGS_EMPTY);
+        }
+
+        validateNames(request.getTags());
+    }
+
+    /**
+     * Validates a tag filter, at least one tag of all or any must be given
+     *
+     * @param filter
+     */
+    public void validateRequestParams(final TagFilter filter) {
+        var all = namesOf(filter.getAll());
+        var any = namesOf(filter.getAny());
+        var none = namesOf(filter.getNone());
+        if (all.isEmpty() && any.isEmpty()) {
+            throw new IllegalArgumentException(ERROR_TAG_FILTER_EMPTY);
+        }
+
+        if (all.size() + any.size() + none.size() > maxFilterTags) {
+            throw new IllegalArgumentException(ERROR_TAG_FILTER_SIZE_INVALID);
+        }
+
+        validateNames(all);
+        validateNames(any);
+        validateNames(none);
+    }
+
+    /**
+     * Detects all tags with their number of books
+     *
+     * @return
+     */
+    public List<TagDto> detectAllTags() {
+        var tags = index.read(TagIndex::findAll);
+        if (tags.isEmpty()) {
+            throw new NoContentException();
+        }
+
+        return tags;
+    }
+
+    /**
+     * Detects a page of the ids of the books matching the tag filter, ordered ascending
+     *
+     * @param filter
+     * @param lastId the ids up to this id are skipped
+     * @param limit
+     * @return
+     */
+    public List<Long> detectBookIds(TagFilter filter, long lastId, int limit) {
+        return index.read(tagIndex -> tagIndex.find(filter, lastId, limit));
+    }
+
+    /**
+     * Assigns the tags to the books, unknown tags are created. Books already having a tag keep it.
+     *
+     * @param request
+     * @return the number of added tags of the books
+     */
+    @Transactional
+    public Integer addBookTags(BookTagsRequest request) {
+        try {
+            var names = normalizeNames(request.getTags());
+            tagRepository.createMissing(names);
+            var tags = tagRepository.findByNames(names).stream()
+                    .collect(Collectors.toMap(TagDto::getTagId, TagDto::getName));
+            var added = tagRepository.addBookTags(request.getBookIds(), tags.keySet());
+            eventPublisher.publishEvent(TagChangedEvent.assigned(tags, added));
+
+            return added.size();
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during adding tags: {} to books: {}", request.getTags(), request.getBookIds().size(), e);
+            throw new InternalError(ERROR_TAGS_SAVE);
+        }
+    }
+
+    /**
+     * Removes the tags from the books, the tags remain
+     *
+     * @param request
+     * @return the number of removed tags of the books
+     */
+    @Transactional
+    public Integer removeBookTags(BookTagsRequest request) {
+        try {
+            var tagIds = tagRepository.findByNames(normalizeNames(request.getTags())).stream()
+                    .map(TagDto::getTagId)
+                    .toList();
+            var removed = tagIds.isEmpty() ? List.<BookTag>of() : tagRepository.removeBookTags(request.getBookIds(), tagIds);
+            eventPublisher.publishEvent(TagChangedEvent.unassigned(removed));
+
+            return removed.size();
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during removing tags: {} from books: {}", request.getTags(), request.getBookIds().size(), e);
+            throw new InternalError(ERROR_TAGS_SAVE);
+        }
+    }
+
+    /**
+     * Removes a tag from all books and the tag itself
+     *
+     * @param tagId
+     * @return
+     */
+    @Transactional
+    public Integer removeTag(Long tagId) {
+        try {
+            var removed = tagRepository.deleteById(tagId);
+            eventPublisher.publishEvent(TagChangedEvent.removed(tagId));
+
+            return removed;
+        } catch (DataIntegrityViolationException e) {
+            rollback();
+            log.error("Exception during removing tag for the tag id: {}", tagId, e);
+            throw new InternalError(ERROR_TAGS_ID);
+        }
+    }
+
+    /**
+     * Builds the index after the startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        submitRebuild();
+    }
+
+    /**
+     * Applies the changed tags after their commit
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    public void onTagChanged(TagChangedEvent event) {
+        index.apply(tagIndex -> {
+            event.getTags().forEach(tagIndex::putTag);
+            event.getAddedBookTags().forEach(tagIndex::add);
+            event.getRemovedBookTags().forEach(tagIndex::remove);
+            event.getRemovedTagIds().forEach(tagIndex::removeTag);
+        });
+        retryRebuild();
+    }
+
+    /**
+     * Removes the removed books from all tags after their commit, the database removed their tags
+     *
+     * @param event
+     */
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        var removedBookIds = event.getChanges().stream()
+                .filter(change -> change.getAfter() == null)
+                .map(BookChange::getBookId)
+                .toList();
+        if (!removedBookIds.isEmpty()) {
+            index.apply(tagIndex -> removedBookIds.forEach(tagIndex::removeBook));
+        }
+    }
+
+    /**
+     * Submits the rebuild of the index as background job
+     */
+    public void submitRebuild() {
+        try {
+            rebuildPending.set(false);
+            jobService.submitJob(JOB_TYPE_TAG_INDEX_REBUILD, this::rebuild);
+        } catch (TaskRejectedException e) {
+            rebuildPending.set(true);
+            log.warn("Rebuild of tag index rejected, retried with the next change of tags...");
+        }
+    }
+
+    /**
+     * Submits the rebuild again, if the last one was rejected or failed, so the index does not stay empty until the
+     * next restart
+     */
+    @Scheduled(fixedDelayString = "${application.properties.tag.rebuild-retry-interval}",
+            initialDelayString = "${application.properties.tag.rebuild-retry-interval}")
+    public void retryRebuild() {
+        if (rebuildPending.compareAndSet(true, false)) {
+            submitRebuild();
+        }
+    }
+
+    /**
+     * Builds a new index from one snapshot of the database and swaps it. Changes committed during the build are applied
+     * to the new index as well, before it is swapped.
+     *
+     * @param job
+     */
+    protected void rebuild(Job job) {
+        TagIndex rebuilt;
+        try {
+            rebuilt = rebuildIndex(job);
+        } catch (RuntimeException e) {
+            rebuildPending.set(true);
+            throw e;
+        }
+        job.getSucceeded().set(rebuilt.entries());
+        log.info("Tag index rebuilt with tags: {}, entries: {}, bytes: {}...", rebuilt.size(), rebuilt.entries(),
+                rebuilt.estimatedBytes());
+    }
+
+    private TagIndex rebuildIndex(Job job) {
+        return index.rebuild(() -> {
+            var tagIndex = new TagIndex();
+            tagRepository.findAll()
+                    .forEach(tag -> tagIndex.putTag(tag.getTagId(), tag.getName()));
+            tagRepository.readBookTags(bookTag -> {
+                tagIndex.add(bookTag);
+                job.getProcessed().incrementAndGet();
+            });
+            tagIndex.optimize();
+
+            return tagIndex;
+        });
+    }
+
+    private void validateNames(Collection<String> names) {
+        if (names.stream().anyMatch(name -> !StringUtils.hasText(name) || name.trim().length() > MAX_NAME_LENGTH)) {
+            throw new IllegalArgumentException(ERROR_TAG_NAME_INVALID);
+        }
+    }
+
+    private static List<String> namesOf(List<String> names) {
+        return ObjectUtils.isEmpty(names) ? List.of() : names;
+    }
+
+    private List<String> normalizeNames(Collection<String> names) {
+        return names.stream()
+                .map(TagIndex::normalize)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * For testing purposes refactored.
+     */
+    protected void rollback() {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+    }
+}
@@ -0,0 +1,191 @@
+package de.schwarz.libraryapp.auth.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.schwarz.libraryapp.auth.domain.LoginRequest;
+import de.schwarz.libraryapp.auth.domain.LoginResponse;
+import de.schwarz.libraryapp.auth.domain.RefreshRequest;
+import de.schwarz.libraryapp.auth.service.AuthService;
+import de.schwarz.libraryapp.auth.service.RefreshTokenService;
+import de.schwarz.libraryapp.exception.RetryLaterException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+
+import static de.schwarz.libraryapp.auth.service.RefreshTokenService.ERROR_AUTH_REFRESH_TOKEN_EMPTY;
+import static de.schwarz.libraryapp.auth.service.RefreshTokenService.ERROR_AUTH_REFRESH_TOKEN_INVALID;
+import static de.schwarz.libraryapp.security.BoundedPasswordEncoder.ERROR_AUTH_HASHING_BUSY;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles(value = "dev")
+class AuthControllerV1Test {
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+
+    @Test
+    @DisplayName("Resource for login => error - service unavailable")
+    void login1() {
+        try {
+            // Setup
+            final LoginRequest request = LoginRequest.builder()
+                    .email("test@test.de")
+                    .password("secret")
+                    .build();
+            // Mocking the services
+            when(authService.login(request.getEmail(), request.getPassword()))
+                    .thenThrow(new RetryLaterException(ERROR_AUTH_HASHING_BUSY, Duration.ofSeconds(2)));
+
+            // Run the test
+            mockMvc.perform(post("/auth/v1/login")
+                            .content(objectMapper.writeValueAsString(request))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                    .andExpect(content().string(ERROR_AUTH_HASHING_BUSY));
+
+            // Verify
+            verify(authService, times(1)).login(request.getEmail(), request.getPassword());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for login => successful, with the refresh token of the login")
+    void login2() {
+        try {
+            // Setup
+            final LoginRequest request = LoginRequest.builder()
+                    .email("test@test.de")
+                    .password("secret")
+                    .build();
+            final LoginResponse response = LoginResponse.builder()
+                    .token("eyJhbGciOiJIUzI1NiJ9.e30.c2lnbmF0dXJl")
+                    .refreshToken("Zmlyc3QtcmVmcmVzaC10b2tlbg")
+                    .build();
+            // Mocking the services
+            when(authService.login(request.getEmail(), request.getPassword())).thenReturn(response);
+
+            // Run the test
+            mockMvc.perform(post("/auth/v1/login")
+                            .content(objectMapper.writeValueAsString(request))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.token").value(response.getToken()))
+                    .andExpect(jsonPath("$.refreshToken").value(response.getRefreshToken()));
+
+            // Verify
+            verify(authService, times(1)).login(request.getEmail(), request.getPassword());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for renewing the token => successful")
+    void refresh1() {
+        try {
+            // Setup
+            final RefreshRequest request = new RefreshRequest("Zm9ybWVyLXJlZnJlc2gtdG9rZW4");
+            final LoginResponse response = LoginResponse.builder()
+                    .token("eyJhbGciOiJIUzI1NiJ9.e30.c2lnbmF0dXJl")
+                    .refreshToken("bmV4dC1yZWZyZXNoLXRva2Vu")
+                    .build();
+            // Mocking the services
+            doNothing().when(refreshTokenService).validateRequestParams(request);
+            when(authService.refresh(request.getRefreshToken())).thenReturn(response);
+
+            // Run the test
+            mockMvc.perform(post("/auth/v1/refresh")
+                            .content(objectMapper.writeValueAsString(request))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.token").value(response.getToken()))
+                    .andExpect(jsonPath("$.refreshToken").value(response.getRefreshToken()));
+
+            // Verify
+            verify(refreshTokenService, times(1)).validateRequestParams(request);
+            verify(authService, times(1)).refresh(request.getRefreshToken());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for renewing the token => error - bad request")
+    void refresh2() {
+        try {
+            // Setup
+            final RefreshRequest request = new RefreshRequest(" ");
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_AUTH_REFRESH_TOKEN_EMPTY)).when(refreshTokenService).validateRequestParams(request);
+
+            // Run the test
+            mockMvc.perform(post("/auth/v1/refresh")
+                            .content(objectMapper.writeValueAsString(request))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_AUTH_REFRESH_TOKEN_EMPTY));
+
+            // Verify
+            verify(authService, never()).refresh(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for renewing the token => error - unauthorized")
+    void refresh3() {
+        try {
+            // Setup
+            final RefreshRequest request = new RefreshRequest("cmV1c2VkLXJlZnJlc2gtdG9rZW4");
+            // Mocking the services
+            doNothing().when(refreshTokenService).validateRequestParams(request);
+            when(authService.refresh(request.getRefreshToken()))
+                    .thenThrow(HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, ERROR_AUTH_REFRESH_TOKEN_INVALID, null, null, null));
+
+            // Run the test
+            mockMvc.perform(post("/auth/v1/refresh")
+                            .content(objectMapper.writeValueAsString(request))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(content().string(containsString(ERROR_AUTH_REFRESH_TOKEN_INVALID)));
+
+            // Verify
+            verify(authService, times(1)).refresh(request.getRefreshToken());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+}
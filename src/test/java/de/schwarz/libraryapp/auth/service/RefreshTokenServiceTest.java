@@ -0,0 +1,194 @@
+package de.schwarz.libraryapp.auth.service;
+
+import de.schwarz.libraryapp.auth.domain.RefreshTokenRepository;
+import de.schwarz.libraryapp.auth.domain.RefreshTokenRotation;
+import de.schwarz.libraryapp.auth.domain.entity.RefreshToken;
+import de.schwarz.libraryapp.customer.domain.CustomerRepository;
+import de.schwarz.libraryapp.customer.domain.entity.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.UUID;
+
+import static de.schwarz.libraryapp.auth.service.RefreshTokenService.ERROR_AUTH_CUSTOMER_REMOVED;
+import static de.schwarz.libraryapp.auth.service.RefreshTokenService.ERROR_AUTH_REFRESH_TOKEN_INVALID;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rotates refresh tokens against the database, so the revocation of a reused token is seen committed.
+ * The tokens are issued to the test customer and removed after each test.
+ */
+@SpringBootTest
+@ActiveProfiles(value = "dev")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Set<UUID> familyIds = new HashSet<>();
+    private Customer customer;
+
+
+    @BeforeEach
+    void setup() {
+        customer = customerRepository.findByUsername("test@test.de").orElseThrow();
+    }
+
+    @AfterEach
+    void cleanup() {
+        transactionTemplate.executeWithoutResult(status -> entityManager.createNativeQuery("DELETE FROM library.refresh_token WHERE family_id IN (:familyIds)")
+                .setParameter("familyIds", familyIds)
+                .executeUpdate());
+    }
+
+    @Test
+    @DisplayName("Service for rotating a refresh token on first use => successor issued in the same login")
+    void rotateToken1() {
+        // Setup
+        final String token = createToken();
+
+        // Run the test
+        final RefreshTokenRotation rotation = refreshTokenService.rotateToken(token);
+
+        // Verify
+        assertEquals(customer.getId(), rotation.getCustomerId());
+        assertEquals(customer.getEmail(), rotation.getEmail());
+        assertNotEquals(token, rotation.getRefreshToken());
+        final RefreshToken used = findToken(token);
+        final RefreshToken successor = findToken(rotation.getRefreshToken());
+        assertNotNull(used.getUsedOn());
+        assertNull(used.getRevokedOn());
+        assertEquals(used.getFamilyId(), successor.getFamilyId());
+        assertNull(successor.getUsedOn());
+        assertNull(successor.getRevokedOn());
+        assertTrue(successor.getExpiresOn().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Service for rotating a used refresh token => error - unauthorized, the login revoked and committed")
+    void rotateToken2() {
+        // Setup
+        final String token = createToken();
+        final RefreshTokenRotation rotation = refreshTokenService.rotateToken(token);
+
+        // Run the test
+        final HttpClientErrorException e = assertThrows(HttpClientErrorException.class, () -> refreshTokenService.rotateToken(token));
+
+        // Verify
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        assertTrue(e.getMessage().contains(ERROR_AUTH_REFRESH_TOKEN_INVALID));
+        assertNotNull(findToken(token).getRevokedOn());
+        assertNotNull(findToken(rotation.getRefreshToken()).getRevokedOn());
+        assertThrows(HttpClientErrorException.class, () -> refreshTokenService.rotateToken(rotation.getRefreshToken()));
+    }
+
+    @Test
+    @DisplayName("Service for rotating an expired refresh token => error - unauthorized, no successor")
+    void rotateToken3() {
+        // Setup
+        final String token = createToken();
+        transactionTemplate.executeWithoutResult(status -> findToken(token).setExpiresOn(LocalDateTime.now().minusMinutes(1)));
+
+        // Run the test
+        final HttpClientErrorException e = assertThrows(HttpClientErrorException.class, () -> refreshTokenService.rotateToken(token));
+
+        // Verify
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        assertNull(findToken(token).getUsedOn());
+        assertEquals(1L, countTokens(findToken(token).getFamilyId()));
+    }
+
+    @Test
+    @DisplayName("Service for rotating a revoked refresh token => error - unauthorized, no successor")
+    void rotateToken4() {
+        // Setup
+        final String token = createToken();
+        final UUID familyId = findToken(token).getFamilyId();
+        transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.revokeFamily(familyId));
+
+        // Run the test
+        final HttpClientErrorException e = assertThrows(HttpClientErrorException.class, () -> refreshTokenService.rotateToken(token));
+
+        // Verify
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        assertNull(findToken(token).getUsedOn());
+        assertEquals(1L, countTokens(familyId));
+    }
+
+    @Test
+    @DisplayName("Service for rotating an unknown refresh token => error - unauthorized")
+    void rotateToken5() {
+        // Run the test
+        final HttpClientErrorException e = assertThrows(HttpClientErrorException.class,
+                () -> refreshTokenService.rotateToken("dW5rbm93bi1yZWZyZXNoLXRva2Vu"));
+
+        // Verify
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Service for creating a refresh token of a removed customer => error - unauthorized")
+    void createToken1() {
+        // Run the test
+        final HttpClientErrorException e = assertThrows(HttpClientErrorException.class, () -> refreshTokenService.createToken(-1L));
+
+        // Verify
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        assertTrue(e.getMessage().contains(ERROR_AUTH_CUSTOMER_REMOVED));
+    }
+
+    private String createToken() {
+        final String token = refreshTokenService.createToken(customer.getId());
+        familyIds.add(findToken(token).getFamilyId());
+
+        return token;
+    }
+
+    private RefreshToken findToken(String token) {
+        return entityManager.createQuery("SELECT r FROM RefreshToken r WHERE r.tokenHash = :tokenHash", RefreshToken.class)
+                .setParameter("tokenHash", hash(token))
+                .getSingleResult();
+    }
+
+    private long countTokens(UUID familyId) {
+        return refreshTokenRepository.findAll().stream()
+                .filter(refreshToken -> familyId.equals(refreshToken.getFamilyId()))
+                .count();
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package de.schwarz.libraryapp.book.domain;
+
+import de.schwarz.libraryapp.book.domain.dto.BookFacet;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetDto;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetFilter;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetResult;
+import de.schwarz.libraryapp.book.domain.dto.BookView;
+import de.schwarz.libraryapp.book.domain.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the facets of books from the counters maintained by the triggers on the books,
+ * the changes are rolled back after each test.
+ */
+@SpringBootTest
+@ActiveProfiles(value = "dev")
+@Transactional
+class BookFacetRepositoryTest {
+
+    @Autowired
+    private BookFacetRepository bookFacetRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private String categoryDescription;
+    private Long categoryId;
+
+
+    @BeforeEach
+    void setup() {
+        categoryDescription = "Facet Test " + UUID.randomUUID();
+        categoryId = ((Number) entityManager.createNativeQuery("INSERT INTO library.category(description) VALUES (:description) RETURNING id")
+                .setParameter("description", categoryDescription)
+                .getSingleResult()).longValue();
+    }
+
+    @Test
+    @DisplayName("Repository for counting facets of inserted books => counted per category, publisher and bucket")
+    void findFacetPage1() {
+        // Setup
+        final Book first = saveBook("Insel", LocalDate.of(1869, 1, 1));
+        saveBook("Insel", LocalDate.of(1866, 1, 1));
+        saveBook("Reclam", LocalDate.of(1880, 1, 1));
+
+        // Run the test
+        final BookFacetResult result = bookFacetRepository.findFacetPage(createFilter(null), 0L, 1, 10, 10);
+
+        // Verify
+        assertEquals(List.of(first.getId()), result.getBooks().stream().map(BookView::getBookId).toList());
+        assertEquals(Map.of(categoryDescription, 3L), counts(result, BookFacet.CATEGORY));
+        assertEquals(Map.of("Insel", 2L, "Reclam", 1L), counts(result, BookFacet.PUBLISHER));
+        assertEquals(Map.of("1860", 2L, "1880", 1L), counts(result, BookFacet.YEAR));
+    }
+
+    @Test
+    @DisplayName("Repository for counting facets of updated and removed books => counters moved and decremented")
+    void findFacetPage2() {
+        // Setup
+        final Book moved = saveBook("Insel", LocalDate.of(1869, 1, 1));
+        final Book removed = saveBook("Insel", LocalDate.of(1866, 1, 1));
+        saveBook("Reclam", LocalDate.of(1880, 1, 1));
+        moved.setPublisher("Reclam");
+        moved.setPublishingYear(LocalDate.of(1881, 1, 1));
+        bookRepository.saveAndFlush(moved);
+        bookRepository.delete(removed);
+        bookRepository.flush();
+
+        // Run the test
+        final BookFacetResult result = bookFacetRepository.findFacetPage(createFilter(null), 0L, 10, 10, 10);
+
+        // Verify
+        assertEquals(Map.of(categoryDescription, 2L), counts(result, BookFacet.CATEGORY));
+        assertEquals(Map.of("Reclam", 2L), counts(result, BookFacet.PUBLISHER));
+        assertEquals(Map.of("1880", 2L), counts(result, BookFacet.YEAR));
+    }
+
+    @Test
+    @DisplayName("Repository for counting facets filtered by publisher and years => only matching books counted")
+    void findFacetPage3() {
+        // Setup
+        saveBook("Insel", LocalDate.of(1869, 1, 1));
+        saveBook("Insel", LocalDate.of(1870, 1, 1));
+        saveBook("Reclam", LocalDate.of(1869, 1, 1));
+        final BookFacetFilter filter = createFilter(List.of("Insel"));
+        filter.setYearFrom(1869);
+        filter.setYearTo(1869);
+
+        // Run the test
+        final BookFacetResult result = bookFacetRepository.findFacetPage(filter, 0L, 10, 10, 10);
+
+        // Verify
+        assertEquals(1, result.getBooks().size());
+        assertEquals(Map.of(categoryDescription, 1L), counts(result, BookFacet.CATEGORY));
+        assertEquals(Map.of("Insel", 1L), counts(result, BookFacet.PUBLISHER));
+        assertEquals(Map.of("1860", 1L), counts(result, BookFacet.YEAR));
+    }
+
+    private BookFacetFilter createFilter(List<String> publishers) {
+        return new BookFacetFilter(List.of(categoryDescription), publishers, null, null);
+    }
+
+    private Book saveBook(String publisher, LocalDate publishingYear) {
+        Book book = new Book();
+        book.setAuthor("Fjodor Dostojewski");
+        book.setTitle("Der Idiot");
+        book.setPublisher(publisher);
+        book.setPublishingYear(publishingYear);
+        book.setCategoryId(categoryId);
+
+        return bookRepository.saveAndFlush(book);
+    }
+
+    private Map<String, Long> counts(BookFacetResult result, BookFacet facet) {
+        return result.getFacets().stream()
+                .filter(value -> value.getFacet() == facet)
+                .collect(Collectors.toMap(BookFacetDto::getValue, BookFacetDto::getCount));
+    }
+}
@@ -0,0 +1,123 @@
+package de.schwarz.libraryapp.book.domain;
+
+import de.schwarz.libraryapp.book.domain.dto.BookView;
+import de.schwarz.libraryapp.book.domain.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Maps rows of the database to the book views, the changes are rolled back after each test.
+ */
+@SpringBootTest
+@ActiveProfiles(value = "dev")
+@Transactional
+class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private String categoryDescription;
+    private Long categoryId;
+
+
+    @BeforeEach
+    void setup() {
+        categoryDescription = "Repository Test " + UUID.randomUUID();
+        categoryId = ((Number) entityManager.createNativeQuery("INSERT INTO library.category(description) VALUES (:description) RETURNING id")
+                .setParameter("description", categoryDescription)
+                .getSingleResult()).longValue();
+    }
+
+    @Test
+    @DisplayName("Repository for detecting a book view by id => all properties mapped")
+    void findViewById1() {
+        // Setup
+        final Book book = saveBook("Fjodor Dostojewski", "Der Idiot", LocalDate.of(1869, 1, 1));
+
+        // Run the test
+        final BookView view = bookRepository.findViewById(book.getId()).orElseThrow();
+
+        // Verify
+        assertBookView(book, view);
+    }
+
+    @Test
+    @DisplayName("Repository for detecting book views by ids, by page and by category => all properties mapped")
+    void findViews1() {
+        // Setup
+        final Book first = saveBook("Leo Tolstoi", "Krieg und Frieden", LocalDate.of(1867, 1, 1));
+        final Book second = saveBook("Leo Tolstoi", "Anna Karenina", LocalDate.of(1878, 1, 1));
+
+        // Run the test
+        final List<BookView> byIds = bookRepository.findViewsByIds(new Long[]{first.getId(), second.getId()});
+        final List<BookView> afterFirst = bookRepository.findAllAfter(first.getId(), 1);
+        final List<BookView> bySubtree = bookRepository.findByCategorySubtree(categoryId, LocalDate.of(9999, 12, 31), Long.MAX_VALUE, 10);
+        final List<BookView> byCategory;
+        try (var books = bookRepository.streamByCategoryId(categoryId)) {
+            byCategory = books.toList();
+        }
+
+        // Verify
+        assertEquals(2, byIds.size());
+        byIds.forEach(view -> assertBookView(view.getBookId().equals(first.getId()) ? first : second, view));
+        assertEquals(1, afterFirst.size());
+        assertBookView(second, afterFirst.get(0));
+        assertEquals(List.of(second.getId(), first.getId()), bySubtree.stream().map(BookView::getBookId).toList());
+        assertEquals(List.of(first.getId(), second.getId()), byCategory.stream().map(BookView::getBookId).toList());
+        assertEquals(categoryDescription, byCategory.get(1).getCategoryDescription());
+    }
+
+    @Test
+    @DisplayName("Repository for detecting book views => column labels are the exact property names")
+    void selectBookView1() {
+        // Setup
+        final Book book = saveBook("Anton Tschechow", "Die Steppe", LocalDate.of(1888, 1, 1));
+
+        // Run the test
+        final Tuple tuple = (Tuple) entityManager.createNativeQuery(BookRepository.SELECT_BOOK_VIEW + "WHERE b.id = :bookId", Tuple.class)
+                .setParameter("bookId", book.getId())
+                .getSingleResult();
+
+        // Verify, without relying on a case-insensitive lookup of the projection
+        assertEquals(List.of("bookId", "author", "title", "publisher", "publishingYear", "categoryDescription"),
+                tuple.getElements().stream().map(TupleElement::getAlias).toList());
+    }
+
+    private Book saveBook(String author, String title, LocalDate publishingYear) {
+        Book book = new Book();
+        book.setAuthor(author);
+        book.setTitle(title);
+        book.setPublisher("Insel");
+        book.setPublishingYear(publishingYear);
+        book.setCategoryId(categoryId);
+
+        return bookRepository.saveAndFlush(book);
+    }
+
+    private void assertBookView(Book book, BookView view) {
+        assertEquals(book.getId(), view.getBookId());
+        assertEquals(book.getAuthor(), view.getAuthor());
+        assertEquals(book.getTitle(), view.getTitle());
+        assertEquals(book.getPublisher(), view.getPublisher());
+        assertEquals(book.getPublishingYear(), view.getPublishingYear());
+        assertEquals(categoryDescription, view.getCategoryDescription());
+    }
+}
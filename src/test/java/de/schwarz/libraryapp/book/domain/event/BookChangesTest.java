@@ -0,0 +1,98 @@
+package de.schwarz.libraryapp.book.domain.event;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Book changes not seen by the snapshot of a rebuild.
+ */
+class BookChangesTest {
+
+    private static final BookTerms IDIOT = new BookTerms("Der Idiot", "Fjodor Dostojewski", 1L);
+    private static final BookTerms GAMBLER = new BookTerms("Der Spieler", "Fjodor Dostojewski", 1L);
+    private static final BookTerms DEMONS = new BookTerms("Die Dämonen", "Fjodor Dostojewski", 2L);
+
+
+    @Test
+    @DisplayName("Changes after the snapshot => all unseen")
+    void unseen1() {
+        // Setup
+        final BookChange first = new BookChange(1L, IDIOT, GAMBLER);
+        final BookChange second = new BookChange(1L, GAMBLER, DEMONS);
+
+        // Run the test
+        final Set<BookChange> unseen = BookChanges.unseen(List.of(first, second), Map.of(1L, IDIOT));
+
+        // Verify
+        assertEquals(2, unseen.size());
+        assertTrue(unseen.contains(first));
+        assertTrue(unseen.contains(second));
+    }
+
+    @Test
+    @DisplayName("Snapshot between two changes of a book => only the later change unseen")
+    void unseen2() {
+        // Setup
+        final BookChange first = new BookChange(1L, IDIOT, GAMBLER);
+        final BookChange second = new BookChange(1L, GAMBLER, DEMONS);
+
+        // Run the test
+        final Set<BookChange> unseen = BookChanges.unseen(List.of(first, second), Map.of(1L, GAMBLER));
+
+        // Verify
+        assertEquals(Set.of(second), Set.copyOf(unseen));
+    }
+
+    @Test
+    @DisplayName("Created and removed books => created book missing in the snapshot unseen, removed book missing seen")
+    void unseen3() {
+        // Setup
+        final BookChange created = new BookChange(1L, null, IDIOT);
+        final BookChange removed = new BookChange(2L, GAMBLER, null);
+
+        // Run the test
+        final Set<BookChange> unseen = BookChanges.unseen(List.of(created, removed), Map.of());
+
+        // Verify
+        assertEquals(Set.of(created), Set.copyOf(unseen));
+    }
+
+    @Test
+    @DisplayName("Book changed and changed back, snapshot with the same terms => nothing replayed")
+    void unseen4() {
+        // Setup
+        final BookChange first = new BookChange(1L, IDIOT, GAMBLER);
+        final BookChange second = new BookChange(1L, GAMBLER, IDIOT);
+        final BookChange other = new BookChange(2L, null, DEMONS);
+
+        // Run the test
+        final Set<BookChange> unseen = BookChanges.unseen(List.of(first, second, other), Map.of(1L, IDIOT, 2L, DEMONS));
+
+        // Verify
+        assertTrue(unseen.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Equal changes of a book => told apart by identity")
+    void unseen5() {
+        // Setup
+        final BookChange first = new BookChange(1L, IDIOT, IDIOT);
+        final BookChange second = new BookChange(1L, IDIOT, GAMBLER);
+        final BookChange third = new BookChange(1L, GAMBLER, IDIOT);
+        final BookChange fourth = new BookChange(1L, IDIOT, IDIOT);
+
+        // Run the test
+        final Set<BookChange> unseen = BookChanges.unseen(List.of(first, second, third, fourth), Map.of(1L, GAMBLER));
+
+        // Verify
+        assertEquals(2, unseen.size());
+        assertTrue(unseen.contains(third));
+        assertTrue(unseen.contains(fourth));
+    }
+}
@@ -2,26 +2,50 @@ package de.schwarz.libraryapp.book.resource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.schwarz.libraryapp.WithMockUser;
+import de.schwarz.libraryapp.book.domain.dto.BookBatchResult;
+import de.schwarz.libraryapp.book.domain.dto.BookBatchStatus;
 import de.schwarz.libraryapp.book.domain.dto.BookDto;
+import de.schwarz.libraryapp.book.domain.dto.BookFacet;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetDto;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetFilter;
+import de.schwarz.libraryapp.book.domain.dto.BookFacetPage;
+import de.schwarz.libraryapp.book.domain.dto.BookIdsResult;
+import de.schwarz.libraryapp.book.domain.dto.BookImportFormat;
+import de.schwarz.libraryapp.book.domain.dto.BookPage;
 import de.schwarz.libraryapp.book.domain.dto.BookRequest;
+import de.schwarz.libraryapp.book.service.BookImportService;
 import de.schwarz.libraryapp.book.service.BookService;
+import de.schwarz.libraryapp.catalog.service.CatalogVersionService;
 import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.job.domain.JobStatus;
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
+import de.schwarz.libraryapp.tag.domain.dto.TagFilter;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static de.schwarz.libraryapp.book.service.BookService.*;
+import static de.schwarz.libraryapp.stream.StreamExecutorConfig.STREAM_THREAD_NAME_PREFIX;
+import static de.schwarz.libraryapp.tag.service.TagService.ERROR_TAG_FILTER_EMPTY;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -35,6 +59,12 @@ class BookResourceV1Test {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private CatalogVersionService catalogVersionService;
+
     @Autowired
     private ObjectMapper mapper;
 
@@ -51,22 +81,22 @@ class BookResourceV1Test {
             final BookDto book = createBookDto();
             final List<BookDto> books = List.of(book);
             // Mocking the services
-            when(bookService.detectAllBooks()).thenReturn(books);
+            when(bookService.detectAllBooks(null, null)).thenReturn(new BookPage(books, null));
 
             // Run the test
             mockMvc.perform(get("/api/v1/books")
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isOk())
                     .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
-                    .andExpect(jsonPath("$.[0].bookId").value(books.get(0).getBookId()))
-                    .andExpect(jsonPath("$.[0].author").value(books.get(0).getAuthor()))
-                    .andExpect(jsonPath("$.[0].title").value(books.get(0).getTitle()))
-                    .andExpect(jsonPath("$.[0].publisher").value(books.get(0).getPublisher()))
-                    .andExpect(jsonPath("$.[0].publishingYear").value(books.get(0).getPublishingYear()))
-                    .andExpect(jsonPath("$.[0].category").value(books.get(0).getCategoryDescription()));
+                    .andExpect(jsonPath("$.books[0].bookId").value(books.get(0).getBookId()))
+                    .andExpect(jsonPath("$.books[0].author").value(books.get(0).getAuthor()))
+                    .andExpect(jsonPath("$.books[0].title").value(books.get(0).getTitle()))
+                    .andExpect(jsonPath("$.books[0].publisher").value(books.get(0).getPublisher()))
+                    .andExpect(jsonPath("$.books[0].publishingYear").value(books.get(0).getPublishingYear()))
+                    .andExpect(jsonPath("$.books[0].category").value(books.get(0).getCategoryDescription()));
 
             // Verify
-            verify(bookService, times(1)).detectAllBooks();
+            verify(bookService, times(1)).detectAllBooks(null, null);
         } catch (Exception e) {
             fail("Test failed because of => \nStacktrace: ", e);
         }
@@ -79,7 +109,7 @@ class BookResourceV1Test {
         try {
             // Setup
             // Mocking the services
-            when(bookService.detectAllBooks()).thenThrow(NoContentException.class);
+            when(bookService.detectAllBooks(null, null)).thenThrow(NoContentException.class);
 
             // Run the test
             mockMvc.perform(get("/api/v1/books")
@@ -87,7 +117,7 @@ class BookResourceV1Test {
                     .andExpect(status().isNoContent());
 
             // Verify
-            verify(bookService, times(1)).detectAllBooks();
+            verify(bookService, times(1)).detectAllBooks(null, null);
         } catch (Exception e) {
             fail("Test failed because of => \nStacktrace: ", e);
         }
@@ -100,7 +130,7 @@ class BookResourceV1Test {
         try {
             // Setup
             // Mocking the services
-            when(bookService.detectAllBooks()).thenThrow(new InternalError(ERROR_BOOKS_ALL));
+            when(bookService.detectAllBooks(null, null)).thenThrow(new InternalError(ERROR_BOOKS_ALL));
 
             // Run the test
             mockMvc.perform(get("/api/v1/books")
@@ -109,7 +139,7 @@ class BookResourceV1Test {
                     .andExpect(content().string(ERROR_BOOKS_ALL));
 
             // Verify
-            verify(bookService, times(1)).detectAllBooks();
+            verify(bookService, times(1)).detectAllBooks(null, null);
         } catch (Exception e) {
             fail("Test failed because of => \nStacktrace: ", e);
         }
@@ -129,6 +159,256 @@ class BookResourceV1Test {
         }
     }
 
+    @Test
+    @DisplayName("Resource for detecting the next page of all books => successful")
+    @WithMockUser
+    void detectAllBooks5() {
+        try {
+            // Setup
+            final String cursor = "MTo5OTk5LTEyLTMx";
+            final String nextCursor = "Mjo5OTk5LTEyLTMx";
+            final Integer size = 1;
+            final List<BookDto> books = List.of(createBookDto());
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamPage(cursor, size);
+            when(bookService.detectAllBooks(cursor, size)).thenReturn(new BookPage(books, nextCursor));
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books")
+                            .param("cursor", cursor)
+                            .param("size", String.valueOf(size))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.books[0].bookId").value(books.get(0).getBookId()))
+                    .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamPage(cursor, size);
+            verify(bookService, times(1)).detectAllBooks(cursor, size);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting all books => error - bad request")
+    @WithMockUser
+    void detectAllBooks6() {
+        try {
+            // Setup
+            final Integer size = 0;
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_BOOK_PAGE_SIZE_INVALID)).when(bookService).validateRequestParamPage(null, size);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books")
+                            .param("size", String.valueOf(size))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_BOOK_PAGE_SIZE_INVALID));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamPage(null, size);
+            verify(bookService, never()).detectAllBooks(any(), any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting books for the given ids => successful")
+    @WithMockUser
+    void detectBooksFromIds1() {
+        try {
+            // Setup
+            final BookDto book = createBookDto();
+            final List<Long> bookIds = List.of(book.getBookId(), 99L);
+            final BookIdsResult result = new BookIdsResult(List.of(book), List.of(99L));
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamBookIds(bookIds);
+            when(bookService.detectBooksByIds(bookIds)).thenReturn(result);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books")
+                            .param("ids", book.getBookId() + ",99")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.books[0].bookId").value(book.getBookId()))
+                    .andExpect(jsonPath("$.missingIds[0]").value(99L));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamBookIds(bookIds);
+            verify(bookService, times(1)).detectBooksByIds(bookIds);
+            verify(bookService, never()).detectAllBooks(any(), any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting books for the given ids => error - bad request")
+    @WithMockUser
+    void detectBooksFromIds2() {
+        try {
+            // Setup
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_BOOK_IDS_EMPTY)).when(bookService).validateRequestParamBookIds(any());
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books")
+                            .param("ids", "")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_BOOK_IDS_EMPTY));
+
+            // Verify
+            verify(bookService, never()).detectBooksByIds(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting books for the given list of ids => successful")
+    @WithMockUser
+    void detectBooksFromIdList1() {
+        try {
+            // Setup
+            final BookDto book = createBookDto();
+            final List<Long> bookIds = List.of(99L, book.getBookId());
+            final BookIdsResult result = new BookIdsResult(List.of(book), List.of(99L));
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamBookIds(bookIds);
+            when(bookService.detectBooksByIds(bookIds)).thenReturn(result);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/books/ids")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(bookIds)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.books[0].bookId").value(book.getBookId()))
+                    .andExpect(jsonPath("$.missingIds[0]").value(99L));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamBookIds(bookIds);
+            verify(bookService, times(1)).detectBooksByIds(bookIds);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for streaming all books as json lines => successful")
+    @WithMockUser
+    void streamAllBooks1() {
+        try {
+            // Setup
+            final BookDto book = createBookDto();
+            // Mocking the services
+            doAnswer(invocation -> {
+                Consumer<BookDto> consumer = invocation.getArgument(0);
+                consumer.accept(book);
+                consumer.accept(book);
+                return null;
+            }).when(bookService).streamAllBooks(any());
+
+            // Run the test
+            MvcResult result = mockMvc.perform(get("/api/v1/books/stream")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_NDJSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String line = mapper.writeValueAsString(book);
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string(line + "\n" + line + "\n"));
+
+            // Verify
+            verify(bookService, times(1)).streamAllBooks(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for streaming all books as json array => successful")
+    @WithMockUser
+    void streamAllBooks2() {
+        try {
+            // Setup
+            final BookDto book = createBookDto();
+            // Mocking the services
+            doAnswer(invocation -> {
+                Consumer<BookDto> consumer = invocation.getArgument(0);
+                consumer.accept(book);
+                return null;
+            }).when(bookService).streamAllBooks(any());
+
+            // Run the test
+            MvcResult result = mockMvc.perform(get("/api/v1/books/stream")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.[0].bookId").value(book.getBookId()))
+                    .andExpect(jsonPath("$.[0].category").value(book.getCategoryDescription()));
+
+            // Verify
+            verify(bookService, times(1)).streamAllBooks(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for streaming all books => written on the bounded stream executor, not on a new thread")
+    @WithMockUser
+    void streamAllBooks4() {
+        try {
+            // Setup
+            final AtomicReference<String> threadName = new AtomicReference<>();
+            // Mocking the services
+            doAnswer(invocation -> {
+                threadName.set(Thread.currentThread().getName());
+                return null;
+            }).when(bookService).streamAllBooks(any());
+
+            // Run the test
+            MvcResult result = mockMvc.perform(get("/api/v1/books/stream")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_NDJSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk());
+
+            // Verify
+            assertTrue(threadName.get().startsWith(STREAM_THREAD_NAME_PREFIX), threadName.get());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for streaming all books => error - unauthorized")
+    void streamAllBooks3() {
+        try {
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/stream")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_NDJSON)
+                            .with(SecurityMockMvcRequestPostProcessors.anonymous()))
+                    .andExpect(status().isUnauthorized());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
     @Test
     @DisplayName("Resource for detecting all books for the given author => successful")
     @WithMockUser
@@ -139,7 +419,7 @@ class BookResourceV1Test {
             final List<BookDto> books = List.of(book);
             // Mocking the services
             doNothing().when(bookService).validateRequestParamAuthor(book.getAuthor());
-            when(bookService.detectBooksByAuthor(book.getAuthor())).thenReturn(books);
+            when(bookService.detectBooksByAuthor(book.getAuthor(), null, null, null)).thenReturn(new BookPage(books, null));
 
             // Run the test
             mockMvc.perform(get("/api/v1/books/author")
@@ -147,16 +427,16 @@ class BookResourceV1Test {
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isOk())
                     .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
-                    .andExpect(jsonPath("$.[0].bookId").value(books.get(0).getBookId()))
-                    .andExpect(jsonPath("$.[0].author").value(books.get(0).getAuthor()))
-                    .andExpect(jsonPath("$.[0].title").value(books.get(0).getTitle()))
-                    .andExpect(jsonPath("$.[0].publisher").value(books.get(0).getPublisher()))
-                    .andExpect(jsonPath("$.[0].publishingYear").value(books.get(0).getPublishingYear()))
-                    .andExpect(jsonPath("$.[0].category").value(books.get(0).getCategoryDescription()));
+                    .andExpect(jsonPath("$.books[0].bookId").value(books.get(0).getBookId()))
+                    .andExpect(jsonPath("$.books[0].author").value(books.get(0).getAuthor()))
+                    .andExpect(jsonPath("$.books[0].title").value(books.get(0).getTitle()))
+                    .andExpect(jsonPath("$.books[0].publisher").value(books.get(0).getPublisher()))
+                    .andExpect(jsonPath("$.books[0].publishingYear").value(books.get(0).getPublishingYear()))
+                    .andExpect(jsonPath("$.books[0].category").value(books.get(0).getCategoryDescription()));
 
             // Verify
             verify(bookService, times(1)).validateRequestParamAuthor(book.getAuthor());
-            verify(bookService, times(1)).detectBooksByAuthor(book.getAuthor());
+            verify(bookService, times(1)).detectBooksByAuthor(book.getAuthor(), null, null, null);
         } catch (Exception e) {
             fail("Test failed because of => \nStacktrace: ", e);
         }
@@ -171,7 +451,7 @@ class BookResourceV1Test {
             final String author = "Harry Ken";
             // Mocking the services
             doNothing().when(bookService).validateRequestParamAuthor(author);
-            when(bookService.detectBooksByAuthor(author)).thenThrow(NoContentException.class);
+            when(bookService.detectBooksByAuthor(author, null, null, null)).thenThrow(NoContentException.class);
 
             // Run the test
             mockMvc.perform(get("/api/v1/books/author")
@@ -181,7 +461,65 @@ class BookResourceV1Test {
 
             // Verify
             verify(bookService, times(1)).validateRequestParamAuthor(author);
-            verify(bookService, times(1)).detectBooksByAuthor(author);
+            verify(bookService, times(1)).detectBooksByAuthor(author, null, null, null);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting all books for the given author => successful - did you mean")
+    @WithMockUser
+    void detectBooksFromAuthor6() {
+        try {
+            // Setup
+            final String author = "Harry Knn";
+            final List<String> didYouMean = List.of("Harry Ken");
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamAuthor(author);
+            when(bookService.detectBooksByAuthor(author, null, null, null)).thenReturn(new BookPage(List.of(), null, didYouMean));
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/author")
+                            .param("author", author)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.books").isEmpty())
+                    .andExpect(jsonPath("$.didYouMean[0]").value(didYouMean.get(0)));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamAuthor(author);
+            verify(bookService, times(1)).detectBooksByAuthor(author, null, null, null);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting all books for the given author => successful - fuzzy")
+    @WithMockUser
+    void detectBooksFromAuthor7() {
+        try {
+            // Setup
+            final BookDto book = createBookDto();
+            final String author = book.getAuthor() + "x";
+            final List<BookDto> books = List.of(book);
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamAuthor(author);
+            when(bookService.detectBooksByAuthor(author, null, null, true)).thenReturn(new BookPage(books, null, List.of(book.getAuthor())));
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/author")
+                            .param("author", author)
+                            .param("fuzzy", "true")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.books[0].bookId").value(book.getBookId()))
+                    .andExpect(jsonPath("$.didYouMean[0]").value(book.getAuthor()));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamAuthor(author);
+            verify(bookService, times(1)).detectBooksByAuthor(author, null, null, true);
         } catch (Exception e) {
             fail("Test failed because of => \nStacktrace: ", e);
         }
@@ -220,7 +558,7 @@ class BookResourceV1Test {
             final String author = "Harry Ken";
             // Mocking the services
             doNothing().when(bookService).validateRequestParamAuthor(author);
-            when(bookService.detectBooksByAuthor(author)).thenThrow(new InternalError(ERROR_BOOKS_AUTHOR));
+            when(bookService.detectBooksByAuthor(author, null, null, null)).thenThrow(new InternalError(ERROR_BOOKS_AUTHOR));
 
             // Run the test
             mockMvc.perform(get("/api/v1/books/author")
@@ -231,7 +569,7 @@ class BookResourceV1Test {
 
             // Verify
             verify(bookService, times(1)).validateRequestParamAuthor(author);
-            verify(bookService, times(1)).detectBooksByAuthor(author);
+            verify(bookService, times(1)).detectBooksByAuthor(author, null, null, null);
         } catch (Exception e) {
             fail("Test failed because of => \nStacktrace: ", e);
         }
@@ -255,6 +593,173 @@ class BookResourceV1Test {
         }
     }
 
+    @Test
+    @DisplayName("Resource for detecting the books with the most similar author => successful")
+    @WithMockUser
+    void detectBooksFromSimilarAuthor1() {
+        try {
+            // Setup
+            final BookDto book = createBookDto();
+            final String author = "Stefen Kin";
+            final List<BookDto> books = List.of(book);
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamAuthor(author);
+            when(bookService.detectBooksByAuthorSimilarity(author, null)).thenReturn(books);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/author/similar")
+                            .param("author", author)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.[0].bookId").value(books.get(0).getBookId()))
+                    .andExpect(jsonPath("$.[0].author").value(books.get(0).getAuthor()));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamAuthor(author);
+            verify(bookService, times(1)).detectBooksByAuthorSimilarity(author, null);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting the books with the most similar author => error - bad request")
+    @WithMockUser
+    void detectBooksFromSimilarAuthor2() {
+        try {
+            // Setup
+            final String author = "";
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_BOOK_AUTHOR_EMPTY)).when(bookService).validateRequestParamAuthor(author);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/author/similar")
+                            .param("author", author)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_BOOK_AUTHOR_EMPTY));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamAuthor(author);
+            verify(bookService, never()).detectBooksByAuthorSimilarity(any(), any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting books by tags => successful")
+    @WithMockUser
+    void detectBooksByTags1() {
+        try {
+            // Setup
+            final TagFilter filter = new TagFilter(List.of("award-winner"), null, List.of("large-print"));
+            final BookDto book = createBookDto();
+            final List<BookDto> books = List.of(book);
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamTagFilter(filter);
+            when(bookService.detectBooksByTags(filter, null, null)).thenReturn(new BookPage(books, null));
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/tags")
+                            .param("all", "award-winner")
+                            .param("none", "large-print")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.books[0].bookId").value(books.get(0).getBookId()))
+                    .andExpect(jsonPath("$.books[0].title").value(books.get(0).getTitle()));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamTagFilter(filter);
+            verify(bookService, times(1)).detectBooksByTags(filter, null, null);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting books by tags => error - bad request")
+    @WithMockUser
+    void detectBooksByTags2() {
+        try {
+            // Setup
+            final TagFilter filter = new TagFilter(null, null, List.of("large-print"));
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_TAG_FILTER_EMPTY)).when(bookService).validateRequestParamTagFilter(filter);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/tags")
+                            .param("none", "large-print")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_TAG_FILTER_EMPTY));
+
+            // Verify
+            verify(bookService, never()).detectBooksByTags(any(), any(), any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting all books for the given category subtree => successful")
+    @WithMockUser
+    void detectBooksInCategorySubtree1() {
+        try {
+            // Setup
+            final Long categoryId = 1L;
+            final BookDto book = createBookDto();
+            final List<BookDto> books = List.of(book);
+            final String eTag = "\"v1\"";
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamCategoryId(categoryId);
+            when(catalogVersionService.detectCatalogETag()).thenReturn(eTag);
+            when(bookService.detectBooksByCategorySubtree(categoryId, null, null)).thenReturn(new BookPage(books, null));
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/category/subtree")
+                            .param("categoryId", String.valueOf(categoryId))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.books[0].bookId").value(books.get(0).getBookId()))
+                    .andExpect(jsonPath("$.books[0].title").value(books.get(0).getTitle()))
+                    .andExpect(jsonPath("$.books[0].category").value(books.get(0).getCategoryDescription()));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamCategoryId(categoryId);
+            verify(bookService, times(1)).detectBooksByCategorySubtree(categoryId, null, null);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting all books for the given category subtree => error - bad request")
+    @WithMockUser
+    void detectBooksInCategorySubtree2() {
+        try {
+            // Setup
+            final Long categoryId = null;
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_BOOK_CATEGORY_ID_EMPTY)).when(bookService).validateRequestParamCategoryId(categoryId);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/category/subtree")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_BOOK_CATEGORY_ID_EMPTY));
+
+            // Verify
+            verify(bookService, never()).detectBooksByCategorySubtree(any(), any(), any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
     @Test
     @DisplayName("Resource for detecting all books for the given category => successful")
     @WithMockUser
@@ -263,26 +768,58 @@ class BookResourceV1Test {
             // Setup
             final BookDto book = createBookDto();
             final List<BookDto> books = List.of(book);
+            final String eTag = "\"v1\"";
             // Mocking the services
             doNothing().when(bookService).validateRequestParamCategory(book.getCategoryDescription());
-            when(bookService.detectBooksByCategory(book.getCategoryDescription())).thenReturn(books);
+            when(catalogVersionService.detectCatalogETag()).thenReturn(eTag);
+            when(bookService.detectBooksByCategory(book.getCategoryDescription(), null, null)).thenReturn(new BookPage(books, null));
 
             // Run the test
             mockMvc.perform(get("/api/v1/books/category")
                             .param("category", book.getCategoryDescription())
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
                     .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
-                    .andExpect(jsonPath("$.[0].bookId").value(books.get(0).getBookId()))
-                    .andExpect(jsonPath("$.[0].author").value(books.get(0).getAuthor()))
-                    .andExpect(jsonPath("$.[0].title").value(books.get(0).getTitle()))
-                    .andExpect(jsonPath("$.[0].publisher").value(books.get(0).getPublisher()))
-                    .andExpect(jsonPath("$.[0].publishingYear").value(books.get(0).getPublishingYear()))
-                    .andExpect(jsonPath("$.[0].category").value(books.get(0).getCategoryDescription()));
+                    .andExpect(jsonPath("$.books[0].bookId").value(books.get(0).getBookId()))
+                    .andExpect(jsonPath("$.books[0].author").value(books.get(0).getAuthor()))
+                    .andExpect(jsonPath("$.books[0].title").value(books.get(0).getTitle()))
+                    .andExpect(jsonPath("$.books[0].publisher").value(books.get(0).getPublisher()))
+                    .andExpect(jsonPath("$.books[0].publishingYear").value(books.get(0).getPublishingYear()))
+                    .andExpect(jsonPath("$.books[0].category").value(books.get(0).getCategoryDescription()));
 
             // Verify
             verify(bookService, times(1)).validateRequestParamCategory(book.getCategoryDescription());
-            verify(bookService, times(1)).detectBooksByCategory(book.getCategoryDescription());
+            verify(bookService, times(1)).detectBooksByCategory(book.getCategoryDescription(), null, null);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting all books for the given category => successful - not modified")
+    @WithMockUser
+    void detectBooksInCategory6() {
+        try {
+            // Setup
+            final String category = "Horror";
+            final String eTag = "\"v1\"";
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamCategory(category);
+            when(catalogVersionService.detectCatalogETag()).thenReturn(eTag);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/category")
+                            .param("category", category)
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(content().string(""));
+
+            // Verify
+            verify(catalogVersionService, times(1)).detectCatalogETag();
+            verify(bookService, never()).detectBooksByCategory(any(), any(), any());
         } catch (Exception e) {
             fail("Test failed because of => \nStacktrace: ", e);
         }
@@ -297,7 +834,7 @@ class BookResourceV1Test {
             final String category = "Sci-Fi";
             // Mocking the services
             doNothing().when(bookService).validateRequestParamCategory(category);
-            when(bookService.detectBooksByCategory(category)).thenThrow(NoContentException.class);
+            when(bookService.detectBooksByCategory(category, null, null)).thenThrow(NoContentException.class);
 
             // Run the test
             mockMvc.perform(get("/api/v1/books/category")
@@ -307,7 +844,7 @@ class BookResourceV1Test {
 
             // Verify
             verify(bookService, times(1)).validateRequestParamCategory(category);
-            verify(bookService, times(1)).detectBooksByCategory(category);
+            verify(bookService, times(1)).detectBooksByCategory(category, null, null);
         } catch (Exception e) {
             fail("Test failed because of => \nStacktrace: ", e);
         }
@@ -346,7 +883,7 @@ class BookResourceV1Test {
             final String category = "Sci-Fi";
             // Mocking the services
             doNothing().when(bookService).validateRequestParamCategory(category);
-            when(bookService.detectBooksByCategory(category)).thenThrow(new InternalError(ERROR_BOOKS_CATEGORY));
+            when(bookService.detectBooksByCategory(category, null, null)).thenThrow(new InternalError(ERROR_BOOKS_CATEGORY));
 
             // Run the test
             mockMvc.perform(get("/api/v1/books/category")
@@ -357,7 +894,7 @@ class BookResourceV1Test {
 
             // Verify
             verify(bookService, times(1)).validateRequestParamCategory(category);
-            verify(bookService, times(1)).detectBooksByCategory(category);
+            verify(bookService, times(1)).detectBooksByCategory(category, null, null);
         } catch (Exception e) {
             fail("Test failed because of => \nStacktrace: ", e);
         }
@@ -381,6 +918,69 @@ class BookResourceV1Test {
         }
     }
 
+    @Test
+    @DisplayName("Resource for detecting books by facets => successful")
+    @WithMockUser
+    void detectBooksByFacets1() {
+        try {
+            // Setup
+            final BookDto book = createBookDto();
+            final BookFacetFilter filter = new BookFacetFilter(List.of(book.getCategoryDescription()), null, 1990, 2000);
+            final BookFacetPage page = new BookFacetPage(List.of(book), null,
+                    List.of(new BookFacetDto(BookFacet.CATEGORY, book.getCategoryDescription(), 1L)),
+                    List.of(new BookFacetDto(BookFacet.PUBLISHER, book.getPublisher(), 1L)),
+                    List.of(new BookFacetDto(BookFacet.YEAR, "1990", 1L)));
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamFacetFilter(filter);
+            when(bookService.detectBooksByFacets(filter, null, null)).thenReturn(page);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/facets")
+                            .param("category", book.getCategoryDescription())
+                            .param("yearFrom", "1990")
+                            .param("yearTo", "2000")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.books[0].bookId").value(book.getBookId()))
+                    .andExpect(jsonPath("$.categories[0].value").value(book.getCategoryDescription()))
+                    .andExpect(jsonPath("$.categories[0].count").value(1L))
+                    .andExpect(jsonPath("$.publishers[0].value").value(book.getPublisher()))
+                    .andExpect(jsonPath("$.years[0].value").value("1990"));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamFacetFilter(filter);
+            verify(bookService, times(1)).detectBooksByFacets(filter, null, null);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting books by facets => error - bad request")
+    @WithMockUser
+    void detectBooksByFacets2() {
+        try {
+            // Setup
+            final BookFacetFilter filter = new BookFacetFilter(null, null, 2000, 1990);
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_BOOK_FACET_YEAR_INVALID)).when(bookService).validateRequestParamFacetFilter(filter);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/facets")
+                            .param("yearFrom", "2000")
+                            .param("yearTo", "1990")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_BOOK_FACET_YEAR_INVALID));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamFacetFilter(filter);
+            verify(bookService, never()).detectBooksByFacets(any(), any(), any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
     @Test
     @DisplayName("Resource for detecting a book by the given book id => successful")
     @WithMockUser
@@ -594,8 +1194,9 @@ class BookResourceV1Test {
     void saveBook4() {
         try {
             // Setup
-            final BookDto book = createBookDto();
-            book.setPublisher(null);
+            final BookDto book = createBookDto().toBuilder()
+                    .publisher(null)
+                    .build();
             final BookRequest request = createBookRequest(book);
             // Mocking the services
             doThrow(new IllegalArgumentException(ERROR_BOOK_REQUEST_PUBLISHER_EMPTY)).when(bookService).validateRequestParams(request);
@@ -660,6 +1261,122 @@ class BookResourceV1Test {
         }
     }
 
+    @Test
+    @DisplayName("Resource for create or update a batch of books => successful")
+    @WithMockUser
+    void saveBooks1() {
+        try {
+            // Setup
+            final BookDto book = createBookDto();
+            final List<BookRequest> requests = List.of(createBookRequest(book), new BookRequest());
+            final List<BookBatchResult> results = List.of(
+                    new BookBatchResult(0, BookBatchStatus.UPDATED, book, null),
+                    new BookBatchResult(1, BookBatchStatus.FAILED, null, ERROR_BOOK_REQUEST_AUTHOR_EMPTY));
+            // Mocking the services
+            doNothing().when(bookService).validateRequestParamsBatch(requests);
+            when(bookService.createOrUpdateBooks(requests)).thenReturn(results);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/books/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(requests)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].index").value(0))
+                    .andExpect(jsonPath("$[0].status").value(BookBatchStatus.UPDATED.name()))
+                    .andExpect(jsonPath("$[0].book.bookId").value(book.getBookId()))
+                    .andExpect(jsonPath("$[1].index").value(1))
+                    .andExpect(jsonPath("$[1].status").value(BookBatchStatus.FAILED.name()))
+                    .andExpect(jsonPath("$[1].error").value(ERROR_BOOK_REQUEST_AUTHOR_EMPTY));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamsBatch(requests);
+            verify(bookService, times(1)).createOrUpdateBooks(requests);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for create or update a batch of books => error - bad request")
+    @WithMockUser
+    void saveBooks2() {
+        try {
+            // Setup
+            final List<BookRequest> requests = List.of();
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_BOOK_BATCH_EMPTY)).when(bookService).validateRequestParamsBatch(requests);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/books/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(requests)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_BOOK_BATCH_EMPTY));
+
+            // Verify
+            verify(bookService, times(1)).validateRequestParamsBatch(requests);
+            verify(bookService, never()).createOrUpdateBooks(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for importing books => successful - accepted")
+    @WithMockUser
+    void importBooks1() {
+        try {
+            // Setup
+            final MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv",
+                    "author,title,publisher,publishing_year,category\nKing,It,Viking,1986-09-15,Horror\n".getBytes(StandardCharsets.UTF_8));
+            final JobDto job = new JobDto();
+            job.setJobId(UUID.randomUUID());
+            job.setType(BookImportService.JOB_TYPE_BOOK_IMPORT);
+            job.setStatus(JobStatus.QUEUED);
+            // Mocking the services
+            doNothing().when(bookImportService).validateRequestParamFile(any());
+            when(bookImportService.importBooks(any(), eq(BookImportFormat.CSV))).thenReturn(job);
+
+            // Run the test
+            mockMvc.perform(multipart("/api/v1/books/import")
+                            .file(file)
+                            .param("format", BookImportFormat.CSV.name()))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.jobId").value(job.getJobId().toString()))
+                    .andExpect(jsonPath("$.status").value(JobStatus.QUEUED.name()));
+
+            // Verify
+            verify(bookImportService, times(1)).validateRequestParamFile(any());
+            verify(bookImportService, times(1)).importBooks(any(), eq(BookImportFormat.CSV));
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for importing books => error - bad request")
+    @WithMockUser
+    void importBooks2() {
+        try {
+            // Setup
+            final MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", new byte[0]);
+            // Mocking the services
+            doThrow(new IllegalArgumentException(BookImportService.ERROR_BOOK_IMPORT_FILE_EMPTY)).when(bookImportService).validateRequestParamFile(any());
+
+            // Run the test
+            mockMvc.perform(multipart("/api/v1/books/import")
+                            .file(file))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(BookImportService.ERROR_BOOK_IMPORT_FILE_EMPTY));
+
+            // Verify
+            verify(bookImportService, times(1)).validateRequestParamFile(any());
+            verify(bookImportService, never()).importBooks(any(), any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
     @Test
     @DisplayName("Resource for removing a book for the given book id => successful")
     @WithMockUser
@@ -779,15 +1496,14 @@ class BookResourceV1Test {
     }
 
     private BookDto createBookDto() {
-        BookDto book = new BookDto();
-        book.setBookId(1L);
-        book.setAuthor("Steven King");
-        book.setTitle("New Year's Eve");
-        book.setPublisher("Books Online AG");
-        book.setPublishingYear("2023-12-31");
-        book.setCategoryDescription("Horror");
-
-        return book;
+        return BookDto.builder()
+                .bookId(1L)
+                .author("Steven King")
+                .title("New Year's Eve")
+                .publisher("Books Online AG")
+                .publishingYear("2023-12-31")
+                .categoryDescription("Horror")
+                .build();
     }
 
     private BookRequest createBookRequest(BookDto bookDto) {
@@ -0,0 +1,174 @@
+package de.schwarz.libraryapp.book.service;
+
+import de.schwarz.libraryapp.book.domain.BookRepository;
+import de.schwarz.libraryapp.book.domain.dto.BookDto;
+import de.schwarz.libraryapp.book.domain.dto.BookView;
+import de.schwarz.libraryapp.book.domain.entity.Book;
+import de.schwarz.libraryapp.book.domain.event.BookChange;
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
+import de.schwarz.libraryapp.cache.CacheConfig;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Caches the detected books until their change is committed. The repository is spied to count its calls,
+ * the saved book and category are removed after each test.
+ */
+@SpringBootTest
+@ActiveProfiles(value = "dev")
+class BookServiceCacheTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @SpyBean
+    private BookRepository bookRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Cache cache;
+    private Long categoryId;
+    private Long bookId;
+
+
+    @BeforeEach
+    void setup() {
+        cache = cacheManager.getCache(CacheConfig.CACHE_BOOKS);
+        cache.clear();
+        bookId = saveBook();
+    }
+
+    @AfterEach
+    void cleanup() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bookRepository.deleteById(bookId);
+            entityManager.createNativeQuery("DELETE FROM library.category WHERE id = :categoryId")
+                    .setParameter("categoryId", categoryId)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("Service for detecting a book twice => second call served from cache, without repository")
+    void detectBook1() {
+        // Run the test
+        final BookDto first = bookService.detectBook(bookId);
+        final BookDto second = bookService.detectBook(bookId);
+
+        // Verify
+        assertEquals("Der Idiot", first.getTitle());
+        assertEquals("1869", first.getPublishingYear());
+        assertTrue(first.getCategoryDescription().startsWith("Cache Test "));
+        assertSame(first, second);
+        verify(bookRepository, times(1)).findViewById(bookId);
+    }
+
+    @Test
+    @DisplayName("Service for detecting a changed book => evicted after the commit of the change, not before")
+    void detectBook2() {
+        // Setup
+        bookService.detectBook(bookId);
+        final BookTerms terms = new BookTerms("Der Idiot", "Fjodor Dostojewski", categoryId);
+
+        // Run the test
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new BookChangedEvent(List.of(new BookChange(bookId, terms, terms))));
+            assertNotNull(cache.get(bookId), "Evicted before the commit");
+        });
+        bookService.detectBook(bookId);
+
+        // Verify
+        verify(bookRepository, times(2)).findViewById(bookId);
+    }
+
+    @Test
+    @DisplayName("Service for detecting books after a bulk change => all books evicted after the commit")
+    void detectBook3() {
+        // Setup
+        bookService.detectBook(bookId);
+
+        // Run the test
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(BookChangedEvent.bulk()));
+
+        // Verify
+        assertNull(cache.get(bookId));
+    }
+
+    @Test
+    @DisplayName("Service for detecting a book while its change is committed => book loaded before not kept")
+    void detectBook4() throws Exception {
+        // Setup
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BookTerms terms = new BookTerms("Der Idiot", "Fjodor Dostojewski", categoryId);
+        final Optional<BookView> view = bookRepository.findViewById(bookId);
+        doAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return view;
+        }).when(bookRepository).findViewById(bookId);
+        final CompletableFuture<BookDto> load = CompletableFuture.supplyAsync(() -> bookService.detectBook(bookId));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+        // Run the test, the eviction waits for the load in progress
+        final CompletableFuture<Void> change = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new BookChangedEvent(List.of(new BookChange(bookId, terms, terms))))));
+        Thread.sleep(200);
+        release.countDown();
+        load.get(10, TimeUnit.SECONDS);
+        change.get(10, TimeUnit.SECONDS);
+
+        // Verify
+        assertNull(cache.get(bookId));
+    }
+
+    private Long saveBook() {
+        return transactionTemplate.execute(status -> {
+            categoryId = ((Number) entityManager.createNativeQuery("INSERT INTO library.category(description) VALUES (:description) RETURNING id")
+                    .setParameter("description", "Cache Test " + UUID.randomUUID())
+                    .getSingleResult()).longValue();
+            final Book book = new Book();
+            book.setAuthor("Fjodor Dostojewski");
+            book.setTitle("Der Idiot");
+            book.setPublisher("Insel");
+            book.setPublishingYear(LocalDate.of(1869, 1, 1));
+            book.setCategoryId(categoryId);
+
+            return bookRepository.save(book).getId();
+        });
+    }
+}
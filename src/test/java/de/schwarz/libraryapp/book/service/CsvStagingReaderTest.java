@@ -0,0 +1,86 @@
+package de.schwarz.libraryapp.book.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Converts the lines of uploads to rows of the staging table, without database.
+ */
+class CsvStagingReaderTest {
+
+    private static final String HEADER = "author,title,publisher,publishing_year,category\n";
+    private static final String INVALID = ",\"" + StagingRowReader.ERROR_BOOK_IMPORT_LINE_INVALID + "\"";
+
+
+    @Test
+    @DisplayName("Converting CSV lines => header skipped, rows numbered by line, quotes kept")
+    void readCsv1() throws IOException {
+        // Setup
+        final AtomicLong lines = new AtomicLong();
+
+        // Run the test
+        final String result = read(new CsvStagingReader(new StringReader(HEADER
+                + "Fjodor Dostojewski,Der Idiot,Insel,1869,Horror\n"
+                + "\n"
+                + "\"Poe, Edgar\",\"The \"\"Raven\"\"\",,1845,Crime\n"), lines));
+
+        // Verify
+        assertEquals("2,\"Fjodor Dostojewski\",\"Der Idiot\",\"Insel\",\"1869\",\"Horror\",\n"
+                + "4,\"Poe, Edgar\",\"The \"\"Raven\"\"\",\"\",\"1845\",\"Crime\",\n", result);
+        assertEquals(4, lines.get());
+    }
+
+    @Test
+    @DisplayName("Converting malformed CSV lines => rows with error, following lines still converted")
+    void readCsv2() throws IOException {
+        // Run the test
+        final String result = read(new CsvStagingReader(new StringReader(HEADER
+                + "too,few,fields\n"
+                + "\"unclosed,quote,a,1869,b\n"
+                + "\"a\"b,title,publisher,1869,category\n"
+                + "nul\u0000,title,publisher,1869,category\n"
+                + "a,title,publisher,1869,category\n"), new AtomicLong()));
+
+        // Verify
+        assertEquals("2,,,,," + INVALID + "\n"
+                + "3,,,,," + INVALID + "\n"
+                + "4,,,,," + INVALID + "\n"
+                + "5,,,,," + INVALID + "\n"
+                + "6,\"a\",\"title\",\"publisher\",\"1869\",\"category\",\n", result);
+    }
+
+    @Test
+    @DisplayName("Converting json lines => fields by name, no object is malformed")
+    void readNdjson1() throws IOException {
+        // Run the test
+        final String result = read(new NdjsonCsvReader(new StringReader(
+                "{\"author\":\"Poe\",\"title\":\"Raven\",\"publishingYear\":1845,\"category\":\"Crime\"}\n"
+                        + "[1,2]\n"
+                        + "{broken\n"), new ObjectMapper(), new AtomicLong()));
+
+        // Verify
+        assertEquals("1,\"Poe\",\"Raven\",,\"1845\",\"Crime\",\n"
+                + "2,,,,," + INVALID + "\n"
+                + "3,,,,," + INVALID + "\n", result);
+    }
+
+    private static String read(Reader reader) throws IOException {
+        try (reader) {
+            final StringBuilder result = new StringBuilder();
+            final char[] buffer = new char[7];
+            int n;
+            while ((n = reader.read(buffer, 0, buffer.length)) != -1) {
+                result.append(buffer, 0, n);
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package de.schwarz.libraryapp.category.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Search keys of category descriptions, the same keys are computed by the function library.category_search_key.
+ */
+class CategorySearchKeyTest {
+
+    @Test
+    @DisplayName("Search key of umlauts and their transcription => same key")
+    void of1() {
+        assertEquals("maerchen", CategorySearchKey.of("Märchen"));
+        assertEquals("maerchen", CategorySearchKey.of("MÄRCHEN"));
+        assertEquals("maerchen", CategorySearchKey.of("Maerchen"));
+        assertEquals("oel", CategorySearchKey.of("Öl"));
+    }
+
+    @Test
+    @DisplayName("Search key of ae, oe and ue of other words => kept, no false match")
+    void of2() {
+        assertEquals("poetry", CategorySearchKey.of("Poetry"));
+        assertEquals("blues", CategorySearchKey.of("Blues"));
+        assertNotEquals(CategorySearchKey.of("Poetry"), CategorySearchKey.of("Potry"));
+    }
+
+    @Test
+    @DisplayName("Search key of accents and sharp s => stripped and as ss")
+    void of3() {
+        assertEquals("strasse cafe", CategorySearchKey.of("Straße Café"));
+        assertEquals("strasse", CategorySearchKey.of("STRAẞE"));
+    }
+}
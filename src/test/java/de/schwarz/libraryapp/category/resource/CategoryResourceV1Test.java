@@ -2,25 +2,35 @@ package de.schwarz.libraryapp.category.resource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.schwarz.libraryapp.WithMockUser;
+import de.schwarz.libraryapp.catalog.service.CatalogVersionService;
 import de.schwarz.libraryapp.category.domain.dto.CategoryDto;
+import de.schwarz.libraryapp.category.domain.dto.CategoryMergeRequest;
+import de.schwarz.libraryapp.category.domain.dto.CategoryMoveRequest;
+import de.schwarz.libraryapp.category.domain.dto.CategoryNodeDto;
 import de.schwarz.libraryapp.category.domain.dto.CategoryRequest;
+import de.schwarz.libraryapp.category.service.CategoryMergeService;
 import de.schwarz.libraryapp.category.service.CategoryService;
 import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.job.domain.JobStatus;
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.UUID;
 
 import static de.schwarz.libraryapp.book.service.BookService.ERROR_BOOKS_ID;
 import static de.schwarz.libraryapp.book.service.BookService.ERROR_BOOK_ID_EMPTY;
+import static de.schwarz.libraryapp.category.service.CategoryMergeService.ERROR_CATEGORY_MERGE_SAME;
 import static de.schwarz.libraryapp.category.service.CategoryService.*;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.*;
@@ -35,6 +45,12 @@ class CategoryResourceV1Test {
     @MockBean
     private CategoryService categoryService;
 
+    @MockBean
+    private CategoryMergeService categoryMergeService;
+
+    @MockBean
+    private CatalogVersionService catalogVersionService;
+
     @Autowired
     private ObjectMapper mapper;
 
@@ -50,13 +66,16 @@ class CategoryResourceV1Test {
             // Setup
             final CategoryDto category = createCategoryDto();
             final List<CategoryDto> categories = List.of(category);
+            final String eTag = "\"v1\"";
             // Mocking the services
+            when(catalogVersionService.detectCatalogETag()).thenReturn(eTag);
             when(categoryService.detectAllCategories()).thenReturn(categories);
 
             // Run the test
             mockMvc.perform(get("/api/v1/categories")
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
                     .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                     .andExpect(jsonPath("$.[0].categoryId").value(categories.get(0).getCategoryId()))
                     .andExpect(jsonPath("$.[0].description").value(categories.get(0).getDescription()))
@@ -126,6 +145,32 @@ class CategoryResourceV1Test {
         }
     }
 
+    @Test
+    @DisplayName("Resource for detecting all categories => successful - not modified")
+    @WithMockUser
+    void detectAllCategories5() {
+        try {
+            // Setup
+            final String eTag = "\"v1\"";
+            // Mocking the services
+            when(catalogVersionService.detectCatalogETag()).thenReturn(eTag);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/categories")
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(content().string(""));
+
+            // Verify
+            verify(catalogVersionService, times(1)).detectCatalogETag();
+            verify(categoryService, never()).detectAllCategories();
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
     @Test
     @DisplayName("Resource for detecting all categories for the given description => successful")
     @WithMockUser
@@ -640,6 +685,59 @@ class CategoryResourceV1Test {
         }
     }
 
+    @Test
+    @DisplayName("Resource for create or update a batch of categories => successful")
+    @WithMockUser
+    void saveCategories1() {
+        try {
+            // Setup
+            final CategoryDto category = createCategoryDto();
+            final List<CategoryRequest> requests = List.of(createCategoryRequest(category), createCategoryRequest(category));
+            // Mocking the services
+            doNothing().when(categoryService).validateRequestParamsBatch(requests);
+            when(categoryService.createOrUpdateCategories(requests)).thenReturn(List.of(category, category));
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/categories/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(requests)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].categoryId").value(category.getCategoryId()))
+                    .andExpect(jsonPath("$[1].categoryId").value(category.getCategoryId()));
+
+            // Verify
+            verify(categoryService, times(1)).validateRequestParamsBatch(requests);
+            verify(categoryService, times(1)).createOrUpdateCategories(requests);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for create or update a batch of categories => error - bad request")
+    @WithMockUser
+    void saveCategories2() {
+        try {
+            // Setup
+            final List<CategoryRequest> requests = List.of();
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_CATEGORY_BATCH_EMPTY)).when(categoryService).validateRequestParamsBatch(requests);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/categories/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(requests)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_CATEGORY_BATCH_EMPTY));
+
+            // Verify
+            verify(categoryService, times(1)).validateRequestParamsBatch(requests);
+            verify(categoryService, never()).createOrUpdateCategories(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
     @Test
     @DisplayName("Resource for removing a category for the given category id => successful")
     @WithMockUser
@@ -757,6 +855,262 @@ class CategoryResourceV1Test {
         }
     }
 
+    @Test
+    @DisplayName("Resource for detecting the subtree of a category => successful")
+    @WithMockUser
+    void detectSubtree1() {
+        try {
+            // Setup
+            final CategoryNodeDto root = createCategoryNodeDto(1L, null, "Fiction", 0, 2L, 5L);
+            final CategoryNodeDto child = createCategoryNodeDto(2L, 1L, "Crime", 1, 3L, 3L);
+            final List<CategoryNodeDto> categories = List.of(root, child);
+            // Mocking the services
+            doNothing().when(categoryService).validateRequestParamCategoryId(root.getCategoryId());
+            when(categoryService.detectSubtree(root.getCategoryId())).thenReturn(categories);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/categories/subtree")
+                            .param("categoryId", String.valueOf(root.getCategoryId()))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.[0].categoryId").value(root.getCategoryId()))
+                    .andExpect(jsonPath("$.[0].depth").value(root.getDepth()))
+                    .andExpect(jsonPath("$.[0].subtreeBooksCount").value(root.getSubtreeBooksCount()))
+                    .andExpect(jsonPath("$.[1].categoryId").value(child.getCategoryId()))
+                    .andExpect(jsonPath("$.[1].parentId").value(child.getParentId()))
+                    .andExpect(jsonPath("$.[1].booksCount").value(child.getBooksCount()));
+
+            // Verify
+            verify(categoryService, times(1)).validateRequestParamCategoryId(root.getCategoryId());
+            verify(categoryService, times(1)).detectSubtree(root.getCategoryId());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting the subtree of a category => successful - no content")
+    @WithMockUser
+    void detectSubtree2() {
+        try {
+            // Setup
+            final Long categoryId = 99L;
+            // Mocking the services
+            doNothing().when(categoryService).validateRequestParamCategoryId(categoryId);
+            when(categoryService.detectSubtree(categoryId)).thenThrow(NoContentException.class);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/categories/subtree")
+                            .param("categoryId", String.valueOf(categoryId))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNoContent());
+
+            // Verify
+            verify(categoryService, times(1)).detectSubtree(categoryId);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting the subtree of a category => error - bad request")
+    @WithMockUser
+    void detectSubtree3() {
+        try {
+            // Setup
+            final Long categoryId = null;
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_CATEGORIES_ID_EMPTY)).when(categoryService).validateRequestParamCategoryId(categoryId);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/categories/subtree")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_CATEGORIES_ID_EMPTY));
+
+            // Verify
+            verify(categoryService, never()).detectSubtree(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for moving a category => successful")
+    @WithMockUser
+    void moveCategory1() {
+        try {
+            // Setup
+            final CategoryMoveRequest request = createCategoryMoveRequest(2L, 1L);
+            // Mocking the services
+            doNothing().when(categoryService).validateRequestParams(request);
+            when(categoryService.moveCategory(request)).thenReturn(1);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/category/move")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+
+            // Verify
+            verify(categoryService, times(1)).validateRequestParams(request);
+            verify(categoryService, times(1)).moveCategory(request);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for moving a category => error - bad request")
+    @WithMockUser
+    void moveCategory2() {
+        try {
+            // Setup
+            final CategoryMoveRequest request = createCategoryMoveRequest(1L, 2L);
+            // Mocking the services
+            doNothing().when(categoryService).validateRequestParams(request);
+            when(categoryService.moveCategory(request)).thenThrow(new IllegalArgumentException(ERROR_CATEGORY_MOVE_CYCLE));
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/category/move")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_CATEGORY_MOVE_CYCLE));
+
+            // Verify
+            verify(categoryService, times(1)).moveCategory(request);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for moving a category => successful - no content")
+    @WithMockUser
+    void moveCategory3() {
+        try {
+            // Setup
+            final CategoryMoveRequest request = createCategoryMoveRequest(99L, null);
+            // Mocking the services
+            doNothing().when(categoryService).validateRequestParams(request);
+            when(categoryService.moveCategory(request)).thenThrow(NoContentException.class);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/category/move")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isNoContent());
+
+            // Verify
+            verify(categoryService, times(1)).moveCategory(request);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for merging categories => successful - accepted")
+    @WithMockUser
+    void mergeCategories1() {
+        try {
+            // Setup
+            final CategoryMergeRequest request = createCategoryMergeRequest(2L, 1L);
+            final JobDto job = new JobDto();
+            job.setJobId(UUID.randomUUID());
+            job.setType(CategoryMergeService.JOB_TYPE_CATEGORY_MERGE);
+            job.setStatus(JobStatus.QUEUED);
+            // Mocking the services
+            doNothing().when(categoryMergeService).validateRequestParams(request);
+            when(categoryMergeService.mergeCategories(request)).thenReturn(job);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/category/merge")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.jobId").value(job.getJobId().toString()))
+                    .andExpect(jsonPath("$.type").value(CategoryMergeService.JOB_TYPE_CATEGORY_MERGE))
+                    .andExpect(jsonPath("$.status").value(JobStatus.QUEUED.name()));
+
+            // Verify
+            verify(categoryMergeService, times(1)).validateRequestParams(request);
+            verify(categoryMergeService, times(1)).mergeCategories(request);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for merging categories => error - bad request")
+    @WithMockUser
+    void mergeCategories2() {
+        try {
+            // Setup
+            final CategoryMergeRequest request = createCategoryMergeRequest(1L, 1L);
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_CATEGORY_MERGE_SAME)).when(categoryMergeService).validateRequestParams(request);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/category/merge")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_CATEGORY_MERGE_SAME));
+
+            // Verify
+            verify(categoryMergeService, never()).mergeCategories(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for merging categories => successful - no content")
+    @WithMockUser
+    void mergeCategories3() {
+        try {
+            // Setup
+            final CategoryMergeRequest request = createCategoryMergeRequest(2L, 99L);
+            // Mocking the services
+            doNothing().when(categoryMergeService).validateRequestParams(request);
+            when(categoryMergeService.mergeCategories(request)).thenThrow(NoContentException.class);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/category/merge")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isNoContent());
+
+            // Verify
+            verify(categoryMergeService, times(1)).mergeCategories(request);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    private CategoryMoveRequest createCategoryMoveRequest(Long categoryId, Long parentId) {
+        CategoryMoveRequest request = new CategoryMoveRequest();
+        request.setCategoryId(categoryId);
+        request.setParentId(parentId);
+
+        return request;
+    }
+
+    private CategoryNodeDto createCategoryNodeDto(Long categoryId, Long parentId, String description, Integer depth,
+                                                  Long booksCount, Long subtreeBooksCount) {
+        return new CategoryNodeDto(categoryId, parentId, description, depth, booksCount, subtreeBooksCount);
+    }
+
+    private CategoryMergeRequest createCategoryMergeRequest(Long sourceCategoryId, Long targetCategoryId) {
+        CategoryMergeRequest request = new CategoryMergeRequest();
+        request.setSourceCategoryId(sourceCategoryId);
+        request.setTargetCategoryId(targetCategoryId);
+
+        return request;
+    }
+
     private CategoryDto createCategoryDto() {
         CategoryDto category = new CategoryDto();
         category.setCategoryId(1L);
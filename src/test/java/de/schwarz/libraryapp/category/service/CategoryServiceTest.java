@@ -0,0 +1,82 @@
+package de.schwarz.libraryapp.category.service;
+
+import de.schwarz.libraryapp.book.domain.event.BookChange;
+import de.schwarz.libraryapp.book.domain.event.BookChangedEvent;
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
+import de.schwarz.libraryapp.category.domain.CategoryRepository;
+import de.schwarz.libraryapp.category.domain.dto.CategoryDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static de.schwarz.libraryapp.category.service.CategoryService.ERROR_CATEGORIES_ID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Keeps the snapshot of the categories up to date without a transaction of the caller, the repository is mocked.
+ */
+class CategoryServiceTest {
+
+    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
+
+
+    @BeforeEach
+    void setup() {
+        categoryRepository = mock(CategoryRepository.class);
+        categoryService = new CategoryService(categoryRepository, mock(ApplicationEventPublisher.class));
+        when(categoryRepository.findAll()).thenReturn(List.of(new CategoryDto(1L, "Fantasy", 2L, null),
+                new CategoryDto(2L, "Horror", 5L, null), new CategoryDto(3L, "Poetry", 7L, null)));
+        categoryService.detectAllCategories();
+    }
+
+    @Test
+    @DisplayName("Service for a book moved to another category => only both categories counted again, no reload")
+    void onBookChanged1() {
+        // Setup
+        when(categoryRepository.countBooksByIds(Set.of(1L, 2L))).thenReturn(Map.of(1L, 1L, 2L, 6L));
+
+        // Run the test
+        categoryService.onBookChanged(new BookChangedEvent(List.of(new BookChange(10L,
+                new BookTerms("Title", "Author", 1L), new BookTerms("Title", "Author", 2L)))));
+
+        // Verify
+        assertEquals(1L, categoryService.detectCategory(1L).getBooksCount());
+        assertEquals(6L, categoryService.detectCategory(2L).getBooksCount());
+        assertEquals(7L, categoryService.detectCategory(3L).getBooksCount());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Service for books changed by a bulk operation => snapshot reloaded once on the next read")
+    void onBookChanged2() {
+        // Run the test
+        categoryService.onBookChanged(BookChangedEvent.bulk());
+        categoryService.detectAllCategories();
+        categoryService.detectAllCategories();
+
+        // Verify
+        verify(categoryRepository, times(2)).findAll();
+        verify(categoryRepository, never()).countBooksByIds(any());
+    }
+
+    @Test
+    @DisplayName("Service for detecting an unknown category, the database failing => error - internal error, no rollback without transaction")
+    void detectCategory1() {
+        // Setup
+        when(categoryRepository.findById(4L)).thenThrow(new DataIntegrityViolationException("failed"));
+
+        // Run the test
+        final InternalError e = assertThrows(InternalError.class, () -> categoryService.detectCategory(4L));
+
+        // Verify
+        assertEquals(ERROR_CATEGORIES_ID, e.getMessage());
+    }
+}
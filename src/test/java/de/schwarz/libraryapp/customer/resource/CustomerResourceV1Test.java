@@ -0,0 +1,155 @@
+package de.schwarz.libraryapp.customer.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.schwarz.libraryapp.WithMockUser;
+import de.schwarz.libraryapp.customer.domain.dto.CustomerDto;
+import de.schwarz.libraryapp.customer.service.CustomerService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles(value = "dev")
+class CustomerResourceV1Test {
+
+    @MockBean
+    private CustomerService customerService;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+
+    @Test
+    @DisplayName("Resource for streaming all customers as json lines => successful")
+    @WithMockUser
+    void streamAllCustomers1() {
+        try {
+            // Setup
+            final CustomerDto customer = createCustomerDto();
+            // Mocking the services
+            doAnswer(invocation -> {
+                Consumer<CustomerDto> consumer = invocation.getArgument(0);
+                consumer.accept(customer);
+                consumer.accept(customer);
+                return null;
+            }).when(customerService).streamAllCustomers(any());
+
+            // Run the test
+            MvcResult result = mockMvc.perform(get("/api/v1/customers/stream")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_NDJSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String line = mapper.writeValueAsString(customer);
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string(line + "\n" + line + "\n"));
+
+            // Verify
+            verify(customerService, times(1)).streamAllCustomers(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for streaming all customers as json array => successful")
+    @WithMockUser
+    void streamAllCustomers2() {
+        try {
+            // Setup
+            final CustomerDto customer = createCustomerDto();
+            // Mocking the services
+            doAnswer(invocation -> {
+                Consumer<CustomerDto> consumer = invocation.getArgument(0);
+                consumer.accept(customer);
+                return null;
+            }).when(customerService).streamAllCustomers(any());
+
+            // Run the test
+            MvcResult result = mockMvc.perform(get("/api/v1/customers/stream")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.[0].customerId").value(customer.getCustomerId()))
+                    .andExpect(jsonPath("$.[0].email").value(customer.getEmail()));
+
+            // Verify
+            verify(customerService, times(1)).streamAllCustomers(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for streaming all customers as json array => successful - no customers")
+    @WithMockUser
+    void streamAllCustomers3() {
+        try {
+            // Mocking the services
+            doNothing().when(customerService).streamAllCustomers(any());
+
+            // Run the test
+            MvcResult result = mockMvc.perform(get("/api/v1/customers/stream")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("[]"));
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for streaming all customers => error - unauthorized")
+    void streamAllCustomers4() {
+        try {
+            // Run the test
+            mockMvc.perform(get("/api/v1/customers/stream")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_NDJSON)
+                            .with(SecurityMockMvcRequestPostProcessors.anonymous()))
+                    .andExpect(status().isUnauthorized());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    private CustomerDto createCustomerDto() {
+        CustomerDto customer = new CustomerDto();
+        customer.setCustomerId(1L);
+        customer.setName("Max Mustermann");
+        customer.setEmail("max@mustermann.de");
+
+        return customer;
+    }
+}
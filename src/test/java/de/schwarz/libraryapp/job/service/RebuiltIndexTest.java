@@ -0,0 +1,104 @@
+package de.schwarz.libraryapp.job.service;
+
+import de.schwarz.libraryapp.book.domain.event.BookChange;
+import de.schwarz.libraryapp.book.domain.event.BookTerms;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rebuild of an in-memory index with the changes committed during the build, here the number of books per author.
+ */
+class RebuiltIndexTest {
+
+    private static final BookTerms TOLSTOI = new BookTerms("Anna Karenina", "Tolstoi", 1L);
+    private static final BookTerms DOSTOJEWSKI = new BookTerms("Der Spieler", "Dostojewski", 1L);
+
+    private RebuiltIndex<Map<String, Long>> index;
+
+
+    @BeforeEach
+    void setup() {
+        var transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        index = new RebuiltIndex<>(new HashMap<>(), new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    @DisplayName("Rebuilding the index => new index swapped, changes during the build applied to it")
+    void rebuild1() {
+        // Run the test
+        var rebuilt = index.rebuild(() -> {
+            index.apply(books -> books.merge("Tolstoi", 1L, Long::sum));
+
+            return new HashMap<>(Map.of("Tolstoi", 2L));
+        });
+
+        // Verify
+        assertEquals(Map.of("Tolstoi", 3L), rebuilt);
+        assertSame(rebuilt, index.read(books -> books));
+    }
+
+    @Test
+    @DisplayName("Rebuilding the index => book changes seen by the snapshot skipped, the others applied once")
+    void rebuild2() {
+        // Setup
+        var created = new BookChange(1L, null, TOLSTOI);
+        var changed = new BookChange(1L, TOLSTOI, DOSTOJEWSKI);
+        var other = new BookChange(2L, null, TOLSTOI);
+
+        // Run the test, the snapshot has seen the creation of book 1 only
+        var rebuilt = index.rebuild(() -> {
+            index.applyBookChanges(List.of(created, other), RebuiltIndexTest::count);
+            index.applyBookChanges(List.of(changed), RebuiltIndexTest::count);
+
+            return new HashMap<>(Map.of("Tolstoi", 1L));
+        }, bookIds -> {
+            assertEquals(Set.of(1L, 2L), bookIds);
+            return Map.of(1L, TOLSTOI);
+        }, () -> {
+        });
+
+        // Verify
+        assertEquals(Map.of("Tolstoi", 1L, "Dostojewski", 1L), rebuilt);
+    }
+
+    @Test
+    @DisplayName("Applying changes after a failed rebuild => applied to the previous index, not recorded")
+    void apply1() {
+        // Setup
+        var previous = index.read(books -> books);
+
+        // Run the test
+        assertThrows(IllegalStateException.class, () -> index.rebuild(() -> {
+            throw new IllegalStateException();
+        }));
+        index.applyBookChanges(List.of(new BookChange(1L, null, TOLSTOI)), RebuiltIndexTest::count);
+
+        // Verify
+        assertSame(previous, index.read(books -> books));
+        assertEquals(Map.of("Tolstoi", 1L), previous);
+    }
+
+    private static void count(Map<String, Long> books, BookChange change) {
+        if (change.getBefore() != null) {
+            books.computeIfPresent(change.getBefore().getAuthor(), (author, count) -> count == 1 ? null : count - 1);
+        }
+        if (change.getAfter() != null) {
+            books.merge(change.getAfter().getAuthor(), 1L, Long::sum);
+        }
+    }
+}
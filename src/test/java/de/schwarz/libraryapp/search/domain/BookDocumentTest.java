@@ -0,0 +1,77 @@
+package de.schwarz.libraryapp.search.domain;
+
+import de.schwarz.libraryapp.book.domain.dto.BookView;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Documents of the books in the search index.
+ */
+class BookDocumentTest {
+
+    @Test
+    @DisplayName("Creating the document of a book => all fields stored")
+    void create1() {
+        // Setup
+        var book = mockBook(1L, LocalDate.of(1866, 1, 1), "Roman");
+
+        // Run the test
+        var bookDto = BookDocument.toBookDto(BookDocument.create(book, 7L));
+
+        // Verify
+        assertEquals(1L, bookDto.getBookId());
+        assertEquals("Dostojewski", bookDto.getAuthor());
+        assertEquals("Schuld und Sühne", bookDto.getTitle());
+        assertEquals("Insel", bookDto.getPublisher());
+        assertEquals("1866", bookDto.getPublishingYear());
+        assertEquals("Roman", bookDto.getCategoryDescription());
+    }
+
+    @Test
+    @DisplayName("Creating the document of a book without publishing year and category => missing fields left out")
+    void create2() {
+        // Setup
+        var book = mockBook(1L, null, null);
+
+        // Run the test
+        var document = BookDocument.create(book, 7L);
+
+        // Verify
+        assertNull(document.get(BookDocument.FIELD_PUBLISHING_YEAR));
+        assertNull(document.get(BookDocument.FIELD_CATEGORY));
+        var bookDto = BookDocument.toBookDto(document);
+        assertEquals(1L, bookDto.getBookId());
+        assertNull(bookDto.getPublishingYear());
+        assertNull(bookDto.getCategoryDescription());
+    }
+
+    @Test
+    @DisplayName("Creating the document of a book without id => IllegalArgumentException")
+    void create3() {
+        // Setup
+        var book = mockBook(null, LocalDate.of(1866, 1, 1), "Roman");
+
+        // Run the test
+        var exception = assertThrows(IllegalArgumentException.class, () -> BookDocument.create(book, 7L));
+
+        // Verify
+        assertEquals(BookDocument.ERROR_BOOK_ID_EMPTY, exception.getMessage());
+    }
+
+    private static BookView mockBook(Long bookId, LocalDate publishingYear, String categoryDescription) {
+        var book = mock(BookView.class);
+        when(book.getBookId()).thenReturn(bookId);
+        when(book.getAuthor()).thenReturn("Dostojewski");
+        when(book.getTitle()).thenReturn("Schuld und Sühne");
+        when(book.getPublisher()).thenReturn("Insel");
+        when(book.getPublishingYear()).thenReturn(publishingYear);
+        when(book.getCategoryDescription()).thenReturn(categoryDescription);
+        return book;
+    }
+}
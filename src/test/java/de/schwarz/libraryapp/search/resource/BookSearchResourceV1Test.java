@@ -0,0 +1,197 @@
+package de.schwarz.libraryapp.search.resource;
+
+import de.schwarz.libraryapp.WithMockUser;
+import de.schwarz.libraryapp.book.domain.dto.BookDto;
+import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.job.domain.JobStatus;
+import de.schwarz.libraryapp.job.domain.dto.JobDto;
+import de.schwarz.libraryapp.search.domain.dto.BookSearchHit;
+import de.schwarz.libraryapp.search.domain.dto.BookSearchPage;
+import de.schwarz.libraryapp.search.service.BookSearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static de.schwarz.libraryapp.search.service.BookSearchService.ERROR_SEARCH_CURSOR_INVALID;
+import static de.schwarz.libraryapp.search.service.BookSearchService.ERROR_SEARCH_QUERY_EMPTY;
+import static de.schwarz.libraryapp.search.service.BookSearchService.JOB_TYPE_SEARCH_REBUILD;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles(value = "dev")
+class BookSearchResourceV1Test {
+
+    @MockBean
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+
+    @Test
+    @DisplayName("Resource for searching books => successful")
+    @WithMockUser
+    void searchBooks1() {
+        try {
+            // Setup
+            final String query = "\"der idiot\" dostojewski";
+            final BookDto book = BookDto.builder()
+                    .bookId(1L)
+                    .author("Fjodor Dostojewski")
+                    .title("Der Idiot")
+                    .publisher("Insel")
+                    .publishingYear("1869")
+                    .categoryDescription("Roman")
+                    .build();
+            final BookSearchPage page = new BookSearchPage(List.of(new BookSearchHit(book, 4.25f)), "NC4yNToxMjM");
+            // Mocking the services
+            doNothing().when(bookSearchService).validateRequestParams(query, 1);
+            when(bookSearchService.detectBooks(query, null, 1)).thenReturn(page);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/search")
+                            .param("query", query)
+                            .param("size", "1")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.hits[0].book.bookId").value(book.getBookId()))
+                    .andExpect(jsonPath("$.hits[0].book.title").value(book.getTitle()))
+                    .andExpect(jsonPath("$.hits[0].book.category").value(book.getCategoryDescription()))
+                    .andExpect(jsonPath("$.hits[0].score").value(4.25))
+                    .andExpect(jsonPath("$.nextCursor").value(page.getNextCursor()));
+
+            // Verify
+            verify(bookSearchService, times(1)).validateRequestParams(query, 1);
+            verify(bookSearchService, times(1)).detectBooks(query, null, 1);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for searching books => successful - no content")
+    @WithMockUser
+    void searchBooks2() {
+        try {
+            // Setup
+            final String query = "xyz";
+            // Mocking the services
+            when(bookSearchService.detectBooks(query, null, null)).thenThrow(NoContentException.class);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/search")
+                            .param("query", query)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNoContent());
+
+            // Verify
+            verify(bookSearchService, times(1)).detectBooks(query, null, null);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for searching books => error - bad request")
+    @WithMockUser
+    void searchBooks3() {
+        try {
+            // Setup
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_SEARCH_QUERY_EMPTY)).when(bookSearchService).validateRequestParams(null, null);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/search")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_SEARCH_QUERY_EMPTY));
+
+            // Verify
+            verify(bookSearchService, never()).detectBooks(any(), any(), any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for searching books => error - bad request cursor")
+    @WithMockUser
+    void searchBooks4() {
+        try {
+            // Setup
+            final String query = "idiot";
+            final String cursor = "invalid";
+            // Mocking the services
+            when(bookSearchService.detectBooks(query, cursor, null)).thenThrow(new IllegalArgumentException(ERROR_SEARCH_CURSOR_INVALID));
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/search")
+                            .param("query", query)
+                            .param("cursor", cursor)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_SEARCH_CURSOR_INVALID));
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for searching books => error - unauthorized")
+    void searchBooks5() {
+        try {
+            // Run the test
+            mockMvc.perform(get("/api/v1/books/search")
+                            .param("query", "idiot")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .with(SecurityMockMvcRequestPostProcessors.anonymous()))
+                    .andExpect(status().isUnauthorized());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for rebuilding the search index => successful")
+    @WithMockUser
+    void rebuildSearchIndex1() {
+        try {
+            // Setup
+            final JobDto job = new JobDto();
+            job.setJobId(UUID.randomUUID());
+            job.setType(JOB_TYPE_SEARCH_REBUILD);
+            job.setStatus(JobStatus.QUEUED);
+            // Mocking the services
+            when(bookSearchService.rebuildIndex()).thenReturn(job);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/books/search/rebuild")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.jobId").value(job.getJobId().toString()))
+                    .andExpect(jsonPath("$.type").value(JOB_TYPE_SEARCH_REBUILD));
+
+            // Verify
+            verify(bookSearchService, times(1)).rebuildIndex();
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package de.schwarz.libraryapp.security;
+
+import de.schwarz.libraryapp.auth.service.UserService;
+import de.schwarz.libraryapp.customer.domain.dto.CustomerDto;
+import de.schwarz.libraryapp.exception.RetryLaterException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static de.schwarz.libraryapp.security.BoundedPasswordEncoder.ERROR_AUTH_HASHING_BUSY;
+import static de.schwarz.libraryapp.security.LibraryAppSecurityConfig.PASSWORD_ENCODER_BCRYPT;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Authenticates through the customer details service, which stores the upgraded hash of an outdated one.
+ */
+class BoundedDaoAuthenticationProviderTest {
+
+    private static final String EMAIL = "test@test.de";
+    private static final String PASSWORD = "secret";
+
+    private final CalibratedBCryptPasswordEncoder bcrypt = new CalibratedBCryptPasswordEncoder(5);
+    private UserService userService;
+    private CustomerAuthDetailService customerAuthDetailService;
+
+
+    @BeforeEach
+    void setup() {
+        userService = mock(UserService.class);
+        customerAuthDetailService = new CustomerAuthDetailService(userService);
+    }
+
+    @Test
+    @DisplayName("Provider for a login with an outdated hash => authenticated, the upgraded hash stored")
+    void authenticate1() {
+        // Setup
+        mockCustomer("{" + PASSWORD_ENCODER_BCRYPT + "}" + new BCryptPasswordEncoder(4).encode(PASSWORD));
+        final ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+
+        // Run the test
+        final Authentication authentication = provider(delegating()).authenticate(loginToken(PASSWORD));
+
+        // Verify
+        assertTrue(authentication.isAuthenticated());
+        verify(userService, times(1)).updatePassword(eq(1L), eq(EMAIL), hash.capture());
+        assertTrue(hash.getValue().startsWith("{" + PASSWORD_ENCODER_BCRYPT + "}$2a$05$"));
+        assertTrue(delegating().matches(PASSWORD, hash.getValue()));
+    }
+
+    @Test
+    @DisplayName("Provider for a login with a current hash => authenticated, no hash stored")
+    void authenticate2() {
+        // Setup
+        mockCustomer("{" + PASSWORD_ENCODER_BCRYPT + "}" + bcrypt.encode(PASSWORD));
+
+        // Run the test
+        final Authentication authentication = provider(delegating()).authenticate(loginToken(PASSWORD));
+
+        // Verify
+        assertTrue(authentication.isAuthenticated());
+        verify(userService, never()).updatePassword(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Provider for a login with an outdated hash while hashing is busy => authenticated, upgrade skipped")
+    void authenticate3() {
+        // Setup
+        mockCustomer("{" + PASSWORD_ENCODER_BCRYPT + "}outdated");
+        final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches(PASSWORD, "{" + PASSWORD_ENCODER_BCRYPT + "}outdated")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(anyString())).thenReturn(true);
+        when(passwordEncoder.encode(PASSWORD)).thenThrow(new RetryLaterException(ERROR_AUTH_HASHING_BUSY, Duration.ofSeconds(1)));
+
+        // Run the test
+        final Authentication authentication = provider(passwordEncoder).authenticate(loginToken(PASSWORD));
+
+        // Verify
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(1L, ((UserPrincipal) authentication.getPrincipal()).getUserId());
+        assertEquals(1, authentication.getAuthorities().size());
+        verify(userService, never()).updatePassword(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Provider for a login with a wrong password => error - bad credentials, no hash stored")
+    void authenticate4() {
+        // Setup
+        mockCustomer("{" + PASSWORD_ENCODER_BCRYPT + "}" + new BCryptPasswordEncoder(4).encode(PASSWORD));
+
+        // Run the test
+        assertThrows(BadCredentialsException.class, () -> provider(delegating()).authenticate(loginToken("wrong")));
+
+        // Verify
+        verify(userService, never()).updatePassword(any(), any(), any());
+    }
+
+    private BoundedDaoAuthenticationProvider provider(PasswordEncoder passwordEncoder) {
+        final BoundedDaoAuthenticationProvider provider = new BoundedDaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(customerAuthDetailService);
+        provider.setUserDetailsPasswordService(customerAuthDetailService);
+
+        return provider;
+    }
+
+    private PasswordEncoder delegating() {
+        final DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(PASSWORD_ENCODER_BCRYPT, Map.of(PASSWORD_ENCODER_BCRYPT, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return delegating;
+    }
+
+    private void mockCustomer(String hash) {
+        final CustomerDto customer = new CustomerDto();
+        customer.setCustomerId(1L);
+        customer.setEmail(EMAIL);
+        customer.setPassword(hash);
+        when(userService.findByEmail(EMAIL)).thenReturn(customer);
+    }
+
+    private static UsernamePasswordAuthenticationToken loginToken(String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, password);
+    }
+}
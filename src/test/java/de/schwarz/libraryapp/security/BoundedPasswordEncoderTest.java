@@ -0,0 +1,151 @@
+package de.schwarz.libraryapp.security;
+
+import de.schwarz.libraryapp.exception.RetryLaterException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static de.schwarz.libraryapp.security.BoundedPasswordEncoder.ERROR_AUTH_HASHING_BUSY;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hashes on an executor of one thread without queue, so a second hash at once is rejected. Each test hashes once
+ * on its idle executor, the thread of a finished hash takes the next one only after polling the queue again.
+ */
+class BoundedPasswordEncoderTest {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(2);
+
+    private PasswordEncoder delegate;
+    private ThreadPoolTaskExecutor executor;
+    private MeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(PasswordEncoder.class);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(delegate, executor, RETRY_AFTER, meterRegistry);
+    }
+
+    @AfterEach
+    void cleanup() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Encoder for encoding a password => hash of the delegate, the wait recorded")
+    void encode1() {
+        // Setup
+        when(delegate.encode("secret")).thenReturn("{bcrypt}hash");
+
+        // Run the test
+        final String encoded = encoder.encode("secret");
+
+        // Verify
+        assertEquals("{bcrypt}hash", encoded);
+        assertEquals(1L, meterRegistry.get("auth.hashing.wait").timer().count());
+        assertEquals(0.0, meterRegistry.get("auth.hashing.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Encoder for matching a password => result of the delegate, the wait recorded")
+    void matches1() {
+        // Setup
+        when(delegate.matches("secret", "{bcrypt}hash")).thenReturn(true);
+
+        // Run the test
+        final boolean matches = encoder.matches("secret", "{bcrypt}hash");
+
+        // Verify
+        assertTrue(matches);
+        assertEquals(1L, meterRegistry.get("auth.hashing.wait").timer().count());
+    }
+
+    @Test
+    @DisplayName("Encoder for hashing a password while the thread is busy => error - retry later, the rejection counted")
+    void hash1() throws Exception {
+        // Setup
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        final CompletableFuture<Boolean> busy = CompletableFuture.supplyAsync(() -> encoder.matches("secret", "{bcrypt}hash"));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // Run the test
+        final RetryLaterException e = assertThrows(RetryLaterException.class, () -> encoder.encode("secret"));
+
+        // Verify
+        assertEquals(ERROR_AUTH_HASHING_BUSY, e.getMessage());
+        assertEquals(RETRY_AFTER, e.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("auth.hashing.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("auth.hashing.active").gauge().value());
+        assertEquals(0.0, meterRegistry.get("auth.hashing.queue").gauge().value());
+        verify(delegate, never()).encode(any());
+        release.countDown();
+        assertTrue(busy.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Encoder for hashing with a failing delegate => runtime exception of the delegate unwrapped")
+    void hash2() {
+        // Setup
+        final IllegalArgumentException failure = new IllegalArgumentException("Encoded password does not look like BCrypt");
+        when(delegate.matches("secret", "hash")).thenThrow(failure);
+
+        // Run the test
+        final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> encoder.matches("secret", "hash"));
+
+        // Verify
+        assertSame(failure, e);
+    }
+
+    @Test
+    @DisplayName("Encoder for hashing with a delegate failing by an error => error - illegal state, caused by the error")
+    void hash3() {
+        // Setup
+        final InternalError failure = new InternalError("hashing failed");
+        when(delegate.encode("secret")).thenThrow(failure);
+
+        // Run the test
+        final IllegalStateException e = assertThrows(IllegalStateException.class, () -> encoder.encode("secret"));
+
+        // Verify
+        assertSame(failure, e.getCause());
+    }
+
+    @Test
+    @DisplayName("Encoder for checking the upgrade of a hash => answered by the delegate, not on the executor")
+    void upgradeEncoding1() {
+        // Setup
+        when(delegate.upgradeEncoding("{bcrypt}hash")).thenReturn(true);
+
+        // Run the test
+        final boolean upgrade = encoder.upgradeEncoding("{bcrypt}hash");
+
+        // Verify
+        assertTrue(upgrade);
+        assertEquals(0L, meterRegistry.get("auth.hashing.wait").timer().count());
+    }
+}
@@ -0,0 +1,106 @@
+package de.schwarz.libraryapp.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static de.schwarz.libraryapp.security.LibraryAppSecurityConfig.PASSWORD_ENCODER_BCRYPT;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the upgrade of stored hashes, alone and behind the prefix of the encoder id as configured.
+ * The low strengths keep the hashing fast.
+ */
+class CalibratedBCryptPasswordEncoderTest {
+
+    private final CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+
+    @Test
+    @DisplayName("Encoder for a hash of its own strength => no upgrade")
+    void upgradeEncoding1() {
+        // Run the test
+        final boolean upgrade = encoder.upgradeEncoding(encoder.encode("secret"));
+
+        // Verify
+        assertFalse(upgrade);
+    }
+
+    @Test
+    @DisplayName("Encoder for a hash of a lower strength => upgrade")
+    void upgradeEncoding2() {
+        // Run the test
+        final boolean upgrade = encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"));
+
+        // Verify
+        assertTrue(upgrade);
+    }
+
+    @Test
+    @DisplayName("Encoder for a hash of a higher strength => upgrade, a lowered strength takes effect")
+    void upgradeEncoding3() {
+        // Run the test
+        final boolean upgrade = encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"));
+
+        // Verify
+        assertTrue(upgrade);
+    }
+
+    @Test
+    @DisplayName("Encoder for a malformed hash => upgrade, an empty one => no upgrade")
+    void upgradeEncoding4() {
+        // Verify
+        assertTrue(encoder.upgradeEncoding("$2a$05$tooShort"));
+        assertTrue(encoder.upgradeEncoding("plain-password"));
+        assertFalse(encoder.upgradeEncoding(""));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    @DisplayName("Delegating encoder for a hash without prefix or of another encoder => upgrade")
+    void upgradeEncoding5() {
+        // Setup
+        final PasswordEncoder delegating = delegating();
+        final String hash = encoder.encode("secret");
+
+        // Verify
+        assertTrue(delegating.upgradeEncoding(hash));
+        assertTrue(delegating.upgradeEncoding("{noop}secret"));
+        assertTrue(delegating.upgradeEncoding("{" + PASSWORD_ENCODER_BCRYPT + "}" + new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(delegating.upgradeEncoding("{" + PASSWORD_ENCODER_BCRYPT + "}" + hash));
+        assertTrue(delegating.matches("secret", hash));
+    }
+
+    @Test
+    @DisplayName("Calibration for a target time below the minimum strength => minimum strength kept")
+    void calibrate1() {
+        // Run the test
+        final CalibratedBCryptPasswordEncoder calibrated = CalibratedBCryptPasswordEncoder.calibrate(Duration.ZERO, 4, 6);
+
+        // Verify
+        assertEquals(4, calibrated.getStrength());
+        assertTrue(calibrated.encode("secret").startsWith("$2a$04$"));
+    }
+
+    @Test
+    @DisplayName("Calibration for a target time beyond the maximum strength => maximum strength")
+    void calibrate2() {
+        // Run the test
+        final CalibratedBCryptPasswordEncoder calibrated = CalibratedBCryptPasswordEncoder.calibrate(Duration.ofMinutes(1), 4, 5);
+
+        // Verify
+        assertEquals(5, calibrated.getStrength());
+    }
+
+    private PasswordEncoder delegating() {
+        final DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(PASSWORD_ENCODER_BCRYPT, Map.of(PASSWORD_ENCODER_BCRYPT, encoder));
+        delegating.setDefaultPasswordEncoderForMatches(encoder);
+
+        return delegating;
+    }
+}
@@ -0,0 +1,116 @@
+package de.schwarz.libraryapp.security;
+
+import de.schwarz.libraryapp.auth.service.UserService;
+import de.schwarz.libraryapp.cache.CacheConfig;
+import de.schwarz.libraryapp.customer.domain.event.CustomerChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Caches the principals by the email until the change of their customer is committed. The user service is spied
+ * to count the loads of the test customer.
+ */
+@SpringBootTest
+@ActiveProfiles(value = "dev")
+class CustomerAuthDetailServiceCacheTest {
+
+    private static final String EMAIL = "test@test.de";
+
+    @Autowired
+    private CustomerAuthDetailService customerAuthDetailService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @SpyBean
+    private UserService userService;
+
+    private Cache cache;
+
+
+    @BeforeEach
+    void setup() {
+        cache = cacheManager.getCache(CacheConfig.CACHE_PRINCIPALS);
+        cache.clear();
+    }
+
+    @Test
+    @DisplayName("Service for loading a principal twice => second call served from cache, also with blanks around the email")
+    void loadUserByUsername1() {
+        // Run the test
+        final UserDetails first = customerAuthDetailService.loadUserByUsername(EMAIL);
+        final UserDetails second = customerAuthDetailService.loadUserByUsername(" " + EMAIL + " ");
+
+        // Verify
+        assertEquals(EMAIL, first.getUsername());
+        assertSame(first, second);
+        verify(userService, times(1)).findByEmail(any());
+    }
+
+    @Test
+    @DisplayName("Service for loading the principal of a changed customer => evicted after the commit of the change, not before")
+    void loadUserByUsername2() {
+        // Setup
+        customerAuthDetailService.loadUserByUsername(EMAIL);
+
+        // Run the test
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new CustomerChangedEvent(List.of(EMAIL)));
+            assertNotNull(cache.get(EMAIL), "Evicted before the commit");
+        });
+        customerAuthDetailService.loadUserByUsername(EMAIL);
+
+        // Verify
+        verify(userService, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Service for loading a principal while its customer's change is committed => principal loaded before not kept")
+    void loadUserByUsername3() throws Exception {
+        // Setup
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(userService).findByEmail(EMAIL);
+        final CompletableFuture<UserDetails> load = CompletableFuture.supplyAsync(() -> customerAuthDetailService.loadUserByUsername(EMAIL));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+        // Run the test, the eviction waits for the load in progress
+        final CompletableFuture<Void> change = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new CustomerChangedEvent(List.of(EMAIL)))));
+        Thread.sleep(200);
+        release.countDown();
+        load.get(10, TimeUnit.SECONDS);
+        change.get(10, TimeUnit.SECONDS);
+
+        // Verify
+        assertNull(cache.get(EMAIL));
+    }
+}
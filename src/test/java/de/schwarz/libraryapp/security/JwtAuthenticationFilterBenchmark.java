@@ -0,0 +1,155 @@
+package de.schwarz.libraryapp.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import de.schwarz.libraryapp.cache.CacheConfig;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the authentication filter with a bearer token, compared with the former filter verifying every
+ * token with a new verifier. Run the main method, e.g. from the IDE or with the test classpath:
+ * java -cp target/test-classes:target/classes:[test dependencies] de.schwarz.libraryapp.security.JwtAuthenticationFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String PROTECTED_PATH = "/api/v1/books";
+    private static final String PUBLIC_PATH = "/actuator/health";
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+
+    private OncePerRequestFilter formerFilter;
+    private OncePerRequestFilter cachingFilter;
+    private OncePerRequestFilter uncachedFilter;
+    private String authorization;
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    @Setup
+    public void setup() {
+        var properties = new JwtProperties();
+        properties.setSecretKey("bigsecret");
+        properties.setTokenDuration(Duration.ofMinutes(3));
+        var cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "booksMaxSize", 1L);
+        ReflectionTestUtils.setField(cacheConfig, "booksTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cacheConfig, "tokensMaxSize", 10_000L);
+
+        var converter = new JwtToPrincipalConverter();
+        formerFilter = new PerRequestVerifierFilter(properties, converter);
+        cachingFilter = new JwtAuthenticationFilter(new JwtDecoder(properties), converter, cacheConfig.cacheManager());
+        uncachedFilter = new JwtAuthenticationFilter(new JwtDecoder(properties), converter, new NoOpCacheManager());
+        authorization = "Bearer " + new JwtIssuer(properties).issue(JwtIssuer.Request.builder()
+                .userId(1L)
+                .email("test@test.de")
+                .roles(List.of("USER"))
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void formerFilter(Blackhole blackhole) throws ServletException, IOException {
+        filter(formerFilter, PROTECTED_PATH, blackhole);
+    }
+
+    @Benchmark
+    public void sharedVerifier(Blackhole blackhole) throws ServletException, IOException {
+        filter(uncachedFilter, PROTECTED_PATH, blackhole);
+    }
+
+    @Benchmark
+    public void cachedToken(Blackhole blackhole) throws ServletException, IOException {
+        filter(cachingFilter, PROTECTED_PATH, blackhole);
+    }
+
+    @Benchmark
+    public void formerFilterPublicPath(Blackhole blackhole) throws ServletException, IOException {
+        filter(formerFilter, PUBLIC_PATH, blackhole);
+    }
+
+    @Benchmark
+    public void publicPath(Blackhole blackhole) throws ServletException, IOException {
+        filter(cachingFilter, PUBLIC_PATH, blackhole);
+    }
+
+    private void filter(OncePerRequestFilter filter, String path, Blackhole blackhole) throws ServletException, IOException {
+        var request = new MockHttpServletRequest("GET", path);
+        request.addHeader("Authorization", authorization);
+        filter.doFilter(request, new MockHttpServletResponse(), CHAIN);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * The filter as before, a new algorithm and verifier per request
+     */
+    private static class PerRequestVerifierFilter extends OncePerRequestFilter {
+
+        private final JwtProperties properties;
+        private final JwtToPrincipalConverter converter;
+
+
+        private PerRequestVerifierFilter(JwtProperties properties, JwtToPrincipalConverter converter) {
+            this.properties = properties;
+            this.converter = converter;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+            var token = request.getHeader("Authorization");
+            if (StringUtils.hasText(token) && token.startsWith("Bearer ")) {
+                var jwt = JWT.require(Algorithm.HMAC256(properties.getSecretKey()))
+                        .build()
+                        .verify(token.substring(7));
+                SecurityContextHolder.getContext().setAuthentication(new UserPrincipalAuthenticationToken(converter.convert(jwt)));
+            }
+
+            filterChain.doFilter(request, response);
+        }
+    }
+}
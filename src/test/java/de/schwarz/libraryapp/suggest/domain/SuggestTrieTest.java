@@ -0,0 +1,208 @@
+package de.schwarz.libraryapp.suggest.domain;
+
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionDto;
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Completions, weights and compaction of the suggest trie.
+ */
+class SuggestTrieTest {
+
+    @Test
+    @DisplayName("Completing a prefix => terms ordered by weight descending, equal weights by value")
+    void complete1() {
+        // Setup
+        final SuggestTrie trie = new SuggestTrie();
+        trie.add(SuggestionType.TITLE, "Der Idiot", 3);
+        trie.add(SuggestionType.TITLE, "Der Spieler", 5);
+        trie.add(SuggestionType.TITLE, "Der Doppelgänger", 3);
+        trie.add(SuggestionType.TITLE, "Die Dämonen", 7);
+
+        // Run the test
+        final List<SuggestionDto> suggestions = trie.complete("der ", 10);
+
+        // Verify
+        assertEquals(List.of(new SuggestionDto("Der Spieler", SuggestionType.TITLE, 5L),
+                new SuggestionDto("Der Doppelgänger", SuggestionType.TITLE, 3L),
+                new SuggestionDto("Der Idiot", SuggestionType.TITLE, 3L)), suggestions);
+    }
+
+    @Test
+    @DisplayName("Completing a prefix ending within a label, ignoring case and accents => completions found")
+    void complete2() {
+        // Setup
+        final SuggestTrie trie = new SuggestTrie();
+        trie.add(SuggestionType.AUTHOR, "Dostojewski", 2);
+        trie.add(SuggestionType.AUTHOR, "Döblin", 1);
+
+        // Run the test and verify
+        assertEquals(List.of("Dostojewski"), values(trie.complete("DOSTO", 10)));
+        assertEquals(List.of("Dostojewski", "Döblin"), values(trie.complete("do", 10)));
+        assertEquals(List.of("Döblin"), values(trie.complete("dob", 10)));
+        assertEquals(List.of(), trie.complete("dx", 10));
+        assertEquals(List.of(), trie.complete("dostojewskij", 10));
+    }
+
+    @Test
+    @DisplayName("Completing a prefix => limited to the best completions")
+    void complete3() {
+        // Setup
+        final SuggestTrie trie = new SuggestTrie();
+        for (int i = 1; i <= 20; i++) {
+            trie.add(SuggestionType.TITLE, "Band " + i, i);
+        }
+
+        // Run the test
+        final List<SuggestionDto> suggestions = trie.complete("band", 3);
+
+        // Verify
+        assertEquals(List.of("Band 20", "Band 19", "Band 18"), values(suggestions));
+    }
+
+    @Test
+    @DisplayName("Completing prefixes of random terms => same as sorting all matching terms")
+    void complete4() {
+        // Setup
+        final Random random = new Random(42);
+        final SuggestTrie trie = new SuggestTrie();
+        final Map<String, Long> weights = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            final String value = randomWord(random);
+            final long delta = random.nextInt(10) - 3;
+            trie.add(SuggestionType.TITLE, value, delta);
+            final long weight = weights.getOrDefault(value, 0L);
+            if (weight + delta > 0 && (weight > 0 || delta > 0)) {
+                weights.put(value, weight + delta);
+            } else if (weight > 0) {
+                weights.remove(value);
+            }
+        }
+
+        // Run the test and verify
+        for (String prefix : List.of("", "a", "ab", "ba", "cab", "abc")) {
+            final List<String> expected = weights.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(10)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertEquals(expected, values(trie.complete(prefix, 10)), "Prefix: " + prefix);
+        }
+        assertEquals(weights.size(), trie.size());
+    }
+
+    @Test
+    @DisplayName("Adding a term of another type with the same key => separate terms")
+    void add1() {
+        // Setup
+        final SuggestTrie trie = new SuggestTrie();
+
+        // Run the test
+        trie.add(SuggestionType.TITLE, "Horror", 1);
+        trie.add(SuggestionType.CATEGORY, "horror", 4);
+
+        // Verify
+        assertEquals(2, trie.size());
+        assertEquals(1, trie.weight(SuggestionType.TITLE, "HORROR"));
+        assertEquals(4, trie.weight(SuggestionType.CATEGORY, "Horror"));
+        assertEquals(List.of(new SuggestionDto("horror", SuggestionType.CATEGORY, 4L),
+                new SuggestionDto("Horror", SuggestionType.TITLE, 1L)), trie.complete("hor", 10));
+    }
+
+    @Test
+    @DisplayName("Removing all terms => nodes compacted back to the root")
+    void add2() {
+        // Setup
+        final SuggestTrie trie = new SuggestTrie();
+        final long emptyBytes = trie.estimatedBytes();
+        trie.add(SuggestionType.TITLE, "Romane", 2);
+        trie.add(SuggestionType.TITLE, "Roman", 1);
+        trie.add(SuggestionType.TITLE, "Rose", 1);
+
+        // Run the test
+        trie.add(SuggestionType.TITLE, "Roman", -1);
+        trie.add(SuggestionType.TITLE, "Rose", -1);
+
+        // Verify a single leaf remains
+        assertEquals(1, trie.size());
+        assertEquals(2, trie.nodes());
+        assertEquals(List.of("Romane"), values(trie.complete("ro", 10)));
+
+        // Run the test
+        trie.add(SuggestionType.TITLE, "Romane", -2);
+
+        // Verify
+        assertEquals(0, trie.size());
+        assertEquals(1, trie.nodes());
+        assertEquals(emptyBytes, trie.estimatedBytes());
+        assertEquals(List.of(), trie.complete("", 10));
+    }
+
+    @Test
+    @DisplayName("Adding a negative delta to an unknown term or a blank value => ignored")
+    void add3() {
+        // Setup
+        final SuggestTrie trie = new SuggestTrie();
+        trie.add(SuggestionType.TITLE, "Roman", 1);
+
+        // Run the test
+        trie.add(SuggestionType.TITLE, "Rom", -1);
+        trie.add(SuggestionType.TITLE, "Romanze", -1);
+        trie.add(SuggestionType.AUTHOR, "Roman", -1);
+        trie.add(SuggestionType.TITLE, null, 1);
+        trie.add(SuggestionType.TITLE, "  ", 1);
+
+        // Verify
+        assertEquals(1, trie.size());
+        assertEquals(2, trie.nodes());
+        assertEquals(1, trie.weight(SuggestionType.TITLE, "Roman"));
+    }
+
+    @Test
+    @DisplayName("Setting the weight of a term => weight replaced, zero removes the term")
+    void set1() {
+        // Setup
+        final SuggestTrie trie = new SuggestTrie();
+        trie.add(SuggestionType.CATEGORY, "Krimi", 3);
+
+        // Run the test
+        trie.set(SuggestionType.CATEGORY, "Krimi", 8);
+        trie.set(SuggestionType.CATEGORY, "Horror", 2);
+
+        // Verify
+        assertEquals(8, trie.weight(SuggestionType.CATEGORY, "krimi"));
+        assertEquals(2, trie.weight(SuggestionType.CATEGORY, "horror"));
+
+        // Run the test
+        trie.set(SuggestionType.CATEGORY, "Krimi", 0);
+
+        // Verify
+        assertEquals(0, trie.weight(SuggestionType.CATEGORY, "Krimi"));
+        assertEquals(1, trie.size());
+    }
+
+    private static String randomWord(Random random) {
+        final StringBuilder word = new StringBuilder();
+        final int length = 1 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+
+    private static List<String> values(List<SuggestionDto> suggestions) {
+        return suggestions.stream()
+                .map(SuggestionDto::getValue)
+                .toList();
+    }
+}
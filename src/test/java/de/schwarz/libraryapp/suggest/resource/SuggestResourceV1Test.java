@@ -0,0 +1,132 @@
+package de.schwarz.libraryapp.suggest.resource;
+
+import de.schwarz.libraryapp.WithMockUser;
+import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionDto;
+import de.schwarz.libraryapp.suggest.domain.dto.SuggestionType;
+import de.schwarz.libraryapp.suggest.service.SuggestService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static de.schwarz.libraryapp.suggest.service.SuggestService.ERROR_SUGGEST_PREFIX_EMPTY;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles(value = "dev")
+class SuggestResourceV1Test {
+
+    @MockBean
+    private SuggestService suggestService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+
+    @Test
+    @DisplayName("Resource for detecting suggestions => successful")
+    @WithMockUser
+    void detectSuggestions1() {
+        try {
+            // Setup
+            final String prefix = "mar";
+            final List<SuggestionDto> suggestions = List.of(new SuggestionDto("Märchen", SuggestionType.CATEGORY, 12L),
+                    new SuggestionDto("Mark Twain", SuggestionType.AUTHOR, 3L));
+            // Mocking the services
+            when(suggestService.detectSuggestions(prefix, null)).thenReturn(suggestions);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/suggest")
+                            .param("prefix", prefix)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.[0].value").value(suggestions.get(0).getValue()))
+                    .andExpect(jsonPath("$.[0].type").value(suggestions.get(0).getType().name()))
+                    .andExpect(jsonPath("$.[0].weight").value(suggestions.get(0).getWeight()))
+                    .andExpect(jsonPath("$.[1].value").value(suggestions.get(1).getValue()));
+
+            // Verify
+            verify(suggestService, times(1)).validateRequestParams(prefix, null);
+            verify(suggestService, times(1)).detectSuggestions(prefix, null);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting suggestions => successful - no content")
+    @WithMockUser
+    void detectSuggestions2() {
+        try {
+            // Setup
+            final String prefix = "xyz";
+            final Integer size = 5;
+            // Mocking the services
+            when(suggestService.detectSuggestions(prefix, size)).thenThrow(NoContentException.class);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/suggest")
+                            .param("prefix", prefix)
+                            .param("size", String.valueOf(size))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNoContent());
+
+            // Verify
+            verify(suggestService, times(1)).detectSuggestions(prefix, size);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting suggestions => error - bad request")
+    @WithMockUser
+    void detectSuggestions3() {
+        try {
+            // Setup
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_SUGGEST_PREFIX_EMPTY)).when(suggestService).validateRequestParams(null, null);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/suggest")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_SUGGEST_PREFIX_EMPTY));
+
+            // Verify
+            verify(suggestService, never()).detectSuggestions(any(), any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting suggestions => error - unauthorized")
+    void detectSuggestions4() {
+        try {
+            // Run the test
+            mockMvc.perform(get("/api/v1/suggest")
+                            .param("prefix", "mar")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .with(SecurityMockMvcRequestPostProcessors.anonymous()))
+                    .andExpect(status().isUnauthorized());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package de.schwarz.libraryapp.tag.domain;
+
+import de.schwarz.libraryapp.tag.domain.dto.TagFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Evaluation of tag filters by the tag index, window by window of book ids.
+ */
+class TagIndexTest {
+
+    // Bounds of the first windows, the first window spans 1 << 18 ids, each further window twice as many
+    private static final long FIRST_END = 1L << 18;
+    private static final long SECOND_END = FIRST_END + (1L << 19);
+    private static final long FAR = 1L << 30;
+
+    private static final long CLASSIC = 1L;
+    private static final long RUSSIAN = 2L;
+    private static final long GERMAN = 3L;
+    private static final long OUT_OF_PRINT = 4L;
+
+    private TagIndex index;
+
+
+    @BeforeEach
+    void setup() {
+        index = new TagIndex();
+        index.putTag(CLASSIC, "Classic");
+        index.putTag(RUSSIAN, "russian");
+        index.putTag(GERMAN, "german");
+        index.putTag(OUT_OF_PRINT, "out of print");
+        // Books on both sides of the window bounds
+        tag(CLASSIC, 1, FIRST_END - 1, FIRST_END, SECOND_END - 1, SECOND_END, FAR);
+        tag(RUSSIAN, 1, FIRST_END, SECOND_END, FAR);
+        tag(GERMAN, FIRST_END - 1, SECOND_END - 1, FAR + 1);
+        tag(OUT_OF_PRINT, FIRST_END, FAR);
+    }
+
+    @Test
+    @DisplayName("Finding books with all tags => intersection across window bounds, names normalized")
+    void find1() {
+        // Run the test
+        final List<Long> bookIds = index.find(new TagFilter(List.of(" CLASSIC", "Russian"), null, null), 0, 10);
+
+        // Verify
+        assertEquals(List.of(1L, FIRST_END, SECOND_END, FAR), bookIds);
+    }
+
+    @Test
+    @DisplayName("Finding books with any tag => union across window bounds, ordered ascending")
+    void find2() {
+        // Run the test
+        final List<Long> bookIds = index.find(new TagFilter(null, List.of("russian", "german"), null), 0, 10);
+
+        // Verify
+        assertEquals(List.of(1L, FIRST_END - 1, FIRST_END, SECOND_END - 1, SECOND_END, FAR, FAR + 1), bookIds);
+    }
+
+    @Test
+    @DisplayName("Finding books with all, any and none of tags => books of excluded tags removed")
+    void find3() {
+        // Run the test
+        final List<Long> bookIds = index.find(new TagFilter(List.of("classic"), List.of("russian", "german"), List.of("out of print")), 0, 10);
+
+        // Verify
+        assertEquals(List.of(1L, FIRST_END - 1, SECOND_END - 1, SECOND_END), bookIds);
+    }
+
+    @Test
+    @DisplayName("Finding books page by page => each page continues after the given id, no book twice or skipped")
+    void find4() {
+        // Setup
+        final TagFilter filter = new TagFilter(List.of("classic"), null, null);
+        final List<Long> bookIds = new ArrayList<>();
+
+        // Run the test
+        long afterId = 0;
+        List<Long> page;
+        while (!(page = index.find(filter, afterId, 2)).isEmpty()) {
+            assertTrue(page.size() <= 2);
+            bookIds.addAll(page);
+            afterId = page.get(page.size() - 1);
+        }
+
+        // Verify
+        assertEquals(List.of(1L, FIRST_END - 1, FIRST_END, SECOND_END - 1, SECOND_END, FAR), bookIds);
+        assertEquals(List.of(FAR), index.find(filter, SECOND_END, 10));
+        assertEquals(List.of(), index.find(filter, FAR, 10));
+    }
+
+    @Test
+    @DisplayName("Finding books only matching after many empty windows => found, empty windows skipped")
+    void find5() {
+        // Run the test
+        final List<Long> bookIds = index.find(new TagFilter(List.of("german"), null, List.of("classic")), 0, 10);
+
+        // Verify
+        assertEquals(List.of(FAR + 1), bookIds);
+    }
+
+    @Test
+    @DisplayName("Finding books of unknown tags => unknown required tag matches none, unknown optional or excluded tags ignored")
+    void find6() {
+        // Run the test and verify
+        assertEquals(List.of(), index.find(new TagFilter(List.of("classic", "unknown"), null, null), 0, 10));
+        assertEquals(List.of(), index.find(new TagFilter(null, List.of("unknown"), null), 0, 10));
+        assertEquals(List.of(FIRST_END - 1, SECOND_END - 1, FAR + 1), index.find(new TagFilter(null, List.of("german", "unknown"), List.of("unknown")), 0, 10));
+    }
+
+    @Test
+    @DisplayName("Finding books of a removed book or tag => no longer found")
+    void find7() {
+        // Run the test
+        index.removeBook(FIRST_END);
+        index.removeTag(OUT_OF_PRINT);
+
+        // Verify
+        assertEquals(List.of(1L, SECOND_END, FAR), index.find(new TagFilter(List.of("classic", "russian"), null, null), 0, 10));
+        assertEquals(List.of(), index.find(new TagFilter(List.of("out of print"), null, null), 0, 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Finding books of random tags page by page => same as evaluating the filter on sets")
+    void find8() {
+        // Setup
+        final Random random = new Random(42);
+        final TagIndex randomIndex = new TagIndex();
+        final List<Set<Long>> books = new ArrayList<>();
+        for (int tagId = 0; tagId < 4; tagId++) {
+            randomIndex.putTag(tagId, "tag" + tagId);
+            final Set<Long> tagged = new HashSet<>();
+            for (int i = 0; i < 3_000; i++) {
+                // Dense and sparse ids, so windows with and without matches alternate
+                final long bookId = random.nextBoolean() ? 1 + random.nextInt(1 << 20) : 1 + (random.nextLong() & ((1L << 34) - 1));
+                tagged.add(bookId);
+                randomIndex.add(new BookTag(bookId, tagId));
+            }
+            books.add(tagged);
+        }
+        final TagFilter filter = new TagFilter(List.of("tag0"), List.of("tag1", "tag2"), List.of("tag3"));
+        final TreeSet<Long> expected = new TreeSet<>(books.get(0));
+        expected.removeIf(bookId -> !books.get(1).contains(bookId) && !books.get(2).contains(bookId));
+        expected.removeAll(books.get(3));
+
+        // Run the test
+        final List<Long> bookIds = new ArrayList<>();
+        long afterId = 0;
+        List<Long> page;
+        while (!(page = randomIndex.find(filter, afterId, 100)).isEmpty()) {
+            bookIds.addAll(page);
+            afterId = page.get(page.size() - 1);
+        }
+
+        // Verify
+        assertFalse(expected.isEmpty());
+        assertEquals(List.copyOf(expected), bookIds);
+    }
+
+    private void tag(long tagId, long... bookIds) {
+        for (long bookId : bookIds) {
+            index.add(new BookTag(bookId, tagId));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package de.schwarz.libraryapp.tag.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.schwarz.libraryapp.WithMockUser;
+import de.schwarz.libraryapp.exception.NoContentException;
+import de.schwarz.libraryapp.tag.domain.dto.BookTagsRequest;
+import de.schwarz.libraryapp.tag.domain.dto.TagDto;
+import de.schwarz.libraryapp.tag.service.TagService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static de.schwarz.libraryapp.tag.service.TagService.ERROR_TAG_ID_EMPTY;
+import static de.schwarz.libraryapp.tag.service.TagService.ERROR_TAG_REQUEST_TAGS_EMPTY;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles(value = "dev")
+class TagResourceV1Test {
+
+    @MockBean
+    private TagService tagService;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+
+    @Test
+    @DisplayName("Resource for detecting all tags => successful")
+    @WithMockUser
+    void detectAllTags1() {
+        try {
+            // Setup
+            final List<TagDto> tags = List.of(new TagDto(1L, "award-winner", 12L), new TagDto(2L, "large-print", 3L));
+            // Mocking the services
+            when(tagService.detectAllTags()).thenReturn(tags);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/tags")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.[0].tagId").value(tags.get(0).getTagId()))
+                    .andExpect(jsonPath("$.[0].name").value(tags.get(0).getName()))
+                    .andExpect(jsonPath("$.[0].booksCount").value(tags.get(0).getBooksCount()))
+                    .andExpect(jsonPath("$.[1].name").value(tags.get(1).getName()));
+
+            // Verify
+            verify(tagService, times(1)).detectAllTags();
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting all tags => successful - no content")
+    @WithMockUser
+    void detectAllTags2() {
+        try {
+            // Mocking the services
+            when(tagService.detectAllTags()).thenThrow(NoContentException.class);
+
+            // Run the test
+            mockMvc.perform(get("/api/v1/tags")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNoContent());
+
+            // Verify
+            verify(tagService, times(1)).detectAllTags();
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for detecting all tags => error - unauthorized")
+    void detectAllTags3() {
+        try {
+            // Run the test
+            mockMvc.perform(get("/api/v1/tags")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .with(SecurityMockMvcRequestPostProcessors.anonymous()))
+                    .andExpect(status().isUnauthorized());
+
+            // Verify
+            verify(tagService, never()).detectAllTags();
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for adding book tags => successful")
+    @WithMockUser
+    void addBookTags1() {
+        try {
+            // Setup
+            final BookTagsRequest request = createBookTagsRequest(List.of(1L, 2L), List.of("award-winner"));
+            // Mocking the services
+            doNothing().when(tagService).validateRequestParams(request);
+            when(tagService.addBookTags(request)).thenReturn(2);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/books/tags")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("2"));
+
+            // Verify
+            verify(tagService, times(1)).validateRequestParams(request);
+            verify(tagService, times(1)).addBookTags(request);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for adding book tags => error - bad request")
+    @WithMockUser
+    void addBookTags2() {
+        try {
+            // Setup
+            final BookTagsRequest request = createBookTagsRequest(List.of(1L), List.of());
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_TAG_REQUEST_TAGS_EMPTY)).when(tagService).validateRequestParams(request);
+
+            // Run the test
+            mockMvc.perform(post("/api/v1/books/tags")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_TAG_REQUEST_TAGS_EMPTY));
+
+            // Verify
+            verify(tagService, never()).addBookTags(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for removing book tags => successful")
+    @WithMockUser
+    void removeBookTags1() {
+        try {
+            // Setup
+            final BookTagsRequest request = createBookTagsRequest(List.of(1L), List.of("large-print"));
+            // Mocking the services
+            doNothing().when(tagService).validateRequestParams(request);
+            when(tagService.removeBookTags(request)).thenReturn(1);
+
+            // Run the test
+            mockMvc.perform(delete("/api/v1/books/tags")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("1"));
+
+            // Verify
+            verify(tagService, times(1)).validateRequestParams(request);
+            verify(tagService, times(1)).removeBookTags(request);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for removing a tag => successful")
+    @WithMockUser
+    void removeTag1() {
+        try {
+            // Setup
+            final Long tagId = 1L;
+            // Mocking the services
+            doNothing().when(tagService).validateRequestParamTagId(tagId);
+            when(tagService.removeTag(tagId)).thenReturn(1);
+
+            // Run the test
+            mockMvc.perform(delete("/api/v1/tag/id")
+                            .param("tagId", String.valueOf(tagId))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+
+            // Verify
+            verify(tagService, times(1)).validateRequestParamTagId(tagId);
+            verify(tagService, times(1)).removeTag(tagId);
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    @Test
+    @DisplayName("Resource for removing a tag => error - bad request")
+    @WithMockUser
+    void removeTag2() {
+        try {
+            // Setup
+            final Long tagId = null;
+            // Mocking the services
+            doThrow(new IllegalArgumentException(ERROR_TAG_ID_EMPTY)).when(tagService).validateRequestParamTagId(tagId);
+
+            // Run the test
+            mockMvc.perform(delete("/api/v1/tag/id")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(ERROR_TAG_ID_EMPTY));
+
+            // Verify
+            verify(tagService, never()).removeTag(any());
+        } catch (Exception e) {
+            fail("Test failed because of => \nStacktrace: ", e);
+        }
+    }
+
+    private BookTagsRequest createBookTagsRequest(List<Long> bookIds, List<String> tags) {
+        BookTagsRequest request = new BookTagsRequest();
+        request.setBookIds(bookIds);
+        request.setTags(tags);
+
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package de.schwarz.libraryapp.tag.service;
+
+import de.schwarz.libraryapp.job.service.JobService;
+import de.schwarz.libraryapp.tag.domain.TagRepository;
+import de.schwarz.libraryapp.tag.domain.event.TagChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static de.schwarz.libraryapp.tag.service.TagService.JOB_TYPE_TAG_INDEX_REBUILD;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Retries the rebuild of the tag index rejected by the job queue, the job service is mocked.
+ */
+class TagServiceTest {
+
+    private JobService jobService;
+    private TagService tagService;
+
+
+    @BeforeEach
+    void setup() {
+        jobService = mock(JobService.class);
+        tagService = new TagService(mock(TagRepository.class), jobService, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry());
+        tagService.init();
+    }
+
+    @Test
+    @DisplayName("Service for a tag change after the rebuild at startup was rejected => rebuild submitted again, once")
+    void onTagChanged1() {
+        // Setup
+        when(jobService.submitJob(eq(JOB_TYPE_TAG_INDEX_REBUILD), any()))
+                .thenThrow(new TaskRejectedException("queue full"))
+                .thenReturn(null);
+        tagService.onApplicationReady();
+
+        // Run the test
+        tagService.onTagChanged(TagChangedEvent.removed(1L));
+        tagService.onTagChanged(TagChangedEvent.removed(2L));
+
+        // Verify
+        verify(jobService, times(2)).submitJob(eq(JOB_TYPE_TAG_INDEX_REBUILD), any());
+    }
+
+    @Test
+    @DisplayName("Service for the scheduled retry after the rebuild at startup was submitted => no rebuild submitted again")
+    void retryRebuild1() {
+        // Setup
+        tagService.onApplicationReady();
+
+        // Run the test
+        tagService.retryRebuild();
+        tagService.onTagChanged(TagChangedEvent.removed(1L));
+
+        // Verify
+        verify(jobService, times(1)).submitJob(eq(JOB_TYPE_TAG_INDEX_REBUILD), any());
+    }
+
+    @Test
+    @DisplayName("Service for the scheduled retry after the rebuild at startup was rejected => rebuild submitted again")
+    void retryRebuild2() {
+        // Setup
+        when(jobService.submitJob(eq(JOB_TYPE_TAG_INDEX_REBUILD), any()))
+                .thenThrow(new TaskRejectedException("queue full"))
+                .thenReturn(null);
+        tagService.onApplicationReady();
+
+        // Run the test
+        tagService.retryRebuild();
+        tagService.retryRebuild();
+
+        // Verify
+        verify(jobService, times(2)).submitJob(eq(JOB_TYPE_TAG_INDEX_REBUILD), any());
+    }
+}